@@ -0,0 +1,55 @@
+package de.tudl.playground.datorum.benchmark;
+
+import de.tudl.playground.datorum.benchmark.QueryBenchmarkFixtures.PointQuery;
+import de.tudl.playground.datorum.gateway.query.QueryHandler;
+import de.tudl.playground.datorum.gateway.query.resolver.DefaultHandlerResolver;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of {@link DefaultHandlerResolver#resolveHandlers}, which the query gateway runs once per query type to
+ * fill its dispatch table.
+ * <p>
+ * The cost grows with the number of registered handlers, as every handler is matched against the query type. It is
+ * paid by the first query of every type, so it bounds the latency of queries right after startup.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class HandlerResolverBenchmark {
+
+    @Param({"1", "10", "1000", "1000000"})
+    private int handlerCount;
+
+    private DefaultHandlerResolver handlerResolver;
+    private Collection<QueryHandler<?, ?>> handlers;
+
+    @Setup
+    public void setUp() {
+        handlerResolver = new DefaultHandlerResolver();
+        handlers = QueryBenchmarkFixtures.handlers(handlerCount).values().stream()
+                .<QueryHandler<?, ?>>map(handler -> handler)
+                .toList();
+    }
+
+    @Benchmark
+    public List<QueryHandler<Object, Object>> resolveHandlers() {
+        return handlerResolver.resolveHandlers(PointQuery.class, handlers);
+    }
+}
@@ -0,0 +1,88 @@
+package de.tudl.playground.datorum.benchmark;
+
+import de.tudl.playground.datorum.modulith.shared.password.PasswordHashingService;
+import de.tudl.playground.datorum.modulith.shared.util.HashingUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the password hashing paths, used to plan the login capacity.
+ * <p>
+ * Compares the legacy SHA-256 hash of {@link HashingUtil} with PBKDF2 at different costs, both on the calling thread
+ * and through the bounded pool of the {@link PasswordHashingService}. The pooled benchmark runs with one benchmark
+ * thread per core, so its throughput approximates the number of logins per second the pool sustains.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PasswordHashingBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    @Param({"10000", "210000"})
+    private int iterations;
+
+    private String salt;
+    private String legacyHash;
+    private String pbkdf2Hash;
+    private PasswordHashingService passwordHashingService;
+
+    @Setup
+    public void setUp() {
+        salt = UUID.randomUUID().toString() + UUID.randomUUID();
+        legacyHash = HashingUtil.hashPassword(PASSWORD, salt);
+        pbkdf2Hash = PasswordHashingService.pbkdf2(PASSWORD, salt, iterations);
+        passwordHashingService = new PasswordHashingService(0, 1024, iterations, new SimpleMeterRegistry());
+    }
+
+    @TearDown
+    public void tearDown() {
+        passwordHashingService.stop();
+    }
+
+    @Benchmark
+    public String legacyHash() {
+        return HashingUtil.hashPassword(PASSWORD, salt);
+    }
+
+    @Benchmark
+    public String pbkdf2Hash() {
+        return PasswordHashingService.pbkdf2(PASSWORD, salt, iterations);
+    }
+
+    @Benchmark
+    public boolean legacyVerify() {
+        return PasswordHashingService.matches(PASSWORD, legacyHash, salt);
+    }
+
+    @Benchmark
+    public boolean pbkdf2Verify() {
+        return PasswordHashingService.matches(PASSWORD, pbkdf2Hash, salt);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public boolean pooledVerify() {
+        return passwordHashingService.verify(PASSWORD, pbkdf2Hash, salt).join();
+    }
+}
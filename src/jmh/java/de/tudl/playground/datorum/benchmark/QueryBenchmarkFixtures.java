@@ -0,0 +1,77 @@
+package de.tudl.playground.datorum.benchmark;
+
+import de.tudl.playground.datorum.gateway.query.QueryHandler;
+import de.tudl.playground.datorum.gateway.query.annotation.MergeResults;
+import de.tudl.playground.datorum.gateway.query.merge.MergeStrategy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The queries and handlers shared by the query benchmarks.
+ * <p>
+ * A population of {@code n} handlers mirrors {@code DefaultQueryGatewayPerformanceTests}: {@code n - 1} handlers of
+ * the {@link BaseQuery} and a single handler of the more specific {@link PointQuery}, so resolving the point query has
+ * to match and rank every handler. The {@link FanOutQuery} is added on top with {@value #FAN_OUT_HANDLERS} handlers of
+ * its own.
+ * </p>
+ */
+final class QueryBenchmarkFixtures {
+
+    static final int FAN_OUT_HANDLERS = 4;
+
+    private QueryBenchmarkFixtures() {
+    }
+
+    /**
+     * Returns the handlers of a population of the given size, as the application context would.
+     */
+    static Map<String, QueryHandler> handlers(int count) {
+        Map<String, QueryHandler> handlers = new HashMap<>(count + FAN_OUT_HANDLERS);
+        for (int i = 0; i < count - 1; i++) {
+            handlers.put("baseQueryHandler" + i, new BaseQueryHandler());
+        }
+        handlers.put("pointQueryHandler", new PointQueryHandler());
+        for (int i = 0; i < FAN_OUT_HANDLERS; i++) {
+            handlers.put("fanOutQueryHandler" + i, new FanOutQueryHandler(i));
+        }
+        return handlers;
+    }
+
+    static class BaseQuery {
+    }
+
+    static class PointQuery extends BaseQuery {
+    }
+
+    @MergeResults(MergeStrategy.MERGE_ALL)
+    static class FanOutQuery {
+    }
+
+    static class BaseQueryHandler implements QueryHandler<BaseQuery, String> {
+        @Override
+        public Optional<String> handle(BaseQuery query) {
+            return Optional.of("base");
+        }
+    }
+
+    static class PointQueryHandler implements QueryHandler<PointQuery, String> {
+        @Override
+        public Optional<String> handle(PointQuery query) {
+            return Optional.of("point");
+        }
+    }
+
+    static class FanOutQueryHandler implements QueryHandler<FanOutQuery, Integer> {
+        private final Optional<Integer> result;
+
+        FanOutQueryHandler(int index) {
+            this.result = Optional.of(index);
+        }
+
+        @Override
+        public Optional<Integer> handle(FanOutQuery query) {
+            return result;
+        }
+    }
+}
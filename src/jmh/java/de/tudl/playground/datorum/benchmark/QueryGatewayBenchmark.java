@@ -0,0 +1,153 @@
+package de.tudl.playground.datorum.benchmark;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import de.tudl.playground.datorum.benchmark.QueryBenchmarkFixtures.FanOutQuery;
+import de.tudl.playground.datorum.benchmark.QueryBenchmarkFixtures.PointQuery;
+import de.tudl.playground.datorum.gateway.helpers.TestUtils;
+import de.tudl.playground.datorum.gateway.query.DefaultQueryGateway;
+import de.tudl.playground.datorum.gateway.query.QueryHandler;
+import de.tudl.playground.datorum.gateway.query.batch.QueryBatcher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ApplicationContext;
+
+/**
+ * Benchmarks of dispatching queries through the {@link DefaultQueryGateway}, used to track regressions of the query
+ * path.
+ * <p>
+ * Every benchmark runs against a population of registered handlers, see {@link QueryBenchmarkFixtures}. Warm queries
+ * are answered from the dispatch table, so their cost should not depend on the number of handlers. The first query of
+ * a type resolves its handlers and is measured separately on a fresh gateway. Multi-handler queries are measured both
+ * in order on the calling thread and fanned out to the {@code queryExecutor}, and single-handler queries once more with
+ * one benchmark thread per core contending for the gateway.
+ * </p>
+ * <p>
+ * The {@code benchmark} profile runs the benchmarks with the GC profiler, which reports the allocation rate and the
+ * bytes allocated per query next to the timings.
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class QueryGatewayBenchmark {
+
+    @Param({"1", "10", "1000", "1000000"})
+    private int handlerCount;
+
+    private Map<String, QueryHandler> handlers;
+    private SimpleMeterRegistry meterRegistry;
+    private QueryBatcher queryBatcher;
+    private ExecutorService queryExecutor;
+    private DefaultQueryGateway queryGateway;
+
+    @Setup
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        queryExecutor = Executors.newFixedThreadPool(QueryBenchmarkFixtures.FAN_OUT_HANDLERS);
+        queryBatcher = new QueryBatcher(2, 100, meterRegistry);
+        handlers = QueryBenchmarkFixtures.handlers(handlerCount);
+        queryGateway = createGateway();
+    }
+
+    @TearDown
+    public void tearDown() {
+        queryBatcher.stop();
+        queryExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public Optional<String> query(Caller caller) {
+        return queryGateway.query(caller.pointQuery);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 20)
+    public Optional<String> firstQuery(ColdGateway coldGateway, Caller caller) {
+        return coldGateway.queryGateway.query(caller.pointQuery);
+    }
+
+    @Benchmark
+    public Optional<List<Integer>> fanOut(Caller caller) {
+        return queryGateway.query(caller.fanOutQuery);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Optional<List<Integer>> fanOutAsync(Caller caller) {
+        return queryGateway.<FanOutQuery, List<Integer>>queryAsync(caller.fanOutQuery).join();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Optional<String> contendedQuery(Caller caller) {
+        return queryGateway.query(caller.pointQuery);
+    }
+
+    /**
+     * Creates a gateway with an empty dispatch table. The handlers are stubbed only after the gateway has been created,
+     * so it does not log every one of them.
+     */
+    private DefaultQueryGateway createGateway() {
+        ApplicationContext applicationContext = mock(ApplicationContext.class, withSettings().stubOnly());
+        DefaultQueryGateway gateway = TestUtils.queryGateway(applicationContext)
+                .queryExecutor(queryExecutor)
+                .meterRegistry(meterRegistry)
+                .queryBatcher(queryBatcher)
+                .build();
+        when(applicationContext.getBeansOfType(QueryHandler.class)).thenReturn(handlers);
+        return gateway;
+    }
+
+    /**
+     * The queries of a benchmark thread. Every thread sends its own queries, so concurrent queries of different
+     * threads are not coalesced into one execution.
+     */
+    @State(Scope.Thread)
+    public static class Caller {
+        private final PointQuery pointQuery = new PointQuery();
+        private final FanOutQuery fanOutQuery = new FanOutQuery();
+    }
+
+    /**
+     * A gateway whose dispatch table is empty, recreated for every invocation.
+     */
+    @State(Scope.Thread)
+    public static class ColdGateway {
+        private DefaultQueryGateway queryGateway;
+
+        @Setup(Level.Invocation)
+        public void setUp(QueryGatewayBenchmark benchmark) {
+            queryGateway = benchmark.createGateway();
+        }
+    }
+}
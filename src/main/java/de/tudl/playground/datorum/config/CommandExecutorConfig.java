@@ -0,0 +1,69 @@
+package de.tudl.playground.datorum.config;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Provides the executor on which asynchronously sent commands are handled.
+ * <p>
+ * With {@code datorum.command.executor.mode=virtual} (the default), every command runs on its own virtual thread,
+ * so I/O-bound handlers do not tie up a platform thread while they wait for the database. Virtual threads are
+ * looked up at runtime; on a runtime without them the executor falls back to a fixed pool of platform threads
+ * with {@code datorum.command.executor.pool-size} threads, which is also used with
+ * {@code datorum.command.executor.mode=platform}.
+ * </p>
+ */
+@Slf4j
+@Configuration
+public class CommandExecutorConfig {
+
+    @Bean(name = "commandExecutor", destroyMethod = "shutdown")
+    public ExecutorService commandExecutor(
+            @Value("${datorum.command.executor.mode:virtual}") String mode,
+            @Value("${datorum.command.executor.pool-size:0}") int poolSize
+    ) {
+        if ("virtual".equalsIgnoreCase(mode)) {
+            ExecutorService virtualThreadExecutor = newVirtualThreadPerTaskExecutor();
+            if (virtualThreadExecutor != null) {
+                return virtualThreadExecutor;
+            }
+            log.info("Virtual threads are not available on this runtime, handling commands on platform threads");
+        }
+
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        return Executors.newFixedThreadPool(threads, new CommandThreadFactory());
+    }
+
+    /**
+     * Creates an executor starting a virtual thread per task.
+     *
+     * @return the executor, or {@code null} if the runtime does not support virtual threads.
+     */
+    static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    private static final class CommandThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "command-executor-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package de.tudl.playground.datorum.config;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Provides the executor on which asynchronous queries and the handlers of fan-out queries run.
+ * <p>
+ * Like the command executor (see {@link CommandExecutorConfig}), it starts a virtual thread per query handler with
+ * {@code datorum.query.executor.mode=virtual} (the default) if the runtime supports them, and otherwise uses a fixed
+ * pool of {@code datorum.query.executor.pool-size} platform threads.
+ * </p>
+ */
+@Slf4j
+@Configuration
+public class QueryExecutorConfig {
+
+    @Bean(name = "queryExecutor", destroyMethod = "shutdown")
+    public ExecutorService queryExecutor(
+            @Value("${datorum.query.executor.mode:virtual}") String mode,
+            @Value("${datorum.query.executor.pool-size:0}") int poolSize
+    ) {
+        if ("virtual".equalsIgnoreCase(mode)) {
+            ExecutorService virtualThreadExecutor = CommandExecutorConfig.newVirtualThreadPerTaskExecutor();
+            if (virtualThreadExecutor != null) {
+                return virtualThreadExecutor;
+            }
+            log.info("Virtual threads are not available on this runtime, handling queries on platform threads");
+        }
+
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        return Executors.newFixedThreadPool(threads, new QueryThreadFactory());
+    }
+
+    private static final class QueryThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "query-executor-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -1,5 +1,11 @@
 package de.tudl.playground.datorum.gateway.command;
 
+import de.tudl.playground.datorum.gateway.command.lane.PriorityClass;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
 /**
  * The {@code CommandGateway} interface defines a contract for sending commands in the application.
  * <p>
@@ -24,4 +30,74 @@ public interface CommandGateway {
      * @param command the command to be sent and processed.
      */
     void send(Object command);
+
+    /**
+     * Sends a command for asynchronous processing.
+     * <p>
+     * The command is handled on the command executor instead of the caller's thread, so the caller never blocks
+     * on the handler. The returned future completes with the {@link CommandOutcome} once the handler has finished,
+     * or exceptionally with the error raised by the handler.
+     * </p>
+     *
+     * @param command the command to be sent and processed.
+     * @return a future completing with the outcome of the command.
+     */
+    CompletableFuture<CommandOutcome> sendAsync(Object command);
+
+    /**
+     * Sends a command for asynchronous processing with the given priority class.
+     * <p>
+     * Behaves like {@link #sendAsync(Object)}, but overrides the priority class declared by the command's type.
+     * </p>
+     *
+     * @param command  the command to be sent and processed.
+     * @param priority the priority class of the command.
+     * @return a future completing with the outcome of the command.
+     */
+    CompletableFuture<CommandOutcome> sendAsync(Object command, PriorityClass priority);
+
+    /**
+     * Sends a command for asynchronous processing and answers the caller with the handler's typed result.
+     * <p>
+     * Where {@link #sendAsync(Object)} reports errors by completing the future exceptionally, the future returned by
+     * this method always completes normally: failures are reported as {@link CommandOutcome.Status#FAILED} results,
+     * and a command whose handler did not finish within the timeout as {@link CommandOutcome.Status#TIMED_OUT}.
+     * Timing out only ends the wait of the caller, the command itself is not cancelled.
+     * </p>
+     *
+     * @param command the command to be sent and processed.
+     * @param timeout the maximum time to wait for the result.
+     * @param <R>     the type of the result produced by the command handler.
+     * @return a future completing with the result of the command.
+     */
+    <R> CompletableFuture<CommandResult<R>> request(ResultCommand<R> command, Duration timeout);
+
+    /**
+     * Sends a bulk of commands for processing and waits until all of them have been handled.
+     * <p>
+     * The commands are grouped by the aggregate they target. The groups are processed in parallel, while the commands
+     * of one group are processed in the given order. Work common to the commands, such as loading the affected
+     * aggregates and storing the resulting events, is done once for the whole bulk.
+     * </p>
+     * <p>
+     * A failing command does not abort the others; its error is reported in its outcome.
+     * </p>
+     *
+     * @param commands the commands to be sent and processed.
+     * @return the outcomes of the commands, in the order of the given collection.
+     */
+    List<CommandOutcome> sendAll(Collection<?> commands);
+
+    /**
+     * Sends a bulk of commands with the given priority class and waits until all of them have been handled.
+     * <p>
+     * Behaves like {@link #sendAll(Collection)}; imports and background jobs typically send their commands with
+     * {@link PriorityClass#BULK}, so they do not hold up interactive commands.
+     * </p>
+     *
+     * @param commands the commands to be sent and processed.
+     * @param priority the priority class of the commands, or {@code null} to use the class declared by each type.
+     * @return the outcomes of the commands, in the order of the given collection.
+     */
+    List<CommandOutcome> sendAll(Collection<?> commands, PriorityClass priority);
 }
@@ -0,0 +1,117 @@
+package de.tudl.playground.datorum.gateway.command;
+
+import de.tudl.playground.datorum.gateway.command.annotation.CommandHandler;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * The {@code CommandHandlerRegistry} is the dispatch table of the command bus.
+ * <p>
+ * While the application context starts, every bean is inspected for methods annotated with {@link CommandHandler}.
+ * Each handler method is compiled into a {@link MethodHandle} bound to its bean and registered under the type of
+ * its single parameter. Dispatching a command is therefore a single map lookup followed by a direct invocation,
+ * without resolving listeners or matching types per command.
+ * </p>
+ *
+ * <h2>Rules</h2>
+ * <ul>
+ *     <li>A handler method declares exactly one parameter, the command type. Its return value, if any, becomes the
+ *         result of the command.</li>
+ *     <li>The handler of a {@link ResultCommand} returns the result type declared by the command.</li>
+ *     <li>Every command type has at most one handler. Handlers are looked up by the exact class of the command.</li>
+ * </ul>
+ * Violations are reported with an {@link IllegalStateException} at startup.
+ *
+ * <h2>Thread Safety</h2>
+ * This class is thread-safe. Handlers are registered during startup and only read afterwards.
+ */
+@Slf4j
+@Component
+public class CommandHandlerRegistry implements BeanPostProcessor {
+
+    private final Map<Class<?>, MethodHandle> handlers = new ConcurrentHashMap<>();
+
+    /**
+     * Registers the {@link CommandHandler} methods of a bean once it has been initialized.
+     *
+     * @param bean     the initialized bean.
+     * @param beanName the name of the bean.
+     * @return the unchanged bean.
+     */
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        ReflectionUtils.doWithMethods(
+                ClassUtils.getUserClass(bean),
+                method -> register(bean, method),
+                method -> AnnotationUtils.findAnnotation(method, CommandHandler.class) != null
+        );
+        return bean;
+    }
+
+    /**
+     * Registers a handler method for the type of its parameter.
+     *
+     * @param bean   the bean declaring the handler method.
+     * @param method the handler method.
+     * @throws IllegalStateException if the method is not a valid handler or the command type already has one.
+     */
+    public void register(Object bean, Method method) {
+        if (method.getParameterCount() != 1) {
+            throw new IllegalStateException("Command handler " + method + " must declare exactly one parameter");
+        }
+
+        Class<?> commandType = method.getParameterTypes()[0];
+        verifyResultType(commandType, method);
+        MethodHandle handle = toMethodHandle(bean, method);
+        if (handlers.putIfAbsent(commandType, handle) != null) {
+            throw new IllegalStateException("Duplicate command handler for " + commandType.getName() + ": " + method);
+        }
+        log.debug("Registered command handler {} for {}", method, commandType.getName());
+    }
+
+    /**
+     * Returns the handler registered for the given command type.
+     * <p>
+     * The returned handle has the type {@code (Object)Object}; handlers returning {@code void} yield {@code null}.
+     * </p>
+     *
+     * @param commandType the exact class of the command.
+     * @return the handler, or {@link Optional#empty()} if the type has no registered handler.
+     */
+    public Optional<MethodHandle> findHandler(Class<?> commandType) {
+        return Optional.ofNullable(handlers.get(commandType));
+    }
+
+    private static void verifyResultType(Class<?> commandType, Method method) {
+        Class<?> resultType = ResolvableType.forClass(commandType).as(ResultCommand.class).resolveGeneric(0);
+        if (resultType != null && !resultType.isAssignableFrom(ClassUtils.resolvePrimitiveIfNecessary(method.getReturnType()))) {
+            throw new IllegalStateException(
+                    "Command handler " + method + " must return " + resultType.getName() + " for " + commandType.getName()
+            );
+        }
+    }
+
+    private static MethodHandle toMethodHandle(Object bean, Method method) {
+        try {
+            ReflectionUtils.makeAccessible(method);
+            return MethodHandles.lookup()
+                    .unreflect(method)
+                    .bindTo(bean)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Command handler " + method + " is not accessible", e);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package de.tudl.playground.datorum.gateway.command;
+
+/**
+ * The {@code CommandOutcome} record describes how the execution of a command ended.
+ *
+ * @param status the final status of the command.
+ * @param result the value produced by the command handler, or {@code null} if it produced none.
+ * @param error  the error message if the command failed, otherwise {@code null}.
+ */
+public record CommandOutcome(Status status, Object result, String error) {
+
+    /**
+     * The final status of a command.
+     */
+    public enum Status {
+        /** The command handler completed normally. */
+        COMPLETED,
+        /** The command handler raised an error. */
+        FAILED,
+        /** The command was dropped because a command with the same idempotency key is still running. */
+        DUPLICATE,
+        /**
+         * The caller stopped waiting before the command handler finished. Only reported by
+         * {@link CommandGateway#request(ResultCommand, java.time.Duration)}; the command may still complete.
+         */
+        TIMED_OUT
+    }
+
+    /**
+     * Creates the outcome of a command that completed normally.
+     *
+     * @param result the value produced by the command handler, may be {@code null}.
+     * @return a {@link Status#COMPLETED} outcome.
+     */
+    public static CommandOutcome completed(Object result) {
+        return new CommandOutcome(Status.COMPLETED, result, null);
+    }
+
+    /**
+     * Creates the outcome of a command that failed.
+     *
+     * @param error the error raised by the command handler.
+     * @return a {@link Status#FAILED} outcome.
+     */
+    public static CommandOutcome failed(Throwable error) {
+        return new CommandOutcome(Status.FAILED, null, String.valueOf(error.getMessage()));
+    }
+
+    /**
+     * Creates the outcome of a command that was dropped while a command with the same idempotency key is running.
+     *
+     * @return a {@link Status#DUPLICATE} outcome.
+     */
+    public static CommandOutcome duplicate() {
+        return new CommandOutcome(Status.DUPLICATE, null, null);
+    }
+
+    /**
+     * Returns whether the command completed normally.
+     *
+     * @return {@code true} if the status is {@link Status#COMPLETED}.
+     */
+    public boolean isCompleted() {
+        return status == Status.COMPLETED;
+    }
+}
@@ -0,0 +1,49 @@
+package de.tudl.playground.datorum.gateway.command;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The {@code CommandResult} record is the typed answer to a {@link ResultCommand}.
+ * <p>
+ * Unlike {@link CommandOutcome}, whose result is untyped, a {@code CommandResult} carries the value returned by the
+ * command handler as the type declared by the command. Errors are reported in the result instead of completing the
+ * caller's future exceptionally, so callers handle success, failure and timeouts in one place.
+ * </p>
+ *
+ * @param status the final status of the command, as seen by the caller.
+ * @param value  the value returned by the command handler, or {@code null} if the command did not complete.
+ * @param error  the error message if the command failed or timed out, otherwise {@code null}.
+ * @param <R>    the type of the result produced by the command handler.
+ */
+public record CommandResult<R>(CommandOutcome.Status status, R value, String error) {
+
+    /**
+     * Creates the result of a command from its outcome or the error that ended the wait for it.
+     *
+     * @param outcome the outcome of the command, or {@code null} if the wait ended with an error.
+     * @param error   the error that ended the wait, or {@code null} if the command has an outcome.
+     * @param <R>     the type of the result produced by the command handler.
+     * @return the result of the command.
+     */
+    @SuppressWarnings("unchecked")
+    static <R> CommandResult<R> of(CommandOutcome outcome, Throwable error) {
+        if (error != null) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof TimeoutException) {
+                return new CommandResult<>(CommandOutcome.Status.TIMED_OUT, null, "No result within the timeout");
+            }
+            return new CommandResult<>(CommandOutcome.Status.FAILED, null, String.valueOf(cause.getMessage()));
+        }
+        return new CommandResult<>(outcome.status(), (R) outcome.result(), outcome.error());
+    }
+
+    /**
+     * Returns whether the command completed normally.
+     *
+     * @return {@code true} if the status is {@link CommandOutcome.Status#COMPLETED}.
+     */
+    public boolean isCompleted() {
+        return status == CommandOutcome.Status.COMPLETED;
+    }
+}
@@ -0,0 +1,33 @@
+package de.tudl.playground.datorum.gateway.command;
+
+import java.time.Instant;
+
+/**
+ * The {@code CommandScheduler} interface defines a contract for sending commands at a later point in time.
+ * <p>
+ * Scheduled commands are persisted, so they survive restarts of the application. Once due, they are sent through the
+ * {@link CommandGateway}. Delivery is at-least-once: a command whose outcome could not be recorded before a crash is
+ * sent again, so scheduled commands should be idempotent (see {@link IdempotentCommand}).
+ * </p>
+ */
+public interface CommandScheduler {
+    /**
+     * Schedules a command to be sent at the given point in time.
+     * <p>
+     * A due time in the past sends the command as soon as possible. The command must be serializable to JSON.
+     * </p>
+     *
+     * @param command the command to be sent.
+     * @param dueTime the point in time at which the command is due.
+     * @return the ID of the schedule, which can be used to cancel it.
+     */
+    long schedule(Object command, Instant dueTime);
+
+    /**
+     * Cancels a scheduled command that has not been sent yet.
+     *
+     * @param scheduleId the ID returned by {@link #schedule(Object, Instant)}.
+     * @return {@code true} if the command was cancelled, {@code false} if it was already sent or is unknown.
+     */
+    boolean cancel(long scheduleId);
+}
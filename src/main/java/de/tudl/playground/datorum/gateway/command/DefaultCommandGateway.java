@@ -1,15 +1,71 @@
 package de.tudl.playground.datorum.gateway.command;
 
+import de.tudl.playground.datorum.gateway.command.admission.Admission;
+import de.tudl.playground.datorum.gateway.command.admission.CommandAdmissionController;
+import de.tudl.playground.datorum.gateway.command.batch.CommandBatch;
+import de.tudl.playground.datorum.gateway.command.batch.CommandBatchSupport;
+import de.tudl.playground.datorum.gateway.command.coalesce.CommandCoalescer;
+import de.tudl.playground.datorum.gateway.command.idempotency.CommandDeduplicationService;
+import de.tudl.playground.datorum.gateway.command.interceptor.CommandInterceptorChain;
+import de.tudl.playground.datorum.gateway.command.lane.CommandLaneExecutor;
+import de.tudl.playground.datorum.gateway.command.lane.PriorityClass;
+import java.lang.invoke.MethodHandle;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 /**
  * The {@code DefaultCommandGateway} is the default implementation of the {@link CommandGateway} interface.
  * <p>
- * This service is responsible for sending commands to the application by publishing them as events in
- * the Spring application context. It acts as a dispatcher that takes a command, logs the event, and
- * then forwards it to the Spring {@link ApplicationEventPublisher} for further processing.
+ * This service is responsible for sending commands to the application. Commands with a handler method annotated
+ * with {@link de.tudl.playground.datorum.gateway.command.annotation.CommandHandler} are invoked directly through
+ * the dispatch table of the {@link CommandHandlerRegistry}. Any other command is published as an event to the
+ * Spring {@link ApplicationEventPublisher}, so event listeners can still react to it.
+ * </p>
+ * <p>
+ * Commands implementing {@link IdempotentCommand} are executed at most once per idempotency key. Duplicates are
+ * answered from the outcome recorded by the {@link CommandDeduplicationService} and never reach a handler.
+ * </p>
+ * <p>
+ * Commands targeting an aggregate (see {@link de.tudl.playground.datorum.gateway.command.annotation.TargetAggregateId})
+ * are executed on the aggregate's lane of the {@link CommandLaneExecutor}, so commands for the same aggregate never
+ * race each other. Other commands run on the caller's thread, or on the {@code commandExecutor} when sent with
+ * {@link #sendAsync(Object)}, which runs every command on a virtual thread when the runtime supports it.
+ * Every command has a {@link PriorityClass}, declared by its type or given when it is sent. Lanes serve the classes
+ * by weighted fair scheduling, so interactive commands are not held up by bulks of commands on the same lanes.
+ * </p>
+ * <p>
+ * Handlers of a {@link ResultCommand} answer the caller of {@link #request(ResultCommand, Duration)} directly with
+ * their return value, so outcomes that only concern the caller need not be broadcast as events.
+ * </p>
+ * <p>
+ * Before a command enters the command path, it is admitted by the {@link CommandAdmissionController}, which bounds
+ * the number of commands in flight and applies the command's overload policy once the bound is reached. Handlers
+ * are invoked through the {@link CommandInterceptorChain}, which times, validates and classifies the commands.
+ * </p>
+ * <p>
+ * Commands of types annotated with {@link de.tudl.playground.datorum.gateway.command.annotation.Coalesce} are
+ * collected by the {@link CommandCoalescer} before they are admitted, so rapid successive commands for the same
+ * aggregate are sent as one. Commands sent by command handlers and bulks sent with {@link #sendAll(Collection)} are
+ * never coalesced. Any other command for an aggregate first flushes the aggregate's open windows, so it never
+ * overtakes a coalesced command sent before it.
  * </p>
  * <p>
  * The {@code DefaultCommandGateway} does not contain business logic for handling the commands; instead,
@@ -26,23 +82,103 @@ public class DefaultCommandGateway implements CommandGateway {
      */
     private final ApplicationEventPublisher eventPublisher;
 
+    /**
+     * The {@link CommandHandlerRegistry} mapping command types to their handlers.
+     */
+    private final CommandHandlerRegistry commandHandlerRegistry;
+
+    /**
+     * The {@link CommandDeduplicationService} recording the outcomes of idempotent commands.
+     */
+    private final CommandDeduplicationService deduplicationService;
+
+    /**
+     * The {@link Executor} on which asynchronously sent commands are handled.
+     */
+    private final Executor commandExecutor;
+
+    /**
+     * The {@link CommandLaneExecutor} serializing the commands of each aggregate.
+     */
+    private final CommandLaneExecutor commandLaneExecutor;
+
+    /**
+     * The {@link CommandBatchSupport} opening the unit of work of bulk commands.
+     */
+    private final CommandBatchSupport commandBatchSupport;
+
+    /**
+     * The {@link CommandAdmissionController} bounding the number of commands in the command path.
+     */
+    private final CommandAdmissionController admissionController;
+
+    /**
+     * The {@link CommandInterceptorChain} wrapped around the handlers of commands.
+     */
+    private final CommandInterceptorChain interceptorChain;
+
+    /**
+     * The {@link CommandCoalescer} merging rapid successive "last write wins" commands.
+     */
+    private final CommandCoalescer commandCoalescer;
+
+    /**
+     * The outcomes of idempotent commands of the bulk executing on the current thread, which are recorded only once
+     * the bulk's {@link CommandBatch} has been flushed.
+     */
+    private final ThreadLocal<Collection<PendingRelease>> pendingReleases = new ThreadLocal<>();
+
     /**
      * Constructs a {@code DefaultCommandGateway} with the given {@link ApplicationEventPublisher}.
      *
-     * @param eventPublisher the event publisher used to broadcast the command as an event.
+     * @param eventPublisher the event publisher used to broadcast commands without a registered handler.
+     * @param commandHandlerRegistry the registry mapping command types to their handlers.
+     * @param deduplicationService the service recording the outcomes of idempotent commands.
+     * @param commandExecutor the executor on which asynchronously sent commands are handled.
+     * @param commandLaneExecutor the executor serializing the commands of each aggregate.
+     * @param commandBatchSupport the support opening the unit of work of bulk commands.
+     * @param admissionController the controller bounding the number of commands in the command path.
+     * @param interceptorChain the interceptors wrapped around the handlers of commands.
+     * @param commandCoalescer the coalescer merging rapid successive "last write wins" commands.
      */
-    public DefaultCommandGateway(ApplicationEventPublisher eventPublisher) {
+    public DefaultCommandGateway(
+            ApplicationEventPublisher eventPublisher,
+            CommandHandlerRegistry commandHandlerRegistry,
+            CommandDeduplicationService deduplicationService,
+            @Qualifier("commandExecutor") Executor commandExecutor,
+            CommandLaneExecutor commandLaneExecutor,
+            CommandBatchSupport commandBatchSupport,
+            CommandAdmissionController admissionController,
+            CommandInterceptorChain interceptorChain,
+            CommandCoalescer commandCoalescer
+    ) {
         this.eventPublisher = eventPublisher;
+        this.commandHandlerRegistry = commandHandlerRegistry;
+        this.deduplicationService = deduplicationService;
+        this.commandExecutor = commandExecutor;
+        this.commandLaneExecutor = commandLaneExecutor;
+        this.commandBatchSupport = commandBatchSupport;
+        this.admissionController = admissionController;
+        this.interceptorChain = interceptorChain;
+        this.commandCoalescer = commandCoalescer;
     }
 
     /**
-     * Sends the provided command by publishing it as an event.
+     * Sends the provided command to its handler and waits for it to complete.
      * <p>
-     * The method logs the received command and then uses the {@link ApplicationEventPublisher} to
-     * broadcast the command as an event within the application context.
+     * The command is passed to its registered handler, or broadcast as an event within the application context
+     * if its type has no registered handler. Duplicates of an {@link IdempotentCommand} are dropped. A coalesced
+     * command returns once the last command of its window has completed.
+     * </p>
+     * <p>
+     * A command sent by a command handler running on a lane is handed off to the lane of its aggregate without
+     * waiting for it, as that lane might be waiting for the handler's lane in turn. Its errors are logged instead of
+     * thrown. Commands for aggregates on the handler's own lane still complete before this method returns.
      * </p>
      *
      * @param command the command to be sent, typically representing a request for business logic to be executed.
+     * @throws de.tudl.playground.datorum.gateway.command.exception.CommandRejectedException if the command path is
+     *         at capacity and the command's overload policy rejects it.
      */
     @Override
     public void send(Object command) {
@@ -50,7 +186,446 @@ public class DefaultCommandGateway implements CommandGateway {
                 "Command cannot be null"
         );
 
+        PriorityClass priority = PriorityClass.of(command);
+        Optional<String> aggregateId = commandLaneExecutor.targetAggregateId(command);
+        if (aggregateId.isPresent() && coalesces(command)) {
+            await(sendAsync(command, priority));
+            return;
+        }
+        aggregateId.ifPresent(commandCoalescer::flush);
+
+        Admission admission = admissionController.admit(command, priority);
+        try {
+            if (aggregateId.isPresent()) {
+                CompletableFuture<CommandOutcome> outcome = start(aggregateId, priority, () -> dispatch(command), false);
+                if (commandLaneExecutor.isLaneThread()) {
+                    // A lane never waits for another lane, which might be waiting for it in turn
+                    outcome.whenComplete((result, error) -> {
+                        if (error != null) {
+                            log.warn("Nested command {} failed", command.getClass().getName(), error);
+                        }
+                    });
+                } else {
+                    await(outcome);
+                }
+            } else {
+                admissionController.executeAdmitted(() -> dispatch(command));
+            }
+        } finally {
+            admission.release();
+        }
+    }
+
+    /**
+     * Sends the provided command for processing on its aggregate's lane or the command executor.
+     * <p>
+     * Duplicates of an {@link IdempotentCommand} complete with the outcome recorded for the original command, or
+     * with {@link CommandOutcome.Status#DUPLICATE} while the original command is still running. The caller never
+     * blocks: if the command path is at capacity, the command waits for admission without the caller, or the future
+     * completes exceptionally with a {@link de.tudl.playground.datorum.gateway.command.exception.CommandRejectedException}.
+     * </p>
+     *
+     * @param command the command to be sent.
+     * @return a future completing with the outcome of the command, or exceptionally with the handler's error.
+     */
+    @Override
+    public CompletableFuture<CommandOutcome> sendAsync(Object command) {
+        if (command == null) throw new IllegalArgumentException(
+                "Command cannot be null"
+        );
+
+        return sendAsync(command, PriorityClass.of(command));
+    }
+
+    /**
+     * Sends the provided command like {@link #sendAsync(Object)}, with the given priority class.
+     *
+     * @param command  the command to be sent.
+     * @param priority the priority class of the command, overriding the class declared by its type.
+     * @return a future completing with the outcome of the command, or exceptionally with the handler's error.
+     */
+    @Override
+    public CompletableFuture<CommandOutcome> sendAsync(Object command, PriorityClass priority) {
+        if (command == null || priority == null) throw new IllegalArgumentException(
+                "Command and priority cannot be null"
+        );
+
+        Optional<String> aggregateId = commandLaneExecutor.targetAggregateId(command);
+        if (aggregateId.isPresent() && coalesces(command)) {
+            return commandCoalescer.submit(
+                    aggregateId.get(),
+                    command,
+                    latest -> admitAndStart(latest, aggregateId, priority)
+            );
+        }
+        aggregateId.ifPresent(commandCoalescer::flush);
+        return admitAndStart(command, aggregateId, priority);
+    }
+
+    /**
+     * Admits a command without blocking the caller and starts it on its aggregate's lane or the command executor.
+     *
+     * @param command     the command to be sent.
+     * @param aggregateId the ID of the aggregate targeted by the command, if any.
+     * @param priority    the priority class of the command.
+     * @return a future completing with the outcome of the command, or exceptionally if it was rejected or failed.
+     */
+    private CompletableFuture<CommandOutcome> admitAndStart(
+            Object command,
+            Optional<String> aggregateId,
+            PriorityClass priority
+    ) {
+        CompletableFuture<Admission> admission = admissionController.admitAsync(command, priority);
+        Function<Admission, CompletableFuture<CommandOutcome>> startCommand =
+                granted -> startAdmitted(granted, aggregateId, priority, () -> dispatch(command));
+        // A command admitted later is started on the command executor, not by the command releasing its slot
+        return admission.isDone()
+                ? admission.thenCompose(startCommand)
+                : admission.thenComposeAsync(startCommand, commandExecutor);
+    }
+
+    /**
+     * Returns whether a command is collected by the {@link CommandCoalescer} before it is sent.
+     * <p>
+     * Commands sent by command handlers are not coalesced, as the handler would wait for the window while holding
+     * its lane.
+     * </p>
+     *
+     * @param command the command to be sent.
+     * @return {@code true} if the command's type is coalesced and the command is not nested.
+     */
+    private boolean coalesces(Object command) {
+        return commandCoalescer.isCoalescing(command) && !admissionController.isExecutingCommand();
+    }
+
+    /**
+     * Sends the provided command like {@link #sendAsync(Object)} and maps its outcome to a typed {@link CommandResult}.
+     *
+     * @param command the command to be sent.
+     * @param timeout the maximum time to wait for the result.
+     * @param <R>     the type of the result produced by the command handler.
+     * @return a future completing with the result of the command; it never completes exceptionally.
+     */
+    @Override
+    public <R> CompletableFuture<CommandResult<R>> request(ResultCommand<R> command, Duration timeout) {
+        if (timeout == null) throw new IllegalArgumentException(
+                "Timeout cannot be null"
+        );
+
+        return sendAsync(command)
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .handle(CommandResult::of);
+    }
+
+    /**
+     * Sends a bulk of commands within one {@link CommandBatch}.
+     * <p>
+     * The commands of every aggregate are executed in order on the aggregate's lane, so different aggregates are
+     * processed in parallel. Commands without a target aggregate are executed on the command executor. The batch is
+     * opened with the IDs of all targeted aggregates and closed once every command has been handled. The lanes of
+     * these aggregates are parked while the batch is opened and closed; in between, other commands sent to them run
+     * within the batch as well.
+     * </p>
+     * <p>
+     * Every command is admitted on its own before it is started, so a bulk larger than the capacity of the command
+     * path is throttled by the overload policies of its commands. Rejected commands are reported as failed.
+     * </p>
+     * <p>
+     * The outcomes of {@link IdempotentCommand}s are recorded only after the batch has been flushed, as their events
+     * are not stored before. Until then, duplicates are answered with {@link CommandOutcome.Status#DUPLICATE}. If the
+     * flush fails, the outcomes are recorded as failed, so the commands can be retried with the same keys.
+     * </p>
+     *
+     * @param commands the commands to be sent.
+     * @return the outcomes of the commands, in the order of the given collection.
+     * @throws IllegalStateException if called by a command handler running on a lane, which must not wait for the
+     *         lanes of the bulk.
+     */
+    @Override
+    public List<CommandOutcome> sendAll(Collection<?> commands) {
+        return sendAll(commands, null);
+    }
+
+    /**
+     * Sends a bulk of commands like {@link #sendAll(Collection)}, all with the given priority class.
+     *
+     * @param commands the commands to be sent.
+     * @param priority the priority class of the commands, or {@code null} to use the class declared by each type.
+     * @return the outcomes of the commands, in the order of the given collection.
+     */
+    @Override
+    public List<CommandOutcome> sendAll(Collection<?> commands, PriorityClass priority) {
+        if (commands == null) throw new IllegalArgumentException(
+                "Commands cannot be null"
+        );
+        if (commandLaneExecutor.isLaneThread()) throw new IllegalStateException(
+                "Bulks cannot be sent by command handlers running on a command lane"
+        );
+
+        List<Object> commandList = new ArrayList<>(commands);
+        List<Optional<String>> aggregateIds = new ArrayList<>(commandList.size());
+        Set<String> batchAggregateIds = new LinkedHashSet<>();
+        for (Object command : commandList) {
+            if (command == null) throw new IllegalArgumentException(
+                    "Command cannot be null"
+            );
+
+            Optional<String> aggregateId = commandLaneExecutor.targetAggregateId(command);
+            aggregateId.ifPresent(batchAggregateIds::add);
+            aggregateIds.add(aggregateId);
+        }
+        batchAggregateIds.forEach(commandCoalescer::flush);
+
+        CommandOutcome[] outcomes = new CommandOutcome[commandList.size()];
+        List<CompletableFuture<?>> futures = new ArrayList<>(commandList.size());
+        Collection<PendingRelease> releases = new ConcurrentLinkedQueue<>();
+        boolean flushed = false;
+        try {
+            // The lanes of the bulk's aggregates are parked while its batch is opened and flushed, so no other
+            // command of these aggregates stores events the batch would miss or lose
+            CommandBatch batch = commandLaneExecutor.runExclusively(
+                    batchAggregateIds, () -> commandBatchSupport.open(batchAggregateIds)
+            );
+            try {
+                for (int i = 0; i < commandList.size(); i++) {
+                    Object command = commandList.get(i);
+                    int index = i;
+                    PriorityClass commandPriority = priority != null ? priority : PriorityClass.of(command);
+
+                    Admission admission;
+                    try {
+                        admission = admissionController.admit(command, commandPriority);
+                    } catch (Exception e) {
+                        outcomes[index] = CommandOutcome.failed(e);
+                        continue;
+                    }
+
+                    futures.add(startAdmitted(
+                            admission,
+                            aggregateIds.get(index),
+                            commandPriority,
+                            () -> batch.execute(() -> dispatchInBatch(command, releases))
+                    ).whenComplete((outcome, error) ->
+                            outcomes[index] = error == null ? outcome : CommandOutcome.failed(error)
+                    ));
+                }
+
+                CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+            } finally {
+                commandLaneExecutor.runExclusively(batchAggregateIds, () -> {
+                    batch.close();
+                    return null;
+                });
+            }
+            flushed = true;
+        } finally {
+            releaseAfterFlush(releases, flushed);
+        }
+        return Arrays.asList(outcomes);
+    }
+
+    /**
+     * Dispatches a command of a bulk, reporting an error raised by its handler in the outcome.
+     * <p>
+     * The outcomes of idempotent commands, including those sent by the handler on the same thread, are collected
+     * instead of recorded.
+     * </p>
+     *
+     * @param command  the command to be dispatched.
+     * @param releases the outcomes of idempotent commands of the bulk.
+     * @return the outcome of the command.
+     */
+    private CommandOutcome dispatchInBatch(Object command, Collection<PendingRelease> releases) {
+        pendingReleases.set(releases);
+        try {
+            return dispatch(command);
+        } catch (Exception e) {
+            log.warn("Command {} of a bulk failed", command.getClass().getName(), e);
+            return CommandOutcome.failed(e);
+        } finally {
+            pendingReleases.remove();
+        }
+    }
+
+    /**
+     * Records the outcomes of the idempotent commands of a bulk and frees their keys.
+     *
+     * @param releases the outcomes of idempotent commands of the bulk.
+     * @param flushed  whether the batch of the bulk has been flushed; if not, every outcome is recorded as failed.
+     */
+    private void releaseAfterFlush(Collection<PendingRelease> releases, boolean flushed) {
+        for (PendingRelease release : releases) {
+            CommandOutcome outcome = flushed
+                    ? release.outcome()
+                    : CommandOutcome.failed(new IllegalStateException("Batch of the command was not flushed"));
+            deduplicationService.release(release.idempotencyKey(), release.commandType(), outcome);
+        }
+    }
+
+    /**
+     * Starts an admitted command and releases its admission once it has completed.
+     * <p>
+     * If the admission requires the caller to run the command, the caller waits until the command has completed.
+     * </p>
+     *
+     * @param admission   the admission of the command.
+     * @param aggregateId the ID of the aggregate targeted by the command, if any.
+     * @param priority    the priority class of the command.
+     * @param execution   the execution of the command.
+     * @return a future completing with the outcome of the command.
+     */
+    private CompletableFuture<CommandOutcome> startAdmitted(
+            Admission admission,
+            Optional<String> aggregateId,
+            PriorityClass priority,
+            Supplier<CommandOutcome> execution
+    ) {
+        CompletableFuture<CommandOutcome> future;
+        try {
+            future = start(aggregateId, priority, execution, admission.isCallerRuns());
+        } catch (RuntimeException e) {
+            admission.release();
+            throw e;
+        }
+
+        future.whenComplete((outcome, error) -> admission.release());
+        if (admission.isCallerRuns()) {
+            // Waiting for the command throttles the caller to the pace of the command path
+            future.exceptionally(error -> null).join();
+        }
+        return future;
+    }
+
+    /**
+     * Starts a command on the lane of its aggregate, or on the command executor if it targets no aggregate.
+     * <p>
+     * Commands targeting an aggregate always run on its lane, even if the caller has to run them, to keep the
+     * commands of an aggregate in order.
+     * </p>
+     *
+     * @param aggregateId the ID of the aggregate targeted by the command, if any.
+     * @param priority    the priority class of the command on the lane.
+     * @param execution   the execution of the command.
+     * @param callerRuns  whether a command without a target aggregate runs on the calling thread.
+     * @return a future completing with the outcome of the command.
+     */
+    private CompletableFuture<CommandOutcome> start(
+            Optional<String> aggregateId,
+            PriorityClass priority,
+            Supplier<CommandOutcome> execution,
+            boolean callerRuns
+    ) {
+        Supplier<CommandOutcome> admittedExecution = () -> admissionController.executeAdmitted(execution);
+        if (aggregateId.isPresent()) {
+            return commandLaneExecutor.submit(aggregateId.get(), priority, admittedExecution);
+        }
+        if (callerRuns) {
+            try {
+                return CompletableFuture.completedFuture(admittedExecution.get());
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return CompletableFuture.supplyAsync(admittedExecution, commandExecutor);
+    }
+
+    /**
+     * Waits for a command executed on a lane and rethrows the error raised by its handler, if any.
+     *
+     * @param future the future of the command.
+     * @return the outcome of the command.
+     */
+    @SneakyThrows
+    private static CommandOutcome await(CompletableFuture<CommandOutcome> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Dispatches the command on the calling thread.
+     *
+     * @param command the command to be dispatched.
+     * @return the outcome of the command.
+     */
+    private CommandOutcome dispatch(Object command) {
+        if (command instanceof IdempotentCommand idempotentCommand && idempotentCommand.idempotencyKey() != null) {
+            return dispatchOnce(command, idempotentCommand.idempotencyKey());
+        }
+
+        return CommandOutcome.completed(invokeHandler(command));
+    }
+
+    /**
+     * Invokes the handler of the command through the interceptors applying to its type.
+     *
+     * @param command the command to be handled.
+     * @return the value returned by the handler, or {@code null} if it returned none.
+     */
+    @SneakyThrows
+    private Object invokeHandler(Object command) {
+        return interceptorChain.execute(command, () -> invokeTarget(command));
+    }
+
+    /**
+     * Invokes the registered handler of the command, or publishes the command as an event if it has none.
+     *
+     * @param command the command to be handled.
+     * @return the value returned by the handler, or {@code null} if it returned none.
+     */
+    @SneakyThrows
+    private Object invokeTarget(Object command) {
+        Optional<MethodHandle> handler = commandHandlerRegistry.findHandler(command.getClass());
+        if (handler.isPresent()) {
+            return handler.get().invokeExact(command);
+        }
+
         // Publish the command as an event to be handled by listeners
         eventPublisher.publishEvent(command);
+        return null;
+    }
+
+    /**
+     * Publishes an idempotent command unless a command with the same key has been processed or is running.
+     * <p>
+     * Within a bulk, the key is kept until the batch of the bulk has been flushed, see {@link #sendAll(Collection)}.
+     * </p>
+     *
+     * @param command        the command to be sent.
+     * @param idempotencyKey the idempotency key of the command.
+     * @return the outcome of the command, or the recorded outcome if the command is a duplicate.
+     */
+    private CommandOutcome dispatchOnce(Object command, String idempotencyKey) {
+        Optional<CommandOutcome> recordedOutcome = deduplicationService.findOutcome(idempotencyKey, command.getClass());
+        if (recordedOutcome.isPresent() || !deduplicationService.tryAcquire(idempotencyKey)) {
+            log.debug("Dropping duplicate command {} with key {}", command.getClass().getName(), idempotencyKey);
+            return recordedOutcome.orElseGet(CommandOutcome::duplicate);
+        }
+
+        // Stays failed unless the handler returns normally, so a failed command releases its key for a retry
+        CommandOutcome outcome = CommandOutcome.failed(new IllegalStateException("Command did not complete"));
+        try {
+            outcome = CommandOutcome.completed(invokeHandler(command));
+            return outcome;
+        } finally {
+            Collection<PendingRelease> releases = pendingReleases.get();
+            if (releases != null) {
+                releases.add(new PendingRelease(idempotencyKey, command.getClass(), outcome));
+            } else {
+                deduplicationService.release(idempotencyKey, command.getClass(), outcome);
+            }
+        }
+    }
+
+    /**
+     * The outcome of an idempotent command of a bulk, recorded once the batch of the bulk has been flushed.
+     *
+     * @param idempotencyKey the idempotency key of the command.
+     * @param commandType    the class of the command.
+     * @param outcome        the outcome of the command.
+     */
+    private record PendingRelease(String idempotencyKey, Class<?> commandType, CommandOutcome outcome) {
     }
 }
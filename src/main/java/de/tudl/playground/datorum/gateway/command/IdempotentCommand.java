@@ -0,0 +1,19 @@
+package de.tudl.playground.datorum.gateway.command;
+
+/**
+ * The {@code IdempotentCommand} interface marks commands that may safely be sent more than once.
+ * <p>
+ * A command implementing this interface carries an idempotency key that identifies the intended operation,
+ * for example a single click on a "register" button. The {@link CommandGateway} executes a command only once per
+ * key: duplicates (e.g. caused by a double-click or a client retry) are answered from the recorded
+ * {@link CommandOutcome} without reaching the command handler, the aggregate or the event store.
+ * </p>
+ */
+public interface IdempotentCommand {
+    /**
+     * Returns the idempotency key of this command.
+     *
+     * @return the key identifying the operation, or {@code null} if the command should not be deduplicated.
+     */
+    String idempotencyKey();
+}
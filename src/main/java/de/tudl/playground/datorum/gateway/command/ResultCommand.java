@@ -0,0 +1,18 @@
+package de.tudl.playground.datorum.gateway.command;
+
+/**
+ * The {@code ResultCommand} interface marks a command whose handler answers the caller with a typed result.
+ * <p>
+ * Commands implementing this interface can be sent with {@link CommandGateway#request(ResultCommand, java.time.Duration)},
+ * which completes the caller's future with the value returned by the command handler. Outcomes that only concern the
+ * caller, such as whether a login succeeded, are thereby returned directly instead of being broadcast as events to
+ * every listener of the application.
+ * </p>
+ * <p>
+ * The handler of a result command must return {@code R}; this is verified when the handler is registered.
+ * </p>
+ *
+ * @param <R> the type of the result produced by the command handler.
+ */
+public interface ResultCommand<R> {
+}
@@ -0,0 +1,53 @@
+package de.tudl.playground.datorum.gateway.command.admission;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The result of admitting a command to the command path.
+ * <p>
+ * An admission either holds a slot of the command path, which has to be released once the command has completed,
+ * or tells the caller to execute the command itself. Releasing an admission more than once has no effect.
+ * </p>
+ */
+public final class Admission {
+
+    private final Runnable releaseSlot;
+    private final boolean callerRuns;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    private Admission(Runnable releaseSlot, boolean callerRuns) {
+        this.releaseSlot = releaseSlot;
+        this.callerRuns = callerRuns;
+    }
+
+    static Admission granted(Runnable releaseSlot) {
+        return new Admission(releaseSlot, false);
+    }
+
+    static Admission callerRuns() {
+        return new Admission(null, true);
+    }
+
+    static Admission nested() {
+        return new Admission(null, false);
+    }
+
+    /**
+     * Returns whether the caller has to execute the command itself.
+     *
+     * @return {@code true} if the command path is at capacity and the policy of the command is
+     *         {@link OverloadPolicy#CALLER_RUNS}.
+     */
+    public boolean isCallerRuns() {
+        return callerRuns;
+    }
+
+    /**
+     * Releases the slot held by this admission, if any.
+     */
+    public void release() {
+        if (releaseSlot != null && released.compareAndSet(false, true)) {
+            releaseSlot.run();
+        }
+    }
+}
@@ -0,0 +1,440 @@
+package de.tudl.playground.datorum.gateway.command.admission;
+
+import de.tudl.playground.datorum.gateway.command.annotation.AdmissionPolicy;
+import de.tudl.playground.datorum.gateway.command.exception.CommandRejectedException;
+import de.tudl.playground.datorum.gateway.command.lane.PriorityClass;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code CommandAdmissionController} bounds the number of commands in the command path.
+ * <p>
+ * Every command sent through the gateway occupies one of {@code datorum.command.admission.capacity} slots from the
+ * moment it is admitted until it has completed, whether it is waiting on a lane, waiting on the command executor or
+ * running. Once all slots are taken, the {@link OverloadPolicy} of the command decides how the caller is slowed down:
+ * </p>
+ * <ul>
+ *     <li>{@link OverloadPolicy#CALLER_RUNS}: the caller executes the command itself and waits for it.</li>
+ *     <li>{@link OverloadPolicy#REJECT}: the command is rejected with a {@link CommandRejectedException}.</li>
+ *     <li>{@link OverloadPolicy#BLOCK}: the caller waits for a slot up to a timeout, then the command is rejected.</li>
+ * </ul>
+ * The policy is taken from the {@link AdmissionPolicy} annotation of the command type, falling back to
+ * {@code datorum.command.admission.policy} and {@code datorum.command.admission.timeout-ms}.
+ *
+ * <h2>Waiting Commands</h2>
+ * Commands waiting for a slot are queued and admitted in the order they arrived, whether their caller blocks or
+ * they were sent asynchronously. A command only takes a free slot right away if no command of its priority class is
+ * queued before it, so later commands never barge past waiting ones. At most
+ * {@code datorum.command.admission.max-waiting} commands are queued; further commands are rejected at once.
+ *
+ * <h2>Asynchronous Admission</h2>
+ * Commands sent asynchronously are admitted with {@link #admitAsync(Object, PriorityClass)}, which never blocks the
+ * caller. With {@link OverloadPolicy#BLOCK} and {@link OverloadPolicy#CALLER_RUNS}, the command waits in the queue
+ * instead of the caller: it is admitted as soon as a slot is released, or rejected once its timeout has elapsed.
+ *
+ * <h2>Interactive Reserve</h2>
+ * {@code datorum.command.admission.interactive-reserve} of the slots are reserved for
+ * {@link PriorityClass#INTERACTIVE} commands: other commands only occupy the remaining slots, so a bulk of commands
+ * filling the command path never makes a user wait for admission.
+ *
+ * <h2>Nested Commands</h2>
+ * Commands sent by a command handler are admitted without a slot, as the sending command already holds one. Otherwise
+ * handlers waiting for slots held by themselves could stall the command path.
+ *
+ * <h2>Metrics</h2>
+ * <ul>
+ *     <li>{@code datorum.command.admission.in-flight}: the number of occupied slots.</li>
+ *     <li>{@code datorum.command.admission.waiting}: the number of commands queued for a slot.</li>
+ *     <li>{@code datorum.command.admission.rejected}: the number of rejected commands, tagged with the command type.</li>
+ *     <li>{@code datorum.command.admission.caller-runs}: the number of commands executed by their caller, tagged with
+ *         the command type.</li>
+ * </ul>
+ */
+@Slf4j
+@Component
+public class CommandAdmissionController {
+
+    private static final ClassValue<AdmissionPolicy> POLICIES = new ClassValue<>() {
+        @Override
+        protected AdmissionPolicy computeValue(Class<?> commandType) {
+            return commandType.getAnnotation(AdmissionPolicy.class);
+        }
+    };
+
+    private final int capacity;
+    private final Semaphore slots;
+    private final Semaphore sharedSlots;
+    private final OverloadPolicy defaultPolicy;
+    private final long defaultTimeoutMillis;
+    private final int maxWaiting;
+    private final MeterRegistry meterRegistry;
+    private final ThreadLocal<Boolean> executingCommand = new ThreadLocal<>();
+    private final Queue<WaitingAdmission> waiting = new ArrayDeque<>();
+
+    /**
+     * Constructs a {@code CommandAdmissionController}.
+     *
+     * @param capacity             the maximum number of commands in the command path.
+     * @param defaultPolicy        the policy of command types without an {@link AdmissionPolicy} annotation.
+     * @param defaultTimeoutMillis the time to wait for a slot with {@link OverloadPolicy#BLOCK}, unless overridden.
+     * @param interactiveReserve   the number of slots reserved for {@link PriorityClass#INTERACTIVE} commands.
+     * @param maxWaiting           the maximum number of commands queued for a slot.
+     * @param meterRegistry        the registry the admission metrics are registered with.
+     */
+    public CommandAdmissionController(
+            @Value("${datorum.command.admission.capacity:64}") int capacity,
+            @Value("${datorum.command.admission.policy:BLOCK}") OverloadPolicy defaultPolicy,
+            @Value("${datorum.command.admission.timeout-ms:1000}") long defaultTimeoutMillis,
+            @Value("${datorum.command.admission.interactive-reserve:8}") int interactiveReserve,
+            @Value("${datorum.command.admission.max-waiting:1024}") int maxWaiting,
+            MeterRegistry meterRegistry
+    ) {
+        if (capacity < 1) throw new IllegalArgumentException(
+                "Admission capacity must be positive"
+        );
+        if (interactiveReserve < 0 || interactiveReserve >= capacity) throw new IllegalArgumentException(
+                "Interactive reserve must be below the admission capacity"
+        );
+        if (maxWaiting < 0) throw new IllegalArgumentException(
+                "Maximum number of waiting commands cannot be negative"
+        );
+
+        this.capacity = capacity;
+        this.slots = new Semaphore(capacity);
+        this.sharedSlots = new Semaphore(capacity - interactiveReserve);
+        this.defaultPolicy = defaultPolicy;
+        this.defaultTimeoutMillis = defaultTimeoutMillis;
+        this.maxWaiting = maxWaiting;
+        this.meterRegistry = meterRegistry;
+
+        Gauge.builder("datorum.command.admission.in-flight", this, CommandAdmissionController::inFlight)
+                .description("Number of commands admitted to the command path that have not completed yet")
+                .register(meterRegistry);
+        Gauge.builder("datorum.command.admission.waiting", this, CommandAdmissionController::waiting)
+                .description("Number of commands queued for a slot of the command path")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Admits a command to the command path according to its {@link OverloadPolicy} and its declared priority class.
+     *
+     * @param command the command to admit.
+     * @return the admission of the command, which has to be released once the command has completed.
+     * @throws CommandRejectedException if the command path is at capacity and the command's policy rejects it.
+     */
+    public Admission admit(Object command) {
+        return admit(command, PriorityClass.of(command));
+    }
+
+    /**
+     * Admits a command to the command path according to its {@link OverloadPolicy}.
+     *
+     * @param command  the command to admit.
+     * @param priority the priority class the command is sent with.
+     * @return the admission of the command, which has to be released once the command has completed.
+     * @throws CommandRejectedException if the command path is at capacity and the command's policy rejects it.
+     */
+    @SneakyThrows
+    public Admission admit(Object command, PriorityClass priority) {
+        if (isExecutingCommand()) {
+            return Admission.nested();
+        }
+        Semaphore shared = priority == PriorityClass.INTERACTIVE ? null : sharedSlots;
+        if (tryAdmitNow(shared)) {
+            return granted(shared);
+        }
+
+        Class<?> commandType = command.getClass();
+        switch (policy(commandType)) {
+            case CALLER_RUNS -> {
+                counter("datorum.command.admission.caller-runs", commandType).increment();
+                return Admission.callerRuns();
+            }
+            case BLOCK -> {
+                WaitingAdmission waitingAdmission = enqueue(shared, commandType);
+                if (waitingAdmission != null) {
+                    return await(waitingAdmission);
+                }
+            }
+            case REJECT -> {
+                // Rejected below
+            }
+        }
+
+        recordRejection(commandType);
+        throw rejection(commandType);
+    }
+
+    /**
+     * Admits a command to the command path without blocking the caller.
+     * <p>
+     * If the command path is at capacity and the command's policy is {@link OverloadPolicy#BLOCK} or
+     * {@link OverloadPolicy#CALLER_RUNS}, the command waits for a slot up to its timeout. The admission never requires
+     * the caller to run the command.
+     * </p>
+     *
+     * @param command  the command to admit.
+     * @param priority the priority class the command is sent with.
+     * @return a future completing with the admission of the command, which has to be released once the command has
+     *         completed, or exceptionally with a {@link CommandRejectedException} if the command is rejected.
+     */
+    public CompletableFuture<Admission> admitAsync(Object command, PriorityClass priority) {
+        if (isExecutingCommand()) {
+            return CompletableFuture.completedFuture(Admission.nested());
+        }
+        Semaphore shared = priority == PriorityClass.INTERACTIVE ? null : sharedSlots;
+        if (tryAdmitNow(shared)) {
+            return CompletableFuture.completedFuture(granted(shared));
+        }
+
+        Class<?> commandType = command.getClass();
+        if (policy(commandType) != OverloadPolicy.REJECT) {
+            WaitingAdmission waitingAdmission = enqueue(shared, commandType);
+            if (waitingAdmission != null) {
+                return waitingAdmission.future();
+            }
+        }
+
+        recordRejection(commandType);
+        return CompletableFuture.failedFuture(rejection(commandType));
+    }
+
+    /**
+     * Acquires the slots of a command right away, unless a command it must not overtake is waiting for a slot.
+     * <p>
+     * Every waiting command blocks commands that need a shared slot. Commands that may use the interactive reserve are
+     * only blocked by waiting interactive commands, as waiting commands of other classes lack a shared slot only.
+     * </p>
+     *
+     * @param shared the semaphore of the shared slots, or {@code null} for interactive commands.
+     * @return {@code true} if the slots were acquired.
+     */
+    private synchronized boolean tryAdmitNow(Semaphore shared) {
+        for (WaitingAdmission waitingAdmission : waiting) {
+            if (!waitingAdmission.future().isDone() && (shared != null || waitingAdmission.shared() == null)) {
+                return false;
+            }
+        }
+        return tryAcquire(shared);
+    }
+
+    /**
+     * Queues a command for a slot and rejects it once its timeout has elapsed.
+     *
+     * @param shared      the semaphore of the shared slots, or {@code null} for interactive commands.
+     * @param commandType the class of the command.
+     * @return the queued command, or {@code null} if the queue is full.
+     */
+    private WaitingAdmission enqueue(Semaphore shared, Class<?> commandType) {
+        WaitingAdmission waitingAdmission = new WaitingAdmission(shared, new CompletableFuture<>());
+        synchronized (this) {
+            if (waiting.size() >= maxWaiting) {
+                return null;
+            }
+            waiting.add(waitingAdmission);
+        }
+
+        Executor timeout = CompletableFuture.delayedExecutor(timeoutMillis(commandType), TimeUnit.MILLISECONDS, Runnable::run);
+        timeout.execute(() -> {
+            if (waitingAdmission.future().completeExceptionally(rejection(commandType))) {
+                dequeue(waitingAdmission);
+                recordRejection(commandType);
+            }
+        });
+        // A slot released before the command was queued has not been handed to it
+        admitWaiting();
+        return waitingAdmission;
+    }
+
+    private synchronized void dequeue(WaitingAdmission waitingAdmission) {
+        waiting.remove(waitingAdmission);
+    }
+
+    /**
+     * Blocks the caller until its queued command is admitted or rejected.
+     *
+     * @param waitingAdmission the queued command.
+     * @return the admission of the command.
+     */
+    @SneakyThrows
+    private Admission await(WaitingAdmission waitingAdmission) {
+        try {
+            return waitingAdmission.future().get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (InterruptedException e) {
+            if (waitingAdmission.future().cancel(false)) {
+                dequeue(waitingAdmission);
+            } else if (!waitingAdmission.future().isCompletedExceptionally()) {
+                waitingAdmission.future().join().release();
+            }
+            throw e;
+        }
+    }
+
+    private OverloadPolicy policy(Class<?> commandType) {
+        AdmissionPolicy annotation = POLICIES.get(commandType);
+        return annotation != null ? annotation.value() : defaultPolicy;
+    }
+
+    private long timeoutMillis(Class<?> commandType) {
+        AdmissionPolicy annotation = POLICIES.get(commandType);
+        return annotation != null && annotation.timeoutMillis() >= 0 ? annotation.timeoutMillis() : defaultTimeoutMillis;
+    }
+
+    private void recordRejection(Class<?> commandType) {
+        counter("datorum.command.admission.rejected", commandType).increment();
+        log.warn("Rejecting command {}, the command path is at its capacity of {}", commandType.getName(), capacity);
+    }
+
+    private static CommandRejectedException rejection(Class<?> commandType) {
+        return new CommandRejectedException(
+                "Command " + commandType.getName() + " rejected, the command path is at capacity"
+        );
+    }
+
+    private Admission granted(Semaphore shared) {
+        return Admission.granted(() -> release(shared));
+    }
+
+    /**
+     * Releases the slots of a completed command and hands them to the commands waiting for admission.
+     *
+     * @param shared the semaphore of the shared slots, or {@code null} if the command used the interactive reserve.
+     */
+    private void release(Semaphore shared) {
+        slots.release();
+        if (shared != null) {
+            shared.release();
+        }
+        admitWaiting();
+    }
+
+    /**
+     * Admits the waiting commands in the order they were queued, as long as slots are available. A waiting command
+     * that may not use the interactive reserve does not hold up an interactive command queued after it.
+     * <p>
+     * The slots are acquired while holding the monitor, so they are handed out in queue order. The commands are
+     * admitted after the monitor has been released, as admitting them may run their continuations.
+     * </p>
+     */
+    private void admitWaiting() {
+        List<WaitingAdmission> admitted = new ArrayList<>();
+        synchronized (this) {
+            for (Iterator<WaitingAdmission> iterator = waiting.iterator(); iterator.hasNext(); ) {
+                WaitingAdmission waitingAdmission = iterator.next();
+                if (waitingAdmission.future().isDone()) {
+                    iterator.remove();
+                } else if (tryAcquire(waitingAdmission.shared())) {
+                    iterator.remove();
+                    admitted.add(waitingAdmission);
+                }
+            }
+        }
+
+        for (WaitingAdmission waitingAdmission : admitted) {
+            if (!waitingAdmission.future().complete(granted(waitingAdmission.shared()))) {
+                // The command timed out meanwhile
+                release(waitingAdmission.shared());
+            }
+        }
+    }
+
+    /**
+     * Acquires a slot, and a shared slot unless the command may use the interactive reserve, without waiting.
+     *
+     * @param shared the semaphore of the shared slots, or {@code null} for interactive commands.
+     * @return {@code true} if the slots were acquired.
+     */
+    private boolean tryAcquire(Semaphore shared) {
+        if (shared != null && !shared.tryAcquire()) {
+            return false;
+        }
+        if (slots.tryAcquire()) {
+            return true;
+        }
+        if (shared != null) {
+            shared.release();
+        }
+        return false;
+    }
+
+    /**
+     * Executes a command on the calling thread, marking the thread as executing an admitted command.
+     *
+     * @param task the execution of the command.
+     * @param <T>  the type of the command's outcome.
+     * @return the outcome of the command.
+     */
+    public <T> T executeAdmitted(Supplier<T> task) {
+        Boolean previous = executingCommand.get();
+        executingCommand.set(Boolean.TRUE);
+        try {
+            return task.get();
+        } finally {
+            if (previous == null) {
+                executingCommand.remove();
+            } else {
+                executingCommand.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Returns whether the calling thread executes an admitted command, i.e. whether a command it sends is nested.
+     *
+     * @return {@code true} if called from within a command handler.
+     */
+    public boolean isExecutingCommand() {
+        return Boolean.TRUE.equals(executingCommand.get());
+    }
+
+    /**
+     * Returns the number of occupied slots.
+     *
+     * @return the number of commands admitted to the command path that have not completed yet.
+     */
+    public int inFlight() {
+        return capacity - slots.availablePermits();
+    }
+
+    /**
+     * Returns the number of commands queued for a slot.
+     *
+     * @return the number of waiting commands, including those that were rejected but not yet removed from the queue.
+     */
+    public synchronized int waiting() {
+        return waiting.size();
+    }
+
+    /**
+     * A command that waits for a slot.
+     *
+     * @param shared the semaphore of the shared slots, or {@code null} for interactive commands.
+     * @param future the future completing with the admission of the command.
+     */
+    private record WaitingAdmission(Semaphore shared, CompletableFuture<Admission> future) {
+    }
+
+    private Counter counter(String name, Class<?> commandType) {
+        return Counter.builder(name)
+                .tag("command", commandType.getSimpleName())
+                .register(meterRegistry);
+    }
+}
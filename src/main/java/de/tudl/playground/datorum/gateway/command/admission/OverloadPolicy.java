@@ -0,0 +1,13 @@
+package de.tudl.playground.datorum.gateway.command.admission;
+
+/**
+ * Determines what happens to a command sent while the command path is at capacity.
+ */
+public enum OverloadPolicy {
+    /** The command is executed by the caller, which slows the caller down to the pace of the command path. */
+    CALLER_RUNS,
+    /** The command is rejected immediately. */
+    REJECT,
+    /** The caller waits for capacity up to a timeout, after which the command is rejected. */
+    BLOCK
+}
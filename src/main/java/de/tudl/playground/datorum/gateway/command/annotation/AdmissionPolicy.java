@@ -0,0 +1,33 @@
+package de.tudl.playground.datorum.gateway.command.annotation;
+
+import de.tudl.playground.datorum.gateway.command.admission.OverloadPolicy;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Overrides the {@link OverloadPolicy} applied to a command type while the command path is at capacity.
+ * <p>
+ * Command types without this annotation use the policy configured by {@code datorum.command.admission.policy}.
+ * </p>
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AdmissionPolicy {
+
+    /**
+     * The policy applied to the annotated command type.
+     *
+     * @return the overload policy.
+     */
+    OverloadPolicy value();
+
+    /**
+     * The maximum time to wait for capacity with {@link OverloadPolicy#BLOCK}, or a negative value to use
+     * {@code datorum.command.admission.timeout-ms}.
+     *
+     * @return the timeout in milliseconds.
+     */
+    long timeoutMillis() default -1;
+}
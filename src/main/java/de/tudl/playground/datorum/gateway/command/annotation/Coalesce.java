@@ -0,0 +1,27 @@
+package de.tudl.playground.datorum.gateway.command.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a command type as "last write wins", allowing the gateway to coalesce rapid successive commands.
+ * <p>
+ * Commands of the annotated type that target the same aggregate within the coalescing window are merged into one:
+ * only the last of them reaches the handler, and every sender is answered with its outcome. The annotated command
+ * must therefore carry the complete target state rather than a change relative to the previous command.
+ * </p>
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Coalesce {
+
+    /**
+     * The time commands are collected after the first of them arrives, or a negative value to use
+     * {@code datorum.command.coalescing.window-ms}.
+     *
+     * @return the coalescing window in milliseconds.
+     */
+    long windowMillis() default -1;
+}
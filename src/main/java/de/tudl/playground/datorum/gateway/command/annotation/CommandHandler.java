@@ -0,0 +1,19 @@
+package de.tudl.playground.datorum.gateway.command.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a method of a Spring bean as the handler of a command.
+ * <p>
+ * The method must declare exactly one parameter, the type of the command it handles. Each command type has at most
+ * one handler; the handlers are registered with the
+ * {@link de.tudl.playground.datorum.gateway.command.CommandHandlerRegistry} at startup.
+ * </p>
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CommandHandler {
+}
@@ -0,0 +1,26 @@
+package de.tudl.playground.datorum.gateway.command.annotation;
+
+import de.tudl.playground.datorum.gateway.command.lane.PriorityClass;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the {@link PriorityClass} of a command type.
+ * <p>
+ * Command types without this annotation are {@link PriorityClass#NORMAL}. The class can be overridden when the
+ * command is sent, e.g. to send an import with {@link PriorityClass#BULK}.
+ * </p>
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CommandPriority {
+
+    /**
+     * The priority class of the annotated command type.
+     *
+     * @return the priority class.
+     */
+    PriorityClass value();
+}
@@ -0,0 +1,19 @@
+package de.tudl.playground.datorum.gateway.command.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the record component or field of a command holding the ID of the aggregate the command targets.
+ * <p>
+ * Commands targeting the same aggregate are executed one after another on the same command lane, see
+ * {@link de.tudl.playground.datorum.gateway.command.lane.CommandLaneExecutor}. Commands without a target aggregate
+ * are executed on the caller's thread or the command executor.
+ * </p>
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface TargetAggregateId {
+}
@@ -0,0 +1,44 @@
+package de.tudl.playground.datorum.gateway.command.batch;
+
+import java.util.function.Supplier;
+
+/**
+ * A unit of work spanning all commands sent together with
+ * {@link de.tudl.playground.datorum.gateway.command.CommandGateway#sendAll(java.util.Collection)}.
+ * <p>
+ * The commands of a batch are executed through {@link #execute(Supplier)} on several threads in parallel. Once all
+ * of them have finished, the batch is closed, which writes the work buffered by the batch, for example the events
+ * raised by the commands.
+ * </p>
+ */
+public interface CommandBatch extends AutoCloseable {
+
+    /**
+     * A batch that neither buffers nor preloads anything.
+     */
+    CommandBatch NONE = new CommandBatch() {
+        @Override
+        public <T> T execute(Supplier<T> task) {
+            return task.get();
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    /**
+     * Executes a task of the batch on the calling thread.
+     *
+     * @param task the task, typically the dispatch of a single command.
+     * @param <T>  the type of the task's result.
+     * @return the result of the task.
+     */
+    <T> T execute(Supplier<T> task);
+
+    /**
+     * Completes the batch by writing the work it has buffered.
+     */
+    @Override
+    void close();
+}
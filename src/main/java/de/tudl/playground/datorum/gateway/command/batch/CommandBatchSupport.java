@@ -0,0 +1,23 @@
+package de.tudl.playground.datorum.gateway.command.batch;
+
+import java.util.Set;
+
+/**
+ * Opens the {@link CommandBatch} in which the commands sent with
+ * {@link de.tudl.playground.datorum.gateway.command.CommandGateway#sendAll(java.util.Collection)} are executed.
+ * <p>
+ * An implementation can use the batch to amortize work across the commands, such as loading the affected aggregates
+ * in one pass instead of once per command. Without an implementation, commands are executed as if sent one by one.
+ * </p>
+ */
+@FunctionalInterface
+public interface CommandBatchSupport {
+
+    /**
+     * Opens a batch for commands targeting the given aggregates.
+     *
+     * @param aggregateIds the IDs of all aggregates targeted by the commands of the batch.
+     * @return the opened batch.
+     */
+    CommandBatch open(Set<String> aggregateIds);
+}
@@ -0,0 +1,246 @@
+package de.tudl.playground.datorum.gateway.command.coalesce;
+
+import de.tudl.playground.datorum.gateway.command.CommandOutcome;
+import de.tudl.playground.datorum.gateway.command.annotation.Coalesce;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code CommandCoalescer} merges rapid successive "last write wins" commands for the same aggregate.
+ * <p>
+ * The first command of a type annotated with {@link Coalesce} opens a window for its aggregate. Commands of the same
+ * type and aggregate arriving within the window replace the waiting command instead of being sent on their own. Once
+ * the window has elapsed, only the last command is sent, so the aggregate is rehydrated once and appends one event
+ * instead of one per command. Every merged sender is answered with the outcome of that command.
+ * </p>
+ * <p>
+ * The window starts with the first command and is not extended by later ones, so a command is delayed by at most
+ * the window. Its length is taken from {@link Coalesce#windowMillis()}, falling back to
+ * {@code datorum.command.coalescing.window-ms}.
+ * </p>
+ *
+ * <h2>Ordering</h2>
+ * A coalesced command must not be overtaken by commands sent after it to the same aggregate. Before any other command
+ * is sent to an aggregate, its open windows are therefore flushed with {@link #flush(String)}: their last commands are
+ * sent right away on the caller's thread, so they reach the aggregate's lane first. A coalesced command of one type
+ * likewise flushes the windows of other types for its aggregate.
+ *
+ * <h2>Metrics</h2>
+ * {@code datorum.command.coalesced} counts the commands that were merged into a later command, tagged with the
+ * command type.
+ *
+ * <h2>Thread Safety</h2>
+ * This class is thread-safe. Windows are closed on the single {@code command-coalescer} thread, which hands the last
+ * command of every window to the {@code commandExecutor}, so a command waiting for admission or for its lane does
+ * not hold up the windows of other aggregates. A window is sent by whoever removes it from the open windows first,
+ * the command executor or a flush.
+ */
+@Slf4j
+@Component
+public class CommandCoalescer {
+
+    private static final ClassValue<Coalesce> ANNOTATIONS = new ClassValue<>() {
+        @Override
+        protected Coalesce computeValue(Class<?> commandType) {
+            return commandType.getAnnotation(Coalesce.class);
+        }
+    };
+
+    private final long defaultWindowMillis;
+    private final Executor commandExecutor;
+    private final MeterRegistry meterRegistry;
+    private final Map<Key, Window> windows = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "command-coalescer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Constructs a {@code CommandCoalescer}.
+     *
+     * @param defaultWindowMillis the coalescing window of command types that do not declare one.
+     * @param commandExecutor     the executor sending the last command of a window.
+     * @param meterRegistry       the registry the coalescing metrics are registered with.
+     */
+    public CommandCoalescer(
+            @Value("${datorum.command.coalescing.window-ms:25}") long defaultWindowMillis,
+            @Qualifier("commandExecutor") Executor commandExecutor,
+            MeterRegistry meterRegistry
+    ) {
+        if (defaultWindowMillis < 0) throw new IllegalArgumentException(
+                "Coalescing window cannot be negative"
+        );
+
+        this.defaultWindowMillis = defaultWindowMillis;
+        this.commandExecutor = commandExecutor;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Returns whether commands of the given command's type are coalesced.
+     *
+     * @param command the command.
+     * @return {@code true} if the command's type is annotated with {@link Coalesce}.
+     */
+    public boolean isCoalescing(Object command) {
+        return ANNOTATIONS.get(command.getClass()) != null;
+    }
+
+    /**
+     * Adds a command to the window of its aggregate, opening the window if there is none.
+     *
+     * @param aggregateId the ID of the aggregate targeted by the command.
+     * @param command     the command to be sent.
+     * @param sender      sends the last command of the window once it has elapsed.
+     * @return a future completing with the outcome of the last command of the window.
+     */
+    public CompletableFuture<CommandOutcome> submit(
+            String aggregateId,
+            Object command,
+            Function<Object, CompletableFuture<CommandOutcome>> sender
+    ) {
+        Key key = new Key(command.getClass(), aggregateId);
+        flush(aggregateId, key.commandType());
+        Submission submission = new Submission(command, sender);
+        Window created = new Window(submission);
+        Window window = windows.compute(key, (k, open) -> {
+            if (open == null) {
+                return created;
+            }
+            open.latest = submission;
+            counter(k.commandType()).increment();
+            return open;
+        });
+
+        if (window == created) {
+            executor.schedule(() -> close(key, window), windowMillis(key.commandType()), TimeUnit.MILLISECONDS);
+        }
+        return window.outcome.copy();
+    }
+
+    /**
+     * Sends the last commands of the open windows of the given aggregate right away, on the calling thread.
+     *
+     * @param aggregateId the ID of the aggregate another command is about to be sent to.
+     */
+    public void flush(String aggregateId) {
+        flush(aggregateId, null);
+    }
+
+    /**
+     * Sends the last commands of the open windows of the given aggregate, except those of the given command type.
+     *
+     * @param aggregateId the ID of the aggregate.
+     * @param except      the command type whose window is kept open, or {@code null} to flush every window.
+     */
+    private void flush(String aggregateId, Class<?> except) {
+        if (windows.isEmpty()) {
+            return;
+        }
+        windows.forEach((key, window) -> {
+            if (key.aggregateId().equals(aggregateId) && key.commandType() != except) {
+                send(key, window);
+            }
+        });
+    }
+
+    /**
+     * Stops closing windows. Commands still waiting in a window are discarded.
+     */
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Closes a window and hands its last command to the command executor.
+     *
+     * @param key    the key of the window.
+     * @param window the window to close.
+     */
+    private void close(Key key, Window window) {
+        try {
+            commandExecutor.execute(() -> send(key, window));
+        } catch (RejectedExecutionException e) {
+            if (windows.remove(key, window)) {
+                window.outcome.completeExceptionally(e);
+            }
+        }
+    }
+
+    /**
+     * Closes a window and sends its last command, answering all of its senders with the command's outcome. Does
+     * nothing if the window has been sent already.
+     *
+     * @param key    the key of the window.
+     * @param window the window to send.
+     */
+    private void send(Key key, Window window) {
+        // Removing the window under the map's lock ensures no command is added to it afterwards
+        if (!windows.remove(key, window)) {
+            return;
+        }
+        Submission submission = window.latest;
+
+        CompletableFuture<CommandOutcome> outcome;
+        try {
+            outcome = submission.sender().apply(submission.command());
+        } catch (Exception e) {
+            outcome = CompletableFuture.failedFuture(e);
+        }
+        outcome.whenComplete((result, error) -> {
+            if (error != null) {
+                log.debug("Coalesced command {} failed", key.commandType().getName(), error);
+                window.outcome.completeExceptionally(error);
+            } else {
+                window.outcome.complete(result);
+            }
+        });
+    }
+
+    private long windowMillis(Class<?> commandType) {
+        long windowMillis = ANNOTATIONS.get(commandType).windowMillis();
+        return windowMillis >= 0 ? windowMillis : defaultWindowMillis;
+    }
+
+    private Counter counter(Class<?> commandType) {
+        return Counter.builder("datorum.command.coalesced")
+                .tag("command", commandType.getSimpleName())
+                .register(meterRegistry);
+    }
+
+    private record Key(Class<?> commandType, String aggregateId) {
+    }
+
+    private record Submission(Object command, Function<Object, CompletableFuture<CommandOutcome>> sender) {
+    }
+
+    /**
+     * The commands collected for one aggregate, of which only the latest is sent.
+     */
+    private static final class Window {
+
+        private final CompletableFuture<CommandOutcome> outcome = new CompletableFuture<>();
+        private volatile Submission latest;
+
+        private Window(Submission first) {
+            this.latest = first;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package de.tudl.playground.datorum.gateway.command.exception;
+
+public class CommandRejectedException extends Exception {
+    public CommandRejectedException(String s) {
+        super(s);
+    }
+}
@@ -0,0 +1,14 @@
+package de.tudl.playground.datorum.gateway.command.exception;
+
+import java.util.List;
+import lombok.Getter;
+
+@Getter
+public class CommandValidationException extends Exception {
+    private final List<String> violations;
+
+    public CommandValidationException(String s, List<String> violations) {
+        super(s + ": " + String.join(", ", violations));
+        this.violations = List.copyOf(violations);
+    }
+}
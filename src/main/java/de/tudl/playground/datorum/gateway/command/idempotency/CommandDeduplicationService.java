@@ -0,0 +1,252 @@
+package de.tudl.playground.datorum.gateway.command.idempotency;
+
+import de.tudl.playground.datorum.gateway.command.CommandOutcome;
+import de.tudl.playground.datorum.gateway.command.IdempotentCommand;
+import de.tudl.playground.datorum.gateway.command.ResultCommand;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * The {@code CommandDeduplicationService} remembers the outcomes of {@link IdempotentCommand}s.
+ * <p>
+ * Outcomes are kept in a bounded, least-recently-used in-memory cache that is backed by the persisted
+ * {@code command_dedup} table, so duplicates are also recognised after the cache evicted an entry or the
+ * application restarted. Entries expire after a configurable time-to-live, both in the cache and in the table, from
+ * which expired rows are purged periodically.
+ * </p>
+ * <p>
+ * Only the status of an outcome is persisted. A duplicate of a {@link ResultCommand} that is answered from the table
+ * is therefore reported as {@link CommandOutcome.Status#DUPLICATE} instead of as completed without its result.
+ * </p>
+ *
+ * <h2>Lifecycle of a Key</h2>
+ * <ol>
+ *     <li>{@link #findOutcome(String, Class)} answers duplicates of commands that already completed.</li>
+ *     <li>{@link #tryAcquire(String)} claims a key for execution, so concurrent duplicates are recognised
+ *         while the first command is still running.</li>
+ *     <li>{@link #release(String, Class, CommandOutcome)} records the outcome and frees the key. Only completed
+ *         commands are recorded; a failed command may be retried with the same key.</li>
+ * </ol>
+ *
+ * <h2>Configuration</h2>
+ * <ul>
+ *     <li>{@code datorum.command.idempotency.cache-size}: the maximum number of outcomes kept in memory.</li>
+ *     <li>{@code datorum.command.idempotency.ttl-minutes}: how long an outcome deduplicates commands.</li>
+ *     <li>{@code datorum.command.idempotency.purge-interval-minutes}: how often expired outcomes are purged.</li>
+ * </ul>
+ *
+ * <h2>Thread Safety</h2>
+ * This class is thread-safe. The cache and the set of running keys are guarded by the service's monitor.
+ */
+@Slf4j
+@Service
+public class CommandDeduplicationService {
+
+    private final ProcessedCommandRepository processedCommandRepository;
+    private final Duration timeToLive;
+    private final long purgeIntervalMinutes;
+    private final Map<String, CachedOutcome> outcomeCache;
+    private final Set<String> runningKeys = new HashSet<>();
+
+    private final ScheduledExecutorService purgeExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "command-dedup-purge");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    /**
+     * Constructs a {@code CommandDeduplicationService}.
+     *
+     * @param processedCommandRepository the repository persisting the outcomes of commands.
+     * @param cacheSize                  the maximum number of outcomes kept in memory.
+     * @param timeToLiveMinutes          the number of minutes an outcome deduplicates commands.
+     * @param purgeIntervalMinutes       the number of minutes between two purges of expired outcomes.
+     */
+    public CommandDeduplicationService(
+            ProcessedCommandRepository processedCommandRepository,
+            @Value("${datorum.command.idempotency.cache-size:1000}") int cacheSize,
+            @Value("${datorum.command.idempotency.ttl-minutes:1440}") long timeToLiveMinutes,
+            @Value("${datorum.command.idempotency.purge-interval-minutes:60}") long purgeIntervalMinutes
+    ) {
+        this.processedCommandRepository = processedCommandRepository;
+        this.timeToLive = Duration.ofMinutes(timeToLiveMinutes);
+        this.purgeIntervalMinutes = purgeIntervalMinutes;
+        this.outcomeCache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedOutcome> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Purges expired outcomes once the application is ready and then every purge interval.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+        purgeExecutor.scheduleWithFixedDelay(
+                this::purgeExpiredOutcomes, 0, purgeIntervalMinutes, TimeUnit.MINUTES
+        );
+    }
+
+    /**
+     * Stops purging expired outcomes.
+     */
+    @PreDestroy
+    public void stop() {
+        purgeExecutor.shutdownNow();
+    }
+
+    /**
+     * Removes expired outcomes from the cache and the persisted table.
+     */
+    public void purgeExpiredOutcomes() {
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (this) {
+            outcomeCache.values().removeIf(cached -> cached.isExpired(now));
+        }
+        try {
+            processedCommandRepository.deleteByExpiresAtBefore(now);
+        } catch (Exception e) {
+            // Keeps the purge scheduled, the rows are removed by the next run
+            log.warn("Failed to purge expired command outcomes", e);
+        }
+    }
+
+    /**
+     * Returns the recorded outcome of the command with the given key, if it has been processed already.
+     * <p>
+     * Outcomes read from the persisted table carry no result. For a {@link ResultCommand}, they are answered with
+     * {@link CommandOutcome.Status#DUPLICATE}, so callers do not mistake a missing result for a {@code null} result.
+     * </p>
+     *
+     * @param idempotencyKey the idempotency key of the command.
+     * @param commandType    the class of the command.
+     * @return the recorded outcome, or {@link Optional#empty()} if the key is unknown or expired.
+     */
+    public Optional<CommandOutcome> findOutcome(String idempotencyKey, Class<?> commandType) {
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (this) {
+            CachedOutcome cached = cachedOutcome(idempotencyKey, now);
+            if (cached != null) {
+                return Optional.of(cached.outcome());
+            }
+        }
+
+        Optional<CachedOutcome> persisted = processedCommandRepository.findById(idempotencyKey)
+                .filter(processedCommand -> processedCommand.getExpiresAt().isAfter(now))
+                .map(processedCommand -> new CachedOutcome(
+                        ResultCommand.class.isAssignableFrom(commandType)
+                                ? CommandOutcome.duplicate()
+                                : new CommandOutcome(processedCommand.getStatus(), null, null),
+                        processedCommand.getExpiresAt()
+                ));
+
+        persisted.ifPresent(outcome -> {
+            synchronized (this) {
+                outcomeCache.putIfAbsent(idempotencyKey, outcome);
+            }
+        });
+        return persisted.map(CachedOutcome::outcome);
+    }
+
+    /**
+     * Claims the given key for the execution of a command.
+     *
+     * @param idempotencyKey the idempotency key of the command.
+     * @return {@code true} if the key was claimed, {@code false} if a command with the same key is running
+     *         or has already completed.
+     */
+    public synchronized boolean tryAcquire(String idempotencyKey) {
+        return cachedOutcome(idempotencyKey, LocalDateTime.now()) == null && runningKeys.add(idempotencyKey);
+    }
+
+    /**
+     * Records the outcome of a command and frees its key.
+     * <p>
+     * Completed commands are cached and persisted. Failed commands are not recorded, so the key can be used to
+     * retry the command.
+     * </p>
+     *
+     * @param idempotencyKey the idempotency key of the command.
+     * @param commandType    the class of the command.
+     * @param outcome        the outcome of the command.
+     */
+    public void release(String idempotencyKey, Class<?> commandType, CommandOutcome outcome) {
+        try {
+            if (outcome.isCompleted()) {
+                LocalDateTime expiresAt = persist(idempotencyKey, commandType, outcome);
+                synchronized (this) {
+                    outcomeCache.put(idempotencyKey, new CachedOutcome(outcome, expiresAt));
+                }
+            }
+        } finally {
+            synchronized (this) {
+                runningKeys.remove(idempotencyKey);
+            }
+        }
+    }
+
+    /**
+     * Returns the cached outcome of the given key, removing it if it has expired. Must hold the service's monitor.
+     */
+    private CachedOutcome cachedOutcome(String idempotencyKey, LocalDateTime now) {
+        CachedOutcome cached = outcomeCache.get(idempotencyKey);
+        if (cached != null && cached.isExpired(now)) {
+            outcomeCache.remove(idempotencyKey);
+            return null;
+        }
+        return cached;
+    }
+
+    private LocalDateTime persist(String idempotencyKey, Class<?> commandType, CommandOutcome outcome) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(timeToLive);
+        try {
+            ProcessedCommand processedCommand = new ProcessedCommand();
+            processedCommand.setIdempotencyKey(idempotencyKey);
+            processedCommand.setCommandType(commandType.getName());
+            processedCommand.setStatus(outcome.status());
+            processedCommand.setProcessedAt(now);
+            processedCommand.setExpiresAt(expiresAt);
+
+            processedCommandRepository.save(processedCommand);
+        } catch (Exception e) {
+            // The in-memory cache still deduplicates the command, only restarts are not covered
+            log.warn("Failed to persist outcome of command {} with key {}", commandType.getName(), idempotencyKey, e);
+        }
+        return expiresAt;
+    }
+
+    /**
+     * An outcome in the cache, together with the time it stops deduplicating commands.
+     *
+     * @param outcome   the recorded outcome.
+     * @param expiresAt the time the outcome expires.
+     */
+    private record CachedOutcome(CommandOutcome outcome, LocalDateTime expiresAt) {
+
+        boolean isExpired(LocalDateTime now) {
+            return !expiresAt.isAfter(now);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package de.tudl.playground.datorum.gateway.command.idempotency;
+
+import de.tudl.playground.datorum.gateway.command.CommandOutcome;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Entity recording the outcome of an idempotent command, keyed by its idempotency key.
+ * <p>
+ * Entries expire after the configured time-to-live; afterwards, a command with the same key is executed again.
+ * </p>
+ */
+@Entity
+@Getter
+@Setter
+@Table(
+        name = "[command_dedup]",
+        indexes = @Index(name = "ix_command_dedup_expires", columnList = "expiresAt")
+)
+public class ProcessedCommand {
+
+    /**
+     * The idempotency key of the command.
+     */
+    @Id
+    private String idempotencyKey;
+
+    /**
+     * The fully qualified class name of the command.
+     */
+    private String commandType;
+
+    /**
+     * The final status of the command.
+     */
+    @Enumerated(EnumType.STRING)
+    private CommandOutcome.Status status;
+
+    /**
+     * The timestamp indicating when the command was processed.
+     */
+    private LocalDateTime processedAt;
+
+    /**
+     * The timestamp after which the entry no longer deduplicates commands.
+     */
+    private LocalDateTime expiresAt;
+}
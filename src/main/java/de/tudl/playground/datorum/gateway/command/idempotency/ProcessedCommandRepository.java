@@ -0,0 +1,20 @@
+package de.tudl.playground.datorum.gateway.command.idempotency;
+
+import java.time.LocalDateTime;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repository for the persisted outcomes of idempotent commands.
+ */
+@Repository
+public interface ProcessedCommandRepository extends JpaRepository<ProcessedCommand, String> {
+    /**
+     * Deletes all entries that expired before the given point in time.
+     *
+     * @param expiresAt the point in time before which entries are considered expired.
+     */
+    @Transactional
+    void deleteByExpiresAtBefore(LocalDateTime expiresAt);
+}
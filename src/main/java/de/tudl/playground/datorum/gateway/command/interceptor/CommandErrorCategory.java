@@ -0,0 +1,53 @@
+package de.tudl.playground.datorum.gateway.command.interceptor;
+
+import de.tudl.playground.datorum.gateway.command.exception.CommandRejectedException;
+import de.tudl.playground.datorum.gateway.command.exception.CommandValidationException;
+import java.sql.SQLTransientException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+
+/**
+ * The category of an error raised while executing a command.
+ */
+public enum CommandErrorCategory {
+    /** The command is invalid and fails again if retried unchanged. */
+    VALIDATION,
+    /** The command path was overloaded; the command may succeed if retried later. */
+    REJECTED,
+    /** A temporary infrastructure failure, such as a lock timeout; the command may succeed if retried. */
+    TRANSIENT,
+    /** Any other error, typically a bug or a permanent infrastructure failure. */
+    TECHNICAL;
+
+    /**
+     * Classifies an error raised while executing a command.
+     *
+     * @param error the error.
+     * @return the category of the error.
+     */
+    public static CommandErrorCategory of(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof CommandValidationException || cause instanceof IllegalArgumentException) {
+                return VALIDATION;
+            }
+            if (cause instanceof CommandRejectedException) {
+                return REJECTED;
+            }
+            if (cause instanceof TransientDataAccessException
+                    || cause instanceof RecoverableDataAccessException
+                    || cause instanceof SQLTransientException) {
+                return TRANSIENT;
+            }
+        }
+        return TECHNICAL;
+    }
+
+    /**
+     * Returns whether a command failing with an error of this category may succeed if retried.
+     *
+     * @return {@code true} for {@link #REJECTED} and {@link #TRANSIENT}.
+     */
+    public boolean isRetryable() {
+        return this == REJECTED || this == TRANSIENT;
+    }
+}
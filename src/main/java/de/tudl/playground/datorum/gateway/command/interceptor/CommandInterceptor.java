@@ -0,0 +1,36 @@
+package de.tudl.playground.datorum.gateway.command.interceptor;
+
+/**
+ * Intercepts the execution of commands.
+ * <p>
+ * Interceptors are Spring beans ordered by {@link org.springframework.core.annotation.Order @Order}; the interceptor
+ * with the lowest order is the outermost. An interceptor may act before and after the rest of the chain, or
+ * short-circuit it by returning or throwing without calling {@link CommandInvocation#proceed()}.
+ * </p>
+ * <p>
+ * The interceptors applying to a command type are determined once per type via {@link #supports(Class)}, so
+ * interceptors that do not apply add no cost to the commands of that type.
+ * </p>
+ */
+public interface CommandInterceptor {
+
+    /**
+     * Returns whether this interceptor applies to commands of the given type.
+     *
+     * @param commandType the exact class of the command.
+     * @return {@code true} if the interceptor applies, which is the default.
+     */
+    default boolean supports(Class<?> commandType) {
+        return true;
+    }
+
+    /**
+     * Intercepts the execution of a command.
+     *
+     * @param command    the command being executed.
+     * @param invocation the remainder of the chain.
+     * @return the result of the command, usually the value returned by {@code invocation.proceed()}.
+     * @throws Exception if the command fails.
+     */
+    Object intercept(Object command, CommandInvocation invocation) throws Exception;
+}
@@ -0,0 +1,63 @@
+package de.tudl.playground.datorum.gateway.command.interceptor;
+
+import java.util.List;
+import org.springframework.stereotype.Component;
+
+/**
+ * The ordered chain of {@link CommandInterceptor}s around the handlers of commands.
+ * <p>
+ * The interceptors applying to a command type are computed once, on the first command of that type, and cached in
+ * a {@link ClassValue}. Executing a command therefore involves no reflection or filtering.
+ * </p>
+ *
+ * <h2>Thread Safety</h2>
+ * This class is thread-safe.
+ */
+@Component
+public class CommandInterceptorChain {
+
+    private final List<CommandInterceptor> interceptors;
+
+    private final ClassValue<CommandInterceptor[]> interceptorsByType = new ClassValue<>() {
+        @Override
+        protected CommandInterceptor[] computeValue(Class<?> commandType) {
+            return interceptors.stream()
+                    .filter(interceptor -> interceptor.supports(commandType))
+                    .toArray(CommandInterceptor[]::new);
+        }
+    };
+
+    /**
+     * Constructs a {@code CommandInterceptorChain}.
+     *
+     * @param interceptors the interceptors, outermost first.
+     */
+    public CommandInterceptorChain(List<CommandInterceptor> interceptors) {
+        this.interceptors = List.copyOf(interceptors);
+    }
+
+    /**
+     * Executes a command through the interceptors applying to its type.
+     *
+     * @param command the command to execute.
+     * @param handler the invocation of the command's handler, ending the chain.
+     * @return the result of the command.
+     * @throws Exception if an interceptor or the handler fails.
+     */
+    public Object execute(Object command, CommandInvocation handler) throws Exception {
+        CommandInterceptor[] chain = interceptorsByType.get(command.getClass());
+        return chain.length == 0 ? handler.proceed() : proceed(chain, 0, command, handler);
+    }
+
+    private static Object proceed(
+            CommandInterceptor[] chain,
+            int index,
+            Object command,
+            CommandInvocation handler
+    ) throws Exception {
+        if (index == chain.length) {
+            return handler.proceed();
+        }
+        return chain[index].intercept(command, () -> proceed(chain, index + 1, command, handler));
+    }
+}
@@ -0,0 +1,16 @@
+package de.tudl.playground.datorum.gateway.command.interceptor;
+
+/**
+ * The remainder of the interceptor chain of a command, ending with its handler.
+ */
+@FunctionalInterface
+public interface CommandInvocation {
+
+    /**
+     * Passes the command on to the next interceptor, or to its handler if this is the last interceptor.
+     *
+     * @return the value returned by the handler, or {@code null} if it returned none.
+     * @throws Exception if an interceptor or the handler fails.
+     */
+    Object proceed() throws Exception;
+}
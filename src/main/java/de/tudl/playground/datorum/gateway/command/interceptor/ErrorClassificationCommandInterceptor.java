@@ -0,0 +1,47 @@
+package de.tudl.playground.datorum.gateway.command.interceptor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Classifies the errors raised by commands into {@link CommandErrorCategory categories}, counts them in
+ * {@code datorum.command.errors} tagged with the command type and category, and logs them at a level matching their
+ * category. The error itself is rethrown unchanged.
+ */
+@Slf4j
+@Component
+@Order(ErrorClassificationCommandInterceptor.ORDER)
+public class ErrorClassificationCommandInterceptor implements CommandInterceptor {
+
+    public static final int ORDER = 100;
+
+    private final MeterRegistry meterRegistry;
+
+    public ErrorClassificationCommandInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object intercept(Object command, CommandInvocation invocation) throws Exception {
+        try {
+            return invocation.proceed();
+        } catch (Exception e) {
+            CommandErrorCategory category = CommandErrorCategory.of(e);
+            Counter.builder("datorum.command.errors")
+                    .tag("command", command.getClass().getSimpleName())
+                    .tag("category", category.name())
+                    .register(meterRegistry)
+                    .increment();
+
+            switch (category) {
+                case VALIDATION -> log.info("Command {} is invalid: {}", command.getClass().getSimpleName(), e.getMessage());
+                case REJECTED, TRANSIENT -> log.warn("Command {} failed temporarily: {}", command.getClass().getSimpleName(), e.getMessage());
+                case TECHNICAL -> log.error("Command {} failed", command.getClass().getSimpleName(), e);
+            }
+            throw e;
+        }
+    }
+}
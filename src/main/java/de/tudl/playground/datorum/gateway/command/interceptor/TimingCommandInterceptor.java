@@ -0,0 +1,54 @@
+package de.tudl.playground.datorum.gateway.command.interceptor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.TimeUnit;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records the latency of every command in the timer {@code datorum.command.duration}, tagged with the command type
+ * and whether the command succeeded. It is the outermost interceptor, so the recorded time includes all other
+ * interceptors.
+ */
+@Component
+@Order(TimingCommandInterceptor.ORDER)
+public class TimingCommandInterceptor implements CommandInterceptor {
+
+    public static final int ORDER = 0;
+
+    private final MeterRegistry meterRegistry;
+
+    private final ClassValue<Timer[]> timersByType = new ClassValue<>() {
+        @Override
+        protected Timer[] computeValue(Class<?> commandType) {
+            return new Timer[] {timer(commandType, "success"), timer(commandType, "error")};
+        }
+    };
+
+    public TimingCommandInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object intercept(Object command, CommandInvocation invocation) throws Exception {
+        Timer[] timers = timersByType.get(command.getClass());
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Object result = invocation.proceed();
+            success = true;
+            return result;
+        } finally {
+            (success ? timers[0] : timers[1]).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private Timer timer(Class<?> commandType, String outcome) {
+        return Timer.builder("datorum.command.duration")
+                .description("Execution time of commands, including their interceptors")
+                .tag("command", commandType.getSimpleName())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+}
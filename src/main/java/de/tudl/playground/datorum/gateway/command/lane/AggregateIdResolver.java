@@ -0,0 +1,69 @@
+package de.tudl.playground.datorum.gateway.command.lane;
+
+import de.tudl.playground.datorum.gateway.command.annotation.TargetAggregateId;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.Optional;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Resolves the ID of the aggregate a command targets, as marked by {@link TargetAggregateId}.
+ * <p>
+ * The accessor of every command type is looked up once and cached in a {@link ClassValue}.
+ * </p>
+ */
+final class AggregateIdResolver {
+
+    private static final ClassValue<Optional<MethodHandle>> ACCESSORS = new ClassValue<>() {
+        @Override
+        protected Optional<MethodHandle> computeValue(Class<?> commandType) {
+            return findAccessor(commandType);
+        }
+    };
+
+    private AggregateIdResolver() {
+    }
+
+    /**
+     * Returns the ID of the aggregate the given command targets.
+     *
+     * @param command the command.
+     * @return the aggregate ID, or {@link Optional#empty()} if the command has no target aggregate or its ID is
+     *         {@code null}.
+     */
+    static Optional<String> resolve(Object command) {
+        Optional<MethodHandle> accessor = ACCESSORS.get(command.getClass());
+        if (accessor.isEmpty()) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.ofNullable((Object) accessor.get().invokeExact(command)).map(String::valueOf);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Failed to read the target aggregate ID of " + command.getClass().getName(), e);
+        }
+    }
+
+    private static Optional<MethodHandle> findAccessor(Class<?> commandType) {
+        // Annotations on record components are propagated to the private field backing the component
+        for (Class<?> type = commandType; type != null && type != Object.class; type = type.getSuperclass()) {
+            for (Field field : type.getDeclaredFields()) {
+                if (field.isAnnotationPresent(TargetAggregateId.class)) {
+                    try {
+                        ReflectionUtils.makeAccessible(field);
+                        return Optional.of(adapt(MethodHandles.lookup().unreflectGetter(field)));
+                    } catch (IllegalAccessException e) {
+                        throw new IllegalStateException("Target aggregate ID " + field + " is not accessible", e);
+                    }
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static MethodHandle adapt(MethodHandle accessor) {
+        return accessor.asType(MethodType.methodType(Object.class, Object.class));
+    }
+}
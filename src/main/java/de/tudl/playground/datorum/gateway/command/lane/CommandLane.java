@@ -0,0 +1,152 @@
+package de.tudl.playground.datorum.gateway.command.lane;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A single-threaded mailbox executing the commands of the aggregates hashed onto it.
+ * <p>
+ * The mailbox holds one queue per {@link PriorityClass}, served by smooth weighted round-robin: among the non-empty
+ * queues, each one receives a share of the turns proportional to its weight, and the turns of a queue are spread
+ * evenly instead of coming in bursts. Commands of one aggregate are executed in submission order: while an aggregate
+ * has commands waiting, further commands of the aggregate join them in their queue, whatever their priority class.
+ * </p>
+ */
+@Slf4j
+final class CommandLane implements Runnable {
+
+    private static final PriorityClass[] PRIORITIES = PriorityClass.values();
+
+    private final int index;
+    private final int[] weights;
+    private final int[] currentWeights = new int[PRIORITIES.length];
+    private final ArrayDeque<Task>[] queues;
+    private final Map<String, Backlog> backlogs = new HashMap<>();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    CommandLane(int index, int[] weights) {
+        this.index = index;
+        this.weights = weights.clone();
+        @SuppressWarnings("unchecked")
+        ArrayDeque<Task>[] queues = (ArrayDeque<Task>[]) new ArrayDeque<?>[PRIORITIES.length];
+        this.queues = queues;
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new ArrayDeque<>();
+        }
+        this.thread = new Thread(this, "command-lane-" + index);
+        this.thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    void stop() {
+        running = false;
+        thread.interrupt();
+    }
+
+    void submit(String aggregateId, PriorityClass priority, Runnable task) {
+        if (!running) {
+            throw new IllegalStateException("Command lane " + index + " has been stopped");
+        }
+
+        lock.lock();
+        try {
+            Backlog backlog = backlogs.computeIfAbsent(aggregateId, id -> new Backlog(priority.ordinal()));
+            backlog.waiting++;
+            queues[backlog.queue].add(new Task(aggregateId, task));
+            queueDepth.incrementAndGet();
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int queueDepth() {
+        return queueDepth.get();
+    }
+
+    boolean isLaneThread(Thread candidate) {
+        return thread == candidate;
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                take().run();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Unexpected error on command lane {}", index, e);
+            }
+        }
+    }
+
+    private Runnable take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (queueDepth.get() == 0) {
+                notEmpty.await();
+            }
+
+            int queue = nextQueue();
+            Task task = queues[queue].poll();
+            if (queues[queue].isEmpty()) {
+                currentWeights[queue] = 0;
+            }
+            queueDepth.decrementAndGet();
+
+            Backlog backlog = backlogs.get(task.aggregateId());
+            if (--backlog.waiting == 0) {
+                backlogs.remove(task.aggregateId());
+            }
+            return task.runnable();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Picks the queue to serve next by smooth weighted round-robin over the non-empty queues.
+     */
+    private int nextQueue() {
+        int selected = -1;
+        int totalWeight = 0;
+        for (int i = 0; i < queues.length; i++) {
+            if (queues[i].isEmpty()) {
+                continue;
+            }
+            currentWeights[i] += weights[i];
+            totalWeight += weights[i];
+            if (selected < 0 || currentWeights[i] > currentWeights[selected]) {
+                selected = i;
+            }
+        }
+        currentWeights[selected] -= totalWeight;
+        return selected;
+    }
+
+    private record Task(String aggregateId, Runnable runnable) {
+    }
+
+    private static final class Backlog {
+        private final int queue;
+        private int waiting;
+
+        private Backlog(int queue) {
+            this.queue = queue;
+        }
+    }
+}
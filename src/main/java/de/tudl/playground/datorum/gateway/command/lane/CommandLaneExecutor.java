@@ -0,0 +1,226 @@
+package de.tudl.playground.datorum.gateway.command.lane;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code CommandLaneExecutor} serializes the commands of each aggregate, like the mailbox of an actor.
+ * <p>
+ * The ID of the aggregate a command targets (see
+ * {@link de.tudl.playground.datorum.gateway.command.annotation.TargetAggregateId}) is hashed onto one of a fixed
+ * number of lanes. Every lane is a single thread working off its own queue, so commands for one aggregate run one
+ * after another in submission order without any locking, while commands for different aggregates proceed in
+ * parallel on the other lanes.
+ * </p>
+ *
+ * <h2>Priorities</h2>
+ * Every lane serves its commands by {@link PriorityClass}, with weighted fair scheduling between the classes. The
+ * weights are set by {@code datorum.command.lanes.weight.interactive}, {@code datorum.command.lanes.weight.normal}
+ * and {@code datorum.command.lanes.weight.bulk}. Commands never overtake earlier commands of the same aggregate.
+ *
+ * <h2>Reentrancy</h2>
+ * A command sent from within a command handler, i.e. on a lane thread, is executed inline if its aggregate is hashed
+ * onto the same lane, as the lane cannot run it while it waits for the handler. A command for an aggregate of another
+ * lane is queued on that lane like any other, so it never races the commands of its aggregate. Lane threads must not
+ * wait for tasks queued on other lanes, which might be waiting for them in turn; {@link #isLaneThread()} tells callers
+ * whether they run on a lane.
+ *
+ * <h2>Exclusive Sections</h2>
+ * {@link #runExclusively(Collection, Supplier)} parks the lanes of a set of aggregates while a task runs, so the task
+ * never races a command of these aggregates. Bulks use it to open and flush their batch.
+ *
+ * <h2>Configuration and Metrics</h2>
+ * The number of lanes is set by {@code datorum.command.lanes.count} and defaults to the number of available cores.
+ * The queue depth of each lane is published as the gauge {@code datorum.command.lane.queue.depth}, tagged with the
+ * index of the lane.
+ *
+ * <h2>Thread Safety</h2>
+ * This class is thread-safe.
+ */
+@Component
+public class CommandLaneExecutor {
+
+    private final CommandLane[] lanes;
+
+    /**
+     * Constructs a {@code CommandLaneExecutor} and starts its lanes.
+     *
+     * @param laneCount         the number of lanes, or a value below {@code 1} to use one lane per available core.
+     * @param interactiveWeight the weight of {@link PriorityClass#INTERACTIVE} commands.
+     * @param normalWeight      the weight of {@link PriorityClass#NORMAL} commands.
+     * @param bulkWeight        the weight of {@link PriorityClass#BULK} commands.
+     * @param meterRegistry     the registry the queue depth gauges are registered with.
+     */
+    public CommandLaneExecutor(
+            @Value("${datorum.command.lanes.count:0}") int laneCount,
+            @Value("${datorum.command.lanes.weight.interactive:16}") int interactiveWeight,
+            @Value("${datorum.command.lanes.weight.normal:4}") int normalWeight,
+            @Value("${datorum.command.lanes.weight.bulk:1}") int bulkWeight,
+            MeterRegistry meterRegistry
+    ) {
+        if (interactiveWeight < 1 || normalWeight < 1 || bulkWeight < 1) throw new IllegalArgumentException(
+                "Lane weights must be positive"
+        );
+
+        int[] weights = new int[PriorityClass.values().length];
+        weights[PriorityClass.INTERACTIVE.ordinal()] = interactiveWeight;
+        weights[PriorityClass.NORMAL.ordinal()] = normalWeight;
+        weights[PriorityClass.BULK.ordinal()] = bulkWeight;
+
+        int count = laneCount > 0 ? laneCount : Runtime.getRuntime().availableProcessors();
+        this.lanes = new CommandLane[count];
+        for (int i = 0; i < count; i++) {
+            CommandLane lane = new CommandLane(i, weights);
+            Gauge.builder("datorum.command.lane.queue.depth", lane, CommandLane::queueDepth)
+                    .description("Number of commands waiting on the command lane")
+                    .tag("lane", String.valueOf(i))
+                    .register(meterRegistry);
+            lane.start();
+            lanes[i] = lane;
+        }
+    }
+
+    /**
+     * Returns the ID of the aggregate the given command targets.
+     *
+     * @param command the command.
+     * @return the aggregate ID, or {@link Optional#empty()} if the command has no target aggregate.
+     */
+    public Optional<String> targetAggregateId(Object command) {
+        return AggregateIdResolver.resolve(command);
+    }
+
+    /**
+     * Executes a task on the lane of the given aggregate with {@link PriorityClass#NORMAL} priority.
+     *
+     * @param aggregateId the ID of the aggregate the task belongs to.
+     * @param task        the task to execute.
+     * @param <T>         the type of the task's result.
+     * @return a future completing with the result of the task, or exceptionally with its error.
+     */
+    public <T> CompletableFuture<T> submit(String aggregateId, Supplier<T> task) {
+        return submit(aggregateId, PriorityClass.NORMAL, task);
+    }
+
+    /**
+     * Executes a task on the lane of the given aggregate.
+     *
+     * @param aggregateId the ID of the aggregate the task belongs to.
+     * @param priority    the priority class of the task.
+     * @param task        the task to execute.
+     * @param <T>         the type of the task's result.
+     * @return a future completing with the result of the task, or exceptionally with its error.
+     */
+    public <T> CompletableFuture<T> submit(String aggregateId, PriorityClass priority, Supplier<T> task) {
+        CommandLane lane = laneOf(aggregateId);
+        if (lane.isLaneThread(Thread.currentThread())) {
+            try {
+                return CompletableFuture.completedFuture(task.get());
+            } catch (Throwable e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        lane.submit(aggregateId, priority, () -> {
+            try {
+                future.complete(task.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Executes a task on the calling thread while the lanes of the given aggregates are parked.
+     * <p>
+     * Every lane of the aggregates is parked behind the commands already queued for the aggregate it was reached
+     * through, so the task starts once these commands have completed and no command of the aggregates runs until the
+     * task has finished. Exclusive sections run one at a time, so two sections never wait for each other's lanes.
+     * </p>
+     *
+     * @param aggregateIds the IDs of the aggregates whose lanes are parked.
+     * @param task         the task to execute.
+     * @param <T>          the type of the task's result.
+     * @return the result of the task.
+     * @throws IllegalStateException if called from within a command lane, or if interrupted while waiting for the lanes.
+     */
+    public synchronized <T> T runExclusively(Collection<String> aggregateIds, Supplier<T> task) {
+        if (isLaneThread()) throw new IllegalStateException(
+                "Exclusive sections cannot be run on a command lane"
+        );
+
+        Map<CommandLane, String> parkedLanes = new LinkedHashMap<>();
+        for (String aggregateId : aggregateIds) {
+            parkedLanes.putIfAbsent(laneOf(aggregateId), aggregateId);
+        }
+        if (parkedLanes.isEmpty()) {
+            return task.get();
+        }
+
+        CountDownLatch parked = new CountDownLatch(parkedLanes.size());
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            parkedLanes.forEach((lane, aggregateId) -> lane.submit(aggregateId, PriorityClass.INTERACTIVE, () -> {
+                parked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    // The lane is stopping
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            parked.await();
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while parking the command lanes", e);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    /**
+     * Returns whether the calling thread is one of the lanes.
+     *
+     * @return {@code true} if called from within a command lane.
+     */
+    public boolean isLaneThread() {
+        return currentLane() != null;
+    }
+
+    /**
+     * Stops all lanes. Commands still queued are discarded.
+     */
+    @PreDestroy
+    public void stop() {
+        for (CommandLane lane : lanes) {
+            lane.stop();
+        }
+    }
+
+    private CommandLane laneOf(String aggregateId) {
+        return lanes[Math.floorMod(aggregateId.hashCode(), lanes.length)];
+    }
+
+    private CommandLane currentLane() {
+        Thread current = Thread.currentThread();
+        for (CommandLane lane : lanes) {
+            if (lane.isLaneThread(current)) {
+                return lane;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,38 @@
+package de.tudl.playground.datorum.gateway.command.lane;
+
+import de.tudl.playground.datorum.gateway.command.annotation.CommandPriority;
+
+/**
+ * The priority class of a command, which determines its share of the command lanes.
+ * <p>
+ * Every lane keeps one queue per priority class and serves the queues by weighted fair scheduling, so commands of a
+ * lower class keep making progress but never hold up commands of a higher class for long. The classes are declared
+ * per command type with {@link CommandPriority}, or per send.
+ * </p>
+ */
+public enum PriorityClass {
+    /** Commands a user is waiting for, such as a login. */
+    INTERACTIVE,
+    /** Commands without particular latency requirements. */
+    NORMAL,
+    /** Commands of imports and background jobs, which are sent in large numbers. */
+    BULK;
+
+    private static final ClassValue<PriorityClass> DECLARED = new ClassValue<>() {
+        @Override
+        protected PriorityClass computeValue(Class<?> commandType) {
+            CommandPriority annotation = commandType.getAnnotation(CommandPriority.class);
+            return annotation != null ? annotation.value() : NORMAL;
+        }
+    };
+
+    /**
+     * Returns the priority class declared by the type of a command.
+     *
+     * @param command the command.
+     * @return the class declared by {@link CommandPriority}, or {@link #NORMAL} if the type declares none.
+     */
+    public static PriorityClass of(Object command) {
+        return DECLARED.get(command.getClass());
+    }
+}
@@ -0,0 +1,362 @@
+package de.tudl.playground.datorum.gateway.command.schedule;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.tudl.playground.datorum.gateway.command.CommandGateway;
+import de.tudl.playground.datorum.gateway.command.CommandOutcome;
+import de.tudl.playground.datorum.gateway.command.CommandScheduler;
+import de.tudl.playground.datorum.gateway.command.lane.PriorityClass;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.util.ClassUtils;
+
+/**
+ * The {@code DefaultCommandScheduler} is the default implementation of the {@link CommandScheduler} interface.
+ * <p>
+ * Every scheduled command is persisted as a {@link ScheduledCommand} and its ID is added to an in-memory
+ * {@link HierarchicalTimingWheel}, so scheduling and firing a command costs O(1) regardless of the number of pending
+ * commands. A scheduler thread advances the wheel every {@code datorum.command.scheduler.tick-ms} milliseconds and
+ * sends the due commands through {@link CommandGateway#sendAll(java.util.Collection, PriorityClass)} in batches of
+ * {@code datorum.command.scheduler.batch-size} commands, with {@link PriorityClass#BULK} priority. Sent commands are
+ * deleted from the table.
+ * </p>
+ * <p>
+ * When the application is ready, the pending entries of the table are loaded into the wheel, so scheduled commands
+ * survive restarts. Commands due while the application was down are sent right away.
+ * </p>
+ *
+ * <h2>Failures</h2>
+ * A command whose outcome is {@link CommandOutcome.Status#FAILED} is retried after
+ * {@code datorum.command.scheduler.retry-delay-ms} milliseconds times the number of failed attempts. After
+ * {@code datorum.command.scheduler.max-attempts} attempts, it is marked as {@link ScheduledCommand.Status#FAILED} and
+ * kept in the table for inspection.
+ * <p>
+ * A command whose outcome is {@link CommandOutcome.Status#DUPLICATE} shares its idempotency key with a command that
+ * is still running, so whether it took effect is not known yet. It is sent again after
+ * {@code datorum.command.scheduler.retry-delay-ms} milliseconds without counting as a failed attempt, and deleted once
+ * the outcome of the running command has been recorded.
+ * </p>
+ * <p>
+ * If a batch cannot be sent at all, for example because the table or the gateway is unavailable, its IDs are put back
+ * into the wheel and sent again after {@code datorum.command.scheduler.retry-delay-ms} milliseconds times the number of
+ * consecutive failed batches, up to {@code datorum.command.scheduler.max-attempts} times the delay.
+ * </p>
+ *
+ * <h2>Metrics</h2>
+ * <ul>
+ *     <li>{@code datorum.command.scheduler.pending}: the number of timers in the wheel.</li>
+ * </ul>
+ *
+ * <h2>Thread Safety</h2>
+ * This class is thread-safe. The wheel is guarded by its monitor; due commands are sent by the scheduler thread only.
+ */
+@Slf4j
+@Service
+public class DefaultCommandScheduler implements CommandScheduler {
+
+    private static final int WHEEL_BITS = 8;
+    private static final int WHEEL_LEVELS = 4;
+    private static final int LOAD_PAGE_SIZE = 1000;
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    private final ScheduledCommandRepository scheduledCommandRepository;
+    private final CommandGateway commandGateway;
+    private final long tickMillis;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryDelayMillis;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HierarchicalTimingWheel<Long> wheel;
+    private final List<Long> dueIds = new ArrayList<>();
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "command-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean started = new AtomicBoolean();
+    private int consecutiveFailures;
+
+    /**
+     * Constructs a {@code DefaultCommandScheduler}.
+     *
+     * @param scheduledCommandRepository the repository persisting the scheduled commands.
+     * @param commandGateway             the gateway the due commands are sent through.
+     * @param tickMillis                 the resolution of the timing wheel in milliseconds.
+     * @param batchSize                  the maximum number of commands sent at once.
+     * @param maxAttempts                the number of failed attempts after which a command is given up.
+     * @param retryDelayMillis           the delay before a failed command is retried, per failed attempt.
+     * @param meterRegistry              the registry the scheduler metrics are registered with.
+     */
+    public DefaultCommandScheduler(
+            ScheduledCommandRepository scheduledCommandRepository,
+            CommandGateway commandGateway,
+            @Value("${datorum.command.scheduler.tick-ms:100}") long tickMillis,
+            @Value("${datorum.command.scheduler.batch-size:500}") int batchSize,
+            @Value("${datorum.command.scheduler.max-attempts:5}") int maxAttempts,
+            @Value("${datorum.command.scheduler.retry-delay-ms:10000}") long retryDelayMillis,
+            MeterRegistry meterRegistry
+    ) {
+        this.scheduledCommandRepository = scheduledCommandRepository;
+        this.commandGateway = commandGateway;
+        this.tickMillis = tickMillis;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryDelayMillis = retryDelayMillis;
+        this.wheel = new HierarchicalTimingWheel<>(tickMillis, WHEEL_BITS, WHEEL_LEVELS, System.currentTimeMillis());
+        Gauge.builder("datorum.command.scheduler.pending", this, scheduler -> scheduler.pending())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loads the pending commands into the timing wheel and starts the scheduler thread once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!started.compareAndSet(false, true)) {
+            return;
+        }
+
+        long lastId = 0;
+        int loaded = 0;
+        List<ScheduledCommand> page;
+        do {
+            page = scheduledCommandRepository.findByStatusAndIdGreaterThanOrderByIdAsc(
+                    ScheduledCommand.Status.PENDING, lastId, Limit.of(LOAD_PAGE_SIZE)
+            );
+            for (ScheduledCommand scheduledCommand : page) {
+                enqueue(scheduledCommand);
+                lastId = scheduledCommand.getId();
+            }
+            loaded += page.size();
+        } while (page.size() == LOAD_PAGE_SIZE);
+        log.info("Loaded {} pending scheduled commands", loaded);
+
+        executor.scheduleWithFixedDelay(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the scheduler thread. Pending commands are loaded again after the next start.
+     */
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Persists the command and adds it to the timing wheel.
+     *
+     * @param command the command to be sent.
+     * @param dueTime the point in time at which the command is due.
+     * @return the ID of the schedule.
+     */
+    @Override
+    @SneakyThrows
+    public long schedule(Object command, Instant dueTime) {
+        if (command == null || dueTime == null) throw new IllegalArgumentException(
+                "Command and due time cannot be null"
+        );
+
+        ScheduledCommand scheduledCommand = new ScheduledCommand();
+        scheduledCommand.setCommandType(command.getClass().getName());
+        scheduledCommand.setCommandData(objectMapper.writeValueAsString(command));
+        scheduledCommand.setDueAt(LocalDateTime.ofInstant(dueTime, ZoneId.systemDefault()));
+        scheduledCommand.setStatus(ScheduledCommand.Status.PENDING);
+
+        ScheduledCommand saved = scheduledCommandRepository.save(scheduledCommand);
+        enqueue(saved);
+        return saved.getId();
+    }
+
+    /**
+     * Deletes the entry of a pending command. Its timer stays in the wheel and is skipped once it expires.
+     *
+     * @param scheduleId the ID of the schedule.
+     * @return {@code true} if the command was cancelled.
+     */
+    @Override
+    public boolean cancel(long scheduleId) {
+        return scheduledCommandRepository.findById(scheduleId)
+                .filter(scheduledCommand -> scheduledCommand.getStatus() == ScheduledCommand.Status.PENDING)
+                .map(scheduledCommand -> {
+                    scheduledCommandRepository.delete(scheduledCommand);
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    /**
+     * Returns the number of commands waiting in the timing wheel, including cancelled ones not yet expired.
+     *
+     * @return the number of pending timers.
+     */
+    public int pending() {
+        synchronized (wheel) {
+            return wheel.size() + dueIds.size();
+        }
+    }
+
+    /**
+     * Advances the timing wheel and sends the commands that became due.
+     */
+    void tick() {
+        try {
+            Set<Long> due;
+            synchronized (wheel) {
+                wheel.advance(System.currentTimeMillis(), dueIds::add);
+                due = new LinkedHashSet<>(dueIds);
+                dueIds.clear();
+            }
+
+            List<Long> ids = new ArrayList<>(due);
+            for (int from = 0; from < ids.size(); from += batchSize) {
+                List<Long> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+                try {
+                    fire(batch);
+                    consecutiveFailures = 0;
+                } catch (Exception e) {
+                    postponeBatch(batch, e);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to send due scheduled commands", e);
+        }
+    }
+
+    /**
+     * Puts the IDs of a batch that could not be sent back into the wheel, delayed by the number of consecutive failed
+     * batches.
+     *
+     * @param ids   the IDs of the batch.
+     * @param error the error raised while sending the batch.
+     */
+    private void postponeBatch(List<Long> ids, Exception error) {
+        consecutiveFailures++;
+        long delayMillis = retryDelayMillis * Math.min(consecutiveFailures, maxAttempts);
+        log.error("Failed to send {} due scheduled commands, retrying in {} ms", ids.size(), delayMillis, error);
+
+        long dueMillis = System.currentTimeMillis() + delayMillis;
+        for (Long id : ids) {
+            enqueue(id, dueMillis);
+        }
+    }
+
+    private void enqueue(ScheduledCommand scheduledCommand) {
+        enqueue(
+                scheduledCommand.getId(),
+                scheduledCommand.getDueAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+        );
+    }
+
+    private void enqueue(long id, long dueMillis) {
+        synchronized (wheel) {
+            if (!wheel.add(id, dueMillis)) {
+                dueIds.add(id);
+            }
+        }
+    }
+
+    /**
+     * Sends a batch of due commands and records their outcomes.
+     *
+     * @param ids the IDs of the due schedules; cancelled schedules are skipped.
+     */
+    private void fire(List<Long> ids) {
+        List<ScheduledCommand> scheduled = new ArrayList<>(ids.size());
+        List<Object> commands = new ArrayList<>(ids.size());
+        List<ScheduledCommand> retained = new ArrayList<>();
+        for (ScheduledCommand scheduledCommand : scheduledCommandRepository.findAllById(ids)) {
+            if (scheduledCommand.getStatus() != ScheduledCommand.Status.PENDING) {
+                continue;
+            }
+            try {
+                commands.add(deserialize(scheduledCommand));
+                scheduled.add(scheduledCommand);
+            } catch (Exception e) {
+                log.error("Cannot read scheduled command {} ({})", scheduledCommand.getId(), scheduledCommand.getCommandType(), e);
+                scheduledCommand.setStatus(ScheduledCommand.Status.FAILED);
+                scheduledCommand.setLastError(truncate(String.valueOf(e.getMessage())));
+                retained.add(scheduledCommand);
+            }
+        }
+
+        List<ScheduledCommand> completed = new ArrayList<>(scheduled.size());
+        if (!commands.isEmpty()) {
+            List<CommandOutcome> outcomes = commandGateway.sendAll(commands, PriorityClass.BULK);
+            for (int i = 0; i < outcomes.size(); i++) {
+                ScheduledCommand scheduledCommand = scheduled.get(i);
+                switch (outcomes.get(i).status()) {
+                    case COMPLETED -> completed.add(scheduledCommand);
+                    case FAILED -> {
+                        recordFailedAttempt(scheduledCommand, outcomes.get(i).error());
+                        retained.add(scheduledCommand);
+                    }
+                    case DUPLICATE, TIMED_OUT -> {
+                        postpone(scheduledCommand);
+                        retained.add(scheduledCommand);
+                    }
+                }
+            }
+        }
+
+        if (!completed.isEmpty()) {
+            scheduledCommandRepository.deleteAll(completed);
+        }
+        if (!retained.isEmpty()) {
+            scheduledCommandRepository.saveAll(retained);
+            retained.stream()
+                    .filter(scheduledCommand -> scheduledCommand.getStatus() == ScheduledCommand.Status.PENDING)
+                    .forEach(this::enqueue);
+        }
+    }
+
+    private Object deserialize(ScheduledCommand scheduledCommand) throws Exception {
+        Class<?> commandType = ClassUtils.forName(scheduledCommand.getCommandType(), getClass().getClassLoader());
+        return objectMapper.readValue(scheduledCommand.getCommandData(), commandType);
+    }
+
+    private void postpone(ScheduledCommand scheduledCommand) {
+        scheduledCommand.setDueAt(LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(retryDelayMillis)));
+        log.debug("Scheduled command {} ({}) is a duplicate of a running command, sending it again later",
+                scheduledCommand.getId(), scheduledCommand.getCommandType());
+    }
+
+    private void recordFailedAttempt(ScheduledCommand scheduledCommand, String error) {
+        scheduledCommand.setAttempts(scheduledCommand.getAttempts() + 1);
+        scheduledCommand.setLastError(truncate(String.valueOf(error)));
+
+        if (scheduledCommand.getAttempts() < maxAttempts) {
+            scheduledCommand.setDueAt(LocalDateTime.now().plusNanos(
+                    TimeUnit.MILLISECONDS.toNanos(retryDelayMillis * scheduledCommand.getAttempts())
+            ));
+            log.warn("Scheduled command {} ({}) failed, attempt {} of {}: {}",
+                    scheduledCommand.getId(), scheduledCommand.getCommandType(), scheduledCommand.getAttempts(), maxAttempts, error);
+        } else {
+            scheduledCommand.setStatus(ScheduledCommand.Status.FAILED);
+            log.error("Giving up scheduled command {} ({}) after {} attempts: {}",
+                    scheduledCommand.getId(), scheduledCommand.getCommandType(), scheduledCommand.getAttempts(), error);
+        }
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
@@ -0,0 +1,160 @@
+package de.tudl.playground.datorum.gateway.command.schedule;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel holding timers until they are due.
+ * <p>
+ * Time advances in ticks of a fixed length. The wheel consists of a number of levels with {@code 2^bits} slots each:
+ * a slot of level {@code 0} spans one tick, a slot of level {@code n} spans all slots of level {@code n - 1}. A timer is
+ * placed in the lowest level whose range covers its remaining time. Whenever level {@code n - 1} completes a rotation,
+ * the timers of the next slot of level {@code n} are cascaded into the lower levels, so every timer ends up in a
+ * slot of level {@code 0} before it is due.
+ * </p>
+ * <p>
+ * Adding a timer is O(1), independent of the number of pending timers. Advancing the wheel is O(1) per tick plus
+ * O(1) per expired or cascaded timer. Timers further in the future than the range of the highest level are parked in
+ * its last slot and cascaded again until they are in range.
+ * </p>
+ *
+ * <h2>Thread Safety</h2>
+ * This class is not thread-safe; callers synchronize access.
+ *
+ * @param <T> the type of the values held by the timers.
+ */
+public final class HierarchicalTimingWheel<T> {
+
+    private final long tickMillis;
+    private final int bits;
+    private final int mask;
+    private final List<Timer<T>>[][] slots;
+    private long currentTick;
+    private int size;
+
+    /**
+     * Constructs a {@code HierarchicalTimingWheel}.
+     *
+     * @param tickMillis   the length of a tick in milliseconds.
+     * @param bits         the number of bits of the slot index per level, i.e. each level has {@code 2^bits} slots.
+     * @param levels       the number of levels.
+     * @param startMillis  the current time in milliseconds.
+     */
+    public HierarchicalTimingWheel(long tickMillis, int bits, int levels, long startMillis) {
+        if (tickMillis < 1 || bits < 1 || levels < 1 || (long) bits * levels > 62) throw new IllegalArgumentException(
+                "Invalid timing wheel dimensions"
+        );
+
+        this.tickMillis = tickMillis;
+        this.bits = bits;
+        this.mask = (1 << bits) - 1;
+        @SuppressWarnings("unchecked")
+        List<Timer<T>>[][] slots = (List<Timer<T>>[][]) new List<?>[levels][1 << bits];
+        this.slots = slots;
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    /**
+     * Adds a timer to the wheel.
+     *
+     * @param value     the value of the timer.
+     * @param dueMillis the time in milliseconds at which the timer is due.
+     * @return {@code true} if the timer was added, {@code false} if it is already due and has to be fired by the caller.
+     */
+    public boolean add(T value, long dueMillis) {
+        long dueTick = Math.floorDiv(dueMillis + tickMillis - 1, tickMillis);
+        if (dueTick <= currentTick) {
+            return false;
+        }
+        place(new Timer<>(value, dueTick));
+        size++;
+        return true;
+    }
+
+    /**
+     * Advances the wheel to the given time and passes the value of every timer that became due to the consumer.
+     * Timers are expired in the order of their ticks.
+     *
+     * @param nowMillis the current time in milliseconds.
+     * @param expired   the consumer of the due values.
+     */
+    public void advance(long nowMillis, Consumer<T> expired) {
+        long targetTick = nowMillis / tickMillis;
+        while (currentTick < targetTick) {
+            if (size == 0) {
+                currentTick = targetTick;
+                return;
+            }
+
+            currentTick++;
+            int index = (int) (currentTick & mask);
+            if (index == 0) {
+                cascade(1);
+            }
+
+            List<Timer<T>> due = slots[0][index];
+            if (due != null) {
+                slots[0][index] = null;
+                size -= due.size();
+                for (Timer<T> timer : due) {
+                    expired.accept(timer.value());
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of pending timers.
+     *
+     * @return the number of timers in the wheel.
+     */
+    public int size() {
+        return size;
+    }
+
+    private void cascade(int level) {
+        if (level >= slots.length) {
+            return;
+        }
+
+        int index = (int) ((currentTick >>> (bits * level)) & mask);
+        if (index == 0) {
+            cascade(level + 1);
+        }
+
+        List<Timer<T>> timers = slots[level][index];
+        if (timers != null) {
+            slots[level][index] = null;
+            for (Timer<T> timer : timers) {
+                place(timer);
+            }
+        }
+    }
+
+    private void place(Timer<T> timer) {
+        long remaining = timer.dueTick() - currentTick;
+        int level = 0;
+        while (level < slots.length - 1 && remaining >= 1L << (bits * (level + 1))) {
+            level++;
+        }
+
+        int index;
+        if (remaining >= 1L << (bits * (level + 1))) {
+            // Beyond the range of the wheel: park in the slot cascaded last, i.e. a full rotation from now.
+            index = (int) (((currentTick >>> (bits * level)) - 1) & mask);
+        } else {
+            index = (int) ((timer.dueTick() >>> (bits * level)) & mask);
+        }
+
+        List<Timer<T>> slot = slots[level][index];
+        if (slot == null) {
+            slot = new ArrayList<>(4);
+            slots[level][index] = slot;
+        }
+        slot.add(timer);
+    }
+
+    private record Timer<T>(T value, long dueTick) {
+    }
+}
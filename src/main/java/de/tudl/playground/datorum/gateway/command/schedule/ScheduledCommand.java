@@ -0,0 +1,80 @@
+package de.tudl.playground.datorum.gateway.command.schedule;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Entity persisting a command that is scheduled to be sent later.
+ * <p>
+ * Entries are deleted once their command has been sent successfully, so the table only holds pending commands and
+ * commands that could not be sent.
+ * </p>
+ */
+@Entity
+@Getter
+@Setter
+@Table(
+        name = "[scheduled_command]",
+        indexes = @Index(name = "ix_scheduled_command_status", columnList = "status, id")
+)
+public class ScheduledCommand {
+
+    /**
+     * The state of a scheduled command.
+     */
+    public enum Status {
+        /** The command is waiting to be sent. */
+        PENDING,
+        /** Sending the command failed too often; it is no longer retried. */
+        FAILED
+    }
+
+    /**
+     * The unique identifier of the entry.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "scheduled_command_sequence")
+    @SequenceGenerator(name = "scheduled_command_sequence", sequenceName = "scheduled_command_sequence", allocationSize = 50)
+    private Long id;
+
+    /**
+     * The fully qualified class name of the command.
+     */
+    private String commandType;
+
+    /**
+     * The command serialized as JSON.
+     */
+    private String commandData;
+
+    /**
+     * The point in time at which the command is due.
+     */
+    private LocalDateTime dueAt;
+
+    /**
+     * The state of the entry.
+     */
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    /**
+     * The number of failed attempts to send the command.
+     */
+    private int attempts;
+
+    /**
+     * The error message of the last failed attempt, if any.
+     */
+    private String lastError;
+}
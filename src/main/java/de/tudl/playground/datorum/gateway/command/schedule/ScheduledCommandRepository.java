@@ -0,0 +1,22 @@
+package de.tudl.playground.datorum.gateway.command.schedule;
+
+import java.util.List;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for the persisted entries of scheduled commands.
+ */
+@Repository
+public interface ScheduledCommandRepository extends JpaRepository<ScheduledCommand, Long> {
+    /**
+     * Retrieves the entries with the given status page by page.
+     *
+     * @param status the status of the entries.
+     * @param id     the ID of the last entry already read; only entries with a greater ID are returned.
+     * @param limit  the maximum number of entries to return.
+     * @return the next entries, ordered by their ID.
+     */
+    List<ScheduledCommand> findByStatusAndIdGreaterThanOrderByIdAsc(ScheduledCommand.Status status, Long id, Limit limit);
+}
@@ -0,0 +1,25 @@
+package de.tudl.playground.datorum.gateway.command.validation;
+
+import java.util.List;
+
+/**
+ * Validates commands of a type before they reach their handler.
+ * <p>
+ * Validators are Spring beans; the {@link ValidationCommandInterceptor} applies every validator whose type argument
+ * is assignable from the type of a command. If any validator reports a violation, the command is rejected with a
+ * {@link de.tudl.playground.datorum.gateway.command.exception.CommandValidationException} and its handler is not
+ * invoked. Validators must be classes declaring their command type, so it can be resolved at startup.
+ * </p>
+ *
+ * @param <C> the type of the validated commands.
+ */
+public interface CommandValidator<C> {
+
+    /**
+     * Validates a command.
+     *
+     * @param command the command to validate.
+     * @return the violations found, or an empty list if the command is valid.
+     */
+    List<String> validate(C command);
+}
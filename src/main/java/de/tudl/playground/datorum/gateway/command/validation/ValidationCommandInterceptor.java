@@ -0,0 +1,73 @@
+package de.tudl.playground.datorum.gateway.command.validation;
+
+import de.tudl.playground.datorum.gateway.command.exception.CommandValidationException;
+import de.tudl.playground.datorum.gateway.command.interceptor.CommandInterceptor;
+import de.tudl.playground.datorum.gateway.command.interceptor.CommandInvocation;
+import de.tudl.playground.datorum.gateway.command.interceptor.ErrorClassificationCommandInterceptor;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the {@link CommandValidator}s of a command and short-circuits the chain if any of them reports a violation.
+ * <p>
+ * The validators of each command type are resolved once. Command types without validators skip this interceptor.
+ * </p>
+ */
+@Component
+@Order(ValidationCommandInterceptor.ORDER)
+public class ValidationCommandInterceptor implements CommandInterceptor {
+
+    public static final int ORDER = ErrorClassificationCommandInterceptor.ORDER + 100;
+
+    private final List<CommandValidator<?>> validators;
+
+    private final ClassValue<List<CommandValidator<Object>>> validatorsByType = new ClassValue<>() {
+        @Override
+        @SuppressWarnings("unchecked")
+        protected List<CommandValidator<Object>> computeValue(Class<?> commandType) {
+            return validators.stream()
+                    .filter(validator -> validatedType(validator).isAssignableFrom(commandType))
+                    .map(validator -> (CommandValidator<Object>) validator)
+                    .toList();
+        }
+    };
+
+    public ValidationCommandInterceptor(List<CommandValidator<?>> validators) {
+        validators.forEach(ValidationCommandInterceptor::validatedType);
+        this.validators = List.copyOf(validators);
+    }
+
+    @Override
+    public boolean supports(Class<?> commandType) {
+        return !validatorsByType.get(commandType).isEmpty();
+    }
+
+    @Override
+    public Object intercept(Object command, CommandInvocation invocation) throws Exception {
+        List<String> violations = new ArrayList<>();
+        for (CommandValidator<Object> validator : validatorsByType.get(command.getClass())) {
+            violations.addAll(validator.validate(command));
+        }
+
+        if (!violations.isEmpty()) {
+            throw new CommandValidationException(
+                    "Command " + command.getClass().getSimpleName() + " is invalid",
+                    violations
+            );
+        }
+        return invocation.proceed();
+    }
+
+    private static Class<?> validatedType(CommandValidator<?> validator) {
+        Class<?> type = ResolvableType.forClass(CommandValidator.class, validator.getClass()).resolveGeneric(0);
+        if (type == null) {
+            throw new IllegalStateException(
+                    "Cannot determine the command type of validator " + validator.getClass().getName()
+            );
+        }
+        return type;
+    }
+}
@@ -0,0 +1,39 @@
+package de.tudl.playground.datorum.gateway.query;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The {@code BatchQueryHandler} interface defines a contract for handling point queries in batches.
+ * <p>
+ * Queries to such handlers that are issued at about the same time are collected by the
+ * {@link de.tudl.playground.datorum.gateway.query.batch.QueryBatcher} and handled together, for example with a single
+ * {@code findAllById} instead of one {@code findById} per query. Every caller still receives only the result of its
+ * own query. Queries must implement {@code equals} and {@code hashCode}, as records do.
+ * </p>
+ *
+ * @param <Q> the type of the query to be handled.
+ * @param <R> the type of the result of a single query.
+ */
+public interface BatchQueryHandler<Q, R> extends QueryHandler<Q, R> {
+    /**
+     * Handles the provided queries at once.
+     *
+     * @param queries the distinct queries to be processed.
+     * @return the result of every query that has one, keyed by query.
+     */
+    Map<Q, R> handleAll(Collection<Q> queries);
+
+    /**
+     * Handles the provided query as a batch of one.
+     *
+     * @param query the query object to be processed.
+     * @return the result of the query, or an empty optional if there is none.
+     */
+    @Override
+    default Optional<R> handle(Q query) {
+        return Optional.ofNullable(handleAll(List.of(query)).get(query));
+    }
+}
@@ -1,10 +1,31 @@
 package de.tudl.playground.datorum.gateway.query;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Stream;
 
+import de.tudl.playground.datorum.gateway.query.batch.QueryBatcher;
+import de.tudl.playground.datorum.gateway.query.cache.QueryCache;
+import de.tudl.playground.datorum.gateway.query.deadline.QueryDeadlines;
+import de.tudl.playground.datorum.gateway.query.merge.ResultMerger;
 import de.tudl.playground.datorum.gateway.query.resolver.HandlerResolver;
+import de.tudl.playground.datorum.gateway.query.subscription.QueryUpdateEmitter;
+import de.tudl.playground.datorum.gateway.query.subscription.SubscriptionQueryResult;
+import de.tudl.playground.datorum.gateway.query.subscription.UpdateSubscription;
+import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Service;
 
@@ -18,7 +39,23 @@ import org.springframework.stereotype.Service;
  * <p>Key features:</p>
  * <ul>
  *   <li>Logs all registered handlers during application startup for visibility and debugging.</li>
- *   <li>Supports resolving and invoking multiple handlers for a query when applicable.</li>
+ *   <li>Resolves the handlers of each query class only once and keeps them in an immutable dispatch table, so
+ *       dispatching a query is a single lookup followed by a direct invocation of its handler(s).</li>
+ *   <li>Answers queries of handlers annotated with {@link de.tudl.playground.datorum.gateway.query.annotation.CachedQuery}
+ *       from the {@link QueryCache}.</li>
+ *   <li>Coalesces concurrent identical queries, as matched by their {@code equals} and {@code hashCode}, into a
+ *       single in-flight execution per handler whose result is shared by all callers.</li>
+ *   <li>Collects concurrent queries to {@link BatchQueryHandler}s in the {@link QueryBatcher}, so they are handled
+ *       in a single round trip.</li>
+ *   <li>Supports resolving and invoking multiple handlers for a query when applicable, merging their results with
+ *       the {@link de.tudl.playground.datorum.gateway.query.merge.MergeStrategy} declared by the query type.</li>
+ *   <li>Runs asynchronous queries on the {@code queryExecutor}, fanning out to multiple handlers in parallel and
+ *       collecting the results that arrive before the query's deadline.</li>
+ *   <li>Bounds the time callers wait for queries annotated with
+ *       {@link de.tudl.playground.datorum.gateway.query.annotation.QueryTimeout}, and hedges queries annotated with
+ *       {@link de.tudl.playground.datorum.gateway.query.annotation.HedgedQuery} through the {@link QueryDeadlines}.</li>
+ *   <li>Streams the results of {@link StreamingQueryHandler}s incrementally.</li>
+ *   <li>Subscribes queries to the updates emitted for them through the {@link QueryUpdateEmitter}.</li>
  *   <li>Provides appropriate logging and error handling when no handlers or multiple handlers are found.</li>
  * </ul>
  *
@@ -35,16 +72,64 @@ public class DefaultQueryGateway implements QueryGateway {
 
     private final ApplicationContext applicationContext;
     private final HandlerResolver handlerResolver;
+    private final QueryCache queryCache;
+    private final QueryBatcher queryBatcher;
+    private final QueryDeadlines queryDeadlines;
+    private final QueryUpdateEmitter queryUpdateEmitter;
+    private final Executor queryExecutor;
+    private final Duration defaultDeadline;
+
+    /**
+     * The registered handlers, fetched from the application context by the first query.
+     */
+    private volatile Collection<QueryHandler<?, ?>> handlers;
+
+    /**
+     * The executions of queries that are in flight, which identical concurrent queries wait for instead of running
+     * their handler again.
+     */
+    private final Map<Flight, CompletableFuture<Optional<?>>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * The dispatch table holding the resolved handlers of every query class, computed on first use of the class.
+     */
+    private final ClassValue<List<QueryHandler<?, ?>>> dispatchTable = new ClassValue<>() {
+        @Override
+        protected List<QueryHandler<?, ?>> computeValue(Class<?> queryType) {
+            return List.copyOf(handlerResolver.resolveHandlers(queryType, handlers()));
+        }
+    };
 
     /**
      * Constructs a new {@code DefaultQueryGateway}.
      *
      * @param applicationContext the Spring {@link ApplicationContext} to discover registered handlers.
      * @param handlerResolver the {@link HandlerResolver} to determine the appropriate handlers for a query.
+     * @param queryCache the {@link QueryCache} holding the results of cached handlers.
+     * @param queryBatcher the {@link QueryBatcher} collecting the queries of batch handlers.
+     * @param queryDeadlines the {@link QueryDeadlines} applying the timeouts and hedging of query types.
+     * @param queryUpdateEmitter the {@link QueryUpdateEmitter} emitting the updates of subscription queries.
+     * @param queryExecutor the executor on which asynchronous queries are handled.
+     * @param defaultDeadlineMillis the deadline of asynchronous queries that are not given one.
      */
-    public DefaultQueryGateway(ApplicationContext applicationContext, HandlerResolver handlerResolver) {
+    public DefaultQueryGateway(
+            ApplicationContext applicationContext,
+            HandlerResolver handlerResolver,
+            QueryCache queryCache,
+            QueryBatcher queryBatcher,
+            QueryDeadlines queryDeadlines,
+            QueryUpdateEmitter queryUpdateEmitter,
+            @Qualifier("queryExecutor") Executor queryExecutor,
+            @Value("${datorum.query.deadline-ms:2000}") long defaultDeadlineMillis
+    ) {
         this.applicationContext = applicationContext;
         this.handlerResolver = handlerResolver;
+        this.queryCache = queryCache;
+        this.queryBatcher = queryBatcher;
+        this.queryDeadlines = queryDeadlines;
+        this.queryUpdateEmitter = queryUpdateEmitter;
+        this.queryExecutor = queryExecutor;
+        this.defaultDeadline = Duration.ofMillis(defaultDeadlineMillis);
 
         // Log all the registered handlers at startup
         applicationContext
@@ -64,10 +149,14 @@ public class DefaultQueryGateway implements QueryGateway {
      * <p>The method performs the following steps:</p>
      * <ol>
      *   <li>Determines the type of the query using {@link Object#getClass()}.</li>
-     *   <li>Fetches all registered {@link QueryHandler}s from the Spring {@link ApplicationContext}.</li>
-     *   <li>Uses the {@link HandlerResolver} to filter and prioritize handlers matching the query type.</li>
+     *   <li>Looks up the handlers of the query type in the dispatch table. The first query of a type resolves them
+     *       from all registered {@link QueryHandler}s with the {@link HandlerResolver}.</li>
      *   <li>If no handlers are found, throws an {@link IllegalArgumentException}.</li>
-     *   <li>If multiple handlers are found, logs a warning and executes all handlers, collecting their results.</li>
+     *   <li>If multiple handlers are found, executes them in order and merges their results with the
+     *       {@link de.tudl.playground.datorum.gateway.query.merge.MergeStrategy} of the query type, skipping the
+     *       remaining handlers once the merged result is decided. Logs a warning if the query type declares none.</li>
+     *   <li>If the query type has a timeout or is hedged, runs the handler(s) on the {@code queryExecutor} and waits
+     *       for at most the timeout.</li>
      *   <li>Returns the result from the appropriate handler(s) wrapped in an {@link Optional}.</li>
      * </ol>
      *
@@ -76,6 +165,7 @@ public class DefaultQueryGateway implements QueryGateway {
      * @param <R> the type of the response expected from the handler(s).
      * @return an {@link Optional} containing the result, or {@link Optional#empty()} if no result is produced.
      * @throws IllegalArgumentException if no handlers are found for the query type.
+     * @throws TimeoutException if the timeout of the query type has elapsed before a result arrived.
      */
     @Override
     public <Q, R> Optional<R> query(Q query) {
@@ -84,37 +174,337 @@ public class DefaultQueryGateway implements QueryGateway {
             throw new IllegalArgumentException("Cannot handle query of type null");
 
         Class<?> queryType = query.getClass();
-        // Fetch all registered handlers from the application context
-        var allHandlers = applicationContext.getBeansOfType(QueryHandler.class).values();
-
-        // Resolve matching handlers for the query type
-        List<QueryHandler<Q, R>> matchingHandlers = handlerResolver.resolveHandlers(queryType, allHandlers);
+        // Look up the matching handlers for the query type
+        List<QueryHandler<Q, R>> matchingHandlers = handlersOf(queryType);
 
         // Handle case where no handlers are found
         if (matchingHandlers.isEmpty()) {
             throw new IllegalArgumentException("No handler found for query type: " + queryType.getName());
         }
 
+        Optional<Duration> timeout = queryDeadlines.timeoutOf(queryType);
+
         // Handle a case where multiple handlers are found
         if (matchingHandlers.size() > 1) {
-            log.warn("Multiple handlers found for query type: {}. Handlers: {}",
-                    queryType.getName(),
-                    matchingHandlers.stream()
-                            .map(handler -> handler.getClass().getName())
-                            .toList());
+            if (timeout.isPresent()) {
+                return await(queryAsync(query, timeout.get()));
+            }
 
-            // Execute all matching handlers and collect their results
-            List<R> results = matchingHandlers.stream()
-                    .map(handler -> handler.handle(query))
-                    .filter(Optional::isPresent)
-                    .map(Optional::get)
-                    .toList();
+            if (!ResultMerger.isDeclared(queryType)) {
+                log.warn("Multiple handlers found for query type: {}. Handlers: {}",
+                        queryType.getName(),
+                        matchingHandlers.stream()
+                                .map(handler -> handler.getClass().getName())
+                                .toList());
+            }
 
-            // Return all results wrapped in an Optional
-            return results.isEmpty() ? Optional.empty() : Optional.of((R) results);
+            // Execute the matching handlers in order until their merged result is decided
+            ResultMerger merger = new ResultMerger(queryType, matchingHandlers.size());
+            for (int i = 0; i < matchingHandlers.size(); i++) {
+                if (merger.offer(i, handle(matchingHandlers.get(i), query))) {
+                    break;
+                }
+            }
+            return (Optional<R>) merger.result();
         }
 
         // Single handler found, process the query
-        return matchingHandlers.get(0).handle(query);
+        QueryHandler<Q, R> handler = matchingHandlers.get(0);
+        if (timeout.isEmpty() && !queryDeadlines.isHedged(queryType)) {
+            return handle(handler, query);
+        }
+        return await(queryDeadlines.execute(
+                queryType,
+                timeout.orElse(null),
+                () -> handle(handler, query),
+                () -> hedge(handler, query)
+        ));
+    }
+
+    /**
+     * Processes a given query asynchronously within the timeout of its type, or else within the deadline configured
+     * by {@code datorum.query.deadline-ms}.
+     *
+     * @param query the query object to process.
+     * @param <Q> the type of the query.
+     * @param <R> the type of the response expected from the handler(s).
+     * @return a future completing with the result of the query.
+     */
+    @Override
+    public <Q, R> CompletableFuture<Optional<R>> queryAsync(Q query) {
+        if (query == null)
+            throw new IllegalArgumentException("Cannot handle query of type null");
+
+        return queryAsync(query, queryDeadlines.timeoutOf(query.getClass()).orElse(defaultDeadline));
+    }
+
+    /**
+     * Processes a given query asynchronously on the {@code queryExecutor}.
+     *
+     * <p>If multiple handlers are found, every handler runs on its own task, so the latency of the query is that of
+     * the slowest handler rather than the sum of all of them. Their results are merged with the
+     * {@link de.tudl.playground.datorum.gateway.query.merge.MergeStrategy} of the query type. Once the merged result
+     * is decided or the deadline has passed, the future completes with it and handlers that have not started yet are
+     * skipped. Handlers that failed or missed the deadline are left out.</p>
+     *
+     * @param query the query object to process.
+     * @param deadline the maximum time to wait for the results.
+     * @param <Q> the type of the query.
+     * @param <R> the type of the response expected from the handler(s).
+     * @return a future completing with the result of the query, or exceptionally with an
+     *         {@link IllegalArgumentException} if no handlers are found for the query type, a {@link TimeoutException}
+     *         if no result arrived before the deadline, or the error of a handler if no handler succeeded.
+     */
+    @Override
+    public <Q, R> CompletableFuture<Optional<R>> queryAsync(Q query, Duration deadline) {
+        if (query == null)
+            throw new IllegalArgumentException("Cannot handle query of type null");
+        if (deadline == null)
+            throw new IllegalArgumentException("Deadline cannot be null");
+
+        Class<?> queryType = query.getClass();
+        List<QueryHandler<Q, R>> matchingHandlers = handlersOf(queryType);
+        if (matchingHandlers.isEmpty()) {
+            return CompletableFuture.failedFuture(
+                    new IllegalArgumentException("No handler found for query type: " + queryType.getName())
+            );
+        }
+
+        if (matchingHandlers.size() == 1) {
+            QueryHandler<Q, R> handler = matchingHandlers.get(0);
+            return queryDeadlines.execute(queryType, deadline, () -> handle(handler, query), () -> hedge(handler, query));
+        }
+
+        // Fan out to all handlers in parallel and merge their results until decided or the deadline has passed
+        ResultMerger merger = new ResultMerger(queryType, matchingHandlers.size());
+        CompletableFuture<Optional<R>> merged = new CompletableFuture<>();
+        List<CompletableFuture<Optional<R>>> futures = matchingHandlers.stream()
+                .map(handler -> CompletableFuture.supplyAsync(() -> handle(handler, query), queryExecutor))
+                .toList();
+        for (int i = 0; i < futures.size(); i++) {
+            int index = i;
+            futures.get(i).whenComplete((result, error) -> {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                if (cause != null && !(cause instanceof CancellationException)) {
+                    log.warn("Handler of query type {} failed", queryType.getName(), cause);
+                }
+                if (cause == null ? merger.offer(index, result) : merger.fail(index, cause)) {
+                    completeMerged(merged, merger, futures);
+                }
+            });
+        }
+
+        CompletableFuture.delayedExecutor(deadline.toMillis(), TimeUnit.MILLISECONDS).execute(() -> {
+            for (int i = 0; i < futures.size(); i++) {
+                if (!futures.get(i).isDone()) {
+                    merger.fail(i, new TimeoutException(
+                            "Handlers of query type " + queryType.getName() + " missed the deadline"
+                    ));
+                }
+            }
+            completeMerged(merged, merger, futures);
+        });
+        return merged;
+    }
+
+    /**
+     * Processes a given query by streaming the results of its {@link StreamingQueryHandler}.
+     *
+     * <p>If multiple handlers are found, the results of the preferred handler, as ordered by the
+     * {@link HandlerResolver}, are streamed. Results are not cached.</p>
+     *
+     * @param query the query object to process.
+     * @param <Q> the type of the query.
+     * @param <R> the type of a single result.
+     * @return the results of the query, which must be closed once consumed.
+     * @throws IllegalArgumentException if no handlers are found for the query type or its preferred handler does not
+     *                                  stream its results.
+     */
+    @Override
+    public <Q, R> Stream<R> stream(Q query) {
+        if (query == null)
+            throw new IllegalArgumentException("Cannot handle query of type null");
+
+        Class<?> queryType = query.getClass();
+        List<QueryHandler<Q, List<R>>> matchingHandlers = handlersOf(queryType);
+        if (matchingHandlers.isEmpty()) {
+            throw new IllegalArgumentException("No handler found for query type: " + queryType.getName());
+        }
+        if (!(matchingHandlers.get(0) instanceof StreamingQueryHandler<Q, R> streamingHandler)) {
+            throw new IllegalArgumentException("No streaming handler found for query type: " + queryType.getName());
+        }
+        return streamingHandler.stream(query);
+    }
+
+    /**
+     * Processes a given query and subscribes to the updates emitted for it.
+     *
+     * <p>The subscription is registered before the query is processed, so updates emitted while the initial result is
+     * read are delivered as well, even if the initial result already reflects them.</p>
+     *
+     * @param query the query object to process.
+     * @param <Q> the type of the query.
+     * @param <R> the type of the response expected from the handler(s).
+     * @param <U> the type of the updates.
+     * @return the initial result of the query and its updates, which must be closed once no longer needed.
+     * @throws IllegalArgumentException if no handlers are found for the query type.
+     */
+    @Override
+    public <Q, R, U> SubscriptionQueryResult<R, U> subscribe(Q query) {
+        if (query == null)
+            throw new IllegalArgumentException("Cannot handle query of type null");
+
+        UpdateSubscription<U> updates = queryUpdateEmitter.register(query);
+        try {
+            return new SubscriptionQueryResult<>(query(query), updates);
+        } catch (RuntimeException e) {
+            updates.cancel();
+            throw e;
+        }
+    }
+
+    /**
+     * Completes the future of a fan-out query with the merged result of its handlers and stops the handlers that have
+     * not started yet, as the result no longer depends on them.
+     *
+     * @param merged the future of the query.
+     * @param merger the merger of the results of the handlers.
+     * @param futures the futures of the handlers.
+     * @param <R> the type of the response expected from the handlers.
+     */
+    @SuppressWarnings("unchecked")
+    private static <R> void completeMerged(
+            CompletableFuture<Optional<R>> merged,
+            ResultMerger merger,
+            List<CompletableFuture<Optional<R>>> futures
+    ) {
+        if (merged.isDone()) {
+            return;
+        }
+
+        try {
+            merged.complete((Optional<R>) merger.result());
+        } catch (CompletionException e) {
+            merged.completeExceptionally(e.getCause());
+        }
+        futures.forEach(future -> future.cancel(false));
+    }
+
+    /**
+     * Invokes a handler on the calling thread, or waits for the execution of an identical query to the same handler that is already in
+     * flight and shares its result.
+     *
+     * @param handler the handler of the query.
+     * @param query the query object to process.
+     * @param <Q> the type of the query.
+     * @param <R> the type of the response expected from the handler.
+     * @return the result of the handler.
+     */
+    @SuppressWarnings("unchecked")
+    private <Q, R> Optional<R> handle(QueryHandler<Q, R> handler, Q query) {
+        Flight flight = new Flight(handler, query);
+        CompletableFuture<Optional<?>> execution = new CompletableFuture<>();
+        CompletableFuture<Optional<?>> leader = inFlight.putIfAbsent(flight, execution);
+        if (leader != null) {
+            return (Optional<R>) await(leader);
+        }
+
+        try {
+            Optional<R> result = invoke(handler, query);
+            execution.complete(result);
+            return result;
+        } catch (Throwable e) {
+            execution.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flight, execution);
+        }
+    }
+
+    /**
+     * Invokes a handler through the {@link QueryCache}, batching the query if the handler is a
+     * {@link BatchQueryHandler}.
+     *
+     * @param handler the handler of the query.
+     * @param query the query object to process.
+     * @param <Q> the type of the query.
+     * @param <R> the type of the response expected from the handler.
+     * @return the result of the handler.
+     */
+    private <Q, R> Optional<R> invoke(QueryHandler<Q, R> handler, Q query) {
+        if (handler instanceof BatchQueryHandler<Q, R> batchHandler) {
+            return queryCache.handle(handler, query, batched -> queryBatcher.handle(batchHandler, batched));
+        }
+        return queryCache.handle(handler, query);
+    }
+
+    /**
+     * Invokes a handler for the second attempt of a hedged query. The attempt goes through the {@link QueryCache} but
+     * not through the {@link QueryBatcher}, as the batch of the first attempt may be the one that is slow.
+     *
+     * @param handler the handler of the query.
+     * @param query the query object to process.
+     * @param <Q> the type of the query.
+     * @param <R> the type of the response expected from the handler.
+     * @return the result of the handler.
+     */
+    private <Q, R> Optional<R> hedge(QueryHandler<Q, R> handler, Q query) {
+        return queryCache.handle(handler, query);
+    }
+
+    /**
+     * Waits for an execution and rethrows the error raised by its handler, if any.
+     *
+     * @param execution the future of the execution.
+     * @param <T> the type of the result.
+     * @return the result of the execution.
+     */
+    @SneakyThrows
+    private static <T> T await(CompletableFuture<T> execution) {
+        try {
+            return execution.join();
+        } catch (CompletionException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Returns the handlers of a query type from the dispatch table.
+     *
+     * @param queryType the type of the query.
+     * @param <Q> the type of the query.
+     * @param <R> the type of the response expected from the handlers.
+     * @return the matching handlers, ordered by the {@link HandlerResolver}.
+     */
+    @SuppressWarnings("unchecked")
+    private <Q, R> List<QueryHandler<Q, R>> handlersOf(Class<?> queryType) {
+        return (List<QueryHandler<Q, R>>) (List<?>) dispatchTable.get(queryType);
+    }
+
+    /**
+     * Returns the registered handlers, fetching them from the application context on first use.
+     *
+     * @return the handlers of all query types.
+     */
+    private Collection<QueryHandler<?, ?>> handlers() {
+        Collection<QueryHandler<?, ?>> registered = handlers;
+        if (registered == null) {
+            synchronized (this) {
+                registered = handlers;
+                if (registered == null) {
+                    registered = applicationContext.getBeansOfType(QueryHandler.class).values().stream()
+                            .<QueryHandler<?, ?>>map(handler -> handler)
+                            .toList();
+                    handlers = registered;
+                }
+            }
+        }
+        return registered;
+    }
+
+    /**
+     * Identifies the execution of a query by a handler.
+     */
+    private record Flight(QueryHandler<?, ?> handler, Object query) {
     }
 }
@@ -1,6 +1,10 @@
 package de.tudl.playground.datorum.gateway.query;
 
+import de.tudl.playground.datorum.gateway.query.subscription.SubscriptionQueryResult;
+import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 /**
  * The {@code QueryGateway} interface defines a contract for executing queries within the system.
@@ -25,5 +29,62 @@ public interface QueryGateway {
      * @return the result of the query processing.
      */
     <Q, R> Optional<R> query(Q query);
-}
 
+    /**
+     * Executes the given query asynchronously within the default deadline.
+     *
+     * @param query the query object that needs to be processed.
+     * @param <Q>   the type of the query being processed.
+     * @param <R>   the type of the result returned by the query handler.
+     * @return a future completing with the result of the query processing.
+     * @see #queryAsync(Object, Duration)
+     */
+    <Q, R> CompletableFuture<Optional<R>> queryAsync(Q query);
+
+    /**
+     * Executes the given query asynchronously.
+     * <p>
+     * If several handlers match the query, they run in parallel, and the future completes with the results that
+     * arrived before the deadline. It completes exceptionally with a {@link java.util.concurrent.TimeoutException}
+     * if no result arrived in time, or with the error of a handler if no handler succeeded.
+     * </p>
+     *
+     * @param query    the query object that needs to be processed.
+     * @param deadline the maximum time to wait for the results.
+     * @param <Q>      the type of the query being processed.
+     * @param <R>      the type of the result returned by the query handler.
+     * @return a future completing with the result of the query processing.
+     */
+    <Q, R> CompletableFuture<Optional<R>> queryAsync(Q query, Duration deadline);
+
+    /**
+     * Executes the given query with its {@link StreamingQueryHandler} and returns its results as a stream.
+     * <p>
+     * The results are read incrementally while the stream is consumed. The stream must be closed, e.g. with
+     * try-with-resources, to release the resources held by the handler.
+     * </p>
+     *
+     * @param query the query object that needs to be processed.
+     * @param <Q>   the type of the query being processed.
+     * @param <R>   the type of a single result of the query.
+     * @return the results of the query processing.
+     */
+    <Q, R> Stream<R> stream(Q query);
+
+    /**
+     * Executes the given query and subscribes to the updates emitted for it afterwards.
+     * <p>
+     * Updates are emitted by the projections affecting the result of the query, once they have applied a domain
+     * event, through the {@link de.tudl.playground.datorum.gateway.query.subscription.QueryUpdateEmitter}. They are
+     * delivered as the subscriber requests them, coalescing updates with the same key in the meantime. The result must
+     * be closed, e.g. with try-with-resources, to stop receiving updates.
+     * </p>
+     *
+     * @param query the query object that needs to be processed.
+     * @param <Q>   the type of the query being processed.
+     * @param <R>   the type of the result returned by the query handler.
+     * @param <U>   the type of the updates emitted for the query.
+     * @return the initial result of the query processing and its updates.
+     */
+    <Q, R, U> SubscriptionQueryResult<R, U> subscribe(Q query);
+}
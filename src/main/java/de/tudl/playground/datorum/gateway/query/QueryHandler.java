@@ -1,5 +1,7 @@
 package de.tudl.playground.datorum.gateway.query;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -24,4 +26,20 @@ public interface QueryHandler<Q, R> {
      * @return the result of processing the query.
      */
     Optional<R> handle(Q query);
+
+    /**
+     * Returns the cache tags of a result of this handler, if the handler is annotated with
+     * {@link de.tudl.playground.datorum.gateway.query.annotation.CachedQuery}.
+     * <p>
+     * Evicting one of the tags from the {@link de.tudl.playground.datorum.gateway.query.cache.QueryCache} evicts the
+     * cached result. Tags are typically the IDs of the aggregates the result was read from.
+     * </p>
+     *
+     * @param query  the query that was handled.
+     * @param result the result of the query.
+     * @return the tags of the result; none by default.
+     */
+    default Collection<String> cacheTags(Q query, R result) {
+        return List.of();
+    }
 }
@@ -0,0 +1,44 @@
+package de.tudl.playground.datorum.gateway.query;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * The {@code StreamingQueryHandler} interface defines a contract for handling queries with large result sets.
+ * <p>
+ * Instead of materializing all results in one list, the handler returns a lazily populated {@link Stream}, typically
+ * backed by a database cursor, so results are delivered incrementally with bounded memory. Such handlers are queried
+ * through {@link QueryGateway#stream(Object)}; {@link QueryGateway#query(Object)} still works and collects the stream
+ * into a list.
+ * </p>
+ *
+ * @param <Q> the type of the query to be handled.
+ * @param <R> the type of a single result of the query.
+ */
+public interface StreamingQueryHandler<Q, R> extends QueryHandler<Q, List<R>> {
+    /**
+     * Handles the provided query and returns its results as a stream.
+     * <p>
+     * The stream holds resources such as a database connection until it is closed, so it must be closed by the
+     * caller, also when it is not consumed to the end.
+     * </p>
+     *
+     * @param query the query object to be processed.
+     * @return the results of processing the query.
+     */
+    Stream<R> stream(Q query);
+
+    /**
+     * Handles the provided query by collecting all results of {@link #stream(Object)}.
+     *
+     * @param query the query object to be processed.
+     * @return the list of all results.
+     */
+    @Override
+    default Optional<List<R>> handle(Q query) {
+        try (Stream<R> results = stream(query)) {
+            return Optional.of(results.toList());
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package de.tudl.playground.datorum.gateway.query.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Caches the results of the annotated {@link de.tudl.playground.datorum.gateway.query.QueryHandler} in the
+ * {@link de.tudl.playground.datorum.gateway.query.cache.QueryCache}.
+ * <p>
+ * Results are cached per query, so queries must implement {@code equals} and {@code hashCode}, as records do. Empty
+ * results are not cached. An entry lives until its TTL has elapsed, it is displaced by the size bound, or one of its
+ * cache tags (see {@link de.tudl.playground.datorum.gateway.query.QueryHandler#cacheTags(Object, Object)}) is
+ * evicted.
+ * </p>
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CachedQuery {
+
+    /**
+     * The maximum number of cached results of the handler, or a value below {@code 1} to use
+     * {@code datorum.query.cache.max-size}.
+     *
+     * @return the size bound of the handler's cache.
+     */
+    int maxSize() default -1;
+
+    /**
+     * The time a result stays cached, or a value below {@code 1} to use {@code datorum.query.cache.ttl-seconds}.
+     *
+     * @return the time to live in seconds.
+     */
+    long ttlSeconds() default -1;
+}
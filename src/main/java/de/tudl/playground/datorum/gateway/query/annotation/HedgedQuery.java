@@ -0,0 +1,27 @@
+package de.tudl.playground.datorum.gateway.query.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Hedges the execution of queries of the annotated type.
+ * <p>
+ * If the handler has not answered a query once the given percentile of the recent latencies of the query type has
+ * elapsed, a second attempt is issued, and the result of whichever attempt finishes first is taken. This trims the
+ * tail latency caused by a briefly stalled connection or lock, at the cost of executing a few percent of the queries
+ * twice. The annotated queries must therefore be free of side effects.
+ * </p>
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface HedgedQuery {
+
+    /**
+     * The percentile of the recent latencies after which the second attempt is issued.
+     *
+     * @return the percentile, between {@code 0} and {@code 1}.
+     */
+    double percentile() default 0.95;
+}
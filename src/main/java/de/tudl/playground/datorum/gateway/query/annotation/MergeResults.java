@@ -0,0 +1,32 @@
+package de.tudl.playground.datorum.gateway.query.annotation;
+
+import de.tudl.playground.datorum.gateway.query.merge.MergeStrategy;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares how the results of the handlers of the annotated query type are merged when several handlers match.
+ * <p>
+ * Query types without the annotation use {@link MergeStrategy#MERGE_ALL}.
+ * </p>
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface MergeResults {
+
+    /**
+     * The strategy merging the results.
+     *
+     * @return the merge strategy.
+     */
+    MergeStrategy value();
+
+    /**
+     * The number of handlers that must return an equal result, used by {@link MergeStrategy#QUORUM}.
+     *
+     * @return the quorum.
+     */
+    int quorum() default 2;
+}
@@ -0,0 +1,27 @@
+package de.tudl.playground.datorum.gateway.query.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Bounds the time the gateway waits for the result of queries of the annotated type.
+ * <p>
+ * Once the timeout has elapsed, {@link de.tudl.playground.datorum.gateway.query.QueryGateway#query(Object)} throws a
+ * {@link java.util.concurrent.TimeoutException} instead of blocking its caller any longer, and the future of
+ * {@link de.tudl.playground.datorum.gateway.query.QueryGateway#queryAsync(Object)} completes exceptionally with it.
+ * Query types without the annotation use {@code datorum.query.timeout-ms}.
+ * </p>
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryTimeout {
+
+    /**
+     * The time to wait for the result.
+     *
+     * @return the timeout in milliseconds.
+     */
+    long millis();
+}
@@ -0,0 +1,210 @@
+package de.tudl.playground.datorum.gateway.query.batch;
+
+import de.tudl.playground.datorum.gateway.query.BatchQueryHandler;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code QueryBatcher} collects point queries to a {@link BatchQueryHandler} and handles them as one batch.
+ * <p>
+ * The first query to a handler opens a batch. Queries to the same handler arriving within
+ * {@code datorum.query.batching.window-ms} join it, and once the window has elapsed or the batch has reached
+ * {@code datorum.query.batching.max-size} queries, the handler handles all of them with a single call to
+ * {@link BatchQueryHandler#handleAll(java.util.Collection)}. Equal queries in a batch are handled once. This turns the
+ * N+1 pattern of resolving many entities by ID one at a time into a single round trip, at the cost of delaying a
+ * query by at most the window.
+ * </p>
+ *
+ * <h2>Metrics</h2>
+ * {@code datorum.query.batch.size} records the number of distinct queries of every batch, tagged with the handler.
+ *
+ * <h2>Thread Safety</h2>
+ * This class is thread-safe. Windows are timed on the single {@code query-batcher} thread, and closed batches are
+ * handled on threads of their own, so a slow batch of one handler does not delay the batches of others, and a batch
+ * never waits for a thread of the pool whose callers are waiting for it.
+ */
+@Slf4j
+@Component
+public class QueryBatcher {
+
+    private final long windowMillis;
+    private final int maxSize;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * The open batch of every handler. Guarded by itself.
+     */
+    private final Map<BatchQueryHandler<?, ?>, Batch> batches = new HashMap<>();
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "query-batcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Handles closed batches. Its threads are only busy while a batch is handled, whose callers are blocked anyway.
+     */
+    private final ExecutorService flushExecutor = Executors.newCachedThreadPool(new ThreadFactory() {
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "query-batch-" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    /**
+     * Constructs a {@code QueryBatcher}.
+     *
+     * @param windowMillis  the time a batch collects queries after its first query.
+     * @param maxSize       the number of distinct queries at which a batch is handled without waiting for the window.
+     * @param meterRegistry the registry the batching metrics are registered with.
+     */
+    public QueryBatcher(
+            @Value("${datorum.query.batching.window-ms:2}") long windowMillis,
+            @Value("${datorum.query.batching.max-size:100}") int maxSize,
+            MeterRegistry meterRegistry
+    ) {
+        if (windowMillis < 0 || maxSize < 1) throw new IllegalArgumentException(
+                "Batching window cannot be negative and batch size must be positive"
+        );
+
+        this.windowMillis = windowMillis;
+        this.maxSize = maxSize;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Handles a query as part of the open batch of its handler, opening a batch if there is none, and waits for the
+     * batch to be handled.
+     *
+     * @param handler the handler of the query.
+     * @param query   the query to handle.
+     * @param <Q>     the type of the query.
+     * @param <R>     the type of the result.
+     * @return the result of the query, or an empty optional if the handler returned none for it.
+     * @throws RuntimeException the error of the handler if it failed to handle the batch.
+     */
+    @SuppressWarnings("unchecked")
+    public <Q, R> Optional<R> handle(BatchQueryHandler<Q, R> handler, Q query) {
+        CompletableFuture<Optional<Object>> result;
+        Batch batch;
+        boolean opened;
+        boolean full;
+        synchronized (batches) {
+            batch = batches.computeIfAbsent(handler, h -> new Batch());
+            opened = batch.pending.isEmpty();
+            result = batch.pending.computeIfAbsent(query, q -> new CompletableFuture<>());
+            full = batch.pending.size() >= maxSize;
+            if (full) {
+                batches.remove(handler);
+            }
+        }
+
+        Batch submitted = batch;
+        if (full) {
+            flushExecutor.execute(() -> flush(handler, submitted));
+        } else if (opened) {
+            executor.schedule(() -> close(handler, submitted), windowMillis, TimeUnit.MILLISECONDS);
+        }
+
+        try {
+            return (Optional<R>) result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Stops handling batches. Callers waiting for an open batch are failed.
+     */
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+        flushExecutor.shutdownNow();
+        synchronized (batches) {
+            batches.values().forEach(batch -> batch.pending.values().forEach(result ->
+                    result.completeExceptionally(new IllegalStateException("Query batcher has been stopped"))
+            ));
+            batches.clear();
+        }
+    }
+
+    /**
+     * Closes a batch once its window has elapsed and hands it off to be handled, unless it was already handled for
+     * being full.
+     *
+     * @param handler the handler of the batch.
+     * @param batch   the batch to close.
+     */
+    private void close(BatchQueryHandler<?, ?> handler, Batch batch) {
+        synchronized (batches) {
+            if (!batches.remove(handler, batch)) {
+                return;
+            }
+        }
+        flushExecutor.execute(() -> flush(handler, batch));
+    }
+
+    /**
+     * Handles the queries of a closed batch and distributes the results to their callers.
+     *
+     * @param handler the handler of the batch.
+     * @param batch   the closed batch.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void flush(BatchQueryHandler handler, Batch batch) {
+        DistributionSummary.builder("datorum.query.batch.size")
+                .tag("handler", handler.getClass().getSimpleName())
+                .register(meterRegistry)
+                .record(batch.pending.size());
+
+        try {
+            Map<Object, Object> results = handler.handleAll(batch.pending.keySet());
+            batch.pending.forEach((query, result) -> result.complete(Optional.ofNullable(results.get(query))));
+        } catch (Throwable e) {
+            // Fail the callers on errors as well, as they would otherwise wait forever
+            log.debug("Batch of {} queries to {} failed", batch.pending.size(), handler.getClass().getName(), e);
+            batch.pending.values().forEach(result -> result.completeExceptionally(e));
+            if (e instanceof Error error) {
+                throw error;
+            }
+        }
+    }
+
+    /**
+     * The queries collected for one handler and the results their callers wait for.
+     */
+    private static final class Batch {
+
+        /**
+         * Only modified while the batch is open, under the lock of {@link #batches}.
+         */
+        private final Map<Object, CompletableFuture<Optional<Object>>> pending = new LinkedHashMap<>();
+    }
+}
@@ -0,0 +1,251 @@
+package de.tudl.playground.datorum.gateway.query.cache;
+
+import de.tudl.playground.datorum.gateway.query.QueryHandler;
+import de.tudl.playground.datorum.gateway.query.annotation.CachedQuery;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code QueryCache} caches the results of query handlers annotated with {@link CachedQuery}.
+ * <p>
+ * Every annotated handler has its own bounded cache, keyed by query. Once it is full, the least recently used result
+ * is displaced. Results expire after their TTL and are evicted precisely by their cache tags: the projection that
+ * applies a domain event calls {@link #evict(String)} with the ID of the changed aggregate, which evicts every result
+ * read from it, whatever query it was cached under.
+ * </p>
+ * <p>
+ * A result is only cached if no tag was evicted while its handler ran. Otherwise a read racing the update of a
+ * projection could cache the state from before the update.
+ * </p>
+ * <p>
+ * Cached results are shared between all callers of a query and must not be modified.
+ * </p>
+ *
+ * <h2>Metrics</h2>
+ * {@code datorum.query.cache.requests} counts the queries to cached handlers, tagged with the handler and whether
+ * the result was a {@code hit} or a {@code miss}.
+ *
+ * <h2>Thread Safety</h2>
+ * This class is thread-safe. Hits only lock the cache of their handler.
+ */
+@Component
+public class QueryCache {
+
+    private static final ClassValue<CachedQuery> ANNOTATIONS = new ClassValue<>() {
+        @Override
+        protected CachedQuery computeValue(Class<?> handlerType) {
+            return handlerType.getAnnotation(CachedQuery.class);
+        }
+    };
+
+    private final int defaultMaxSize;
+    private final long defaultTtlSeconds;
+    private final MeterRegistry meterRegistry;
+    private final Map<Class<?>, Region> regions = new ConcurrentHashMap<>();
+
+    /**
+     * The cached entries of every tag. Guarded by {@link #tagLock}, as is {@link #generation}.
+     */
+    private final Map<String, Set<EntryKey>> taggedEntries = new HashMap<>();
+    private final Object tagLock = new Object();
+    private volatile long generation;
+
+    /**
+     * Constructs a {@code QueryCache}.
+     *
+     * @param defaultMaxSize    the size bound of handlers that do not declare one.
+     * @param defaultTtlSeconds the time to live of results of handlers that do not declare one.
+     * @param meterRegistry     the registry the cache metrics are registered with.
+     */
+    public QueryCache(
+            @Value("${datorum.query.cache.max-size:1000}") int defaultMaxSize,
+            @Value("${datorum.query.cache.ttl-seconds:300}") long defaultTtlSeconds,
+            MeterRegistry meterRegistry
+    ) {
+        if (defaultMaxSize < 1 || defaultTtlSeconds < 1) throw new IllegalArgumentException(
+                "Query cache size and TTL must be positive"
+        );
+
+        this.defaultMaxSize = defaultMaxSize;
+        this.defaultTtlSeconds = defaultTtlSeconds;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Handles a query with the given handler, answering it from the cache if the handler is annotated with
+     * {@link CachedQuery}.
+     *
+     * @param handler the handler of the query.
+     * @param query   the query to handle.
+     * @param <Q>     the type of the query.
+     * @param <R>     the type of the result.
+     * @return the cached result, or the result of the handler.
+     */
+    public <Q, R> Optional<R> handle(QueryHandler<Q, R> handler, Q query) {
+        return handle(handler, query, handler::handle);
+    }
+
+    /**
+     * Handles a query with the given loader, answering it from the cache if the handler is annotated with
+     * {@link CachedQuery}.
+     *
+     * @param handler the handler of the query, which determines the cache and tags of the result.
+     * @param query   the query to handle.
+     * @param loader  loads the result on a cache miss, for example by batching the query.
+     * @param <Q>     the type of the query.
+     * @param <R>     the type of the result.
+     * @return the cached result, or the result of the loader.
+     */
+    @SuppressWarnings("unchecked")
+    public <Q, R> Optional<R> handle(QueryHandler<Q, R> handler, Q query, Function<Q, Optional<R>> loader) {
+        CachedQuery annotation = ANNOTATIONS.get(handler.getClass());
+        if (annotation == null) {
+            return loader.apply(query);
+        }
+
+        Region region = regions.computeIfAbsent(handler.getClass(), type -> new Region(type, annotation));
+        Object cached = region.get(query);
+        if (cached != null) {
+            region.hits.increment();
+            return Optional.of((R) cached);
+        }
+
+        region.misses.increment();
+        long generationBefore = generation;
+        Optional<R> result = loader.apply(query);
+        if (result != null && result.isPresent()) {
+            put(region, query, result.get(), handler.cacheTags(query, result.get()), generationBefore);
+        }
+        return result;
+    }
+
+    /**
+     * Evicts every cached result tagged with the given tag.
+     *
+     * @param tag the tag to evict, typically the ID of a changed aggregate.
+     */
+    public void evict(String tag) {
+        synchronized (tagLock) {
+            generation++;
+            Set<EntryKey> keys = taggedEntries.remove(tag);
+            if (keys != null) {
+                for (EntryKey key : keys) {
+                    Entry removed = key.region().remove(key.query());
+                    if (removed != null) {
+                        untag(key, removed, tag);
+                    }
+                }
+            }
+        }
+    }
+
+    private void put(Region region, Object query, Object value, Collection<String> tags, long generationBefore) {
+        synchronized (tagLock) {
+            if (generation != generationBefore) {
+                // A tag was evicted while the handler ran, the result may predate the eviction
+                return;
+            }
+
+            EntryKey key = new EntryKey(region, query);
+            Entry entry = new Entry(value, List.copyOf(tags), System.nanoTime() + region.ttlNanos);
+            List<Map.Entry<Object, Entry>> displaced = region.put(query, entry);
+            for (Map.Entry<Object, Entry> old : displaced) {
+                untag(new EntryKey(region, old.getKey()), old.getValue(), null);
+            }
+            for (String tag : entry.tags()) {
+                taggedEntries.computeIfAbsent(tag, t -> new HashSet<>()).add(key);
+            }
+        }
+    }
+
+    private void untag(EntryKey key, Entry entry, String evictedTag) {
+        for (String tag : entry.tags()) {
+            if (!tag.equals(evictedTag)) {
+                taggedEntries.computeIfPresent(tag, (t, keys) -> {
+                    keys.remove(key);
+                    return keys.isEmpty() ? null : keys;
+                });
+            }
+        }
+    }
+
+    private record EntryKey(Region region, Object query) {
+    }
+
+    private record Entry(Object value, List<String> tags, long expiresAtNanos) {
+    }
+
+    /**
+     * The bounded least-recently-used cache of one handler.
+     */
+    private final class Region {
+
+        private final int maxSize;
+        private final long ttlNanos;
+        private final Counter hits;
+        private final Counter misses;
+        private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        private Region(Class<?> handlerType, CachedQuery annotation) {
+            this.maxSize = annotation.maxSize() > 0 ? annotation.maxSize() : defaultMaxSize;
+            this.ttlNanos = TimeUnit.SECONDS.toNanos(
+                    annotation.ttlSeconds() > 0 ? annotation.ttlSeconds() : defaultTtlSeconds
+            );
+            this.hits = counter(handlerType, "hit");
+            this.misses = counter(handlerType, "miss");
+        }
+
+        private synchronized Object get(Object query) {
+            Entry entry = entries.get(query);
+            // Expired entries stay until they are replaced or displaced, which also releases their tags
+            return entry != null && entry.expiresAtNanos() - System.nanoTime() > 0 ? entry.value() : null;
+        }
+
+        private synchronized Entry remove(Object query) {
+            return entries.remove(query);
+        }
+
+        /**
+         * Caches an entry, displacing the least recently used entries beyond the size bound.
+         *
+         * @return the replaced and displaced entries.
+         */
+        private synchronized List<Map.Entry<Object, Entry>> put(Object query, Entry entry) {
+            List<Map.Entry<Object, Entry>> displaced = new ArrayList<>();
+            Entry replaced = entries.put(query, entry);
+            if (replaced != null) {
+                displaced.add(Map.entry(query, replaced));
+            }
+
+            Iterator<Map.Entry<Object, Entry>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxSize && eldest.hasNext()) {
+                Map.Entry<Object, Entry> next = eldest.next();
+                displaced.add(Map.entry(next.getKey(), next.getValue()));
+                eldest.remove();
+            }
+            return displaced;
+        }
+
+        private Counter counter(Class<?> handlerType, String result) {
+            return Counter.builder("datorum.query.cache.requests")
+                    .tag("handler", handlerType.getSimpleName())
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }
+    }
+}
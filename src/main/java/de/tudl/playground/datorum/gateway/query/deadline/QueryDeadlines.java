@@ -0,0 +1,256 @@
+package de.tudl.playground.datorum.gateway.query.deadline;
+
+import de.tudl.playground.datorum.gateway.query.annotation.HedgedQuery;
+import de.tudl.playground.datorum.gateway.query.annotation.QueryTimeout;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code QueryDeadlines} apply the timeouts of {@link QueryTimeout} and the hedging of {@link HedgedQuery} to the
+ * execution of queries.
+ * <p>
+ * Bounded queries run on the {@code queryExecutor}, so their callers stop waiting once the timeout has elapsed. The
+ * handler itself cannot be interrupted and finishes in the background. Hedged queries track the latencies of their
+ * type over the last {@value #LATENCY_SAMPLES} executions. Once {@code datorum.query.hedging.min-samples} latencies
+ * are known, a second attempt is issued if the first one is slower than the configured percentile of them.
+ * </p>
+ *
+ * <h2>Metrics</h2>
+ * {@code datorum.query.timeouts} counts the queries that timed out, and {@code datorum.query.hedges} counts the
+ * issued second attempts, tagged with whether they {@code won} or {@code lost} the race. Both are tagged with the
+ * query type.
+ *
+ * <h2>Thread Safety</h2>
+ * This class is thread-safe.
+ */
+@Component
+public class QueryDeadlines {
+
+    private static final int LATENCY_SAMPLES = 128;
+
+    private static final ClassValue<QueryTimeout> TIMEOUTS = new ClassValue<>() {
+        @Override
+        protected QueryTimeout computeValue(Class<?> queryType) {
+            return queryType.getAnnotation(QueryTimeout.class);
+        }
+    };
+
+    private static final ClassValue<HedgedQuery> HEDGES = new ClassValue<>() {
+        @Override
+        protected HedgedQuery computeValue(Class<?> queryType) {
+            return queryType.getAnnotation(HedgedQuery.class);
+        }
+    };
+
+    private final Executor queryExecutor;
+    private final Duration defaultTimeout;
+    private final int minSamples;
+    private final MeterRegistry meterRegistry;
+
+    private final ClassValue<Latencies> latencies = new ClassValue<>() {
+        @Override
+        protected Latencies computeValue(Class<?> queryType) {
+            return new Latencies(HEDGES.get(queryType).percentile());
+        }
+    };
+
+    /**
+     * Constructs {@code QueryDeadlines}.
+     *
+     * @param queryExecutor        the executor on which bounded and hedged queries are handled.
+     * @param defaultTimeoutMillis the timeout of query types that do not declare one, or {@code 0} for none.
+     * @param minSamples           the number of latencies known before queries are hedged.
+     * @param meterRegistry        the registry the timeout and hedging metrics are registered with.
+     */
+    public QueryDeadlines(
+            @Qualifier("queryExecutor") Executor queryExecutor,
+            @Value("${datorum.query.timeout-ms:0}") long defaultTimeoutMillis,
+            @Value("${datorum.query.hedging.min-samples:20}") int minSamples,
+            MeterRegistry meterRegistry
+    ) {
+        if (defaultTimeoutMillis < 0) throw new IllegalArgumentException(
+                "Query timeout cannot be negative"
+        );
+        if (minSamples < 1 || minSamples > LATENCY_SAMPLES) throw new IllegalArgumentException(
+                "Hedging needs between 1 and " + LATENCY_SAMPLES + " latency samples"
+        );
+
+        this.queryExecutor = queryExecutor;
+        this.defaultTimeout = defaultTimeoutMillis > 0 ? Duration.ofMillis(defaultTimeoutMillis) : null;
+        this.minSamples = minSamples;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Returns the timeout of a query type.
+     *
+     * @param queryType the type of the query.
+     * @return the timeout declared by {@link QueryTimeout}, or {@code datorum.query.timeout-ms}, or an empty optional
+     *         if queries of the type are not bounded.
+     */
+    public Optional<Duration> timeoutOf(Class<?> queryType) {
+        QueryTimeout timeout = TIMEOUTS.get(queryType);
+        return timeout != null ? Optional.of(Duration.ofMillis(timeout.millis())) : Optional.ofNullable(defaultTimeout);
+    }
+
+    /**
+     * Returns whether queries of the given type are hedged.
+     *
+     * @param queryType the type of the query.
+     * @return {@code true} if the query type is annotated with {@link HedgedQuery}.
+     */
+    public boolean isHedged(Class<?> queryType) {
+        return HEDGES.get(queryType) != null;
+    }
+
+    /**
+     * Executes a query on the {@code queryExecutor}, hedging it if its type is annotated with {@link HedgedQuery}.
+     *
+     * @param queryType the type of the query.
+     * @param deadline  the time to wait for the result, or {@code null} to wait until the query has been handled.
+     * @param attempt   the first attempt to handle the query.
+     * @param hedge     the second attempt to handle the query, issued if the first one is slow.
+     * @param <R>       the type of the result.
+     * @return a future completing with the result of the first successful attempt, or exceptionally with a
+     *         {@link TimeoutException} if the deadline has passed or the error of the last failed attempt.
+     */
+    public <R> CompletableFuture<Optional<R>> execute(
+            Class<?> queryType,
+            Duration deadline,
+            Supplier<Optional<R>> attempt,
+            Supplier<Optional<R>> hedge
+    ) {
+        CompletableFuture<Optional<R>> result = new CompletableFuture<>();
+        AtomicInteger running = new AtomicInteger(1);
+        Latencies typeLatencies = isHedged(queryType) ? latencies.get(queryType) : null;
+
+        long start = System.nanoTime();
+        CompletableFuture.supplyAsync(attempt, queryExecutor).whenComplete((value, error) -> {
+            if (error == null && typeLatencies != null) {
+                typeLatencies.record(System.nanoTime() - start);
+            }
+            settle(result, running, value, error);
+        });
+
+        long hedgeDelayNanos = typeLatencies != null ? typeLatencies.percentileNanos(minSamples) : -1;
+        if (hedgeDelayNanos >= 0) {
+            Executor delayed = CompletableFuture.delayedExecutor(hedgeDelayNanos, TimeUnit.NANOSECONDS, queryExecutor);
+            delayed.execute(() -> issueHedge(queryType, result, running, hedge));
+        }
+
+        if (deadline != null) {
+            result.orTimeout(deadline.toMillis(), TimeUnit.MILLISECONDS).whenComplete((value, error) -> {
+                if (error instanceof TimeoutException) {
+                    counter("datorum.query.timeouts", queryType).increment();
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Issues the second attempt of a hedged query, unless the first attempt has completed in the meantime.
+     */
+    private <R> void issueHedge(
+            Class<?> queryType,
+            CompletableFuture<Optional<R>> result,
+            AtomicInteger running,
+            Supplier<Optional<R>> hedge
+    ) {
+        // Count the attempt before checking the result, so a failure of the first attempt waits for this one
+        running.incrementAndGet();
+        if (result.isDone()) {
+            return;
+        }
+
+        boolean won;
+        try {
+            won = result.complete(hedge.get());
+        } catch (Throwable e) {
+            settle(result, running, null, e);
+            won = false;
+        }
+        Counter.builder("datorum.query.hedges")
+                .tag("query", queryType.getSimpleName())
+                .tag("result", won ? "won" : "lost")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Completes the result with a successful attempt, or with a failed one if no other attempt is running.
+     */
+    private static <R> void settle(
+            CompletableFuture<Optional<R>> result,
+            AtomicInteger running,
+            Optional<R> value,
+            Throwable error
+    ) {
+        if (error == null) {
+            result.complete(value);
+        } else if (running.decrementAndGet() == 0) {
+            result.completeExceptionally(error instanceof CompletionException ? error.getCause() : error);
+        }
+    }
+
+    private Counter counter(String name, Class<?> queryType) {
+        return Counter.builder(name)
+                .tag("query", queryType.getSimpleName())
+                .register(meterRegistry);
+    }
+
+    /**
+     * The latencies of the most recent executions of a hedged query type.
+     */
+    private static final class Latencies {
+
+        /**
+         * The number of recorded latencies after which the percentile is recomputed.
+         */
+        private static final int RECOMPUTE_INTERVAL = 16;
+
+        private final double percentile;
+        private final long[] samples = new long[LATENCY_SAMPLES];
+        private long recorded;
+        private volatile long percentileNanos = -1;
+        private volatile long known;
+
+        private Latencies(double percentile) {
+            if (percentile <= 0 || percentile > 1) throw new IllegalArgumentException(
+                    "Hedging percentile must be within (0, 1]: " + percentile
+            );
+
+            this.percentile = percentile;
+        }
+
+        private synchronized void record(long nanos) {
+            samples[(int) (recorded++ % LATENCY_SAMPLES)] = nanos;
+            known = Math.min(recorded, LATENCY_SAMPLES);
+            if (recorded <= LATENCY_SAMPLES || recorded % RECOMPUTE_INTERVAL == 0) {
+                long[] sorted = Arrays.copyOf(samples, (int) known);
+                Arrays.sort(sorted);
+                percentileNanos = sorted[(int) Math.ceil(percentile * sorted.length) - 1];
+            }
+        }
+
+        /**
+         * Returns the percentile of the recorded latencies, or {@code -1} if fewer than the given number are known.
+         */
+        private long percentileNanos(int minSamples) {
+            return known >= minSamples ? percentileNanos : -1;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package de.tudl.playground.datorum.gateway.query.merge;
+
+/**
+ * The strategies for merging the results of the handlers of a query that several handlers match.
+ * <p>
+ * Handlers are ordered by their {@link de.tudl.playground.datorum.gateway.query.annotation.HandlerPriority}. All
+ * strategies but {@link #MERGE_ALL} answer with a single result and stop the remaining handlers as soon as that result
+ * is decided.
+ * </p>
+ */
+public enum MergeStrategy {
+    /**
+     * Runs every handler and answers with the list of all results, in the order of the handlers.
+     */
+    MERGE_ALL,
+
+    /**
+     * Answers with the first result returned by any handler.
+     */
+    FIRST_NON_EMPTY,
+
+    /**
+     * Answers with the result of the highest-priority handler that returns one.
+     */
+    PRIORITY_WINS,
+
+    /**
+     * Answers with the first result returned by at least the quorum of handlers, as compared by {@code equals}.
+     */
+    QUORUM
+}
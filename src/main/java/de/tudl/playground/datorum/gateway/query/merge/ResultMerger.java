@@ -0,0 +1,167 @@
+package de.tudl.playground.datorum.gateway.query.merge;
+
+import de.tudl.playground.datorum.gateway.query.annotation.MergeResults;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+
+/**
+ * The {@code ResultMerger} merges the results of the handlers of one multi-handler query according to its
+ * {@link MergeStrategy}.
+ * <p>
+ * Handlers report their results as they settle, in any order. Every report tells whether the merged result is decided,
+ * after which the remaining handlers can be stopped and further reports are ignored.
+ * </p>
+ *
+ * <h2>Thread Safety</h2>
+ * This class is thread-safe, so handlers running in parallel can report their results directly.
+ */
+public final class ResultMerger {
+
+    private static final ClassValue<MergeResults> ANNOTATIONS = new ClassValue<>() {
+        @Override
+        protected MergeResults computeValue(Class<?> queryType) {
+            return queryType.getAnnotation(MergeResults.class);
+        }
+    };
+
+    private final MergeStrategy strategy;
+    private final int quorum;
+    private final Optional<?>[] results;
+    private final Map<Object, Integer> votes = new HashMap<>();
+    private int settled;
+    private Object first;
+    private Object agreed;
+    private Throwable error;
+    private boolean decided;
+
+    /**
+     * Constructs a {@code ResultMerger} for one query.
+     *
+     * @param queryType    the type of the query, which declares the merge strategy.
+     * @param handlerCount the number of handlers of the query.
+     */
+    public ResultMerger(Class<?> queryType, int handlerCount) {
+        MergeResults annotation = ANNOTATIONS.get(queryType);
+        this.strategy = annotation != null ? annotation.value() : MergeStrategy.MERGE_ALL;
+        this.quorum = annotation != null ? annotation.quorum() : 1;
+        this.results = new Optional<?>[handlerCount];
+
+        if (strategy == MergeStrategy.QUORUM && (quorum < 1 || quorum > handlerCount))
+            throw new IllegalArgumentException(
+                    "Quorum of " + queryType.getName() + " must be between 1 and its " + handlerCount + " handlers"
+            );
+    }
+
+    /**
+     * Returns whether the merge strategy of a query type is declared.
+     *
+     * @param queryType the type of the query.
+     * @return {@code true} if the query type is annotated with {@link MergeResults}.
+     */
+    public static boolean isDeclared(Class<?> queryType) {
+        return ANNOTATIONS.get(queryType) != null;
+    }
+
+    /**
+     * Reports the result of a handler.
+     *
+     * @param index  the position of the handler in the order of the handlers.
+     * @param result the result of the handler.
+     * @return {@code true} if the merged result is decided.
+     */
+    public synchronized boolean offer(int index, Optional<?> result) {
+        if (decided || results[index] != null) {
+            return decided;
+        }
+
+        results[index] = result != null ? result : Optional.empty();
+        settled++;
+        if (results[index].isPresent()) {
+            Object value = results[index].get();
+            first = first != null ? first : value;
+            if (strategy == MergeStrategy.QUORUM && votes.merge(value, 1, Integer::sum) >= quorum && agreed == null) {
+                agreed = value;
+            }
+        }
+        return decided = isDecided();
+    }
+
+    /**
+     * Reports the failure of a handler, including missing the deadline.
+     *
+     * @param index the position of the handler in the order of the handlers.
+     * @param error the error of the handler.
+     * @return {@code true} if the merged result is decided.
+     */
+    public synchronized boolean fail(int index, Throwable error) {
+        if (decided || results[index] != null) {
+            return decided;
+        }
+
+        if (this.error == null) {
+            this.error = error;
+        }
+        return offer(index, Optional.empty());
+    }
+
+    /**
+     * Returns the merged result of the handlers that have reported so far.
+     *
+     * @return the merged result, or {@link Optional#empty()} if there is none.
+     * @throws CompletionException if there is no merged result and a handler failed.
+     */
+    public synchronized Optional<Object> result() {
+        Object merged = switch (strategy) {
+            case MERGE_ALL -> {
+                List<Object> all = new ArrayList<>();
+                for (Optional<?> result : results) {
+                    if (result != null && result.isPresent()) {
+                        all.add(result.get());
+                    }
+                }
+                yield all.isEmpty() ? null : List.copyOf(all);
+            }
+            case FIRST_NON_EMPTY -> first;
+            case PRIORITY_WINS -> highestPriorityResult();
+            case QUORUM -> agreed;
+        };
+
+        if (merged == null && error != null) {
+            throw new CompletionException(error);
+        }
+        return Optional.ofNullable(merged);
+    }
+
+    private boolean isDecided() {
+        return settled == results.length || switch (strategy) {
+            case MERGE_ALL -> false;
+            case FIRST_NON_EMPTY -> first != null;
+            case PRIORITY_WINS -> highestPriorityResult() != null;
+            case QUORUM -> agreed != null || quorumUnreachable();
+        };
+    }
+
+    /**
+     * Returns the result of the first handler that returned one, provided all handlers before it have settled.
+     */
+    private Object highestPriorityResult() {
+        for (Optional<?> result : results) {
+            if (result == null) {
+                return null;
+            }
+            if (result.isPresent()) {
+                return result.get();
+            }
+        }
+        return null;
+    }
+
+    private boolean quorumUnreachable() {
+        int leading = votes.values().stream().max(Integer::compare).orElse(0);
+        return leading + (results.length - settled) < quorum;
+    }
+}
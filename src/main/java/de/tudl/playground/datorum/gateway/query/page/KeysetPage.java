@@ -0,0 +1,102 @@
+package de.tudl.playground.datorum.gateway.query.page;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * A page of query results fetched with keyset (seek) pagination.
+ * <p>
+ * Instead of skipping rows with {@code OFFSET}, the next page is fetched by seeking past the sort key of the last
+ * item of this page, so every page costs the same no matter how deep it is. The sort key is handed to the caller as an
+ * opaque continuation token, which is passed back with the query for the next page.
+ * </p>
+ *
+ * @param items             the items of this page.
+ * @param continuationToken the token to fetch the next page with, or {@code null} if this is the last page.
+ * @param <T>               the type of the items.
+ */
+public record KeysetPage<T>(List<T> items, String continuationToken) {
+
+    public KeysetPage {
+        items = List.copyOf(items);
+    }
+
+    /**
+     * Returns whether there is a page after this one.
+     *
+     * @return {@code true} if a continuation token is present.
+     */
+    public boolean hasNext() {
+        return continuationToken != null;
+    }
+
+    /**
+     * Creates a page from the rows fetched for it.
+     * <p>
+     * The rows must have been fetched with a limit of {@code pageSize + 1}: the additional row only tells that there
+     * is a next page and is not part of this page.
+     * </p>
+     *
+     * @param rows     the rows fetched for the page, ordered by the sort key.
+     * @param pageSize the number of items of the page.
+     * @param sortKey  extracts the sort key of an item.
+     * @param <T>      the type of the items.
+     * @return the page.
+     */
+    public static <T> KeysetPage<T> of(List<T> rows, int pageSize, Function<T, ?> sortKey) {
+        if (rows.size() <= pageSize) {
+            return new KeysetPage<>(rows, null);
+        }
+
+        List<T> items = rows.subList(0, pageSize);
+        return new KeysetPage<>(items, encode(String.valueOf(sortKey.apply(items.get(pageSize - 1)))));
+    }
+
+    /**
+     * Decodes the sort key to seek past from a continuation token.
+     *
+     * @param continuationToken the token of the previous page, or {@code null} for the first page.
+     * @return the sort key, or an empty optional for the first page.
+     * @throws IllegalArgumentException if the token is malformed.
+     */
+    public static Optional<String> decode(String continuationToken) {
+        if (continuationToken == null) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(new String(Base64.getUrlDecoder().decode(continuationToken), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(
+                    "Malformed continuation token: " + continuationToken, e
+            );
+        }
+    }
+
+    /**
+     * Decodes the sort key to seek past from a continuation token and parses it.
+     *
+     * @param continuationToken the token of the previous page, or {@code null} for the first page.
+     * @param parser            parses the sort key, for example {@code UUID::fromString}.
+     * @param <K>               the type of the sort key.
+     * @return the parsed sort key, or an empty optional for the first page.
+     * @throws IllegalArgumentException if the token is malformed or its sort key cannot be parsed.
+     */
+    public static <K> Optional<K> decode(String continuationToken, Function<String, K> parser) {
+        Optional<String> sortKey = decode(continuationToken);
+        try {
+            return sortKey.map(parser);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException(
+                    "Malformed continuation token: " + continuationToken, e
+            );
+        }
+    }
+
+    private static String encode(String sortKey) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sortKey.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -24,6 +24,7 @@ import java.util.stream.Collectors;
  *   <li>Sorts handlers by their priority (via the {@code @HandlerPriority} annotation)
  *       and specificity in descending order of importance.</li>
  *   <li>Provides a fallback mechanism to include handlers with higher specificity when no exact matches are found.</li>
+ *   <li>Reads the query type and priority of every handler class only once, see {@link HandlerMetadata}.</li>
  * </ul>
  *
  * <p>This class is annotated with {@link Service} to make it available for dependency injection in a Spring context.</p>
@@ -35,6 +36,21 @@ import java.util.stream.Collectors;
 @Service
 public class DefaultHandlerResolver implements HandlerResolver {
 
+    /**
+     * The query type and priority of every handler class, read by reflection on first use.
+     */
+    private static final ClassValue<HandlerMetadata> METADATA = new ClassValue<>() {
+        @Override
+        protected HandlerMetadata computeValue(Class<?> handlerType) {
+            ParameterizedType parameterizedType = (ParameterizedType) handlerType.getGenericInterfaces()[0];
+            HandlerPriority priority = handlerType.getAnnotation(HandlerPriority.class);
+            return new HandlerMetadata(
+                    (Class<?>) parameterizedType.getActualTypeArguments()[0],
+                    priority != null ? priority.value() : 0 // Default priority is 0
+            );
+        }
+    };
+
     /**
      * Resolves a list of {@link QueryHandler}s for a given query type.
      *
@@ -56,7 +72,7 @@ public class DefaultHandlerResolver implements HandlerResolver {
      * @return a sorted list of {@link QueryHandler}s relevant to the given query type.
      */
     @Override
-    public <Q, R> List<QueryHandler<Q, R>> resolveHandlers(Class<?> queryType, Collection<QueryHandler> handlers) {
+    public <Q, R> List<QueryHandler<Q, R>> resolveHandlers(Class<?> queryType, Collection<QueryHandler<?, ?>> handlers) {
         // Filter and group handlers by specificity
         var groupedHandlers = handlers.stream()
                 .filter(handler -> matchesQueryType(handler, queryType))
@@ -84,12 +100,8 @@ public class DefaultHandlerResolver implements HandlerResolver {
      * @param queryType the query type to match against.
      * @return {@code true} if the handler matches the query type, {@code false} otherwise.
      */
-    private boolean matchesQueryType(QueryHandler handler, Class<?> queryType) {
-        ParameterizedType parameterizedType = (ParameterizedType) handler
-                .getClass()
-                .getGenericInterfaces()[0];
-        Class<?> handlerQueryType = (Class<?>) parameterizedType.getActualTypeArguments()[0];
-        return handlerQueryType.isAssignableFrom(queryType);
+    private boolean matchesQueryType(QueryHandler<?, ?> handler, Class<?> queryType) {
+        return getHandlerQueryType(handler).isAssignableFrom(queryType);
     }
 
     /**
@@ -101,8 +113,7 @@ public class DefaultHandlerResolver implements HandlerResolver {
      * @return the priority value specified in the {@link HandlerPriority} annotation, or {@code 0} if not present.
      */
     private int getHandlerPriority(Object handler) {
-        HandlerPriority priorityAnnotation = handler.getClass().getAnnotation(HandlerPriority.class);
-        return priorityAnnotation != null ? priorityAnnotation.value() : 0; // Default priority is 0
+        return METADATA.get(handler.getClass()).priority();
     }
 
     /**
@@ -114,10 +125,7 @@ public class DefaultHandlerResolver implements HandlerResolver {
      * @return the {@link Class} representing the query type handled by the handler.
      */
     private Class<?> getHandlerQueryType(Object handler) {
-        ParameterizedType parameterizedType = (ParameterizedType) handler
-                .getClass()
-                .getGenericInterfaces()[0];
-        return (Class<?>) parameterizedType.getActualTypeArguments()[0];
+        return METADATA.get(handler.getClass()).queryType();
     }
 
     /**
@@ -139,4 +147,13 @@ public class DefaultHandlerResolver implements HandlerResolver {
         }
         return specificity;
     }
+
+    /**
+     * The query type and priority of a handler class.
+     *
+     * @param queryType the query type handled by the handler class.
+     * @param priority  the priority of the handler class, {@code 0} if it is not annotated.
+     */
+    private record HandlerMetadata(Class<?> queryType, int priority) {
+    }
 }
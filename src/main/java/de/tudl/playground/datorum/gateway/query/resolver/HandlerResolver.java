@@ -6,6 +6,6 @@ import java.util.Collection;
 import java.util.List;
 
 public interface HandlerResolver {
-    <Q, R> List<QueryHandler<Q, R>> resolveHandlers(Class<?> queryType, Collection<QueryHandler> handlers);
+    <Q, R> List<QueryHandler<Q, R>> resolveHandlers(Class<?> queryType, Collection<QueryHandler<?, ?>> handlers);
 }
 
@@ -0,0 +1,125 @@
+package de.tudl.playground.datorum.gateway.query.subscription;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Predicate;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code QueryUpdateEmitter} emits incremental updates to the subscribers of subscription queries.
+ * <p>
+ * The projection that applies a domain event emits the resulting change, once it has been saved, to the subscription
+ * queries it affects, for example the new budget to the subscribers of the budgets of its user. Live views thereby
+ * stay current without querying again after every event. Emitting never blocks: updates are buffered per subscription
+ * and delivered as its subscriber requests them, see {@link UpdateSubscription}.
+ * </p>
+ *
+ * <h2>Metrics</h2>
+ * {@code datorum.query.subscription.updates} counts the updates emitted to subscriptions, tagged with the query type
+ * and whether the update was {@code queued} or {@code coalesced} with a pending update.
+ *
+ * <h2>Thread Safety</h2>
+ * This class is thread-safe.
+ */
+@Component
+public class QueryUpdateEmitter {
+
+    private final Executor queryExecutor;
+    private final int bufferSize;
+    private final MeterRegistry meterRegistry;
+    private final Map<Class<?>, Set<UpdateSubscription<?>>> subscriptions = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a {@code QueryUpdateEmitter}.
+     *
+     * @param queryExecutor the executor on which updates are delivered to subscribers.
+     * @param bufferSize    the number of distinct pending updates a subscription buffers.
+     * @param meterRegistry the registry the update metrics are registered with.
+     */
+    public QueryUpdateEmitter(
+            @Qualifier("queryExecutor") Executor queryExecutor,
+            @Value("${datorum.query.subscription.buffer-size:256}") int bufferSize,
+            MeterRegistry meterRegistry
+    ) {
+        if (bufferSize < 1) throw new IllegalArgumentException(
+                "Subscription buffer size must be positive"
+        );
+
+        this.queryExecutor = queryExecutor;
+        this.bufferSize = bufferSize;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Emits an update to the subscriptions of the given query type whose query matches the filter. Pending updates
+     * equal to the update are coalesced with it.
+     *
+     * @param queryType the type of the affected queries.
+     * @param filter    selects the affected queries.
+     * @param update    the update.
+     * @param <Q>       the type of the queries.
+     */
+    public <Q> void emit(Class<Q> queryType, Predicate<? super Q> filter, Object update) {
+        emit(queryType, filter, update, update);
+    }
+
+    /**
+     * Emits an update to the subscriptions of the given query type whose query matches the filter. A pending update
+     * with the same coalescing key is replaced by the update.
+     *
+     * @param queryType     the type of the affected queries.
+     * @param filter        selects the affected queries.
+     * @param coalescingKey the key identifying what the update describes, for example the ID of an entity.
+     * @param update        the update.
+     * @param <Q>           the type of the queries.
+     */
+    @SuppressWarnings("unchecked")
+    public <Q> void emit(Class<Q> queryType, Predicate<? super Q> filter, Object coalescingKey, Object update) {
+        Set<UpdateSubscription<?>> affected = subscriptions.get(queryType);
+        if (affected == null) {
+            return;
+        }
+
+        for (UpdateSubscription<?> subscription : affected) {
+            if (filter.test((Q) subscription.query())) {
+                boolean coalesced = ((UpdateSubscription<Object>) subscription).offer(coalescingKey, update);
+                Counter.builder("datorum.query.subscription.updates")
+                        .tag("query", queryType.getSimpleName())
+                        .tag("result", coalesced ? "coalesced" : "queued")
+                        .register(meterRegistry)
+                        .increment();
+            }
+        }
+    }
+
+    /**
+     * Registers a subscription to the updates of a query.
+     *
+     * @param query the subscribed query.
+     * @param <U>   the type of the updates.
+     * @return the subscription, which buffers updates from now on.
+     */
+    public <U> UpdateSubscription<U> register(Object query) {
+        UpdateSubscription<U> subscription = new UpdateSubscription<>(query, this, queryExecutor, bufferSize);
+        subscriptions.computeIfAbsent(query.getClass(), type -> ConcurrentHashMap.newKeySet()).add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Removes a cancelled or failed subscription.
+     *
+     * @param subscription the subscription.
+     */
+    void unregister(UpdateSubscription<?> subscription) {
+        Set<UpdateSubscription<?>> registered = subscriptions.get(subscription.query().getClass());
+        if (registered != null) {
+            registered.remove(subscription);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package de.tudl.playground.datorum.gateway.query.subscription;
+
+import java.util.Optional;
+
+/**
+ * The result of a subscription query: its initial result and the updates emitted for it afterwards.
+ * <p>
+ * Updates are buffered from before the initial result is read, so no update is lost in between. An update may
+ * therefore already be reflected in the initial result. Closing the result cancels the updates.
+ * </p>
+ *
+ * @param initialResult the result of the query at the time of subscribing.
+ * @param updates       the publisher of the updates emitted for the query, which can be subscribed once.
+ * @param <R>           the type of the initial result.
+ * @param <U>           the type of the updates.
+ */
+public record SubscriptionQueryResult<R, U>(Optional<R> initialResult, UpdateSubscription<U> updates)
+        implements AutoCloseable {
+
+    /**
+     * Cancels the updates.
+     */
+    @Override
+    public void close() {
+        updates.cancel();
+    }
+}
@@ -0,0 +1,196 @@
+package de.tudl.playground.datorum.gateway.query.subscription;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The updates of one subscription query, published to a single {@link Flow.Subscriber}.
+ * <p>
+ * Updates emitted for the query are buffered until the subscriber requests them. A buffered update is replaced by a
+ * later update with the same coalescing key, so a slow subscriber receives the latest state of every key instead of
+ * every intermediate one. If more distinct keys are pending than the buffer holds, the subscription fails with an
+ * {@link IllegalStateException}, after which the subscriber should query again.
+ * </p>
+ * <p>
+ * Updates are delivered on the {@code queryExecutor}, never on the thread emitting them.
+ * </p>
+ *
+ * @param <U> the type of the updates.
+ */
+public final class UpdateSubscription<U> implements Flow.Publisher<U>, Flow.Subscription {
+
+    private final Object query;
+    private final QueryUpdateEmitter emitter;
+    private final Executor executor;
+    private final int bufferSize;
+
+    /**
+     * The updates not delivered yet, keyed by their coalescing key. Guarded by {@code this}, as are the fields below.
+     */
+    private final Map<Object, U> pending = new LinkedHashMap<>();
+    private Flow.Subscriber<? super U> subscriber;
+    private long demand;
+    private boolean cancelled;
+    private Throwable failure;
+
+    /**
+     * The number of requested drains, so only one drain delivers at a time.
+     */
+    private final AtomicInteger drains = new AtomicInteger();
+
+    UpdateSubscription(Object query, QueryUpdateEmitter emitter, Executor executor, int bufferSize) {
+        this.query = query;
+        this.emitter = emitter;
+        this.executor = executor;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Returns the query the updates are emitted for.
+     *
+     * @return the subscribed query.
+     */
+    public Object query() {
+        return query;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super U> subscriber) {
+        boolean accepted;
+        synchronized (this) {
+            accepted = this.subscriber == null && !cancelled;
+            if (accepted) {
+                this.subscriber = subscriber;
+            }
+        }
+
+        if (!accepted) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("Updates of a subscription query can be subscribed once"));
+            return;
+        }
+        subscriber.onSubscribe(this);
+        drain();
+    }
+
+    @Override
+    public void request(long n) {
+        synchronized (this) {
+            if (n <= 0) {
+                fail(new IllegalArgumentException("Requested number of updates must be positive: " + n));
+            } else {
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+            }
+        }
+        drain();
+    }
+
+    @Override
+    public void cancel() {
+        synchronized (this) {
+            cancelled = true;
+            pending.clear();
+        }
+        emitter.unregister(this);
+    }
+
+    /**
+     * Buffers an update for delivery, replacing a pending update with the same coalescing key.
+     *
+     * @param coalescingKey the key identifying what the update describes, for example the ID of an entity.
+     * @param update        the update.
+     * @return {@code true} if a pending update was replaced.
+     */
+    boolean offer(Object coalescingKey, U update) {
+        boolean coalesced;
+        synchronized (this) {
+            if (cancelled || failure != null) {
+                return false;
+            }
+
+            coalesced = pending.containsKey(coalescingKey);
+            if (!coalesced && pending.size() >= bufferSize) {
+                fail(new IllegalStateException(
+                        "More than " + bufferSize + " updates of " + query.getClass().getName() + " are pending"
+                ));
+            } else {
+                pending.put(coalescingKey, update);
+            }
+        }
+        drain();
+        return coalesced;
+    }
+
+    /**
+     * Fails the subscription, discarding the pending updates. Must hold the lock of {@code this}.
+     */
+    private void fail(Throwable error) {
+        if (failure == null) {
+            failure = error;
+            pending.clear();
+            emitter.unregister(this);
+        }
+    }
+
+    private void drain() {
+        if (drains.getAndIncrement() == 0) {
+            executor.execute(this::deliver);
+        }
+    }
+
+    /**
+     * Delivers the requested updates until no further drain has been requested.
+     */
+    private void deliver() {
+        int missed = 1;
+        do {
+            while (true) {
+                Flow.Subscriber<? super U> target;
+                U next = null;
+                Throwable error = null;
+                synchronized (this) {
+                    target = subscriber;
+                    if (cancelled || target == null) {
+                        break;
+                    }
+                    if (failure != null) {
+                        error = failure;
+                        cancelled = true;
+                    } else if (demand > 0 && !pending.isEmpty()) {
+                        Iterator<U> updates = pending.values().iterator();
+                        next = updates.next();
+                        updates.remove();
+                        demand--;
+                    } else {
+                        break;
+                    }
+                }
+
+                if (error != null) {
+                    target.onError(error);
+                    break;
+                }
+                try {
+                    target.onNext(next);
+                } catch (RuntimeException e) {
+                    // A subscriber failing on an update is considered to have cancelled its subscription
+                    cancel();
+                    break;
+                }
+            }
+            missed = drains.addAndGet(-missed);
+        } while (missed != 0);
+    }
+}
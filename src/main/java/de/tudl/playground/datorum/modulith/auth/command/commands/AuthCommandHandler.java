@@ -1,21 +1,23 @@
 package de.tudl.playground.datorum.modulith.auth.command.commands;
 
+import de.tudl.playground.datorum.gateway.command.annotation.CommandHandler;
+import de.tudl.playground.datorum.gateway.command.exception.CommandRejectedException;
 import de.tudl.playground.datorum.gateway.query.QueryGateway;
 import de.tudl.playground.datorum.modulith.auth.command.aggregate.AuthAggregate;
 import de.tudl.playground.datorum.modulith.auth.command.data.dto.LoginUserDto;
 import de.tudl.playground.datorum.modulith.auth.command.data.dto.LogoutUserDto;
-import de.tudl.playground.datorum.modulith.auth.command.events.LoginFailedEvent;
 import de.tudl.playground.datorum.modulith.eventstore.EventPublisher;
 import de.tudl.playground.datorum.modulith.eventstore.EventStoreRepository;
 import de.tudl.playground.datorum.modulith.eventstore.service.EventProcessorService;
-import de.tudl.playground.datorum.modulith.shared.util.HashingUtil;
+import de.tudl.playground.datorum.modulith.shared.exception.PasswordHashingRejectedException;
+import de.tudl.playground.datorum.modulith.shared.password.PasswordHashingService;
+import de.tudl.playground.datorum.modulith.shared.token.AuthTokenIssuer;
 import de.tudl.playground.datorum.modulith.user.command.data.User;
 import de.tudl.playground.datorum.modulith.user.query.queries.GetUserByUsername;
-import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 /**
@@ -26,7 +28,7 @@ import org.springframework.stereotype.Service;
  * <p>This class listens for login commands, retrieves user data via the {@link QueryGateway},
  * validates user credentials, and updates the authentication state through the
  * {@link AuthAggregate}. It uses the {@link EventPublisher} to publish domain events for
- * downstream consumers and the {@link ApplicationEventPublisher} for failure events.</p>
+ * downstream consumers and answers the caller directly with a {@link LoginOutcome}.</p>
  *
  * <h2>Responsibilities</h2>
  * <ul>
@@ -35,23 +37,23 @@ import org.springframework.stereotype.Service;
  *     <li>Validating user credentials securely.</li>
  *     <li>Updating authentication state via {@link AuthAggregate}.</li>
  *     <li>Publishing domain events generated during the login process.</li>
+ *     <li>Issuing the authentication token of a successful login via the {@link AuthTokenIssuer}.</li>
  * </ul>
  *
  * <h2>Usage</h2>
  * <pre>{@code
  * // Example: Handling a login command
  * LoginUserCommand command = new LoginUserCommand("username", "password");
- * authCommandHandler.handle(command);
+ * LoginOutcome outcome = authCommandHandler.handle(command);
  * }</pre>
  *
  * <p>Note: This handler is stateless and relies on the {@link QueryGateway} to fetch
- * user data and the {@link HashingUtil} to validate credentials securely. Domain events
- * are dispatched through {@link EventPublisher}, and login failure events are published
- * via {@link ApplicationEventPublisher}.</p>
+ * user data and the {@link PasswordHashingService} to validate credentials securely. Domain events
+ * are dispatched through {@link EventPublisher}.</p>
  *
  * @see AuthAggregate
  * @see LoginUserCommand
- * @see LoginFailedEvent
+ * @see LoginOutcome
  */
 @Service
 @Slf4j
@@ -59,81 +61,88 @@ public class AuthCommandHandler {
 
     private final EventStoreRepository eventStoreRepository;
 
-    private final ApplicationEventPublisher applicationEventPublisher;
-
     private final EventPublisher eventPublisher;
 
     private final QueryGateway queryGateway;
 
     private final EventProcessorService eventProcessorService;
 
+    private final AuthTokenIssuer authTokenIssuer;
+
+    private final PasswordHashingService passwordHashingService;
+
     /**
      * Constructs an {@code AuthCommandHandler} with the required dependencies.
      *
      * @param eventStoreRepository the repository for storing and retrieving events.
-     * @param eventPublisher the Spring {@link ApplicationEventPublisher} for handling failure events.
-     * @param eventPublisher1 the custom {@link EventPublisher} for publishing domain events.
+     * @param eventPublisher the custom {@link EventPublisher} for publishing domain events.
      * @param queryGateway the {@link QueryGateway} for querying user data.
+     * @param authTokenIssuer the {@link AuthTokenIssuer} issuing the token of a successful login.
+     * @param passwordHashingService the {@link PasswordHashingService} verifying the credentials.
      */
     public AuthCommandHandler(
             EventStoreRepository eventStoreRepository,
-            ApplicationEventPublisher eventPublisher,
-            EventPublisher eventPublisher1,
-            QueryGateway queryGateway, EventProcessorService eventProcessorService
+            EventPublisher eventPublisher,
+            QueryGateway queryGateway, EventProcessorService eventProcessorService,
+            AuthTokenIssuer authTokenIssuer,
+            PasswordHashingService passwordHashingService
     ) {
         this.eventStoreRepository = eventStoreRepository;
-        this.applicationEventPublisher = eventPublisher;
-        this.eventPublisher = eventPublisher1;
+        this.eventPublisher = eventPublisher;
         this.queryGateway = queryGateway;
         this.eventProcessorService = eventProcessorService;
+        this.authTokenIssuer = authTokenIssuer;
+        this.passwordHashingService = passwordHashingService;
     }
 
     /**
      * Handles the {@link LoginUserCommand} by orchestrating the login process.
      *
      * <p>This method retrieves user data using the {@link QueryGateway} and validates the provided
-     * credentials using the {@link HashingUtil}. It updates the authentication state by invoking
+     * credentials using the {@link PasswordHashingService}. It updates the authentication state by invoking
      * methods on the {@link AuthAggregate}. Domain events generated during the login process are
-     * published using the {@link EventPublisher}, while login failure events are published via
-     * the {@link ApplicationEventPublisher}.</p>
+     * published using the {@link EventPublisher}. The outcome is returned to the caller; on success,
+     * the user's token has been issued before this method returns.</p>
      *
      * @param command the login command containing the username and password.
+     * @return the outcome of the login attempt.
      */
-    @EventListener
-    public void handle(LoginUserCommand command) {
-        Optional<User> optionalUser = fetchUser(command.getUsername());
+    @CommandHandler
+    public LoginOutcome handle(LoginUserCommand command) {
+        Optional<User> optionalUser = fetchUser(command.username());
 
         if (optionalUser.isEmpty()) {
-            handleUserNotFound(command.getUsername());
-            return;
+            log.warn("User {} not found during login attempt!", command.username());
+            return LoginOutcome.failed(command.username());
         }
 
+        User user = optionalUser.get();
         boolean success = validateCredentials(
-                command.getPassword(),
-                optionalUser.get().getPasswordHash(),
-                optionalUser.get().getPasswordSalt()
+                command.password(),
+                user.getPasswordHash(),
+                user.getPasswordSalt()
         );
 
-        processLoginAttempt(String.valueOf(optionalUser.get().getId()), command.getUsername(), optionalUser.get().getRole(), success);
+        String userId = String.valueOf(user.getId());
+        processLoginAttempt(userId, command.username(), user.getRole(), success);
+
+        if (!success) {
+            return LoginOutcome.failed(command.username());
+        }
+        authTokenIssuer.issue(userId, command.username(), user.getRole());
+        return LoginOutcome.succeeded(userId, command.username(), user.getRole());
     }
 
-    @EventListener
+    @CommandHandler
     public void handle(LogoutUserCommand command)
     {
-        processLogoutAttempt(command.getUsername());
+        processLogoutAttempt(command.username());
     }
 
     private Optional<User> fetchUser(String username) {
         return queryGateway.query(new GetUserByUsername(username));
     }
 
-    private void handleUserNotFound(String username) {
-        log.warn("User {} not found during login attempt!", username);
-        applicationEventPublisher.publishEvent(
-                new LoginFailedEvent(username, LocalDateTime.now().toString())
-        );
-    }
-
     private void processLoginAttempt(String userid, String username, String role, boolean success) {
         AuthAggregate authAggregate = new AuthAggregate(eventProcessorService);
 
@@ -162,19 +171,29 @@ public class AuthCommandHandler {
     /**
      * Validates the provided password against the stored password hash and salt.
      *
-     * <p>This method uses the {@link HashingUtil} to verify if the provided password matches
-     * the hashed password stored for the user.</p>
+     * <p>This method uses the {@link PasswordHashingService} to verify if the provided password matches
+     * the hashed password stored for the user. The verification runs on the bounded hashing pool; if the pool
+     * is saturated, the login is rejected instead of waiting.</p>
      *
      * @param password the password to validate.
      * @param passwordHash the stored hash of the user's password.
      * @param passwordSalt the salt used to hash the user's password.
      * @return {@code true} if the credentials are valid; {@code false} otherwise.
+     * @throws CommandRejectedException if the hashing pool rejected the verification.
      */
+    @SneakyThrows
     private boolean validateCredentials(
             String password,
             String passwordHash,
             String passwordSalt
     ) {
-        return HashingUtil.verifyPassword(password, passwordHash, passwordSalt);
+        try {
+            return passwordHashingService.verify(password, passwordHash, passwordSalt).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof PasswordHashingRejectedException) {
+                throw new CommandRejectedException(e.getCause().getMessage());
+            }
+            throw e.getCause();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package de.tudl.playground.datorum.modulith.auth.command.commands;
+
+/**
+ * The {@code LoginOutcome} record is the result of a {@link LoginUserCommand}, returned directly to the caller.
+ *
+ * <p>On success, the authentication token of the user has already been issued when the outcome is returned,
+ * so the caller can continue to views that require it.</p>
+ *
+ * @param successful whether the credentials were valid.
+ * @param userId     the ID of the logged-in user, or {@code null} if the login failed.
+ * @param username   the username of the login attempt.
+ * @param role       the role of the logged-in user, or {@code null} if the login failed.
+ */
+public record LoginOutcome(boolean successful, String userId, String username, String role) {
+
+    /**
+     * Creates the outcome of a successful login.
+     *
+     * @param userId   the ID of the logged-in user.
+     * @param username the username of the logged-in user.
+     * @param role     the role of the logged-in user.
+     * @return a successful {@code LoginOutcome}.
+     */
+    public static LoginOutcome succeeded(String userId, String username, String role) {
+        return new LoginOutcome(true, userId, username, role);
+    }
+
+    /**
+     * Creates the outcome of a failed login.
+     *
+     * @param username the username of the login attempt.
+     * @return a failed {@code LoginOutcome}.
+     */
+    public static LoginOutcome failed(String username) {
+        return new LoginOutcome(false, null, username, null);
+    }
+}
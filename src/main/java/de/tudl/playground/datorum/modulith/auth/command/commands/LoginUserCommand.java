@@ -1,46 +1,36 @@
 package de.tudl.playground.datorum.modulith.auth.command.commands;
 
-import lombok.Getter;
-import org.springframework.context.ApplicationEvent;
+import de.tudl.playground.datorum.gateway.command.ResultCommand;
+import de.tudl.playground.datorum.gateway.command.annotation.CommandPriority;
+import de.tudl.playground.datorum.gateway.command.annotation.TargetAggregateId;
+import de.tudl.playground.datorum.gateway.command.lane.PriorityClass;
 
 /**
- * The {@code LoginUserCommand} class represents a command for initiating a user login attempt.
- * It encapsulates the necessary credentials, including the username and password,
- * and serves as an event in Spring's application event model.
+ * The {@code LoginUserCommand} record represents a command for initiating a user login attempt.
+ * It encapsulates the necessary credentials, including the username and password.
  *
- * <p>This command is typically published to trigger login handling logic within
+ * <p>This command is typically sent through the command gateway to trigger login handling logic within
  * the {@link de.tudl.playground.datorum.modulith.auth.command.commands.AuthCommandHandler}.</p>
  *
  * <h2>Responsibilities</h2>
  * <ul>
  *     <li>Encapsulating the username and password for a login attempt.</li>
- *     <li>Serving as an event to initiate the login process.</li>
+ *     <li>Serving as a command to initiate the login process.</li>
  * </ul>
  *
  * <h2>Usage</h2>
  * <pre>{@code
  * LoginUserCommand command = new LoginUserCommand("username", "password");
- * applicationEventPublisher.publishEvent(command);
+ * commandGateway.request(command, Duration.ofSeconds(10))
+ *         .thenAccept(result -> ...);
  * }</pre>
  *
+ * <p>The handler answers with a {@link LoginOutcome} describing whether the login succeeded.</p>
+ *
+ * @param username the username for the login attempt.
+ * @param password the password for the login attempt.
  * @see de.tudl.playground.datorum.modulith.auth.command.commands.AuthCommandHandler
  */
-@Getter
-public class LoginUserCommand extends ApplicationEvent {
-
-    private final String username;
-    private final String password;
-
-    /**
-     * Constructs a {@code LoginUserCommand} with the given username and password.
-     *
-     * @param username the username for the login attempt.
-     * @param password the password for the login attempt.
-     */
-    public LoginUserCommand(String username, String password) {
-        super(username);
-        this.username = username;
-        this.password = password;
-    }
+@CommandPriority(PriorityClass.INTERACTIVE)
+public record LoginUserCommand(@TargetAggregateId String username, String password) implements ResultCommand<LoginOutcome> {
 }
-
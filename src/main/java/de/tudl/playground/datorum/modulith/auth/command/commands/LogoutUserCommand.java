@@ -1,15 +1,10 @@
 package de.tudl.playground.datorum.modulith.auth.command.commands;
 
-import lombok.Getter;
-import org.springframework.context.ApplicationEvent;
+import de.tudl.playground.datorum.gateway.command.annotation.CommandPriority;
+import de.tudl.playground.datorum.gateway.command.annotation.TargetAggregateId;
+import de.tudl.playground.datorum.gateway.command.lane.PriorityClass;
 
-@Getter
-public class LogoutUserCommand extends ApplicationEvent
+@CommandPriority(PriorityClass.INTERACTIVE)
+public record LogoutUserCommand(@TargetAggregateId String username)
 {
-    private final String username;
-
-    public LogoutUserCommand(String username) {
-        super(username);
-        this.username = username;
-    }
 }
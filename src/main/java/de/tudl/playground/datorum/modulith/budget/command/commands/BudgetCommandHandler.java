@@ -1,12 +1,12 @@
 package de.tudl.playground.datorum.modulith.budget.command.commands;
 
+import de.tudl.playground.datorum.gateway.command.annotation.CommandHandler;
 import de.tudl.playground.datorum.modulith.budget.command.aggregate.BudgetAggregate;
 import de.tudl.playground.datorum.modulith.budget.command.data.dto.CreateBudgetDto;
 import de.tudl.playground.datorum.modulith.eventstore.EventPublisher;
 import de.tudl.playground.datorum.modulith.eventstore.EventStoreRepository;
 import de.tudl.playground.datorum.modulith.eventstore.service.EventProcessorService;
 import de.tudl.playground.datorum.modulith.shared.event.Event;
-import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -24,17 +24,17 @@ public class BudgetCommandHandler
         this.eventProcessorService = eventProcessorService;
     }
 
-    @EventListener
+    @CommandHandler
     public void handle(CreateBudgetCommand command)
     {
         BudgetAggregate aggregate = new BudgetAggregate(eventProcessorService);
 
         CreateBudgetDto createDto = new CreateBudgetDto(
-                command.getBudgetId(),
-                command.getUserId(),
-                command.getName(),
-                command.getDescription(),
-                command.getAmount()
+                command.budgetId(),
+                command.userId(),
+                command.name(),
+                command.description(),
+                command.amount()
         );
 
         aggregate.createBudget(createDto);
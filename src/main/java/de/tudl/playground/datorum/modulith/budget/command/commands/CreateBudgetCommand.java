@@ -1,29 +1,15 @@
 package de.tudl.playground.datorum.modulith.budget.command.commands;
 
-
-import lombok.Getter;
-import org.springframework.context.ApplicationEvent;
-
-@Getter
-public class CreateBudgetCommand extends ApplicationEvent
+import de.tudl.playground.datorum.gateway.command.IdempotentCommand;
+import de.tudl.playground.datorum.gateway.command.annotation.TargetAggregateId;
+
+public record CreateBudgetCommand(
+        @TargetAggregateId String budgetId,
+        String userId,
+        String name,
+        String description,
+        double amount,
+        String idempotencyKey
+) implements IdempotentCommand
 {
-    private final String budgetId;
-
-    private final String userId;
-
-    private final String name;
-
-    private final String description;
-
-    private final double amount;
-
-    public CreateBudgetCommand(String budgetId, String userId, String name, String description, double amount)
-    {
-        super(budgetId);
-        this.budgetId = budgetId;
-        this.userId = userId;
-        this.name = name;
-        this.description = description;
-        this.amount = amount;
-    }
 }
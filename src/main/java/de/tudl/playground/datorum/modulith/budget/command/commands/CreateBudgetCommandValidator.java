@@ -0,0 +1,26 @@
+package de.tudl.playground.datorum.modulith.budget.command.commands;
+
+import de.tudl.playground.datorum.gateway.command.validation.CommandValidator;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CreateBudgetCommandValidator implements CommandValidator<CreateBudgetCommand>
+{
+    @Override
+    public List<String> validate(CreateBudgetCommand command)
+    {
+        List<String> violations = new ArrayList<>();
+        if (isBlank(command.budgetId())) violations.add("budgetId must not be blank");
+        if (isBlank(command.userId())) violations.add("userId must not be blank");
+        if (isBlank(command.name())) violations.add("name must not be blank");
+        if (!Double.isFinite(command.amount()) || command.amount() < 0) violations.add("amount must not be negative");
+        return violations;
+    }
+
+    private static boolean isBlank(String value)
+    {
+        return value == null || value.isBlank();
+    }
+}
@@ -2,6 +2,7 @@ package de.tudl.playground.datorum.modulith.budget.command.data;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.Getter;
 import lombok.Setter;
@@ -11,7 +12,10 @@ import java.util.UUID;
 @Entity
 @Getter
 @Setter
-@Table(name = "[budget]")
+@Table(
+        name = "[budget]",
+        indexes = @Index(name = "ix_budget_user", columnList = "userId, id")
+)
 public class Budget
 {
     @Id
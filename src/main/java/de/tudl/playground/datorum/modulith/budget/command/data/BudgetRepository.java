@@ -1,5 +1,6 @@
 package de.tudl.playground.datorum.modulith.budget.command.data;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -11,4 +12,8 @@ import java.util.UUID;
 public interface BudgetRepository extends JpaRepository<Budget, UUID>
 {
     Optional<List<Budget>> findBudgetsByUserId(UUID userId);
+
+    List<Budget> findByUserIdOrderByIdAsc(UUID userId, Limit limit);
+
+    List<Budget> findByUserIdAndIdGreaterThanOrderByIdAsc(UUID userId, UUID id, Limit limit);
 }
@@ -1,7 +1,9 @@
 package de.tudl.playground.datorum.modulith.budget.command.events;
 
+import de.tudl.playground.datorum.gateway.query.subscription.QueryUpdateEmitter;
 import de.tudl.playground.datorum.modulith.budget.command.data.Budget;
 import de.tudl.playground.datorum.modulith.budget.command.data.BudgetRepository;
+import de.tudl.playground.datorum.modulith.budget.query.queries.GetBudgetsByUserQuery;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
@@ -10,9 +12,11 @@ import java.util.UUID;
 @Service
 public class BudgetEventHandler {
     private final BudgetRepository budgetRepository;
+    private final QueryUpdateEmitter queryUpdateEmitter;
 
-    public BudgetEventHandler(BudgetRepository budgetRepository) {
+    public BudgetEventHandler(BudgetRepository budgetRepository, QueryUpdateEmitter queryUpdateEmitter) {
         this.budgetRepository = budgetRepository;
+        this.queryUpdateEmitter = queryUpdateEmitter;
     }
 
     @EventListener
@@ -25,5 +29,11 @@ public class BudgetEventHandler {
         budget.setAmount(event.amount());
 
         budgetRepository.save(budget);
+        queryUpdateEmitter.emit(
+                GetBudgetsByUserQuery.class,
+                query -> query.userId().equals(event.userId()),
+                event.budgetId(),
+                budget
+        );
     }
 }
@@ -0,0 +1,8 @@
+package de.tudl.playground.datorum.modulith.budget.query.queries;
+
+/**
+ * Requests all budgets of a user. Subscribers of the query receive every budget created for the user afterwards.
+ *
+ * @param userId the ID of the user owning the budgets.
+ */
+public record GetBudgetsByUserQuery(String userId) {}
@@ -0,0 +1,15 @@
+package de.tudl.playground.datorum.modulith.budget.query.queries;
+
+/**
+ * Requests one page of the budgets of a user, ordered by their ID.
+ *
+ * @param userId            the ID of the user owning the budgets.
+ * @param pageSize          the maximum number of budgets of the page.
+ * @param continuationToken the continuation token of the previous page, or {@code null} for the first page.
+ */
+public record GetBudgetsPageQuery(String userId, int pageSize, String continuationToken) {
+
+    public GetBudgetsPageQuery(String userId, int pageSize) {
+        this(userId, pageSize, null);
+    }
+}
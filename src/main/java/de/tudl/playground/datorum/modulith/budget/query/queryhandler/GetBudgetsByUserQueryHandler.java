@@ -0,0 +1,43 @@
+package de.tudl.playground.datorum.modulith.budget.query.queryhandler;
+
+import de.tudl.playground.datorum.gateway.query.QueryHandler;
+import de.tudl.playground.datorum.modulith.budget.command.data.Budget;
+import de.tudl.playground.datorum.modulith.budget.command.data.BudgetRepository;
+import de.tudl.playground.datorum.modulith.budget.query.queries.GetBudgetsByUserQuery;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code GetBudgetsByUserQueryHandler} class handles the {@link GetBudgetsByUserQuery} to retrieve all budgets of
+ * a user.
+ *
+ * @see GetBudgetsByUserQuery
+ * @see de.tudl.playground.datorum.modulith.budget.command.events.BudgetEventHandler
+ */
+@Component
+public class GetBudgetsByUserQueryHandler
+        implements QueryHandler<GetBudgetsByUserQuery, List<Budget>>
+{
+    private final BudgetRepository budgetRepository;
+
+    public GetBudgetsByUserQueryHandler(BudgetRepository budgetRepository)
+    {
+        this.budgetRepository = budgetRepository;
+    }
+
+    /**
+     * Handles the {@link GetBudgetsByUserQuery} by fetching the budgets of the user.
+     *
+     * @param query the query containing the user ID.
+     * @return the budgets of the user, or {@link Optional#empty()} if the user has none.
+     */
+    @Override
+    public Optional<List<Budget>> handle(GetBudgetsByUserQuery query)
+    {
+        return budgetRepository.findBudgetsByUserId(UUID.fromString(query.userId()))
+                .filter(budgets -> !budgets.isEmpty());
+    }
+}
@@ -0,0 +1,66 @@
+package de.tudl.playground.datorum.modulith.budget.query.queryhandler;
+
+import de.tudl.playground.datorum.gateway.query.QueryHandler;
+import de.tudl.playground.datorum.gateway.query.page.KeysetPage;
+import de.tudl.playground.datorum.modulith.budget.command.data.Budget;
+import de.tudl.playground.datorum.modulith.budget.command.data.BudgetRepository;
+import de.tudl.playground.datorum.modulith.budget.query.queries.GetBudgetsPageQuery;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code GetBudgetsPageQueryHandler} class handles the {@link GetBudgetsPageQuery} to retrieve one page of the
+ * budgets of a user.
+ *
+ * <p>Pages are fetched with keyset pagination on the budget ID within the user's budgets, so deep pages cost the same
+ * as the first one. Page sizes are capped at {@code datorum.query.page.max-size}.</p>
+ *
+ * @see GetBudgetsPageQuery
+ * @see KeysetPage
+ */
+@Component
+public class GetBudgetsPageQueryHandler
+        implements QueryHandler<GetBudgetsPageQuery, KeysetPage<Budget>>
+{
+    private final BudgetRepository budgetRepository;
+
+    private final int maxPageSize;
+
+    public GetBudgetsPageQueryHandler(
+            BudgetRepository budgetRepository,
+            @Value("${datorum.query.page.max-size:500}") int maxPageSize
+    )
+    {
+        this.budgetRepository = budgetRepository;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Handles the {@link GetBudgetsPageQuery} by fetching the user's budgets following the continuation token.
+     *
+     * @param query the query containing the user ID, page size and continuation token.
+     * @return the page of budgets.
+     * @throws IllegalArgumentException if the page size is below {@code 1} or the continuation token is malformed.
+     */
+    @Override
+    public Optional<KeysetPage<Budget>> handle(GetBudgetsPageQuery query)
+    {
+        if (query.pageSize() < 1) throw new IllegalArgumentException(
+                "Page size must be positive: " + query.pageSize()
+        );
+
+        UUID userId = UUID.fromString(query.userId());
+        int pageSize = Math.min(query.pageSize(), maxPageSize);
+        Limit limit = Limit.of(pageSize + 1);
+        List<Budget> rows = KeysetPage.decode(query.continuationToken(), UUID::fromString)
+                .map(lastId -> budgetRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(userId, lastId, limit))
+                .orElseGet(() -> budgetRepository.findByUserIdOrderByIdAsc(userId, limit));
+
+        return Optional.of(KeysetPage.of(rows, pageSize, Budget::getId));
+    }
+}
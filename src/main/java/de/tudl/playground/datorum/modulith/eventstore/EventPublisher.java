@@ -1,7 +1,7 @@
 package de.tudl.playground.datorum.modulith.eventstore;
 
 import de.tudl.playground.datorum.modulith.eventstore.exception.ErrorInvokingAggregateException;
-import de.tudl.playground.datorum.modulith.eventstore.service.EventPublishingService;
+import de.tudl.playground.datorum.modulith.eventstore.outbox.EventOutboxDispatcher;
 import de.tudl.playground.datorum.modulith.eventstore.service.EventStoreService;
 import java.lang.reflect.Method;
 import lombok.SneakyThrows;
@@ -18,14 +18,20 @@ import org.springframework.stereotype.Service;
  * Responsibilities:
  * <ul>
  *   <li>Storing events in the event store for persistence and historical tracking.</li>
- *   <li>Publishing events to the Spring application context for event-driven communication.</li>
+ *   <li>Handing stored events over to the {@link EventOutboxDispatcher}, which publishes them to the
+ *       Spring application context for event-driven communication.</li>
  * </ul>
  * </p>
+ * <p>
+ * The stored event is the source of truth: publication happens asynchronously on the dispatcher thread once the
+ * event has been committed, so slow listeners do not block the command that raised the event, and an event is
+ * never lost between storing and publishing it.
+ * </p>
  *
  * <h3>Usage Example</h3>
  * <pre>
  * {@code
- * EventPublisher eventPublisher = new EventPublisher(eventStoreService, eventPublishingService);
+ * EventPublisher eventPublisher = new EventPublisher(eventStoreService, eventOutboxDispatcher);
  *
  * MyEvent event = new MyEvent("example data");
  * eventPublisher.publishEvent(event);
@@ -33,38 +39,37 @@ import org.springframework.stereotype.Service;
  * </pre>
  *
  * <h3>Thread Safety</h3>
- * This service is thread-safe if the underlying {@link EventStoreService} and
- * {@link EventPublishingService} are thread-safe.
+ * This service is thread-safe if the underlying {@link EventStoreService} is thread-safe.
  *
  * @see EventStoreService
- * @see EventPublishingService
+ * @see EventOutboxDispatcher
  */
 @Service
 public class EventPublisher {
 
     private final EventStoreService eventStoreService;
-    private final EventPublishingService eventPublishingService;
+    private final EventOutboxDispatcher eventOutboxDispatcher;
 
     /**
-     * Constructs an {@code EventPublisher} with the specified event store and publishing services.
+     * Constructs an {@code EventPublisher} with the specified event store service and outbox dispatcher.
      *
      * @param eventStoreService the service used to persist events in the event store.
-     * @param eventPublishingService the service used to publish events to the application context.
+     * @param eventOutboxDispatcher the dispatcher relaying stored events to the application context.
      */
     public EventPublisher(
             EventStoreService eventStoreService,
-            EventPublishingService eventPublishingService
+            EventOutboxDispatcher eventOutboxDispatcher
     ) {
         this.eventStoreService = eventStoreService;
-        this.eventPublishingService = eventPublishingService;
+        this.eventOutboxDispatcher = eventOutboxDispatcher;
     }
 
     /**
-     * Publishes an event by saving it in the event store and then publishing it to the application context.
+     * Publishes an event by saving it in the event store and signalling the outbox dispatcher.
      * <p>
-     * This method extracts the aggregate ID from the provided event, persists the event in the
-     * event store, and then publishes it to the Spring application context, enabling further
-     * processing by event listeners.
+     * This method extracts the aggregate ID from the provided event and persists the event in the
+     * event store. The {@link EventOutboxDispatcher} then publishes it to the Spring application context
+     * once it has been committed, enabling further processing by event listeners.
      * </p>
      *
      * <h3>Example</h3>
@@ -83,11 +88,11 @@ public class EventPublisher {
     public void publishEvent(Object event) {
         String aggregateId = extractAggregateId(event);
 
-        // Store the event in the event store
+        // Store the event in the event store, it is the source of truth for the publication
         eventStoreService.saveEvent(aggregateId, event);
 
-        // Publish the event to the application context
-        eventPublishingService.publishEvent(event);
+        // Let the outbox dispatcher relay the event to the application context
+        eventOutboxDispatcher.signal();
     }
 
     /**
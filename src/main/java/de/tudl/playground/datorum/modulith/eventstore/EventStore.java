@@ -1,5 +1,7 @@
 package de.tudl.playground.datorum.modulith.eventstore;
 
+import de.tudl.playground.datorum.modulith.eventstore.outbox.DeliveryStatus;
+import de.tudl.playground.datorum.modulith.eventstore.stream.EventCategory;
 import jakarta.persistence.*;
 
 import java.time.LocalDateTime;
@@ -12,19 +14,40 @@ import lombok.Setter;
  * This class is used to persist events that have been generated in the system.
  * It contains information about the event's aggregate ID, event type, event data, and the timestamp when the event was created.
  * </p>
+ * <p>
+ * Events are partitioned by {@link EventCategory}: every category is mapped to its own table
+ * (for example {@code eventstore_user} or {@code eventstore_auth}) by a concrete subclass, so
+ * each stream keeps a small aggregate index of its own. All tables draw their IDs from one shared
+ * sequence, which is why querying this root entity yields a unified, globally ordered view of
+ * every stream.
+ * </p>
+ * <p>
+ * The stored event is the source of truth for event publication as well: it doubles as an outbox entry whose
+ * delivery state is tracked until the {@link de.tudl.playground.datorum.modulith.eventstore.outbox.EventOutboxDispatcher}
+ * has relayed it to the event listeners.
+ * </p>
  */
 @Entity
 @Getter
 @Setter
-@Table(name = "[eventstore]")
-public class EventStore {
+@Inheritance(strategy = InheritanceType.TABLE_PER_CLASS)
+public abstract class EventStore {
 
     /**
      * Unique identifier for the event stored in the database.
-     * This ID is automatically generated when the event is saved in the event store.
+     * This ID is drawn from a sequence shared by all event categories and therefore defines
+     * the global order of events across the category tables.
+     * <p>
+     * IDs are reserved in blocks of 50 (the pooled optimizer), so a batch of events is assigned its IDs without a
+     * round trip per event. The sequence must therefore increment by 50
+     * ({@code ALTER SEQUENCE eventstore_sequence INCREMENT BY 50} for databases created with an increment of 1).
+     * Within one application instance IDs are still assigned in ascending order; across several instances the
+     * blocks of different instances interleave.
+     * </p>
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "eventstore_sequence")
+    @SequenceGenerator(name = "eventstore_sequence", sequenceName = "eventstore_sequence", allocationSize = 50)
     private Long id;
 
     /**
@@ -50,4 +73,32 @@ public class EventStore {
      * This field is automatically set to the current time when the event is stored in the event store.
      */
     private LocalDateTime createdAt;
+
+    /**
+     * The delivery state of the event with respect to the in-process event listeners.
+     */
+    @Enumerated(EnumType.STRING)
+    private DeliveryStatus deliveryStatus;
+
+    /**
+     * The number of failed attempts to relay the event to the event listeners.
+     */
+    private int deliveryAttempts;
+
+    /**
+     * The error message of the last failed delivery attempt, if any.
+     */
+    private String lastDeliveryError;
+
+    /**
+     * The timestamp indicating when the event was relayed to the event listeners.
+     */
+    private LocalDateTime deliveredAt;
+
+    /**
+     * Returns the category, and thereby the table, this event is stored in.
+     *
+     * @return the {@link EventCategory} of this event.
+     */
+    public abstract EventCategory getCategory();
 }
@@ -0,0 +1,62 @@
+package de.tudl.playground.datorum.modulith.eventstore;
+
+import de.tudl.playground.datorum.gateway.command.batch.CommandBatch;
+import de.tudl.playground.datorum.gateway.command.batch.CommandBatchSupport;
+import de.tudl.playground.datorum.modulith.eventstore.outbox.EventOutboxDispatcher;
+import de.tudl.playground.datorum.modulith.eventstore.service.EventStoreBatch;
+import de.tudl.playground.datorum.modulith.eventstore.service.EventStoreService;
+import java.util.Set;
+import java.util.function.Supplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/**
+ * Runs batches of commands against the event store.
+ * <p>
+ * When a batch is opened, the event streams of all aggregates targeted by its commands are loaded in one pass. Command
+ * handlers rehydrating an aggregate of the batch read these preloaded events instead of querying the event store, and
+ * the events they publish are buffered. This holds for any command of these aggregates while the batch is open, not
+ * only for the commands of the bulk, so the bulk must be opened and closed while no command of its aggregates runs
+ * (see {@link de.tudl.playground.datorum.gateway.command.lane.CommandLaneExecutor#runExclusively}). Closing the batch appends all buffered events with batched inserts and
+ * signals the {@link EventOutboxDispatcher} once.
+ * </p>
+ *
+ * @see EventStoreService#openBatch(Set)
+ */
+@Slf4j
+@Service
+public class EventStoreBatchSupport implements CommandBatchSupport {
+
+    private final EventStoreService eventStoreService;
+    private final EventOutboxDispatcher eventOutboxDispatcher;
+
+    /**
+     * Constructs an {@code EventStoreBatchSupport}.
+     *
+     * @param eventStoreService     the service loading and storing the events of a batch.
+     * @param eventOutboxDispatcher the dispatcher relaying the events of a batch once they are stored.
+     */
+    public EventStoreBatchSupport(EventStoreService eventStoreService, EventOutboxDispatcher eventOutboxDispatcher) {
+        this.eventStoreService = eventStoreService;
+        this.eventOutboxDispatcher = eventOutboxDispatcher;
+    }
+
+    @Override
+    public CommandBatch open(Set<String> aggregateIds) {
+        EventStoreBatch batch = eventStoreService.openBatch(aggregateIds);
+
+        return new CommandBatch() {
+            @Override
+            public <T> T execute(Supplier<T> task) {
+                return task.get();
+            }
+
+            @Override
+            public void close() {
+                int appended = eventStoreService.flushBatch(batch);
+                log.debug("Appended {} events of a batch of {} aggregates", appended, aggregateIds.size());
+                eventOutboxDispatcher.signal();
+            }
+        };
+    }
+}
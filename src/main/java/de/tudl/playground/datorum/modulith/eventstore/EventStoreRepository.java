@@ -1,28 +1,33 @@
 package de.tudl.playground.datorum.modulith.eventstore;
 
 import java.util.List;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 /**
  * Repository interface for accessing and managing events in the event store.
  * <p>
- * This interface extends {@link JpaRepository} to provide CRUD operations for {@link EventStore} entities,
- * as well as custom query methods to retrieve events based on their aggregate ID.
+ * This interface extends {@link JpaRepository} to provide CRUD operations for {@link EventStore} entities.
+ * As {@link EventStore} is the root of the per-category event tables, queries issued through this repository
+ * span every category and form the unified, globally ordered view of the event store. Aggregate lookups
+ * should use the repository of the respective category instead, which only touches a single table.
  * </p>
+ *
+ * @see de.tudl.playground.datorum.modulith.eventstore.stream.EventStreamRepository
  */
 @Repository
 public interface EventStoreRepository extends JpaRepository<EventStore, Long> {
     /**
-     * Retrieves all events associated with a given aggregate ID.
+     * Retrieves events of all categories in global order, starting after the given position.
      * <p>
-     * This method is used to retrieve the list of events for a specific aggregate,
-     * identified by the aggregate ID. This is helpful for event sourcing scenarios
-     * where the history of events for an aggregate needs to be loaded.
+     * This method is intended for subscribers that follow the whole event store. They remember the ID
+     * of the last event they processed and pass it as {@code id} to read the next page of events.
      * </p>
      *
-     * @param aggregateId the unique identifier of the aggregate whose events are to be retrieved.
-     * @return a list of {@link EventStore} entities that belong to the specified aggregate ID.
+     * @param id    the ID of the last event already processed; only events with a greater ID are returned.
+     * @param limit the maximum number of events to return.
+     * @return the next events of the event store, ordered by their global sequence number.
      */
-    List<EventStore> findByAggregateId(String aggregateId);
+    List<EventStore> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
@@ -0,0 +1,15 @@
+package de.tudl.playground.datorum.modulith.eventstore.outbox;
+
+/**
+ * Delivery state of a stored event with respect to the in-process event listeners.
+ *
+ * @see EventOutboxDispatcher
+ */
+public enum DeliveryStatus {
+    /** The event is stored but has not been relayed to the listeners yet. */
+    PENDING,
+    /** The event has been relayed to all listeners. */
+    DELIVERED,
+    /** Relaying the event failed repeatedly and was given up. */
+    FAILED
+}
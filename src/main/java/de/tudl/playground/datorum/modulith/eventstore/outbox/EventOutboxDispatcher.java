@@ -0,0 +1,216 @@
+package de.tudl.playground.datorum.modulith.eventstore.outbox;
+
+import de.tudl.playground.datorum.modulith.eventstore.EventStore;
+import de.tudl.playground.datorum.modulith.eventstore.service.EventProcessorService;
+import de.tudl.playground.datorum.modulith.eventstore.service.EventPublishingService;
+import de.tudl.playground.datorum.modulith.eventstore.service.EventStoreService;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Relays stored events to the event listeners of the application (transactional outbox).
+ * <p>
+ * Stored events are the source of truth for event publication. Instead of publishing an event on the thread
+ * that stored it, the dispatcher reads committed {@link DeliveryStatus#PENDING} events from the event store
+ * and publishes them through the {@link EventPublishingService} on a dedicated thread. This decouples the
+ * latency of commands from the latency of listeners, and an event whose publication was interrupted by a
+ * crash is relayed once the application is running again.
+ * </p>
+ *
+ * <h2>Delivery Guarantees</h2>
+ * <ul>
+ *     <li>Events are relayed one at a time, in the global order of the event store, in batches of
+ *         {@code datorum.eventstore.outbox.batch-size} events.</li>
+ *     <li>Delivery is at-least-once: a crash after a listener ran, but before the delivery state was persisted,
+ *         relays the event again.</li>
+ *     <li>If a listener fails, the event stays pending and blocks subsequent events until the next attempt, so
+ *         listeners never observe events out of order. After {@code datorum.eventstore.outbox.max-attempts}
+ *         failed attempts, the event is marked as {@link DeliveryStatus#FAILED} and skipped.</li>
+ * </ul>
+ *
+ * <h2>Scheduling</h2>
+ * The dispatcher starts once the application is ready, i.e. after all event types have been registered. It polls
+ * the event store every {@code datorum.eventstore.outbox.poll-interval-ms} milliseconds and is additionally
+ * signalled whenever an event is stored, right after the surrounding transaction (if any) has been committed.
+ *
+ * <h2>Thread Safety</h2>
+ * This class is thread-safe. All deliveries are performed by a single dispatcher thread.
+ *
+ * @see EventStoreService
+ * @see EventPublishingService
+ */
+@Slf4j
+@Service
+public class EventOutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 255;
+
+    private final EventStoreService eventStoreService;
+    private final EventProcessorService eventProcessorService;
+    private final EventPublishingService eventPublishingService;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long pollIntervalMillis;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "event-outbox-dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    /**
+     * Constructs an {@code EventOutboxDispatcher}.
+     *
+     * @param eventStoreService      the service used to read pending events and persist their delivery state.
+     * @param eventProcessorService  the service used to deserialize stored events.
+     * @param eventPublishingService the service used to publish events to the application context.
+     * @param batchSize              the maximum number of events read from the event store at once.
+     * @param maxAttempts            the number of failed attempts after which an event is given up.
+     * @param pollIntervalMillis     the interval in which the event store is polled for pending events.
+     */
+    public EventOutboxDispatcher(
+            EventStoreService eventStoreService,
+            EventProcessorService eventProcessorService,
+            EventPublishingService eventPublishingService,
+            @Value("${datorum.eventstore.outbox.batch-size:100}") int batchSize,
+            @Value("${datorum.eventstore.outbox.max-attempts:10}") int maxAttempts,
+            @Value("${datorum.eventstore.outbox.poll-interval-ms:1000}") long pollIntervalMillis
+    ) {
+        this.eventStoreService = eventStoreService;
+        this.eventProcessorService = eventProcessorService;
+        this.eventPublishingService = eventPublishingService;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.pollIntervalMillis = pollIntervalMillis;
+    }
+
+    /**
+     * Starts polling the event store once the application is ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (started.compareAndSet(false, true)) {
+            executor.scheduleWithFixedDelay(this::drain, 0, pollIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops the dispatcher thread. Pending events are relayed after the next start.
+     */
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Notifies the dispatcher that a new event has been stored.
+     * <p>
+     * If a transaction is active on the calling thread, the dispatcher is woken up after it has been committed,
+     * otherwise immediately. Multiple signals arriving before the dispatcher runs are coalesced.
+     * </p>
+     */
+    public void signal() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    scheduleDrain();
+                }
+            });
+        } else {
+            scheduleDrain();
+        }
+    }
+
+    private void scheduleDrain() {
+        if (started.get() && drainScheduled.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                drainScheduled.set(false);
+                drain();
+            });
+        }
+    }
+
+    /**
+     * Relays pending events batch by batch until the event store has no pending events left or a delivery failed.
+     */
+    private void drain() {
+        try {
+            List<EventStore> batch;
+            do {
+                batch = eventStoreService.findPendingEvents(batchSize);
+            } while (relay(batch) && batch.size() == batchSize);
+        } catch (Exception e) {
+            log.error("Failed to relay pending events from the event store", e);
+        }
+    }
+
+    /**
+     * Relays a batch of events in order and persists their delivery state.
+     *
+     * @param batch the pending events, ordered by their global sequence number.
+     * @return {@code true} if the whole batch was processed, {@code false} if an event has to be retried.
+     */
+    private boolean relay(List<EventStore> batch) {
+        List<EventStore> processed = new ArrayList<>(batch.size());
+        try {
+            for (EventStore eventStore : batch) {
+                processed.add(eventStore);
+                try {
+                    eventProcessorService.processEvent(eventStore, eventPublishingService::publishEvent);
+                    eventStore.setDeliveryStatus(DeliveryStatus.DELIVERED);
+                    eventStore.setDeliveredAt(LocalDateTime.now());
+                } catch (Exception e) {
+                    if (!recordFailedAttempt(eventStore, e)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        } finally {
+            eventStoreService.updateDeliveryState(processed);
+        }
+    }
+
+    /**
+     * Records a failed delivery attempt of an event.
+     *
+     * @param eventStore the event that could not be relayed.
+     * @param error      the error raised while relaying the event.
+     * @return {@code true} if the event has been given up, {@code false} if it is retried later.
+     */
+    private boolean recordFailedAttempt(EventStore eventStore, Exception error) {
+        eventStore.setDeliveryAttempts(eventStore.getDeliveryAttempts() + 1);
+        eventStore.setLastDeliveryError(truncate(String.valueOf(error.getMessage())));
+
+        if (eventStore.getDeliveryAttempts() < maxAttempts) {
+            log.warn("Relaying event {} ({}) failed, attempt {} of {}",
+                    eventStore.getId(), eventStore.getEventType(), eventStore.getDeliveryAttempts(), maxAttempts, error);
+            return false;
+        }
+
+        eventStore.setDeliveryStatus(DeliveryStatus.FAILED);
+        log.error("Giving up relaying event {} ({}) after {} attempts",
+                eventStore.getId(), eventStore.getEventType(), eventStore.getDeliveryAttempts(), error);
+        return true;
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+}
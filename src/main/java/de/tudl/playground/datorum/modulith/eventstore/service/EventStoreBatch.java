@@ -0,0 +1,109 @@
+package de.tudl.playground.datorum.modulith.eventstore.service;
+
+import de.tudl.playground.datorum.modulith.eventstore.EventStore;
+import de.tudl.playground.datorum.modulith.eventstore.stream.EventCategory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The state of a batch of commands in the event store.
+ * <p>
+ * A batch holds the events of the aggregates it covers, loaded in one pass when the batch is opened, and buffers
+ * the events stored for these aggregates until it is flushed, whichever thread stores them. Reads of an aggregate see
+ * its preloaded events followed by the events buffered for it. The buffered events are appended to the event store
+ * in one batch by {@link EventStoreService#flushBatch(EventStoreBatch)}.
+ * </p>
+ *
+ * <h3>Thread Safety</h3>
+ * A batch may be used by several threads at once. Events of one aggregate must be stored from one thread at a time,
+ * which the command lanes guarantee.
+ */
+public final class EventStoreBatch {
+
+    private final Set<String> aggregateIds;
+    private final Map<StreamKey, List<EventStore>> preloadedEvents;
+    private final Map<StreamKey, List<EventStore>> bufferedEventsByStream = new ConcurrentHashMap<>();
+    private final Queue<EventStore> bufferedEvents = new ConcurrentLinkedQueue<>();
+
+    EventStoreBatch(Collection<String> aggregateIds, Map<StreamKey, List<EventStore>> preloadedEvents) {
+        this.aggregateIds = Set.copyOf(aggregateIds);
+        this.preloadedEvents = Map.copyOf(preloadedEvents);
+    }
+
+    /**
+     * Returns the unique identifiers of the aggregates covered by the batch.
+     *
+     * @return the aggregate IDs of the batch.
+     */
+    Set<String> aggregateIds() {
+        return aggregateIds;
+    }
+
+    /**
+     * Returns the events of an aggregate covered by the batch.
+     *
+     * @param category    the category of the aggregate's event stream.
+     * @param aggregateId the unique identifier of the aggregate.
+     * @return the stored events of the aggregate followed by the events buffered for it.
+     */
+    List<EventStore> loadEvents(EventCategory category, String aggregateId) {
+        StreamKey key = new StreamKey(category, aggregateId);
+        List<EventStore> stored = preloadedEvents.getOrDefault(key, List.of());
+
+        List<EventStore> buffered = bufferedEventsByStream.getOrDefault(key, List.of());
+        if (buffered.isEmpty()) {
+            return stored;
+        }
+
+        List<EventStore> events = new ArrayList<>(stored.size() + buffered.size());
+        events.addAll(stored);
+        synchronized (buffered) {
+            events.addAll(buffered);
+        }
+        return List.copyOf(events);
+    }
+
+    /**
+     * Buffers an event until the batch is flushed.
+     *
+     * @param eventStore the event to append.
+     */
+    void append(EventStore eventStore) {
+        List<EventStore> stream = bufferedEventsByStream.computeIfAbsent(
+                new StreamKey(eventStore.getCategory(), eventStore.getAggregateId()),
+                key -> Collections.synchronizedList(new ArrayList<>())
+        );
+        stream.add(eventStore);
+        bufferedEvents.add(eventStore);
+    }
+
+    /**
+     * Removes and returns the buffered events in the order they were stored.
+     *
+     * @return the events buffered since the last call.
+     */
+    List<EventStore> drainBufferedEvents() {
+        List<EventStore> events = new ArrayList<>();
+        for (EventStore event = bufferedEvents.poll(); event != null; event = bufferedEvents.poll()) {
+            events.add(event);
+        }
+        bufferedEventsByStream.clear();
+        return events;
+    }
+
+    /**
+     * Identifies the event stream of an aggregate.
+     *
+     * @param category    the category of the stream.
+     * @param aggregateId the unique identifier of the aggregate.
+     */
+    record StreamKey(EventCategory category, String aggregateId) {
+    }
+}
@@ -3,10 +3,27 @@ package de.tudl.playground.datorum.modulith.eventstore.service;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import de.tudl.playground.datorum.modulith.eventstore.EventStore;
 import de.tudl.playground.datorum.modulith.eventstore.EventStoreRepository;
+import de.tudl.playground.datorum.modulith.eventstore.outbox.DeliveryStatus;
+import de.tudl.playground.datorum.modulith.eventstore.stream.AuthEventStoreRepository;
+import de.tudl.playground.datorum.modulith.eventstore.stream.BudgetEventStoreRepository;
+import de.tudl.playground.datorum.modulith.eventstore.stream.EventCategory;
+import de.tudl.playground.datorum.modulith.eventstore.stream.EventCategoryResolver;
+import de.tudl.playground.datorum.modulith.eventstore.stream.EventStreamRepository;
+import de.tudl.playground.datorum.modulith.eventstore.stream.UserEventStoreRepository;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import de.tudl.playground.datorum.modulith.eventstore.exception.FailedToSaveEventException;
 import lombok.SneakyThrows;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
 /**
@@ -25,36 +42,71 @@ import org.springframework.stereotype.Service;
  *   <li>Ensuring all domain events are stored reliably in a centralized event store.</li>
  * </ul>
  * </p>
+ * <p>
+ * Events are routed to the table of their {@link EventCategory}, as determined by the
+ * {@link EventCategoryResolver}. Reads for a single aggregate therefore only touch the table of its category,
+ * while {@link #readAllEvents(long, int)} provides the globally ordered view across all categories.
+ * </p>
+ * <p>
+ * Bulk operations run in an {@link EventStoreBatch}: the streams of all affected aggregates are loaded in one query
+ * per category when the batch is opened, and the events stored by the batch are appended in one batch when it is
+ * flushed. While a batch is open, it owns the streams of its aggregates: every read and write of these streams goes
+ * through the batch, whichever thread issues it, so commands sent to an aggregate of the batch outside of the bulk
+ * see the events of the bulk and join it.
+ * </p>
  *
  * <h3>Thread Safety</h3>
- * This service is thread-safe as long as the underlying {@link EventStoreRepository} implementation is thread-safe.
+ * This service is thread-safe as long as the underlying repository implementations are thread-safe.
  */
 @Service
 public class EventStoreService {
 
+    /**
+     * The maximum number of aggregate IDs passed to a single query while preloading a batch.
+     */
+    private static final int PRELOAD_CHUNK_SIZE = 500;
+
     private final EventStoreRepository eventStoreRepository;
+    private final EventCategoryResolver eventCategoryResolver;
+    private final Map<EventCategory, EventStreamRepository<? extends EventStore>> streamRepositories;
+    private final Map<String, EventStoreBatch> openBatches = new ConcurrentHashMap<>();
 
     /**
-     * Constructs an {@code EventStoreService} with the specified {@link EventStoreRepository}.
+     * Constructs an {@code EventStoreService} with the repositories of the event store.
      *
-     * @param eventStoreRepository the repository used to persist events in the event store.
+     * @param eventStoreRepository the repository providing the global view over all categories.
+     * @param eventCategoryResolver the resolver determining the category of an event.
+     * @param userEventStoreRepository the repository of the {@link EventCategory#USER} stream.
+     * @param budgetEventStoreRepository the repository of the {@link EventCategory#BUDGET} stream.
+     * @param authEventStoreRepository the repository of the {@link EventCategory#AUTH} stream.
      */
-    public EventStoreService(EventStoreRepository eventStoreRepository) {
+    public EventStoreService(
+            EventStoreRepository eventStoreRepository,
+            EventCategoryResolver eventCategoryResolver,
+            UserEventStoreRepository userEventStoreRepository,
+            BudgetEventStoreRepository budgetEventStoreRepository,
+            AuthEventStoreRepository authEventStoreRepository
+    ) {
         this.eventStoreRepository = eventStoreRepository;
+        this.eventCategoryResolver = eventCategoryResolver;
+        this.streamRepositories = new EnumMap<>(EventCategory.class);
+        this.streamRepositories.put(EventCategory.USER, userEventStoreRepository);
+        this.streamRepositories.put(EventCategory.BUDGET, budgetEventStoreRepository);
+        this.streamRepositories.put(EventCategory.AUTH, authEventStoreRepository);
     }
 
     /**
      * Stores an event in the Event Store.
      * <p>
-     * This method serializes the provided event into JSON format and saves it in the event store,
-     * along with its aggregate ID, event type, and the current timestamp.
+     * This method serializes the provided event into JSON format and saves it in the table of the event's
+     * category, along with its aggregate ID, event type, and the current timestamp. The event is stored as
+     * {@link DeliveryStatus#PENDING}, i.e. it still has to be relayed to the event listeners. Within an
+     * {@link EventStoreBatch} covering the aggregate, the event is buffered and only stored once the batch is flushed.
      * </p>
      *
      * <h3>Example</h3>
      * <pre>
      * {@code
-     * EventStoreService eventStoreService = new EventStoreService(eventStoreRepository);
-     *
      * MyEvent event = new MyEvent("example data");
      * eventStoreService.saveEvent("aggregate-123", event);
      * }
@@ -63,20 +115,145 @@ public class EventStoreService {
      * @param aggregateId the unique identifier of the aggregate associated with the event.
      *                    This identifier helps group events by aggregate.
      * @param event the event object to be persisted. The object must be serializable into JSON format.
+     * @return the stored event.
      * @throws RuntimeException if an error occurs while serializing the event or saving it to the repository.
      */
     @SneakyThrows
-    public void saveEvent(String aggregateId, Object event) {
+    public EventStore saveEvent(String aggregateId, Object event) {
         try {
-            EventStore eventStore = new EventStore();
+            EventStore eventStore = eventCategoryResolver.resolve(event.getClass()).newEntry();
             eventStore.setAggregateId(aggregateId);
             eventStore.setEventType(event.getClass().getSimpleName());
             eventStore.setEventData(new ObjectMapper().writeValueAsString(event));
             eventStore.setCreatedAt(LocalDateTime.now());
+            eventStore.setDeliveryStatus(DeliveryStatus.PENDING);
 
-            eventStoreRepository.save(eventStore);
+            EventStoreBatch batch = openBatches.get(aggregateId);
+            if (batch != null) {
+                batch.append(eventStore);
+                return eventStore;
+            }
+            return eventStoreRepository.save(eventStore);
         } catch (Exception e) {
             throw new FailedToSaveEventException("Failed to save event to Event Store", e);
         }
     }
+
+    /**
+     * Loads all events of an aggregate from the table of the given category.
+     * <p>
+     * If an open {@link EventStoreBatch} covers the aggregate, the events are read from the batch.
+     * </p>
+     *
+     * @param category    the category of the aggregate's event stream.
+     * @param aggregateId the unique identifier of the aggregate.
+     * @return the events of the aggregate in the order they were stored.
+     */
+    public List<EventStore> loadEvents(EventCategory category, String aggregateId) {
+        EventStoreBatch batch = openBatches.get(aggregateId);
+        if (batch != null) {
+            return batch.loadEvents(category, aggregateId);
+        }
+        return List.copyOf(streamRepositories.get(category).findByAggregateIdOrderByIdAsc(aggregateId));
+    }
+
+    /**
+     * Opens a batch for the given aggregates and loads their events of all categories in one pass.
+     * <p>
+     * Aggregates covered by another open batch are left to that batch. No events of the aggregates may be stored
+     * while the batch is opened, otherwise they are missing from the preloaded streams.
+     * </p>
+     *
+     * @param aggregateIds the unique identifiers of the aggregates affected by the batch.
+     * @return the opened batch.
+     */
+    public EventStoreBatch openBatch(Set<String> aggregateIds) {
+        Map<EventStoreBatch.StreamKey, List<EventStore>> preloadedEvents = new HashMap<>();
+        List<String> ids = aggregateIds.stream()
+                .filter(aggregateId -> !openBatches.containsKey(aggregateId))
+                .toList();
+
+        for (int from = 0; from < ids.size(); from += PRELOAD_CHUNK_SIZE) {
+            List<String> chunk = ids.subList(from, Math.min(from + PRELOAD_CHUNK_SIZE, ids.size()));
+            streamRepositories.forEach((category, repository) -> {
+                for (EventStore eventStore : repository.findByAggregateIdInOrderByIdAsc(chunk)) {
+                    preloadedEvents.computeIfAbsent(
+                            new EventStoreBatch.StreamKey(category, eventStore.getAggregateId()),
+                            key -> new ArrayList<>()
+                    ).add(eventStore);
+                }
+            });
+        }
+
+        preloadedEvents.replaceAll((key, events) -> List.copyOf(events));
+        EventStoreBatch batch = new EventStoreBatch(ids, preloadedEvents);
+        ids.forEach(aggregateId -> openBatches.putIfAbsent(aggregateId, batch));
+        return batch;
+    }
+
+    /**
+     * Appends the events buffered by a batch to the event store in one batch and closes the batch.
+     * <p>
+     * No events of the batch's aggregates may be stored while the batch is flushed, otherwise they are lost.
+     * </p>
+     *
+     * @param batch the batch to flush.
+     * @return the number of appended events.
+     */
+    @SneakyThrows
+    public int flushBatch(EventStoreBatch batch) {
+        try {
+            List<EventStore> events = batch.drainBufferedEvents();
+            if (events.isEmpty()) {
+                return 0;
+            }
+
+            try {
+                eventStoreRepository.saveAll(events);
+                return events.size();
+            } catch (Exception e) {
+                throw new FailedToSaveEventException("Failed to append " + events.size() + " events to Event Store", e);
+            }
+        } finally {
+            batch.aggregateIds().forEach(aggregateId -> openBatches.remove(aggregateId, batch));
+        }
+    }
+
+    /**
+     * Reads events of all categories in global order, starting after the given position.
+     *
+     * @param afterId  the ID of the last event already read, or {@code 0} to read from the beginning.
+     * @param maxCount the maximum number of events to return.
+     * @return the next events of the event store, ordered by their global sequence number.
+     */
+    public List<EventStore> readAllEvents(long afterId, int maxCount) {
+        return eventStoreRepository.findByIdGreaterThanOrderByIdAsc(afterId, Limit.of(maxCount));
+    }
+
+    /**
+     * Retrieves the oldest events of all categories that still have to be relayed to the event listeners.
+     *
+     * @param maxCount the maximum number of events to return.
+     * @return the pending events, ordered by their global sequence number.
+     */
+    public List<EventStore> findPendingEvents(int maxCount) {
+        Limit limit = Limit.of(maxCount);
+        return streamRepositories.values().stream()
+                .flatMap(repository -> repository.findByDeliveryStatusOrderByIdAsc(DeliveryStatus.PENDING, limit).stream())
+                .map(EventStore.class::cast)
+                .sorted(Comparator.comparing(EventStore::getId))
+                .limit(maxCount)
+                .toList();
+    }
+
+    /**
+     * Persists the delivery state of the given events.
+     *
+     * @param events the events whose delivery state has changed.
+     */
+    public void updateDeliveryState(Collection<EventStore> events) {
+        if (!events.isEmpty()) {
+            eventStoreRepository.saveAll(events);
+        }
+    }
 }
@@ -0,0 +1,25 @@
+package de.tudl.playground.datorum.modulith.eventstore.stream;
+
+import de.tudl.playground.datorum.modulith.eventstore.EventStore;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Event store entry of the {@link EventCategory#AUTH} stream, persisted in {@code eventstore_auth}.
+ */
+@Entity
+@Table(
+        name = "[eventstore_auth]",
+        indexes = {
+                @Index(name = "ix_eventstore_auth_aggregate", columnList = "aggregateId, id"),
+                @Index(name = "ix_eventstore_auth_delivery", columnList = "deliveryStatus, id")
+        }
+)
+public class AuthEventStore extends EventStore {
+
+    @Override
+    public EventCategory getCategory() {
+        return EventCategory.AUTH;
+    }
+}
@@ -0,0 +1,10 @@
+package de.tudl.playground.datorum.modulith.eventstore.stream;
+
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for the events of the {@link EventCategory#AUTH} stream.
+ */
+@Repository
+public interface AuthEventStoreRepository extends EventStreamRepository<AuthEventStore> {
+}
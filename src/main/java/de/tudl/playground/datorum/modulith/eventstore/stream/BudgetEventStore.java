@@ -0,0 +1,25 @@
+package de.tudl.playground.datorum.modulith.eventstore.stream;
+
+import de.tudl.playground.datorum.modulith.eventstore.EventStore;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Event store entry of the {@link EventCategory#BUDGET} stream, persisted in {@code eventstore_budget}.
+ */
+@Entity
+@Table(
+        name = "[eventstore_budget]",
+        indexes = {
+                @Index(name = "ix_eventstore_budget_aggregate", columnList = "aggregateId, id"),
+                @Index(name = "ix_eventstore_budget_delivery", columnList = "deliveryStatus, id")
+        }
+)
+public class BudgetEventStore extends EventStore {
+
+    @Override
+    public EventCategory getCategory() {
+        return EventCategory.BUDGET;
+    }
+}
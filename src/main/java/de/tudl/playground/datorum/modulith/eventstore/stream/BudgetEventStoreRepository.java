@@ -0,0 +1,10 @@
+package de.tudl.playground.datorum.modulith.eventstore.stream;
+
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for the events of the {@link EventCategory#BUDGET} stream.
+ */
+@Repository
+public interface BudgetEventStoreRepository extends EventStreamRepository<BudgetEventStore> {
+}
@@ -0,0 +1,51 @@
+package de.tudl.playground.datorum.modulith.eventstore.stream;
+
+import de.tudl.playground.datorum.modulith.eventstore.EventStore;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Enumerates the stream categories of the event store.
+ * <p>
+ * Each category is persisted in a table of its own, so high-churn streams (such as authentication
+ * events) do not bloat the indexes that other aggregates depend on during rehydration.
+ * The category of an event is derived by the {@link EventCategoryResolver}.
+ * </p>
+ */
+public enum EventCategory {
+    USER("user", UserEventStore::new),
+    BUDGET("budget", BudgetEventStore::new),
+    AUTH("auth", AuthEventStore::new);
+
+    private final String categoryName;
+    private final Supplier<EventStore> entryFactory;
+
+    EventCategory(String categoryName, Supplier<EventStore> entryFactory) {
+        this.categoryName = categoryName;
+        this.entryFactory = entryFactory;
+    }
+
+    /**
+     * Creates an empty event store entry that is mapped to this category's table.
+     *
+     * @return a new, unsaved {@link EventStore} entry.
+     */
+    public EventStore newEntry() {
+        return entryFactory.get();
+    }
+
+    /**
+     * Returns the category with the given name, for example {@code "user"}.
+     *
+     * @param categoryName the case-insensitive name of the category.
+     * @return the matching {@link EventCategory}.
+     * @throws IllegalArgumentException if no category with the given name exists.
+     */
+    public static EventCategory fromName(String categoryName) {
+        return Arrays.stream(values())
+                .filter(category -> category.categoryName.equalsIgnoreCase(categoryName))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown event category: " + categoryName));
+    }
+}
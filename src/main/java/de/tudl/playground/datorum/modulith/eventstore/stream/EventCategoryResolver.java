@@ -0,0 +1,57 @@
+package de.tudl.playground.datorum.modulith.eventstore.stream;
+
+import de.tudl.playground.datorum.modulith.shared.event.Event;
+import org.springframework.stereotype.Service;
+
+/**
+ * Resolves the {@link EventCategory} an event is stored in.
+ * <p>
+ * The category is taken from {@link Event#category()} if present. Otherwise, it is derived from the
+ * module the event belongs to, i.e. the package segment following {@code modulith}
+ * (an event in {@code ...modulith.user.command.events} belongs to {@link EventCategory#USER}).
+ * </p>
+ *
+ * <h3>Thread Safety</h3>
+ * Resolved categories are cached per event class in a {@link ClassValue}, which is safe for concurrent use.
+ */
+@Service
+public class EventCategoryResolver {
+
+    private static final String MODULE_ROOT_SEGMENT = "modulith";
+
+    private final ClassValue<EventCategory> categories = new ClassValue<>() {
+        @Override
+        protected EventCategory computeValue(Class<?> eventClass) {
+            return deriveCategory(eventClass);
+        }
+    };
+
+    /**
+     * Returns the category of the given event class.
+     *
+     * @param eventClass the class of the event.
+     * @return the {@link EventCategory} the event is stored in.
+     * @throws IllegalArgumentException if no category can be derived for the event class.
+     */
+    public EventCategory resolve(Class<?> eventClass) {
+        return categories.get(eventClass);
+    }
+
+    private EventCategory deriveCategory(Class<?> eventClass) {
+        Event eventAnnotation = eventClass.getAnnotation(Event.class);
+        if (eventAnnotation != null && !eventAnnotation.category().isBlank()) {
+            return EventCategory.fromName(eventAnnotation.category());
+        }
+
+        String[] segments = eventClass.getPackageName().split("\\.");
+        for (int i = 0; i < segments.length - 1; i++) {
+            if (segments[i].equals(MODULE_ROOT_SEGMENT)) {
+                return EventCategory.fromName(segments[i + 1]);
+            }
+        }
+
+        throw new IllegalArgumentException(
+                "Cannot derive event category for class: " + eventClass.getName()
+        );
+    }
+}
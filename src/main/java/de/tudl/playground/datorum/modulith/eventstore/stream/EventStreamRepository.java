@@ -0,0 +1,46 @@
+package de.tudl.playground.datorum.modulith.eventstore.stream;
+
+import de.tudl.playground.datorum.modulith.eventstore.EventStore;
+import de.tudl.playground.datorum.modulith.eventstore.outbox.DeliveryStatus;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.repository.NoRepositoryBean;
+
+/**
+ * Base repository for a single event stream category.
+ * <p>
+ * Every {@link EventCategory} has a concrete repository extending this interface. Queries issued through it
+ * only touch the table of that category, keeping aggregate lookups on a small index.
+ * </p>
+ *
+ * @param <T> the entity type of the stream.
+ */
+@NoRepositoryBean
+public interface EventStreamRepository<T extends EventStore> extends JpaRepository<T, Long> {
+    /**
+     * Retrieves all events of an aggregate in the order they were stored.
+     *
+     * @param aggregateId the unique identifier of the aggregate whose events are to be retrieved.
+     * @return the events of the aggregate, ordered by their global sequence number.
+     */
+    List<T> findByAggregateIdOrderByIdAsc(String aggregateId);
+
+    /**
+     * Retrieves all events of the given aggregates in the order they were stored.
+     *
+     * @param aggregateIds the unique identifiers of the aggregates whose events are to be retrieved.
+     * @return the events of the aggregates, ordered by their global sequence number.
+     */
+    List<T> findByAggregateIdInOrderByIdAsc(Collection<String> aggregateIds);
+
+    /**
+     * Retrieves the oldest events of the stream that are in the given delivery state.
+     *
+     * @param deliveryStatus the delivery state to look for.
+     * @param limit          the maximum number of events to return.
+     * @return the matching events, ordered by their global sequence number.
+     */
+    List<T> findByDeliveryStatusOrderByIdAsc(DeliveryStatus deliveryStatus, Limit limit);
+}
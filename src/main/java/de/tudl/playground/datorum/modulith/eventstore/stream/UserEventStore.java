@@ -0,0 +1,25 @@
+package de.tudl.playground.datorum.modulith.eventstore.stream;
+
+import de.tudl.playground.datorum.modulith.eventstore.EventStore;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Event store entry of the {@link EventCategory#USER} stream, persisted in {@code eventstore_user}.
+ */
+@Entity
+@Table(
+        name = "[eventstore_user]",
+        indexes = {
+                @Index(name = "ix_eventstore_user_aggregate", columnList = "aggregateId, id"),
+                @Index(name = "ix_eventstore_user_delivery", columnList = "deliveryStatus, id")
+        }
+)
+public class UserEventStore extends EventStore {
+
+    @Override
+    public EventCategory getCategory() {
+        return EventCategory.USER;
+    }
+}
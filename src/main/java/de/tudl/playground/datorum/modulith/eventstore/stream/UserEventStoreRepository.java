@@ -0,0 +1,10 @@
+package de.tudl.playground.datorum.modulith.eventstore.stream;
+
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository for the events of the {@link EventCategory#USER} stream.
+ */
+@Repository
+public interface UserEventStoreRepository extends EventStreamRepository<UserEventStore> {
+}
@@ -9,5 +9,10 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 public @interface Event {
     String value() default "";
-}
 
+    /**
+     * The event store category the event is persisted in, for example {@code "user"}.
+     * If left empty, the category is derived from the module package of the event.
+     */
+    String category() default "";
+}
@@ -0,0 +1,7 @@
+package de.tudl.playground.datorum.modulith.shared.exception;
+
+public class PasswordHashingRejectedException extends Exception {
+    public PasswordHashingRejectedException(String s) {
+        super(s);
+    }
+}
@@ -0,0 +1,222 @@
+package de.tudl.playground.datorum.modulith.shared.password;
+
+import de.tudl.playground.datorum.modulith.shared.exception.ErrorHashingPasswordException;
+import de.tudl.playground.datorum.modulith.shared.exception.PasswordHashingRejectedException;
+import de.tudl.playground.datorum.modulith.shared.util.HashingUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import lombok.SneakyThrows;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Service hashing and verifying passwords on a dedicated, bounded thread pool.
+ * <p>
+ * Password hashes are derived with PBKDF2 (HMAC-SHA256), whose cost is tuned with
+ * {@code datorum.password.hashing.iterations}. As a deliberately slow key derivation would stall every other task
+ * sharing its thread, hashing never runs on the caller's thread: it is executed by {@code datorum.password.hashing.pool-size}
+ * threads (one per core by default), which accept at most {@code datorum.password.hashing.queue-capacity} waiting
+ * tasks. Further tasks are rejected with a {@link PasswordHashingRejectedException}, so a login storm is shed instead
+ * of queueing up without bound.
+ * </p>
+ *
+ * <h2>Hash Format</h2>
+ * Hashes are versioned as {@code pbkdf2-sha256$<iterations>$<base64 hash>}, so the cost can be raised without
+ * invalidating existing hashes. Hashes without a version prefix are legacy SHA-256 hashes created by
+ * {@link HashingUtil} and are still verified.
+ *
+ * <h2>Metrics</h2>
+ * <ul>
+ *     <li>{@code datorum.password.hashing.queue.time}: the time a task waited for a thread, tagged with the operation.</li>
+ *     <li>{@code datorum.password.hashing.hash.time}: the time spent hashing, tagged with the operation.</li>
+ *     <li>{@code datorum.password.hashing.queue.depth}: the number of waiting tasks.</li>
+ *     <li>{@code datorum.password.hashing.rejected}: the number of rejected tasks.</li>
+ * </ul>
+ */
+@Slf4j
+@Service
+public class PasswordHashingService {
+
+    /**
+     * The version prefix of PBKDF2 hashes.
+     */
+    public static final String PBKDF2_PREFIX = "pbkdf2-sha256$";
+
+    private static final String PBKDF2_ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int KEY_LENGTH_BITS = 256;
+
+    private final int iterations;
+    private final ThreadPoolExecutor executor;
+    private final MeterRegistry meterRegistry;
+    private final Counter rejected;
+
+    /**
+     * Constructs a {@code PasswordHashingService}.
+     *
+     * @param poolSize      the number of hashing threads, or {@code 0} for one thread per core.
+     * @param queueCapacity the maximum number of tasks waiting for a hashing thread.
+     * @param iterations    the number of PBKDF2 iterations of new hashes.
+     * @param meterRegistry the registry the hashing metrics are registered with.
+     */
+    public PasswordHashingService(
+            @Value("${datorum.password.hashing.pool-size:0}") int poolSize,
+            @Value("${datorum.password.hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${datorum.password.hashing.iterations:210000}") int iterations,
+            MeterRegistry meterRegistry
+    ) {
+        if (iterations < 1) throw new IllegalArgumentException(
+                "PBKDF2 iterations must be positive"
+        );
+
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.iterations = iterations;
+        this.executor = new ThreadPoolExecutor(
+                threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+        this.meterRegistry = meterRegistry;
+        this.rejected = meterRegistry.counter("datorum.password.hashing.rejected");
+        Gauge.builder("datorum.password.hashing.queue.depth", executor, pool -> pool.getQueue().size())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Hashes a password with the configured cost.
+     *
+     * @param password the password to hash.
+     * @param salt     the salt of the password.
+     * @return a future completing with the versioned hash of the password.
+     */
+    public CompletableFuture<String> hash(String password, String salt) {
+        return submit("hash", () -> pbkdf2(password, salt, iterations));
+    }
+
+    /**
+     * Verifies a password against a stored hash, which may be a PBKDF2 or a legacy SHA-256 hash.
+     *
+     * @param password the password to verify.
+     * @param hash     the stored hash.
+     * @param salt     the salt of the stored hash.
+     * @return a future completing with {@code true} if the password matches the hash.
+     */
+    public CompletableFuture<Boolean> verify(String password, String hash, String salt) {
+        return submit("verify", () -> matches(password, hash, salt));
+    }
+
+    /**
+     * Stops the hashing threads.
+     */
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Derives a versioned PBKDF2 hash of a password on the calling thread.
+     *
+     * @param password   the password to hash.
+     * @param salt       the salt of the password.
+     * @param iterations the number of PBKDF2 iterations.
+     * @return the versioned hash.
+     */
+    public static String pbkdf2(String password, String salt, int iterations) {
+        return PBKDF2_PREFIX + iterations + "$" + Base64.getEncoder().encodeToString(derive(password, salt, iterations));
+    }
+
+    /**
+     * Verifies a password against a stored hash on the calling thread.
+     *
+     * @param password the password to verify.
+     * @param hash     the stored PBKDF2 or legacy SHA-256 hash.
+     * @param salt     the salt of the stored hash.
+     * @return {@code true} if the password matches the hash, {@code false} if it does not or the hash is malformed.
+     */
+    public static boolean matches(String password, String hash, String salt) {
+        if (!hash.startsWith(PBKDF2_PREFIX)) {
+            return constantTimeEquals(HashingUtil.hashPassword(password, salt), hash);
+        }
+
+        int separator = hash.indexOf('$', PBKDF2_PREFIX.length());
+        if (separator < 0) {
+            return false;
+        }
+        int hashIterations;
+        try {
+            hashIterations = Integer.parseInt(hash.substring(PBKDF2_PREFIX.length(), separator));
+        } catch (NumberFormatException e) {
+            return false;
+        }
+        if (hashIterations < 1) {
+            return false;
+        }
+        return constantTimeEquals(pbkdf2(password, salt, hashIterations), hash);
+    }
+
+    private <T> CompletableFuture<T> submit(String operation, Supplier<T> task) {
+        long enqueuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long startedAt = System.nanoTime();
+                timer("datorum.password.hashing.queue.time", operation).record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    return task.get();
+                } finally {
+                    timer("datorum.password.hashing.hash.time", operation).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+                }
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Rejecting password {}, {} tasks are already waiting", operation, executor.getQueue().size());
+            return CompletableFuture.failedFuture(
+                    new PasswordHashingRejectedException("Too many password operations in progress")
+            );
+        }
+    }
+
+    private Timer timer(String name, String operation) {
+        return meterRegistry.timer(name, "operation", operation);
+    }
+
+    @SneakyThrows
+    private static byte[] derive(String password, String salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(
+                password.toCharArray(), salt.getBytes(StandardCharsets.UTF_8), iterations, KEY_LENGTH_BITS
+        );
+        try {
+            return SecretKeyFactory.getInstance(PBKDF2_ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (Exception e) {
+            throw new ErrorHashingPasswordException("Error hashing the password!", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private static boolean constantTimeEquals(String expected, String actual) {
+        return MessageDigest.isEqual(
+                expected.getBytes(StandardCharsets.UTF_8),
+                actual.getBytes(StandardCharsets.UTF_8)
+        );
+    }
+}
@@ -0,0 +1,47 @@
+package de.tudl.playground.datorum.modulith.shared.token;
+
+import de.tudl.playground.datorum.modulith.shared.token.data.Token;
+import lombok.SneakyThrows;
+import org.springframework.stereotype.Service;
+
+import java.util.Collections;
+
+/**
+ * Service issuing the authentication token of a user after a successful login.
+ * <p>
+ * The token is signed with the key of the {@link KeyManager}, written to the token file by the
+ * {@link TokenFileService} and made available to the application through the {@link AuthTokenProvider}.
+ * </p>
+ *
+ * @see TokenManager
+ */
+@Service
+public class AuthTokenIssuer {
+
+    private final TokenFileService tokenFileService;
+    private final AuthTokenProvider authTokenProvider;
+
+    public AuthTokenIssuer(TokenFileService tokenFileService, AuthTokenProvider authTokenProvider) {
+        this.tokenFileService = tokenFileService;
+        this.authTokenProvider = authTokenProvider;
+    }
+
+    /**
+     * Issues a token for the given user and makes it the current token of the application.
+     *
+     * @param userId   the ID of the user.
+     * @param username the username of the user.
+     * @param role     the role of the user.
+     * @return the issued token.
+     */
+    @SneakyThrows
+    public Token issue(String userId, String username, String role) {
+        String key = KeyManager.loadKey();
+
+        Token token = TokenManager.createToken(userId, username, Collections.singletonList(role), key);
+
+        tokenFileService.writeToken(token);
+        authTokenProvider.setToken(token);
+        return token;
+    }
+}
@@ -0,0 +1,28 @@
+package de.tudl.playground.datorum.modulith.user.command.commands;
+
+import de.tudl.playground.datorum.gateway.command.validation.CommandValidator;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.stereotype.Component;
+
+/**
+ * Validates a {@link CreateUserCommand} before the user aggregate is created.
+ */
+@Component
+public class CreateUserCommandValidator implements CommandValidator<CreateUserCommand> {
+
+    @Override
+    public List<String> validate(CreateUserCommand command) {
+        List<String> violations = new ArrayList<>();
+        if (isBlank(command.userId())) violations.add("userId must not be blank");
+        if (isBlank(command.username())) violations.add("username must not be blank");
+        if (isBlank(command.passwordHash())) violations.add("passwordHash must not be blank");
+        if (isBlank(command.passwordSalt())) violations.add("passwordSalt must not be blank");
+        if (isBlank(command.role())) violations.add("role must not be blank");
+        return violations;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
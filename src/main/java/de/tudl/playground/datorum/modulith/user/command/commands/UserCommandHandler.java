@@ -1,16 +1,23 @@
 package de.tudl.playground.datorum.modulith.user.command.commands;
 
+import de.tudl.playground.datorum.gateway.command.annotation.CommandHandler;
 import de.tudl.playground.datorum.modulith.eventstore.EventPublisher;
 import de.tudl.playground.datorum.modulith.eventstore.EventStore;
-import de.tudl.playground.datorum.modulith.eventstore.EventStoreRepository;
 import de.tudl.playground.datorum.modulith.eventstore.service.EventProcessorService;
+import de.tudl.playground.datorum.modulith.eventstore.service.EventStoreService;
+import de.tudl.playground.datorum.modulith.eventstore.stream.EventCategory;
 import de.tudl.playground.datorum.modulith.user.command.aggregate.UserAggregate;
+import de.tudl.playground.datorum.modulith.user.command.data.UserRepository;
+import de.tudl.playground.datorum.modulith.user.command.data.UsernameReservation;
+import de.tudl.playground.datorum.modulith.user.command.data.UsernameReservationRepository;
 import de.tudl.playground.datorum.modulith.user.command.data.dto.CreateUserDto;
 import de.tudl.playground.datorum.modulith.user.command.data.dto.UpdateUserDto;
 import java.util.Collections;
 import java.util.List;
-import org.springframework.context.event.EventListener;
+import java.util.Optional;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * The {@code UserCommandHandler} class is a command handler in the CQRS (Command Query Responsibility Segregation) pattern
@@ -26,45 +33,62 @@ import org.springframework.stereotype.Service;
  *     <li>Retrieve historical events from the event store to rehydrate aggregates.</li>
  *     <li>Execute business logic on aggregates based on the incoming commands.</li>
  *     <li>Publish domain events to notify other parts of the system of state changes.</li>
+ *     <li>Keep usernames unique by reserving them in the same transaction as the events of the user.</li>
  * </ul>
  *
  * <h2>Usage</h2>
  * <pre>{@code
- * // Assuming commands are dispatched via Spring's event mechanism
+ * // Commands are dispatched to the @CommandHandler methods by the command gateway
  * CreateUserCommand createUserCommand = new CreateUserCommand(...);
- * applicationContext.publishEvent(createUserCommand);
+ * commandGateway.send(createUserCommand);
  * }</pre>
  *
  * <p>Note: This handler assumes the use of an {@link EventPublisher} for publishing events
- * and an {@link EventStoreRepository} for retrieving and storing events.</p>
+ * and an {@link EventStoreService} for retrieving the events of the user stream.</p>
  *
  * @see UserAggregate
  * @see EventPublisher
- * @see EventStoreRepository
+ * @see EventStoreService
  */
 
 @Service
 public class UserCommandHandler {
 
-    private final EventStoreRepository eventStoreRepository;
+    private final EventStoreService eventStoreService;
 
     private final EventPublisher eventPublisher;
 
     private final EventProcessorService eventProcessorService;
 
+    private final UserRepository userRepository;
+
+    private final UsernameReservationRepository usernameReservationRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
     /**
-     * Constructs a {@code UserCommandHandler} with the specified event store repository and event publisher.
+     * Constructs a {@code UserCommandHandler} with the specified event store service and event publisher.
      *
-     * @param eventStoreRepository the repository used to retrieve and store events.
-     * @param eventPublisher       the publisher used to broadcast events to subscribers.
+     * @param eventStoreService             the service used to retrieve the events of the user stream.
+     * @param eventPublisher                the publisher used to broadcast events to subscribers.
+     * @param userRepository                the repository of the registered users, which covers users registered
+     *                                      before usernames were reserved.
+     * @param usernameReservationRepository the repository of the reserved usernames, used to keep usernames unique.
+     * @param transactionTemplate           the template running a command's reservation and events in one transaction.
      */
     public UserCommandHandler(
-            EventStoreRepository eventStoreRepository,
-            EventPublisher eventPublisher, EventProcessorService eventProcessorService
+            EventStoreService eventStoreService,
+            EventPublisher eventPublisher, EventProcessorService eventProcessorService,
+            UserRepository userRepository,
+            UsernameReservationRepository usernameReservationRepository,
+            TransactionTemplate transactionTemplate
     ) {
-        this.eventStoreRepository = eventStoreRepository;
+        this.eventStoreService = eventStoreService;
         this.eventPublisher = eventPublisher;
         this.eventProcessorService = eventProcessorService;
+        this.userRepository = userRepository;
+        this.usernameReservationRepository = usernameReservationRepository;
+        this.transactionTemplate = transactionTemplate;
     }
 
     /**
@@ -72,27 +96,44 @@ public class UserCommandHandler {
      * <p>
      * This method performs the following steps:
      * <ul>
+     *     <li>Reserves the username, rejecting the command if it is already taken by another user.</li>
      *     <li>Creates a new instance of {@link UserAggregate}.</li>
      *     <li>Applies the business logic for creating a user by converting the command into a {@link CreateUserDto}.</li>
      *     <li>Publishes domain events (e.g., {@code UserCreatedEvent}) representing the changes.</li>
      * </ul>
+     * The reservation and the events are stored in one transaction, so they are committed or rolled back together.
+     * Within a bulk, the events are buffered until the bulk's batch is flushed, and only the reservation is part of
+     * the transaction.
      * </p>
      *
      * @param command the command containing the details required to create a new user.
+     * @return the ID of the created user.
+     * @throws IllegalArgumentException with the message {@link CreateUserCommand#USERNAME_TAKEN} if the username is
+     *                                  already taken.
      */
 
-    @EventListener
-    public void handle(CreateUserCommand command) {
+    @CommandHandler
+    public String handle(CreateUserCommand command) {
+        return transactionTemplate.execute(status -> createUser(command));
+    }
+
+    private String createUser(CreateUserCommand command) {
+        // Usernames identify users at login, so they must be unique
+        if (!reserveUsername(command.username(), command.userId())) {
+            // The user already holds the username, i.e. it has been created by an earlier run of the command
+            return command.userId();
+        }
+
         // Create a new user aggregate and rehydrate its state using the retrieved events.
         UserAggregate aggregate = new UserAggregate(eventProcessorService);
 
         // Convert the command into a DTO to apply the business logic.
         CreateUserDto createDto = new CreateUserDto(
-                command.getUserId(),
-                command.getUsername(),
-                command.getPasswordHash(),
-                command.getPasswordSalt(),
-                command.getRole()
+                command.userId(),
+                command.username(),
+                command.passwordHash(),
+                command.passwordSalt(),
+                command.role()
         );
 
         // Execute the command logic on the aggregate to create a new user.
@@ -102,6 +143,7 @@ public class UserCommandHandler {
         for (Object event : aggregate.getChanges()) {
             eventPublisher.publishEvent(event);
         }
+        return command.userId();
     }
 
     /**
@@ -109,29 +151,45 @@ public class UserCommandHandler {
      * <p>
      * This method performs the following steps:
      * <ul>
-     *     <li>Retrieves historical events for the aggregate from the {@link EventStoreRepository}.</li>
+     *     <li>Retrieves historical events for the aggregate from the user stream of the {@link EventStoreService}.</li>
      *     <li>Rehydrates the {@link UserAggregate} to its current state using the retrieved events.</li>
+     *     <li>Reserves the new username if it changes, rejecting the command if it is already taken by another user,
+     *         and frees the previous one.</li>
      *     <li>Applies the update logic using a {@link UpdateUserDto} created from the command.</li>
      *     <li>Publishes domain events (e.g., {@code UserUpdatedEvent}) to notify about the changes.</li>
      * </ul>
      * </p>
      *
      * @param command the command containing the user update details.
+     * @throws IllegalArgumentException with the message {@link CreateUserCommand#USERNAME_TAKEN} if the new username
+     *                                  is already taken.
      */
-    @EventListener
+    @CommandHandler
     public void handle(UpdateUserCommand command) {
-        List<EventStore> events = eventStoreRepository.findByAggregateId(command.getUserId());
+        transactionTemplate.executeWithoutResult(status -> updateUser(command));
+    }
+
+    private void updateUser(UpdateUserCommand command) {
+        List<EventStore> events = eventStoreService.loadEvents(EventCategory.USER, command.userId());
 
         // Create a new user aggregate and rehydrate its state using the retrieved events.
         UserAggregate aggregate = new UserAggregate(eventProcessorService);
 
         aggregate.rehydrate(events);
 
+        String previousUsername = aggregate.getUserName();
+        if (previousUsername != null && !previousUsername.equals(command.username())) {
+            reserveUsername(command.username(), command.userId());
+            usernameReservationRepository.findById(previousUsername)
+                    .filter(reservation -> reservation.getUserId().equals(command.userId()))
+                    .ifPresent(usernameReservationRepository::delete);
+        }
+
         UpdateUserDto updateDto = new UpdateUserDto(
-                command.getUsername(),
-                command.getPasswordHash(),
-                command.getPasswordSalt(),
-                command.getRole()
+                command.username(),
+                command.passwordHash(),
+                command.passwordSalt(),
+                command.role()
         );
 
         aggregate.updateUser(updateDto);
@@ -140,4 +198,44 @@ public class UserCommandHandler {
             eventPublisher.publishEvent(event);
         }
     }
+
+    /**
+     * Reserves a username for a user within the current transaction.
+     * <p>
+     * The reservation is written immediately, so a concurrent reservation of the same username waits for this
+     * transaction and then fails on the primary key of the reservation table.
+     * </p>
+     *
+     * @param username the username to reserve.
+     * @param userId   the ID of the user claiming the username.
+     * @return {@code true} if the username has been reserved, {@code false} if the user already held it.
+     * @throws IllegalArgumentException with the message {@link CreateUserCommand#USERNAME_TAKEN} if the username is
+     *                                  taken by another user.
+     */
+    private boolean reserveUsername(String username, String userId) {
+        Optional<UsernameReservation> reservation = usernameReservationRepository.findById(username);
+        if (reservation.isPresent()) {
+            if (reservation.get().getUserId().equals(userId)) {
+                return false;
+            }
+            throw new IllegalArgumentException(CreateUserCommand.USERNAME_TAKEN);
+        }
+
+        // Users registered before usernames were reserved are only known to the projection
+        if (userRepository.findUserByUsername(username)
+                .filter(user -> !user.getId().toString().equals(userId))
+                .isPresent()) {
+            throw new IllegalArgumentException(CreateUserCommand.USERNAME_TAKEN);
+        }
+
+        UsernameReservation usernameReservation = new UsernameReservation();
+        usernameReservation.setUsername(username);
+        usernameReservation.setUserId(userId);
+        try {
+            usernameReservationRepository.saveAndFlush(usernameReservation);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException(CreateUserCommand.USERNAME_TAKEN, e);
+        }
+        return true;
+    }
 }
@@ -1,7 +1,9 @@
 package de.tudl.playground.datorum.modulith.user.command.data;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -15,8 +17,16 @@ import org.springframework.stereotype.Repository;
  * It is annotated with {@link Repository} to indicate it is a Spring Data repository,
  * enabling Spring to automatically implement the required methods.
  * </p>
+ * <p>
+ * Large result sets are streamed from a database cursor through the {@link UserStreamRepository} fragment, or paged
+ * with keyset pagination: a page seeks past the ID of the last user of the previous page instead of skipping rows.
+ * </p>
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, UUID> {
+public interface UserRepository extends JpaRepository<User, UUID>, UserStreamRepository {
     Optional<User> findUserByUsername(String username);
+
+    List<User> findByOrderByIdAsc(Limit limit);
+
+    List<User> findByIdGreaterThanOrderByIdAsc(UUID id, Limit limit);
 }
@@ -0,0 +1,23 @@
+package de.tudl.playground.datorum.modulith.user.command.data;
+
+import java.util.stream.Stream;
+
+/**
+ * Repository fragment streaming {@link User} entities from a database cursor.
+ * <p>
+ * Implemented by {@link UserStreamRepositoryImpl} and mixed into the {@link UserRepository}.
+ * </p>
+ */
+public interface UserStreamRepository {
+    /**
+     * Streams all users, reading them from a database cursor in chunks of the given fetch size.
+     * <p>
+     * The users are not managed by a persistence context, so memory stays bounded by the fetch size however many
+     * users are streamed. The stream holds a database connection until it is closed.
+     * </p>
+     *
+     * @param fetchSize the number of rows fetched from the cursor at once.
+     * @return the users, which must be closed once consumed.
+     */
+    Stream<User> streamAll(int fetchSize);
+}
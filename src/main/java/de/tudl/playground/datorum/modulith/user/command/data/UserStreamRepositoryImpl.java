@@ -0,0 +1,61 @@
+package de.tudl.playground.datorum.modulith.user.command.data;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaQuery;
+import java.util.stream.Stream;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+
+/**
+ * Implementation of the {@link UserStreamRepository} fragment on a Hibernate {@link StatelessSession}.
+ * <p>
+ * Every stream opens its own stateless session, so the cursor does not depend on a transaction bound to the calling
+ * thread, and loaded users are not kept in a persistence context. Closing the stream closes the cursor, commits the
+ * read-only transaction and returns the connection to the pool.
+ * </p>
+ * <p>
+ * The query is built with the Criteria API rather than a JPQL string.
+ * </p>
+ */
+public class UserStreamRepositoryImpl implements UserStreamRepository {
+
+    private final SessionFactory sessionFactory;
+
+    /**
+     * Constructs a {@code UserStreamRepositoryImpl}.
+     *
+     * @param entityManagerFactory the factory the stateless sessions are opened from.
+     */
+    public UserStreamRepositoryImpl(EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    @Override
+    public Stream<User> streamAll(int fetchSize) {
+        StatelessSession session = sessionFactory.openStatelessSession();
+        try {
+            // Some drivers, e.g. PostgreSQL, only use a cursor within a transaction
+            session.beginTransaction();
+
+            CriteriaQuery<User> criteria = session.getCriteriaBuilder().createQuery(User.class);
+            criteria.select(criteria.from(User.class));
+            return session.createSelectionQuery(criteria)
+                    .setFetchSize(fetchSize)
+                    .stream()
+                    .onClose(() -> close(session));
+        } catch (RuntimeException e) {
+            close(session);
+            throw e;
+        }
+    }
+
+    private static void close(StatelessSession session) {
+        try {
+            if (session.getTransaction().isActive()) {
+                session.getTransaction().commit();
+            }
+        } finally {
+            session.close();
+        }
+    }
+}
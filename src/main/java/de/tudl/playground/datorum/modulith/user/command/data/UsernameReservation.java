@@ -0,0 +1,66 @@
+package de.tudl.playground.datorum.modulith.user.command.data;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.data.domain.Persistable;
+
+/**
+ * Reserves a username for the user holding it.
+ * <p>
+ * The username is the primary key, so the database admits only one reservation per username. Reservations are made
+ * by the command creating or renaming a user, in the same transaction as the user's events, so two commands claiming
+ * the same username cannot both succeed, however far the {@link User} projection lags behind.
+ * </p>
+ * <p>
+ * New reservations are always inserted rather than merged, so claiming a username reserved in the meantime fails on
+ * the primary key instead of taking the reservation over.
+ * </p>
+ */
+@Entity
+@Getter
+@Setter
+@Table(name = "[username_reservation]")
+public class UsernameReservation implements Persistable<String> {
+
+    /**
+     * The reserved username.
+     */
+    @Id
+    private String username;
+
+    /**
+     * The unique identifier of the user holding the username.
+     */
+    private String userId;
+
+    /**
+     * Whether the reservation has been loaded from or stored in the database.
+     */
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean stored;
+
+    @Override
+    public String getId() {
+        return username;
+    }
+
+    @Override
+    public boolean isNew() {
+        return !stored;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        stored = true;
+    }
+}
@@ -0,0 +1,11 @@
+package de.tudl.playground.datorum.modulith.user.command.data;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for managing {@link UsernameReservation} entities in the database.
+ */
+@Repository
+public interface UsernameReservationRepository extends JpaRepository<UsernameReservation, String> {
+}
@@ -1,7 +1,10 @@
 package de.tudl.playground.datorum.modulith.user.command.events;
 
+import de.tudl.playground.datorum.gateway.query.cache.QueryCache;
+import de.tudl.playground.datorum.gateway.query.subscription.QueryUpdateEmitter;
 import de.tudl.playground.datorum.modulith.user.command.data.User;
 import de.tudl.playground.datorum.modulith.user.command.data.UserRepository;
+import de.tudl.playground.datorum.modulith.user.query.queries.GetUserByIdQuery;
 import java.util.UUID;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
@@ -18,6 +21,8 @@ import org.springframework.stereotype.Service;
  *     <li>Listen to {@link UserCreatedEvent} and {@link UserUpdatedEvent} events.</li>
  *     <li>Create or update {@link User} entities based on the event data.</li>
  *     <li>Persist {@link User} entities to the database using {@link UserRepository}.</li>
+ *     <li>Evict the cached query results of updated users from the {@link QueryCache}.</li>
+ *     <li>Emit updated users to the subscribers of their {@link GetUserByIdQuery}.</li>
  * </ul>
  *
  * <p>Note: This class operates within the context of a domain-driven design (DDD) architecture, where events are
@@ -33,13 +38,21 @@ public class UserEventHandler {
 
     private final UserRepository userRepository;
 
+    private final QueryCache queryCache;
+
+    private final QueryUpdateEmitter queryUpdateEmitter;
+
     /**
      * Constructs a {@code UserEventHandler} with the specified {@link UserRepository}.
      *
-     * @param userRepository the repository used to persist user data in the database.
+     * @param userRepository     the repository used to persist user data in the database.
+     * @param queryCache         the cache holding the query results read from the repository.
+     * @param queryUpdateEmitter the emitter of the updates of subscription queries.
      */
-    public UserEventHandler(UserRepository userRepository) {
+    public UserEventHandler(UserRepository userRepository, QueryCache queryCache, QueryUpdateEmitter queryUpdateEmitter) {
         this.userRepository = userRepository;
+        this.queryCache = queryCache;
+        this.queryUpdateEmitter = queryUpdateEmitter;
     }
 
     /**
@@ -48,6 +61,8 @@ public class UserEventHandler {
      * <p>This method listens for user creation events, extracts the user data from the event, creates a new user entity,
      * and persists it to the database.</p>
      *
+     * <p>Usernames are kept unique by the command handler, which reserves them before the event is stored.</p>
+     *
      * @param event the {@link UserCreatedEvent} that contains the details of the newly created user.
      */
     @EventListener
@@ -66,7 +81,9 @@ public class UserEventHandler {
      * Handles {@link UserUpdatedEvent} by updating the details of an existing {@link User} entity and saving the updated entity.
      *
      * <p>This method listens for user update events, retrieves the existing user from the repository, updates its data
-     * based on the event, and persists the updated user.</p>
+     * based on the event, and persists the updated user. Afterwards, the cached query results of the user are
+     * evicted, so they are read again with the updated data, and the updated user is emitted to the subscribers of
+     * its {@link GetUserByIdQuery}.</p>
      *
      * @param event the {@link UserUpdatedEvent} that contains the updated details of the user.
      */
@@ -82,5 +99,12 @@ public class UserEventHandler {
         user.setRole(event.getRole());
 
         userRepository.save(user);
+        queryCache.evict(event.userId());
+        queryUpdateEmitter.emit(
+                GetUserByIdQuery.class,
+                query -> query.userId().equals(event.userId()),
+                event.userId(),
+                user
+        );
     }
 }
@@ -1,3 +1,8 @@
 package de.tudl.playground.datorum.modulith.user.query.queries;
 
+import de.tudl.playground.datorum.gateway.query.annotation.HedgedQuery;
+import de.tudl.playground.datorum.gateway.query.annotation.QueryTimeout;
+
+@HedgedQuery
+@QueryTimeout(millis = 2000)
 public record GetUserByIdQuery(String userId) {}
@@ -0,0 +1,14 @@
+package de.tudl.playground.datorum.modulith.user.query.queries;
+
+/**
+ * Requests one page of all users, ordered by their ID.
+ *
+ * @param pageSize          the maximum number of users of the page.
+ * @param continuationToken the continuation token of the previous page, or {@code null} for the first page.
+ */
+public record GetUsersPageQuery(int pageSize, String continuationToken) {
+
+    public GetUsersPageQuery(int pageSize) {
+        this(pageSize, null);
+    }
+}
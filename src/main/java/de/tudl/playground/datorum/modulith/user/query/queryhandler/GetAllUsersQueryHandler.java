@@ -1,27 +1,29 @@
 package de.tudl.playground.datorum.modulith.user.query.queryhandler;
 
-import de.tudl.playground.datorum.gateway.query.QueryHandler;
+import de.tudl.playground.datorum.gateway.query.StreamingQueryHandler;
 import de.tudl.playground.datorum.modulith.user.command.data.User;
 import de.tudl.playground.datorum.modulith.user.command.data.UserRepository;
 import de.tudl.playground.datorum.modulith.user.query.queries.GetAllUsersQuery;
-import java.util.List;
-import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
  * The {@code GetAllUsersQueryHandler} class is responsible for handling the {@link GetAllUsersQuery}.
  * It fetches all users from the system by interacting with the {@link UserRepository}.
  *
- * <p>This query handler is used to retrieve a complete list of users present in the database. The query handler
- * processes the incoming query and delegates the actual data retrieval to the {@link UserRepository}. The result is
- * a list of {@link User} objects.</p>
+ * <p>This query handler is used to retrieve all users present in the database. The users are streamed from a
+ * database cursor, fetching {@code datorum.query.stream.fetch-size} rows at a time, so callers of
+ * {@link de.tudl.playground.datorum.gateway.query.QueryGateway#stream(Object)} can process any number of users with
+ * bounded memory. Querying the handler through
+ * {@link de.tudl.playground.datorum.gateway.query.QueryGateway#query(Object)} still returns a list of all users.</p>
  *
  * <h2>Responsibilities</h2>
  * <ul>
  *     <li>Handling the {@link GetAllUsersQuery} query.</li>
- *     <li>Interacting with the {@link UserRepository} to retrieve all user data from the database.</li>
- *     <li>Returning the list of {@link User} entities representing all users in the system.</li>
+ *     <li>Interacting with the {@link UserRepository} to stream all user data from the database.</li>
+ *     <li>Returning the {@link User} entities representing all users in the system.</li>
  * </ul>
  *
  * @see GetAllUsersQuery
@@ -30,33 +32,40 @@ import org.springframework.stereotype.Component;
  */
 @Component
 public class GetAllUsersQueryHandler
-        implements QueryHandler<GetAllUsersQuery, List<User>> {
+        implements StreamingQueryHandler<GetAllUsersQuery, User> {
 
     /**
      * The {@link UserRepository} used to retrieve user data from the database.
      */
     private final UserRepository userRepository;
 
+    /**
+     * The number of users fetched from the database cursor at a time.
+     */
+    private final int fetchSize;
+
     /**
      * Constructs a {@code GetAllUsersQueryHandler} with the specified {@link UserRepository}.
      *
      * @param userRepository the repository used to fetch user data from the database.
+     * @param fetchSize      the number of users fetched from the database cursor at a time.
      */
-    public GetAllUsersQueryHandler(UserRepository userRepository) {
+    public GetAllUsersQueryHandler(
+            UserRepository userRepository,
+            @Value("${datorum.query.stream.fetch-size:500}") int fetchSize
+    ) {
         this.userRepository = userRepository;
+        this.fetchSize = fetchSize;
     }
 
     /**
-     * Handles the {@link GetAllUsersQuery} to fetch all users from the system.
-     *
-     * <p>This method processes the incoming {@link GetAllUsersQuery} and retrieves all users from the system
-     * using the {@link UserRepository}. It returns the data as a list of {@link User} objects.</p>
+     * Handles the {@link GetAllUsersQuery} by streaming all users from the system.
      *
      * @param query the query requesting all users in the system.
-     * @return a list of {@link User} objects representing all users in the system.
+     * @return the {@link User} objects representing all users in the system, which must be closed once consumed.
      */
     @Override
-    public Optional<List<User>> handle(GetAllUsersQuery query) {
-        return Optional.of(userRepository.findAll());
+    public Stream<User> stream(GetAllUsersQuery query) {
+        return userRepository.streamAll(fetchSize);
     }
 }
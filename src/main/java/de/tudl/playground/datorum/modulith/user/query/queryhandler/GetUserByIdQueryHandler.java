@@ -1,12 +1,19 @@
 package de.tudl.playground.datorum.modulith.user.query.queryhandler;
 
-import de.tudl.playground.datorum.gateway.query.QueryHandler;
+import de.tudl.playground.datorum.gateway.query.BatchQueryHandler;
+import de.tudl.playground.datorum.gateway.query.annotation.CachedQuery;
 import de.tudl.playground.datorum.modulith.user.command.data.User;
 import de.tudl.playground.datorum.modulith.user.command.data.UserRepository;
 import de.tudl.playground.datorum.modulith.user.query.queries.GetUserByIdQuery;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import org.springframework.stereotype.Component;
 
 /**
@@ -23,13 +30,18 @@ import org.springframework.stereotype.Component;
  *     <li>Throwing an exception if no user is found for the provided ID.</li>
  * </ul>
  *
+ * <p>Results are cached in the query cache, tagged with the user's ID. They are evicted once the user is updated.
+ * Cache misses of concurrent queries are batched, so resolving many users, for example the owners of budgets, takes a
+ * single {@code findAllById} instead of one {@code findById} per user.</p>
+ *
  * @see GetUserByIdQuery
  * @see UserRepository
  * @see User
  */
 @Component
+@CachedQuery
 public class GetUserByIdQueryHandler
-        implements QueryHandler<GetUserByIdQuery, User> {
+        implements BatchQueryHandler<GetUserByIdQuery, User> {
 
     /**
      * The {@link UserRepository} used to retrieve user data from the database.
@@ -46,17 +58,53 @@ public class GetUserByIdQueryHandler
     }
 
     /**
-     * Handles the {@link GetUserByIdQuery} to fetch the user associated with the provided user ID.
+     * Handles a batch of {@link GetUserByIdQuery}s by fetching all requested users at once.
+     *
+     * <p>Queries for user IDs without a user have no result, and so have queries whose user ID is not a UUID. A
+     * malformed ID therefore does not fail the other queries of its batch.</p>
      *
-     * <p>This method retrieves the user data from the database using the provided user ID. If no user is found
-     * for the provided ID, a {@link RuntimeException} is thrown.</p>
+     * @param queries the queries containing the user IDs.
+     * @return the {@link User} found for every query that has one.
+     */
+    @Override
+    public Map<GetUserByIdQuery, User> handleAll(Collection<GetUserByIdQuery> queries) {
+        Map<GetUserByIdQuery, UUID> userIds = new HashMap<>();
+        for (GetUserByIdQuery query : queries) {
+            parseUserId(query.userId()).ifPresent(userId -> userIds.put(query, userId));
+        }
+
+        Map<UUID, User> users = userRepository
+                .findAllById(userIds.values().stream().distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        Map<GetUserByIdQuery, User> results = new HashMap<>();
+        userIds.forEach((query, userId) -> {
+            User user = users.get(userId);
+            if (user != null) {
+                results.put(query, user);
+            }
+        });
+        return results;
+    }
+
+    private static Optional<UUID> parseUserId(String userId) {
+        try {
+            return Optional.of(UUID.fromString(userId));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Tags the cached user with its ID, so it is evicted when the user is updated.
      *
-     * @param query the query containing the user ID.
-     * @return the {@link User} object corresponding to the user ID.
-     * @throws RuntimeException if no user is found for the provided ID.
+     * @param query  the query containing the user ID.
+     * @param result the user found for the query.
+     * @return the ID of the user.
      */
     @Override
-    public Optional<User> handle(GetUserByIdQuery query) {
-        return userRepository.findById(UUID.fromString(query.userId()));
+    public Collection<String> cacheTags(GetUserByIdQuery query, User result) {
+        return List.of(result.getId().toString());
     }
 }
@@ -1,14 +1,18 @@
 package de.tudl.playground.datorum.modulith.user.query.queryhandler;
 
 import de.tudl.playground.datorum.gateway.query.QueryHandler;
+import de.tudl.playground.datorum.gateway.query.annotation.CachedQuery;
 import de.tudl.playground.datorum.modulith.user.command.data.User;
 import de.tudl.playground.datorum.modulith.user.command.data.UserRepository;
 import de.tudl.playground.datorum.modulith.user.query.queries.GetUserByUsername;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Component
+@CachedQuery
 public class GetUserByUsernameQueryHandler
         implements QueryHandler<GetUserByUsername, User> {
 
@@ -23,4 +27,10 @@ public class GetUserByUsernameQueryHandler
         return userRepository.findUserByUsername(query.username());
     }
 
+    @Override
+    public Collection<String> cacheTags(GetUserByUsername query, User result) {
+        // Tagged with the ID, as the update of a user does not know the username it was cached under
+        return List.of(result.getId().toString());
+    }
+
 }
@@ -0,0 +1,64 @@
+package de.tudl.playground.datorum.modulith.user.query.queryhandler;
+
+import de.tudl.playground.datorum.gateway.query.QueryHandler;
+import de.tudl.playground.datorum.gateway.query.page.KeysetPage;
+import de.tudl.playground.datorum.modulith.user.command.data.User;
+import de.tudl.playground.datorum.modulith.user.command.data.UserRepository;
+import de.tudl.playground.datorum.modulith.user.query.queries.GetUsersPageQuery;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code GetUsersPageQueryHandler} class handles the {@link GetUsersPageQuery} to retrieve one page of users.
+ *
+ * <p>Pages are fetched with keyset pagination on the user ID: the continuation token holds the ID of the last user of
+ * the previous page, and the next page seeks past it through the primary key index instead of skipping rows with
+ * {@code OFFSET}. Deep pages therefore cost the same as the first one. Page sizes are capped at
+ * {@code datorum.query.page.max-size}.</p>
+ *
+ * @see GetUsersPageQuery
+ * @see KeysetPage
+ */
+@Component
+public class GetUsersPageQueryHandler
+        implements QueryHandler<GetUsersPageQuery, KeysetPage<User>> {
+
+    private final UserRepository userRepository;
+
+    private final int maxPageSize;
+
+    public GetUsersPageQueryHandler(
+            UserRepository userRepository,
+            @Value("${datorum.query.page.max-size:500}") int maxPageSize
+    ) {
+        this.userRepository = userRepository;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /**
+     * Handles the {@link GetUsersPageQuery} by fetching the users following the continuation token.
+     *
+     * @param query the query containing the page size and continuation token.
+     * @return the page of users.
+     * @throws IllegalArgumentException if the page size is below {@code 1} or the continuation token is malformed.
+     */
+    @Override
+    public Optional<KeysetPage<User>> handle(GetUsersPageQuery query) {
+        if (query.pageSize() < 1) throw new IllegalArgumentException(
+                "Page size must be positive: " + query.pageSize()
+        );
+
+        int pageSize = Math.min(query.pageSize(), maxPageSize);
+        Limit limit = Limit.of(pageSize + 1);
+        List<User> rows = KeysetPage.decode(query.continuationToken(), UUID::fromString)
+                .map(lastId -> userRepository.findByIdGreaterThanOrderByIdAsc(lastId, limit))
+                .orElseGet(() -> userRepository.findByOrderByIdAsc(limit));
+
+        return Optional.of(KeysetPage.of(rows, pageSize, User::getId));
+    }
+}
@@ -1,19 +1,23 @@
 package de.tudl.playground.datorum.ui.controller;
 
 import de.tudl.playground.datorum.gateway.command.CommandGateway;
+import de.tudl.playground.datorum.gateway.command.CommandResult;
+import de.tudl.playground.datorum.modulith.auth.command.commands.LoginOutcome;
 import de.tudl.playground.datorum.modulith.auth.command.commands.LoginUserCommand;
-import de.tudl.playground.datorum.modulith.auth.command.events.LoginFailedEvent;
-import de.tudl.playground.datorum.modulith.auth.command.events.LoginSuccessfulEvent;
 import de.tudl.playground.datorum.ui.util.StageSwitcher;
 import de.tudl.playground.datorum.ui.view.MainView;
 import de.tudl.playground.datorum.ui.view.register.RegisterView;
+import javafx.application.Platform;
 import javafx.scene.control.Alert;
-import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+
 @Component
 public class LoginController {
 
+    private static final Duration LOGIN_TIMEOUT = Duration.ofSeconds(10);
+
     private final StageSwitcher stageSwitcher;
 
     private final CommandGateway commandGateway;
@@ -30,18 +34,19 @@ public class LoginController {
         }
 
         LoginUserCommand loginUserCommand = new LoginUserCommand(username, password);
-        commandGateway.send(loginUserCommand);
+        commandGateway.request(loginUserCommand, LOGIN_TIMEOUT)
+                .thenAccept(result -> Platform.runLater(() -> onLoginResult(result)));
     }
 
-    @EventListener
-    public void on (LoginSuccessfulEvent event) {
-        showAlert("Erfolg!", "Erfolgreich angemeldet!");
-        stageSwitcher.switchTo(MainView.class);
-    }
-
-    @EventListener
-    public void on (LoginFailedEvent event) {
-        showAlert("Fehler", "Fehlerhafte Eingabe!");
+    private void onLoginResult(CommandResult<LoginOutcome> result) {
+        if (!result.isCompleted()) {
+            showAlert("Fehler", "Anmeldung fehlgeschlagen!");
+        } else if (result.value() == null || !result.value().successful()) {
+            showAlert("Fehler", "Fehlerhafte Eingabe!");
+        } else {
+            showAlert("Erfolg!", "Erfolgreich angemeldet!");
+            stageSwitcher.switchTo(MainView.class);
+        }
     }
 
     public void goToRegister() {
@@ -1,6 +1,7 @@
 package de.tudl.playground.datorum.ui.controller;
 
 import de.tudl.playground.datorum.gateway.command.CommandGateway;
+import de.tudl.playground.datorum.gateway.command.CommandOutcome;
 import de.tudl.playground.datorum.modulith.auth.command.commands.LogoutUserCommand;
 import de.tudl.playground.datorum.modulith.auth.command.events.LogoutEvent;
 import de.tudl.playground.datorum.modulith.budget.command.commands.CreateBudgetCommand;
@@ -8,11 +9,12 @@ import de.tudl.playground.datorum.modulith.shared.token.AuthTokenProvider;
 import de.tudl.playground.datorum.modulith.shared.token.data.Token;
 import de.tudl.playground.datorum.ui.util.StageSwitcher;
 import de.tudl.playground.datorum.ui.view.login.LoginView;
+import javafx.application.Platform;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @Component
@@ -31,28 +33,45 @@ public class MainController
     public void handleLogout()
     {
         token = authTokenProvider.getToken();
-        commandGateway.send(new LogoutUserCommand(token.username()));
+        String username = token.username();
+        commandGateway.sendAsync(new LogoutUserCommand(username))
+                .exceptionally(error -> {
+                    log.error("Logout failed for user {}", username, error);
+                    return null;
+                });
     }
 
-    public void handleBudgetCreation()
+    /**
+     * Creates a budget.
+     *
+     * @param budgetId the ID of the budget, created once per budget the user intends to create. Sending the same ID
+     *                 again, for example after a double click, creates the budget only once.
+     * @return a future completing with the outcome of the creation, or with {@code null} if it failed.
+     */
+    public CompletableFuture<CommandOutcome> handleBudgetCreation(String budgetId)
     {
         token = authTokenProvider.getToken();
 
         CreateBudgetCommand createCommand = new CreateBudgetCommand(
-                UUID.randomUUID().toString(),
+                budgetId,
                 token.userId().toString(),
                 "Test",
                 "Test",
-                100.0
+                100.0,
+                "create-budget:" + budgetId
         );
 
-        commandGateway.send(createCommand);
+        return commandGateway.sendAsync(createCommand)
+                .exceptionally(error -> {
+                    log.error("Budget creation failed", error);
+                    return null;
+                });
     }
 
     @EventListener
     private void on (LogoutEvent event)
     {
         log.info("Logout successful for user {} !", event.username());
-        stageSwitcher.switchTo(LoginView.class);
+        Platform.runLater(() -> stageSwitcher.switchTo(LoginView.class));
     }
 }
@@ -1,30 +1,46 @@
 package de.tudl.playground.datorum.ui.controller;
 
 import de.tudl.playground.datorum.gateway.command.CommandGateway;
-import de.tudl.playground.datorum.modulith.shared.util.HashingUtil;
+import de.tudl.playground.datorum.gateway.command.CommandOutcome;
+import de.tudl.playground.datorum.gateway.command.CommandResult;
+import de.tudl.playground.datorum.modulith.shared.password.PasswordHashingService;
 import de.tudl.playground.datorum.modulith.user.command.commands.CreateUserCommand;
-import de.tudl.playground.datorum.modulith.user.command.events.UserCreatedEvent;
 import de.tudl.playground.datorum.ui.util.StageSwitcher;
 import de.tudl.playground.datorum.ui.view.login.LoginView;
+import javafx.application.Platform;
 import javafx.scene.control.Alert;
-import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.util.UUID;
 
 @Component
 public class RegisterController {
 
+    private static final Duration REGISTER_TIMEOUT = Duration.ofSeconds(10);
+
     private final StageSwitcher stageSwitcher;
 
     private final CommandGateway commandGateway;
 
-    public RegisterController(StageSwitcher stageSwitcher, CommandGateway commandGateway) {
+    private final PasswordHashingService passwordHashingService;
+
+    public RegisterController(StageSwitcher stageSwitcher, CommandGateway commandGateway, PasswordHashingService passwordHashingService) {
         this.stageSwitcher = stageSwitcher;
         this.commandGateway = commandGateway;
+        this.passwordHashingService = passwordHashingService;
     }
 
-    public void handleRegister(String username, String password, String confirmPassword) {
+    /**
+     * Registers a user.
+     *
+     * @param registrationId the ID of the registration, created once per registration form. It becomes the ID of the
+     *                       user, and submitting the form again with the same ID registers the user only once.
+     * @param username        the username of the user.
+     * @param password        the password of the user.
+     * @param confirmPassword the repeated password of the user.
+     */
+    public void handleRegister(String registrationId, String username, String password, String confirmPassword) {
         if (username.isEmpty() || password.isEmpty() || confirmPassword.isEmpty()) {
             showAlert("Fehler", "Alle Felder müssen ausgefüllt werden.");
             return;
@@ -37,21 +53,38 @@ public class RegisterController {
 
         String salt = UUID.randomUUID().toString() + UUID.randomUUID();
 
-        CreateUserCommand createUserCommand = new CreateUserCommand(
-                UUID.randomUUID().toString(),
-                username,
-                HashingUtil.hashPassword(password, salt),
-                salt,
-                "USER"
-        );
-
-        commandGateway.send(createUserCommand);
+        passwordHashingService.hash(password, salt)
+                .thenCompose(passwordHash -> commandGateway.request(new CreateUserCommand(
+                        registrationId,
+                        username,
+                        passwordHash,
+                        salt,
+                        "USER",
+                        "register-user:" + registrationId
+                ), REGISTER_TIMEOUT))
+                .whenComplete((result, error) -> Platform.runLater(() -> {
+                    if (error != null) {
+                        showAlert("Fehler", "Registrierung fehlgeschlagen!");
+                    } else {
+                        onRegisterResult(result);
+                    }
+                }));
     }
 
-    @EventListener
-    private void on (UserCreatedEvent event) {
-        showAlert("Erfolg", "Erfolgreich registriert!");
-        stageSwitcher.switchTo(LoginView.class);
+    private void onRegisterResult(CommandResult<String> result) {
+        if (result.status() == CommandOutcome.Status.DUPLICATE) {
+            // The form has been submitted again while its first submission is still running, which reports the result.
+            return;
+        }
+
+        if (result.isCompleted()) {
+            showAlert("Erfolg", "Erfolgreich registriert!");
+            stageSwitcher.switchTo(LoginView.class);
+        } else if (CreateUserCommand.USERNAME_TAKEN.equals(result.error())) {
+            showAlert("Fehler", "Der Benutzername ist bereits registriert.");
+        } else {
+            showAlert("Fehler", "Registrierung fehlgeschlagen!");
+        }
     }
 
     private void showAlert(String title, String message) {
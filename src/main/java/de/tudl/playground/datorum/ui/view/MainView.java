@@ -13,6 +13,8 @@ import org.springframework.stereotype.Component;
 
 import java.util.List;
 import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Component
 public class MainView implements ApplicationView {
@@ -48,8 +50,17 @@ public class MainView implements ApplicationView {
         Button homeButton = new Button("🏠");
         homeButton.setOnAction(e -> mainController.handleLogout());
 
+        // The budget the next click creates; it is only replaced once the budget has been created
+        AtomicReference<String> budgetId = new AtomicReference<>(UUID.randomUUID().toString());
         Button textButton = new Button("T");
-        textButton.setOnAction(e -> mainController.handleBudgetCreation());
+        textButton.setOnAction(e -> {
+            String id = budgetId.get();
+            mainController.handleBudgetCreation(id).thenAccept(outcome -> {
+                if (outcome != null && outcome.isCompleted()) {
+                    budgetId.compareAndSet(id, UUID.randomUUID().toString());
+                }
+            });
+        });
 
         Button imageButton = new Button("🖼️");
         imageButton.setOnAction(e -> System.out.println("Image clicked"));
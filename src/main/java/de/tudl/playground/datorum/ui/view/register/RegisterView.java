@@ -8,6 +8,8 @@ import javafx.scene.control.*;
 import javafx.scene.layout.VBox;
 import org.springframework.stereotype.Component;
 
+import java.util.UUID;
+
 @Component
 public class RegisterView implements ApplicationView {
 
@@ -47,8 +49,11 @@ public class RegisterView implements ApplicationView {
         confirmPasswordField.setPromptText("Bestätige dein Passwort");
         confirmPasswordField.setTooltip(new Tooltip("Gebe dein Passwort erneut ein."));
 
+        // Every form registers one user, however often it is submitted
+        String registrationId = UUID.randomUUID().toString();
         Button registerButton = new Button("Registrieren");
         registerButton.setOnAction(e -> registerController.handleRegister(
+                registrationId,
                 usernameField.getText(),
                 passwordField.getText(),
                 confirmPasswordField.getText()
@@ -0,0 +1,143 @@
+package de.tudl.playground.datorum.gateway;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.tudl.playground.datorum.gateway.command.exception.CommandValidationException;
+import de.tudl.playground.datorum.gateway.command.interceptor.CommandErrorCategory;
+import de.tudl.playground.datorum.gateway.command.interceptor.CommandInterceptor;
+import de.tudl.playground.datorum.gateway.command.interceptor.CommandInterceptorChain;
+import de.tudl.playground.datorum.gateway.command.interceptor.CommandInvocation;
+import de.tudl.playground.datorum.gateway.command.interceptor.ErrorClassificationCommandInterceptor;
+import de.tudl.playground.datorum.gateway.command.interceptor.TimingCommandInterceptor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+class CommandInterceptorChainTests {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testInterceptorsRunInOrder() throws Exception {
+        List<String> calls = new ArrayList<>();
+        CommandInterceptorChain chain = new CommandInterceptorChain(List.of(
+                new RecordingInterceptor("outer", calls),
+                new RecordingInterceptor("inner", calls)
+        ));
+
+        Object result = chain.execute(new Object(), () -> {
+            calls.add("handler");
+            return "result";
+        });
+
+        assertEquals("result", result);
+        assertEquals(List.of("outer:before", "inner:before", "handler", "inner:after", "outer:after"), calls);
+    }
+
+    @Test
+    void testInterceptorCanShortCircuit() throws Exception {
+        AtomicInteger handlerCalls = new AtomicInteger();
+        CommandInterceptorChain chain = new CommandInterceptorChain(List.of(
+                (command, invocation) -> "short-circuited"
+        ));
+
+        Object result = chain.execute(new Object(), () -> handlerCalls.incrementAndGet());
+
+        assertEquals("short-circuited", result);
+        assertEquals(0, handlerCalls.get());
+    }
+
+    @Test
+    void testUnsupportedInterceptorIsSkipped() throws Exception {
+        List<String> calls = new ArrayList<>();
+        CommandInterceptorChain chain = new CommandInterceptorChain(List.of(
+                new RecordingInterceptor("strings-only", calls) {
+                    @Override
+                    public boolean supports(Class<?> commandType) {
+                        return commandType == String.class;
+                    }
+                }
+        ));
+
+        chain.execute(new Object(), () -> null);
+        chain.execute("command", () -> null);
+
+        assertEquals(List.of("strings-only:before", "strings-only:after"), calls);
+    }
+
+    @Test
+    void testTimingPerCommandType() throws Exception {
+        CommandInterceptorChain chain = new CommandInterceptorChain(List.of(
+                new TimingCommandInterceptor(meterRegistry)
+        ));
+
+        chain.execute("command", () -> null);
+        chain.execute("command", () -> null);
+        assertThrows(IllegalStateException.class, () -> chain.execute(1, () -> {
+            throw new IllegalStateException("Handler Error");
+        }));
+
+        assertEquals(2, meterRegistry.get("datorum.command.duration")
+                .tag("command", "String").tag("outcome", "success").timer().count());
+        assertEquals(1, meterRegistry.get("datorum.command.duration")
+                .tag("command", "Integer").tag("outcome", "error").timer().count());
+    }
+
+    @Test
+    void testErrorClassification() {
+        CommandInterceptorChain chain = new CommandInterceptorChain(List.of(
+                new ErrorClassificationCommandInterceptor(meterRegistry)
+        ));
+
+        assertThrows(CommandValidationException.class, () -> chain.execute("command", () -> {
+            throw new CommandValidationException("Invalid", List.of("name must not be blank"));
+        }));
+        assertThrows(QueryTimeoutException.class, () -> chain.execute("command", () -> {
+            throw new QueryTimeoutException("Lock timeout");
+        }));
+
+        assertEquals(1, meterRegistry.get("datorum.command.errors")
+                .tag("category", CommandErrorCategory.VALIDATION.name()).counter().count());
+        assertEquals(1, meterRegistry.get("datorum.command.errors")
+                .tag("category", CommandErrorCategory.TRANSIENT.name()).counter().count());
+    }
+
+    @Test
+    void testErrorCategories() {
+        assertEquals(CommandErrorCategory.VALIDATION, CommandErrorCategory.of(new IllegalArgumentException()));
+        assertEquals(CommandErrorCategory.TRANSIENT,
+                CommandErrorCategory.of(new RuntimeException(new QueryTimeoutException("Lock timeout"))));
+        assertEquals(CommandErrorCategory.TECHNICAL, CommandErrorCategory.of(new NullPointerException()));
+        assertTrue(CommandErrorCategory.TRANSIENT.isRetryable());
+        assertFalse(CommandErrorCategory.VALIDATION.isRetryable());
+    }
+
+    private static class RecordingInterceptor implements CommandInterceptor {
+
+        private final String name;
+
+        private final List<String> calls;
+
+        RecordingInterceptor(String name, List<String> calls) {
+            this.name = name;
+            this.calls = calls;
+        }
+
+        @Override
+        public Object intercept(Object command, CommandInvocation invocation) throws Exception {
+            calls.add(name + ":before");
+            Object result = invocation.proceed();
+            calls.add(name + ":after");
+            return result;
+        }
+    }
+}
@@ -4,10 +4,52 @@ import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import de.tudl.playground.datorum.gateway.command.CommandHandlerRegistry;
+import de.tudl.playground.datorum.gateway.command.CommandOutcome;
+import de.tudl.playground.datorum.gateway.command.CommandResult;
 import de.tudl.playground.datorum.gateway.command.DefaultCommandGateway;
+import de.tudl.playground.datorum.gateway.command.IdempotentCommand;
+import de.tudl.playground.datorum.gateway.command.ResultCommand;
+import de.tudl.playground.datorum.gateway.command.admission.CommandAdmissionController;
+import de.tudl.playground.datorum.gateway.command.admission.OverloadPolicy;
+import de.tudl.playground.datorum.gateway.command.annotation.AdmissionPolicy;
+import de.tudl.playground.datorum.gateway.command.annotation.Coalesce;
+import de.tudl.playground.datorum.gateway.command.annotation.CommandHandler;
+import de.tudl.playground.datorum.gateway.command.annotation.TargetAggregateId;
+import de.tudl.playground.datorum.gateway.command.batch.CommandBatch;
+import de.tudl.playground.datorum.gateway.command.batch.CommandBatchSupport;
+import de.tudl.playground.datorum.gateway.command.coalesce.CommandCoalescer;
+import de.tudl.playground.datorum.gateway.command.exception.CommandRejectedException;
+import de.tudl.playground.datorum.gateway.command.exception.CommandValidationException;
+import de.tudl.playground.datorum.gateway.command.interceptor.CommandInterceptorChain;
+import de.tudl.playground.datorum.gateway.command.interceptor.ErrorClassificationCommandInterceptor;
+import de.tudl.playground.datorum.gateway.command.interceptor.TimingCommandInterceptor;
+import de.tudl.playground.datorum.gateway.command.validation.CommandValidator;
+import de.tudl.playground.datorum.gateway.command.validation.ValidationCommandInterceptor;
+import de.tudl.playground.datorum.gateway.command.idempotency.CommandDeduplicationService;
+import de.tudl.playground.datorum.gateway.command.idempotency.ProcessedCommand;
+import de.tudl.playground.datorum.gateway.command.idempotency.ProcessedCommandRepository;
+import de.tudl.playground.datorum.gateway.command.lane.CommandLaneExecutor;
+import de.tudl.playground.datorum.gateway.command.lane.PriorityClass;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -21,18 +63,70 @@ class DefaultCommandGatewayTests {
     @Mock
     private ApplicationEventPublisher eventPublisher;
 
+    @Mock
+    private ProcessedCommandRepository processedCommandRepository;
+
+    private CommandHandlerRegistry commandHandlerRegistry;
+
+    private CommandLaneExecutor commandLaneExecutor;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private RecordingCommandBatchSupport commandBatchSupport;
+
+    private CommandCoalescer commandCoalescer;
+
     private DefaultCommandGateway commandGateway;
 
+    private ExecutorService commandExecutor;
+
     private AutoCloseable closeable;
 
     @BeforeEach
     public void setUp() {
         closeable = MockitoAnnotations.openMocks(this);
-        commandGateway = new DefaultCommandGateway(eventPublisher);
+        commandExecutor = Executors.newFixedThreadPool(4);
+        commandHandlerRegistry = new CommandHandlerRegistry();
+        meterRegistry = new SimpleMeterRegistry();
+        commandLaneExecutor = new CommandLaneExecutor(4, 16, 4, 1, meterRegistry);
+        commandBatchSupport = new RecordingCommandBatchSupport();
+        commandCoalescer = new CommandCoalescer(25, commandExecutor, meterRegistry);
+        commandGateway = createGateway(256, OverloadPolicy.BLOCK, new SimpleMeterRegistry());
+    }
+
+    private DefaultCommandGateway createGateway(int capacity, OverloadPolicy policy, SimpleMeterRegistry registry) {
+        return createGateway(capacity, 0, 1024, policy, registry);
+    }
+
+    private DefaultCommandGateway createGateway(
+            int capacity,
+            int interactiveReserve,
+            int maxWaiting,
+            OverloadPolicy policy,
+            SimpleMeterRegistry registry
+    ) {
+        return new DefaultCommandGateway(
+                eventPublisher,
+                commandHandlerRegistry,
+                new CommandDeduplicationService(processedCommandRepository, 100, 60, 60),
+                commandExecutor,
+                commandLaneExecutor,
+                commandBatchSupport,
+                new CommandAdmissionController(capacity, policy, 100, interactiveReserve, maxWaiting, registry),
+                new CommandInterceptorChain(List.of(
+                        new TimingCommandInterceptor(registry),
+                        new ErrorClassificationCommandInterceptor(registry),
+                        new ValidationCommandInterceptor(List.of(new ValidatedTestCommandValidator()))
+                )),
+                commandCoalescer
+        );
     }
 
     @AfterEach
     public void tearDown() throws Exception {
+        commandExecutor.shutdownNow();
+        commandLaneExecutor.stop();
+        commandCoalescer.stop();
         if (closeable != null) {
             closeable.close();
         }
@@ -121,4 +215,1077 @@ class DefaultCommandGatewayTests {
 
         verify(eventPublisher, times(1)).publishEvent(customCommand);
     }
+
+    @Test
+    void testSendDuplicateIdempotentCommand() {
+        IdempotentTestCommand first = new IdempotentTestCommand("key-1");
+        IdempotentTestCommand duplicate = new IdempotentTestCommand("key-1");
+
+        commandGateway.send(first);
+        commandGateway.send(duplicate);
+
+        verify(eventPublisher, times(1)).publishEvent(first);
+        verify(eventPublisher, never()).publishEvent(duplicate);
+        verify(processedCommandRepository, times(1)).save(any(ProcessedCommand.class));
+    }
+
+    @Test
+    void testSendIdempotentCommandsWithDifferentKeys() {
+        commandGateway.send(new IdempotentTestCommand("key-1"));
+        commandGateway.send(new IdempotentTestCommand("key-2"));
+
+        verify(eventPublisher, times(2)).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void testSendIdempotentCommandRecordedInDedupTable() {
+        ProcessedCommand processedCommand = new ProcessedCommand();
+        processedCommand.setIdempotencyKey("key-1");
+        processedCommand.setStatus(CommandOutcome.Status.COMPLETED);
+        processedCommand.setExpiresAt(LocalDateTime.now().plusMinutes(5));
+        when(processedCommandRepository.findById("key-1")).thenReturn(Optional.of(processedCommand));
+
+        commandGateway.send(new IdempotentTestCommand("key-1"));
+
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void testSendIdempotentCommandWithExpiredDedupEntry() {
+        ProcessedCommand processedCommand = new ProcessedCommand();
+        processedCommand.setIdempotencyKey("key-1");
+        processedCommand.setStatus(CommandOutcome.Status.COMPLETED);
+        processedCommand.setExpiresAt(LocalDateTime.now().minusMinutes(5));
+        when(processedCommandRepository.findById("key-1")).thenReturn(Optional.of(processedCommand));
+
+        commandGateway.send(new IdempotentTestCommand("key-1"));
+
+        verify(eventPublisher, times(1)).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void testRequestDuplicateAnsweredWithResultFromCache() {
+        commandHandlerRegistry.postProcessAfterInitialization(new TestCommandHandler(), "testCommandHandler");
+
+        commandGateway.request(new IdempotentResultTestCommand("key-1", 20), Duration.ofSeconds(5)).join();
+        CommandResult<Integer> duplicate = commandGateway.request(
+                new IdempotentResultTestCommand("key-1", 20), Duration.ofSeconds(5)
+        ).join();
+
+        assertTrue(duplicate.isCompleted());
+        assertEquals(42, duplicate.value());
+    }
+
+    @Test
+    void testRequestDuplicateRecordedInDedupTableIsReportedAsDuplicate() {
+        commandHandlerRegistry.postProcessAfterInitialization(new TestCommandHandler(), "testCommandHandler");
+        ProcessedCommand processedCommand = new ProcessedCommand();
+        processedCommand.setIdempotencyKey("key-1");
+        processedCommand.setStatus(CommandOutcome.Status.COMPLETED);
+        processedCommand.setExpiresAt(LocalDateTime.now().plusMinutes(5));
+        when(processedCommandRepository.findById("key-1")).thenReturn(Optional.of(processedCommand));
+
+        CommandResult<Integer> result = commandGateway.request(
+                new IdempotentResultTestCommand("key-1", 20), Duration.ofSeconds(5)
+        ).join();
+
+        assertEquals(CommandOutcome.Status.DUPLICATE, result.status());
+        assertNull(result.value());
+    }
+
+    @Test
+    void testCachedOutcomeExpiresAfterTimeToLive() {
+        CommandDeduplicationService deduplicationService =
+                new CommandDeduplicationService(processedCommandRepository, 100, 0, 60);
+
+        assertTrue(deduplicationService.tryAcquire("key-1"));
+        deduplicationService.release("key-1", IdempotentTestCommand.class, CommandOutcome.completed(null));
+
+        assertTrue(deduplicationService.findOutcome("key-1", IdempotentTestCommand.class).isEmpty());
+        assertTrue(deduplicationService.tryAcquire("key-1"));
+    }
+
+    @Test
+    void testPurgeExpiredOutcomesDeletesExpiredRows() {
+        CommandDeduplicationService deduplicationService =
+                new CommandDeduplicationService(processedCommandRepository, 100, 60, 60);
+
+        deduplicationService.purgeExpiredOutcomes();
+
+        verify(processedCommandRepository, times(1)).deleteByExpiresAtBefore(any(LocalDateTime.class));
+    }
+
+    @Test
+    void testRetryIdempotentCommandAfterFailure() {
+        IdempotentTestCommand failing = new IdempotentTestCommand("key-1");
+        IdempotentTestCommand retry = new IdempotentTestCommand("key-1");
+        doThrow(new RuntimeException("Handler Error")).when(eventPublisher).publishEvent(failing);
+
+        assertThrows(RuntimeException.class, () -> commandGateway.send(failing));
+        commandGateway.send(retry);
+
+        verify(eventPublisher, times(1)).publishEvent(retry);
+    }
+
+    @Test
+    void testSendAsyncCommand() {
+        Object command = new Object();
+
+        CommandOutcome outcome = commandGateway.sendAsync(command).join();
+
+        assertTrue(outcome.isCompleted());
+        verify(eventPublisher, times(1)).publishEvent(command);
+    }
+
+    @Test
+    void testSendAsyncNullCommand() {
+        assertThrows(IllegalArgumentException.class, () -> commandGateway.sendAsync(null));
+    }
+
+    @Test
+    void testSendAsyncRunsOffCallerThread() {
+        Thread caller = Thread.currentThread();
+        Thread[] handlerThread = new Thread[1];
+        doAnswer(invocation -> {
+            handlerThread[0] = Thread.currentThread();
+            return null;
+        }).when(eventPublisher).publishEvent(any(Object.class));
+
+        commandGateway.sendAsync(new Object()).join();
+
+        assertNotSame(caller, handlerThread[0]);
+    }
+
+    @Test
+    void testSendAsyncCommandWithPublisherException() {
+        Object command = new Object();
+        doThrow(new RuntimeException("Handler Error")).when(eventPublisher).publishEvent(command);
+
+        CompletableFuture<CommandOutcome> future = commandGateway.sendAsync(command);
+
+        CompletionException exception = assertThrows(CompletionException.class, future::join);
+        assertEquals("Handler Error", exception.getCause().getMessage());
+    }
+
+    @Test
+    void testSendAsyncDuplicateIdempotentCommand() {
+        commandGateway.sendAsync(new IdempotentTestCommand("key-1")).join();
+
+        CommandOutcome outcome = commandGateway.sendAsync(new IdempotentTestCommand("key-1")).join();
+
+        assertTrue(outcome.isCompleted());
+        verify(eventPublisher, times(1)).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void testSendAsyncDuplicateWhileRunning() throws Exception {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            running.countDown();
+            release.await();
+            return null;
+        }).when(eventPublisher).publishEvent(any(Object.class));
+
+        CompletableFuture<CommandOutcome> first = commandGateway.sendAsync(new IdempotentTestCommand("key-1"));
+        running.await();
+        CommandOutcome duplicate = commandGateway.sendAsync(new IdempotentTestCommand("key-1")).join();
+        release.countDown();
+
+        assertEquals(CommandOutcome.Status.DUPLICATE, duplicate.status());
+        assertTrue(first.join().isCompleted());
+    }
+
+    @Test
+    void testSendCommandToRegisteredHandler() {
+        TestCommandHandler handler = new TestCommandHandler();
+        commandHandlerRegistry.postProcessAfterInitialization(handler, "testCommandHandler");
+        HandledTestCommand command = new HandledTestCommand("payload");
+
+        commandGateway.send(command);
+
+        assertEquals(List.of(command), handler.handled);
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void testSendAsyncCommandReturnsHandlerResult() {
+        commandHandlerRegistry.postProcessAfterInitialization(new TestCommandHandler(), "testCommandHandler");
+
+        CommandOutcome outcome = commandGateway.sendAsync(new ResultTestCommand(20)).join();
+
+        assertEquals(42, outcome.result());
+    }
+
+    @Test
+    void testSendCommandWithHandlerException() {
+        commandHandlerRegistry.postProcessAfterInitialization(new TestCommandHandler(), "testCommandHandler");
+
+        RuntimeException exception = assertThrows(
+                RuntimeException.class,
+                () -> commandGateway.send(new ResultTestCommand(-1))
+        );
+
+        assertEquals("Negative input", exception.getMessage());
+    }
+
+    @Test
+    void testRegisterDuplicateCommandHandler() {
+        commandHandlerRegistry.postProcessAfterInitialization(new TestCommandHandler(), "testCommandHandler");
+
+        assertThrows(
+                IllegalStateException.class,
+                () -> commandHandlerRegistry.postProcessAfterInitialization(new TestCommandHandler(), "duplicate")
+        );
+    }
+
+    @Test
+    void testRequestReturnsTypedResult() {
+        commandHandlerRegistry.postProcessAfterInitialization(new TestCommandHandler(), "testCommandHandler");
+
+        CommandResult<Integer> result = commandGateway.request(new ResultTestCommand(20), Duration.ofSeconds(5)).join();
+
+        assertTrue(result.isCompleted());
+        assertEquals(42, result.value());
+        assertNull(result.error());
+    }
+
+    @Test
+    void testRequestReportsHandlerError() {
+        commandHandlerRegistry.postProcessAfterInitialization(new TestCommandHandler(), "testCommandHandler");
+
+        CommandResult<Integer> result = commandGateway.request(new ResultTestCommand(-1), Duration.ofSeconds(5)).join();
+
+        assertEquals(CommandOutcome.Status.FAILED, result.status());
+        assertNull(result.value());
+        assertEquals("Negative input", result.error());
+    }
+
+    @Test
+    void testRequestTimesOut() {
+        commandHandlerRegistry.postProcessAfterInitialization(new TestCommandHandler(), "testCommandHandler");
+        CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            CommandResult<String> result = commandGateway.request(new SlowResultTestCommand(release), Duration.ofMillis(50)).join();
+
+            assertEquals(CommandOutcome.Status.TIMED_OUT, result.status());
+            assertNull(result.value());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void testRequestWithNullTimeout() {
+        assertThrows(IllegalArgumentException.class, () -> commandGateway.request(new ResultTestCommand(1), null));
+    }
+
+    @Test
+    void testRegisterHandlerWithWrongResultType() {
+        assertThrows(
+                IllegalStateException.class,
+                () -> commandHandlerRegistry.postProcessAfterInitialization(new WrongResultTypeHandler(), "wrongResultTypeHandler")
+        );
+    }
+
+    @Test
+    void testCommandsForSameAggregateRunInOrder() {
+        TestCommandHandler handler = new TestCommandHandler();
+        commandHandlerRegistry.postProcessAfterInitialization(handler, "testCommandHandler");
+
+        List<CompletableFuture<CommandOutcome>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            futures.add(commandGateway.sendAsync(new AggregateTestCommand("aggregate-1", i)));
+        }
+        futures.forEach(CompletableFuture::join);
+
+        List<Integer> sequence = handler.sequences.get("aggregate-1");
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i, sequence.get(i));
+        }
+        assertEquals(1, handler.threads.get("aggregate-1").size());
+    }
+
+    @Test
+    void testCommandsForAggregateRunOnLaneThread() {
+        TestCommandHandler handler = new TestCommandHandler();
+        commandHandlerRegistry.postProcessAfterInitialization(handler, "testCommandHandler");
+
+        commandGateway.send(new AggregateTestCommand("aggregate-1", 0));
+
+        Thread laneThread = handler.threads.get("aggregate-1").iterator().next();
+        assertTrue(laneThread.getName().startsWith("command-lane-"));
+    }
+
+    @Test
+    void testSendCommandForAggregateWithHandlerException() {
+        commandHandlerRegistry.postProcessAfterInitialization(new TestCommandHandler(), "testCommandHandler");
+
+        IllegalArgumentException exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> commandGateway.send(new AggregateTestCommand("aggregate-1", -1))
+        );
+
+        assertEquals("Negative sequence", exception.getMessage());
+    }
+
+    @Test
+    void testNestedCommandForOtherAggregateRunsOnItsLane() {
+        TestCommandHandler handler = new TestCommandHandler();
+        handler.commandGateway = commandGateway;
+        commandHandlerRegistry.postProcessAfterInitialization(handler, "testCommandHandler");
+
+        assertTimeoutPreemptively(
+                Duration.ofSeconds(5),
+                () -> commandGateway.send(new AggregateTestCommand("aggregate-1", 100))
+        );
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> handler.sequences.containsKey("aggregate-2"));
+        assertEquals(List.of(0), handler.sequences.get("aggregate-2"));
+        assertNotEquals(handler.threads.get("aggregate-1"), handler.threads.get("aggregate-2"));
+    }
+
+    @Test
+    void testNestedCommandErrorIsNotThrownToHandler() {
+        TestCommandHandler handler = new TestCommandHandler();
+        handler.commandGateway = commandGateway;
+        commandHandlerRegistry.postProcessAfterInitialization(handler, "testCommandHandler");
+
+        assertDoesNotThrow(() -> commandGateway.send(new AggregateTestCommand("aggregate-1", 101)));
+    }
+
+    @Test
+    void testHandlersSendingToEachOthersAggregatesDoNotDeadlock() {
+        TestCommandHandler handler = new TestCommandHandler();
+        handler.commandGateway = commandGateway;
+        commandHandlerRegistry.postProcessAfterInitialization(handler, "testCommandHandler");
+
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> CompletableFuture.allOf(
+                CompletableFuture.runAsync(() -> commandGateway.send(new AggregateTestCommand("aggregate-1", 103))),
+                CompletableFuture.runAsync(() -> commandGateway.send(new AggregateTestCommand("aggregate-2", 103)))
+        ).join());
+
+        await().atMost(Duration.ofSeconds(5)).until(
+                () -> handler.sequences.containsKey("aggregate-1") && handler.sequences.containsKey("aggregate-2")
+        );
+    }
+
+    @Test
+    void testBulkSentByHandlerIsRefused() {
+        TestCommandHandler handler = new TestCommandHandler();
+        handler.commandGateway = commandGateway;
+        commandHandlerRegistry.postProcessAfterInitialization(handler, "testCommandHandler");
+
+        assertThrows(
+                IllegalStateException.class,
+                () -> commandGateway.send(new AggregateTestCommand("aggregate-1", 102))
+        );
+    }
+
+    @Test
+    void testLaneQueueDepthMetrics() {
+        assertEquals(4, meterRegistry.find("datorum.command.lane.queue.depth").gauges().size());
+    }
+
+    @Test
+    void testSendAllReturnsOutcomesInOrder() {
+        commandHandlerRegistry.postProcessAfterInitialization(new TestCommandHandler(), "testCommandHandler");
+
+        List<CommandOutcome> outcomes = commandGateway.sendAll(List.of(
+                new ResultTestCommand(1),
+                new AggregateTestCommand("aggregate-1", -1),
+                new ResultTestCommand(2)
+        ));
+
+        assertEquals(3, outcomes.size());
+        assertEquals(23, outcomes.get(0).result());
+        assertEquals(CommandOutcome.Status.FAILED, outcomes.get(1).status());
+        assertEquals("Negative sequence", outcomes.get(1).error());
+        assertEquals(24, outcomes.get(2).result());
+    }
+
+    @Test
+    void testSendAllRunsCommandsOfAggregateInOrder() {
+        TestCommandHandler handler = new TestCommandHandler();
+        commandHandlerRegistry.postProcessAfterInitialization(handler, "testCommandHandler");
+
+        List<Object> commands = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            commands.add(new AggregateTestCommand("aggregate-" + (i % 3), i));
+        }
+        commandGateway.sendAll(commands);
+
+        for (int aggregate = 0; aggregate < 3; aggregate++) {
+            List<Integer> sequence = handler.sequences.get("aggregate-" + aggregate);
+            for (int i = 1; i < sequence.size(); i++) {
+                assertTrue(sequence.get(i - 1) < sequence.get(i));
+            }
+        }
+    }
+
+    @Test
+    void testSendAllRunsCommandsInOneBatch() {
+        commandHandlerRegistry.postProcessAfterInitialization(new TestCommandHandler(), "testCommandHandler");
+
+        commandGateway.sendAll(List.of(
+                new AggregateTestCommand("aggregate-1", 0),
+                new AggregateTestCommand("aggregate-2", 0),
+                new AggregateTestCommand("aggregate-1", 1),
+                new ResultTestCommand(1)
+        ));
+
+        assertEquals(Set.of("aggregate-1", "aggregate-2"), commandBatchSupport.aggregateIds);
+        assertEquals(4, commandBatchSupport.executedTasks.get());
+        assertEquals(1, commandBatchSupport.closedBatches.get());
+    }
+
+    @Test
+    void testSendAllRecordsIdempotentCommandsOnlyOnceFlushed() {
+        IdempotentTestCommand command = new IdempotentTestCommand("key-1");
+        commandBatchSupport.beforeFlush = () -> {
+            verify(processedCommandRepository, never()).save(any(ProcessedCommand.class));
+            assertEquals(
+                    CommandOutcome.Status.DUPLICATE,
+                    commandGateway.sendAsync(new IdempotentTestCommand("key-1")).join().status()
+            );
+        };
+
+        List<CommandOutcome> outcomes = commandGateway.sendAll(List.of(command));
+
+        assertEquals(CommandOutcome.Status.COMPLETED, outcomes.get(0).status());
+        verify(processedCommandRepository, times(1)).save(any(ProcessedCommand.class));
+    }
+
+    @Test
+    void testRetryIdempotentCommandsAfterFailedFlush() {
+        IdempotentTestCommand command = new IdempotentTestCommand("key-1");
+        IdempotentTestCommand retry = new IdempotentTestCommand("key-1");
+        commandBatchSupport.beforeFlush = () -> {
+            throw new IllegalStateException("Flush failed");
+        };
+
+        assertThrows(IllegalStateException.class, () -> commandGateway.sendAll(List.of(command)));
+        verify(processedCommandRepository, never()).save(any(ProcessedCommand.class));
+
+        commandBatchSupport.beforeFlush = () -> { };
+        List<CommandOutcome> outcomes = commandGateway.sendAll(List.of(retry));
+
+        assertEquals(CommandOutcome.Status.COMPLETED, outcomes.get(0).status());
+        verify(eventPublisher).publishEvent(command);
+        verify(eventPublisher).publishEvent(retry);
+        verify(processedCommandRepository, times(1)).save(any(ProcessedCommand.class));
+    }
+
+    @Test
+    void testSendAllNullCommands() {
+        assertThrows(IllegalArgumentException.class, () -> commandGateway.sendAll(null));
+        assertThrows(IllegalArgumentException.class, () -> commandGateway.sendAll(Arrays.asList(new Object(), null)));
+    }
+
+    @Test
+    void testRejectCommandAtCapacity() throws Exception {
+        CommandGatewayUnderLoad load = saturate(OverloadPolicy.REJECT);
+
+        assertThrows(CommandRejectedException.class, () -> load.gateway.send(new Object()));
+        CompletionException exception = assertThrows(
+                CompletionException.class,
+                () -> load.gateway.sendAsync(new Object()).join()
+        );
+        assertInstanceOf(CommandRejectedException.class, exception.getCause());
+        assertEquals(2, meterRegistry.get("datorum.command.admission.rejected").counter().count());
+
+        load.release();
+        await().atMost(Duration.ofSeconds(5)).until(
+                () -> meterRegistry.get("datorum.command.admission.in-flight").gauge().value() == 0
+        );
+        load.gateway.send(new Object());
+    }
+
+    @Test
+    void testBlockCommandUntilTimeout() throws Exception {
+        CommandGatewayUnderLoad load = saturate(OverloadPolicy.BLOCK);
+
+        long start = System.nanoTime();
+        assertThrows(CommandRejectedException.class, () -> load.gateway.send(new Object()));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() >= 100);
+        load.release();
+    }
+
+    @Test
+    void testBlockCommandUntilCapacityIsAvailable() throws Exception {
+        CommandGatewayUnderLoad load = saturate(OverloadPolicy.BLOCK);
+
+        CompletableFuture<Void> blocked = CompletableFuture.runAsync(() -> load.gateway.send(new Object()));
+        load.release();
+
+        assertDoesNotThrow(() -> blocked.join());
+    }
+
+    @Test
+    void testCallerRunsCommandAtCapacity() throws Exception {
+        CommandGatewayUnderLoad load = saturate(OverloadPolicy.CALLER_RUNS);
+        Thread caller = Thread.currentThread();
+        Thread[] handlerThread = new Thread[1];
+        doAnswer(invocation -> {
+            handlerThread[0] = Thread.currentThread();
+            return null;
+        }).when(eventPublisher).publishEvent(any(Object.class));
+
+        load.gateway.sendAll(List.of(new Object()));
+
+        assertSame(caller, handlerThread[0]);
+        assertEquals(1, meterRegistry.get("datorum.command.admission.caller-runs").counter().count());
+        load.release();
+    }
+
+    @Test
+    void testSendAsyncWaitsForCapacityWithoutCaller() throws Exception {
+        CommandGatewayUnderLoad load = saturate(OverloadPolicy.CALLER_RUNS);
+        Thread caller = Thread.currentThread();
+        Thread[] handlerThread = new Thread[1];
+        doAnswer(invocation -> {
+            handlerThread[0] = Thread.currentThread();
+            return null;
+        }).when(eventPublisher).publishEvent(any(Object.class));
+
+        CompletableFuture<CommandOutcome> future = load.gateway.sendAsync(new Object());
+
+        assertFalse(future.isDone());
+        assertNull(handlerThread[0]);
+
+        load.release();
+
+        assertEquals(CommandOutcome.Status.COMPLETED, future.get(5, TimeUnit.SECONDS).status());
+        assertNotSame(caller, handlerThread[0]);
+    }
+
+    @Test
+    void testSendAsyncDoesNotBlockCallerAtCapacity() throws Exception {
+        CommandGatewayUnderLoad load = saturate(OverloadPolicy.BLOCK);
+
+        long start = System.nanoTime();
+        CompletableFuture<CommandOutcome> future = load.gateway.sendAsync(new Object());
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 100);
+        CompletionException exception = assertThrows(CompletionException.class, future::join);
+        assertInstanceOf(CommandRejectedException.class, exception.getCause());
+        await().atMost(Duration.ofSeconds(1)).until(
+                () -> meterRegistry.find("datorum.command.admission.rejected").counter() != null
+        );
+        load.release();
+    }
+
+    @Test
+    void testSendAsyncIsAdmittedOnceCapacityIsAvailable() throws Exception {
+        CommandGatewayUnderLoad load = saturate(OverloadPolicy.BLOCK);
+
+        CompletableFuture<CommandOutcome> future = load.gateway.sendAsync(new Object());
+        load.release();
+
+        assertEquals(CommandOutcome.Status.COMPLETED, future.get(5, TimeUnit.SECONDS).status());
+        await().atMost(Duration.ofSeconds(5)).until(
+                () -> meterRegistry.get("datorum.command.admission.in-flight").gauge().value() == 0
+        );
+    }
+
+    @Test
+    void testWaitingCommandsAreAdmittedInArrivalOrder() throws Exception {
+        CommandGatewayUnderLoad load = saturate(OverloadPolicy.BLOCK);
+        List<Integer> admitted = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            admitted.add(invocation.<PatientTestCommand>getArgument(0).sequence());
+            return null;
+        }).when(eventPublisher).publishEvent(any(PatientTestCommand.class));
+
+        CompletableFuture<CommandOutcome> first = load.gateway.sendAsync(new PatientTestCommand(1));
+        CompletableFuture<Void> second = CompletableFuture.runAsync(() -> load.gateway.send(new PatientTestCommand(2)));
+        await().atMost(Duration.ofSeconds(5)).until(
+                () -> meterRegistry.get("datorum.command.admission.waiting").gauge().value() == 2
+        );
+        CompletableFuture<CommandOutcome> third = load.gateway.sendAsync(new PatientTestCommand(3));
+        load.release();
+
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        third.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of(1, 2, 3), admitted);
+    }
+
+    @Test
+    void testWaitingQueueIsBounded() throws Exception {
+        CommandGatewayUnderLoad load = saturate(createGateway(1, 0, 1, OverloadPolicy.BLOCK, meterRegistry));
+
+        CompletableFuture<CommandOutcome> queued = load.gateway.sendAsync(new PatientTestCommand(1));
+        CompletionException exception = assertThrows(
+                CompletionException.class,
+                () -> load.gateway.sendAsync(new PatientTestCommand(2)).join()
+        );
+
+        assertInstanceOf(CommandRejectedException.class, exception.getCause());
+        assertEquals(1, meterRegistry.get("datorum.command.admission.waiting").gauge().value());
+        load.release();
+        assertEquals(CommandOutcome.Status.COMPLETED, queued.get(5, TimeUnit.SECONDS).status());
+    }
+
+    @Test
+    void testAdmissionPolicyOfCommandType() throws Exception {
+        CommandGatewayUnderLoad load = saturate(OverloadPolicy.BLOCK);
+
+        long start = System.nanoTime();
+        assertThrows(CommandRejectedException.class, () -> load.gateway.send(new RejectedTestCommand()));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 100);
+        load.release();
+    }
+
+    @Test
+    void testSendAllReportsRejectedCommands() throws Exception {
+        CommandGatewayUnderLoad load = saturate(OverloadPolicy.REJECT);
+
+        List<CommandOutcome> outcomes = load.gateway.sendAll(List.of(new Object()));
+
+        assertEquals(CommandOutcome.Status.FAILED, outcomes.get(0).status());
+        load.release();
+    }
+
+    @Test
+    void testAdmissionInFlightMetrics() throws Exception {
+        CommandGatewayUnderLoad load = saturate(OverloadPolicy.REJECT);
+
+        assertEquals(1, meterRegistry.get("datorum.command.admission.in-flight").gauge().value());
+
+        load.release();
+        await().atMost(Duration.ofSeconds(5)).until(
+                () -> meterRegistry.get("datorum.command.admission.in-flight").gauge().value() == 0
+        );
+    }
+
+    @Test
+    void testInvalidCommandDoesNotReachHandler() {
+        TestCommandHandler handler = new TestCommandHandler();
+        commandHandlerRegistry.postProcessAfterInitialization(handler, "testCommandHandler");
+
+        CommandValidationException exception = assertThrows(
+                CommandValidationException.class,
+                () -> commandGateway.send(new ValidatedTestCommand(""))
+        );
+
+        assertEquals(List.of("name must not be blank"), exception.getViolations());
+        assertTrue(handler.handled.isEmpty());
+    }
+
+    @Test
+    void testValidCommandReachesHandler() {
+        TestCommandHandler handler = new TestCommandHandler();
+        commandHandlerRegistry.postProcessAfterInitialization(handler, "testCommandHandler");
+
+        commandGateway.send(new ValidatedTestCommand("valid"));
+
+        assertEquals(List.of(new ValidatedTestCommand("valid")), handler.handled);
+    }
+
+    @Test
+    void testInteractiveCommandOvertakesQueuedBulkCommands() throws Exception {
+        CommandLaneExecutor laneExecutor = new CommandLaneExecutor(1, 16, 4, 1, new SimpleMeterRegistry());
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            List<String> executed = Collections.synchronizedList(new ArrayList<>());
+            List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+            futures.add(laneExecutor.submit("blocker", PriorityClass.NORMAL, () -> awaitRelease(release)));
+            for (int i = 0; i < 100; i++) {
+                futures.add(laneExecutor.submit("import-" + i, PriorityClass.BULK, () -> executed.add("bulk")));
+            }
+            futures.add(laneExecutor.submit("login", PriorityClass.INTERACTIVE, () -> executed.add("interactive")));
+
+            release.countDown();
+            futures.forEach(CompletableFuture::join);
+
+            assertEquals("interactive", executed.get(0));
+            assertEquals(101, executed.size());
+        } finally {
+            laneExecutor.stop();
+        }
+    }
+
+    @Test
+    void testLaneSharesExecutionsByWeight() throws Exception {
+        CommandLaneExecutor laneExecutor = new CommandLaneExecutor(1, 16, 4, 1, new SimpleMeterRegistry());
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            List<PriorityClass> executed = Collections.synchronizedList(new ArrayList<>());
+            List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+            futures.add(laneExecutor.submit("blocker", PriorityClass.NORMAL, () -> awaitRelease(release)));
+            for (int i = 0; i < 50; i++) {
+                futures.add(laneExecutor.submit("bulk-" + i, PriorityClass.BULK, () -> executed.add(PriorityClass.BULK)));
+                futures.add(laneExecutor.submit("normal-" + i, PriorityClass.NORMAL, () -> executed.add(PriorityClass.NORMAL)));
+            }
+
+            release.countDown();
+            futures.forEach(CompletableFuture::join);
+
+            List<PriorityClass> firstRound = executed.subList(0, 25);
+            assertEquals(5, Collections.frequency(firstRound, PriorityClass.BULK));
+            assertEquals(20, Collections.frequency(firstRound, PriorityClass.NORMAL));
+        } finally {
+            laneExecutor.stop();
+        }
+    }
+
+    @Test
+    void testCommandsForSameAggregateKeepOrderAcrossPriorities() throws Exception {
+        CommandLaneExecutor laneExecutor = new CommandLaneExecutor(1, 16, 4, 1, new SimpleMeterRegistry());
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            List<String> executed = Collections.synchronizedList(new ArrayList<>());
+            List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+            futures.add(laneExecutor.submit("blocker", PriorityClass.NORMAL, () -> awaitRelease(release)));
+            futures.add(laneExecutor.submit("other", PriorityClass.BULK, () -> executed.add("other")));
+            futures.add(laneExecutor.submit("user-1", PriorityClass.BULK, () -> executed.add("import")));
+            futures.add(laneExecutor.submit("user-1", PriorityClass.INTERACTIVE, () -> executed.add("login")));
+
+            release.countDown();
+            futures.forEach(CompletableFuture::join);
+
+            assertTrue(executed.indexOf("import") < executed.indexOf("login"));
+        } finally {
+            laneExecutor.stop();
+        }
+    }
+
+    @Test
+    void testInteractiveReserveAdmitsInteractiveCommandAtCapacity() throws Exception {
+        DefaultCommandGateway gateway = createGateway(2, 1, 1024, OverloadPolicy.REJECT, meterRegistry);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingTestCommand blockingCommand = new BlockingTestCommand(running, release);
+        doAnswer(invocation -> {
+            running.countDown();
+            release.await();
+            return null;
+        }).when(eventPublisher).publishEvent(blockingCommand);
+        gateway.sendAsync(blockingCommand, PriorityClass.BULK);
+        running.await();
+
+        CompletionException exception = assertThrows(
+                CompletionException.class,
+                () -> gateway.sendAsync(new Object()).join()
+        );
+        assertInstanceOf(CommandRejectedException.class, exception.getCause());
+        Object interactiveCommand = new Object();
+        assertEquals(
+                CommandOutcome.Status.COMPLETED,
+                gateway.sendAsync(interactiveCommand, PriorityClass.INTERACTIVE).join().status()
+        );
+        verify(eventPublisher).publishEvent(interactiveCommand);
+
+        release.countDown();
+    }
+
+    @Test
+    void testCoalescesRapidCommandsForSameAggregate() {
+        TestCommandHandler handler = new TestCommandHandler();
+        commandHandlerRegistry.postProcessAfterInitialization(handler, "testCommandHandler");
+
+        List<CompletableFuture<CommandOutcome>> futures = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            futures.add(commandGateway.sendAsync(new CoalescedTestCommand("user-1", i)));
+        }
+
+        for (CompletableFuture<CommandOutcome> future : futures) {
+            assertEquals(CommandOutcome.Status.COMPLETED, future.join().status());
+        }
+        assertEquals(List.of(new CoalescedTestCommand("user-1", 4)), handler.coalesced);
+        assertEquals(4, meterRegistry.get("datorum.command.coalesced").counter().count());
+    }
+
+    @Test
+    void testCoalescesCommandsPerAggregate() {
+        TestCommandHandler handler = new TestCommandHandler();
+        commandHandlerRegistry.postProcessAfterInitialization(handler, "testCommandHandler");
+
+        CompletableFuture<CommandOutcome> first = commandGateway.sendAsync(new CoalescedTestCommand("user-1", 1));
+        CompletableFuture<CommandOutcome> second = commandGateway.sendAsync(new CoalescedTestCommand("user-2", 2));
+        commandGateway.send(new CoalescedTestCommand("user-1", 3));
+        first.join();
+        second.join();
+
+        assertEquals(2, handler.coalesced.size());
+        assertTrue(handler.coalesced.containsAll(List.of(
+                new CoalescedTestCommand("user-1", 3),
+                new CoalescedTestCommand("user-2", 2)
+        )));
+    }
+
+    @Test
+    void testCoalescedCommandIsNotOvertakenByLaterCommands() throws Exception {
+        TestCommandHandler handler = new TestCommandHandler();
+        commandHandlerRegistry.postProcessAfterInitialization(handler, "testCommandHandler");
+
+        CompletableFuture<CommandOutcome> first = commandGateway.sendAsync(new CoalescedTestCommand("user-1", 1));
+        CompletableFuture<CommandOutcome> second = commandGateway.sendAsync(new AggregateTestCommand("user-1", 2));
+        CompletableFuture<CommandOutcome> third = commandGateway.sendAsync(new CoalescedTestCommand("user-1", 3));
+        commandGateway.send(new AggregateTestCommand("user-1", 4));
+
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+        third.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of(
+                new CoalescedTestCommand("user-1", 1),
+                new AggregateTestCommand("user-1", 2),
+                new CoalescedTestCommand("user-1", 3),
+                new AggregateTestCommand("user-1", 4)
+        ), handler.aggregateOrder);
+    }
+
+    @Test
+    void testCoalescedCommandReportsHandlerError() {
+        TestCommandHandler handler = new TestCommandHandler();
+        commandHandlerRegistry.postProcessAfterInitialization(handler, "testCommandHandler");
+
+        CompletableFuture<CommandOutcome> first = commandGateway.sendAsync(new CoalescedTestCommand("user-1", 1));
+        CompletableFuture<CommandOutcome> second = commandGateway.sendAsync(new CoalescedTestCommand("user-1", -1));
+
+        assertInstanceOf(IllegalArgumentException.class, assertThrows(CompletionException.class, first::join).getCause());
+        assertInstanceOf(IllegalArgumentException.class, assertThrows(CompletionException.class, second::join).getCause());
+        assertTrue(handler.coalesced.isEmpty());
+    }
+
+    @Test
+    void testCoalescedCommandIsSentFromCommandExecutor() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Thread[] senderThread = new Thread[1];
+        CompletableFuture<CommandOutcome> blocked = commandCoalescer.submit(
+                "user-1",
+                new CoalescedTestCommand("user-1", 1),
+                command -> {
+                    senderThread[0] = Thread.currentThread();
+                    awaitRelease(release);
+                    return CompletableFuture.completedFuture(CommandOutcome.completed(null));
+                }
+        );
+        CompletableFuture<CommandOutcome> other = commandCoalescer.submit(
+                "user-2",
+                new CoalescedTestCommand("user-2", 2),
+                command -> CompletableFuture.completedFuture(CommandOutcome.completed(null))
+        );
+
+        // The window of user-2 closes although the command of user-1 is still being sent
+        assertEquals(CommandOutcome.Status.COMPLETED, other.get(5, TimeUnit.SECONDS).status());
+
+        release.countDown();
+        assertEquals(CommandOutcome.Status.COMPLETED, blocked.get(5, TimeUnit.SECONDS).status());
+        assertNotEquals("command-coalescer", senderThread[0].getName());
+    }
+
+    private static boolean awaitRelease(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Creates a gateway with a capacity of one and occupies its only slot with a command that waits until released.
+     */
+    private CommandGatewayUnderLoad saturate(OverloadPolicy policy) throws InterruptedException {
+        return saturate(createGateway(1, policy, meterRegistry));
+    }
+
+    private CommandGatewayUnderLoad saturate(DefaultCommandGateway gateway) throws InterruptedException {
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingTestCommand blockingCommand = new BlockingTestCommand(running, release);
+        doAnswer(invocation -> {
+            running.countDown();
+            release.await();
+            return null;
+        }).when(eventPublisher).publishEvent(blockingCommand);
+
+        gateway.sendAsync(blockingCommand);
+        running.await();
+        return new CommandGatewayUnderLoad(gateway, release);
+    }
+
+    private record CommandGatewayUnderLoad(DefaultCommandGateway gateway, CountDownLatch releaseLatch) {
+        void release() {
+            releaseLatch.countDown();
+        }
+    }
+
+    private record BlockingTestCommand(CountDownLatch running, CountDownLatch release) {
+    }
+
+    @AdmissionPolicy(OverloadPolicy.REJECT)
+    private record RejectedTestCommand() {
+    }
+
+    @AdmissionPolicy(value = OverloadPolicy.BLOCK, timeoutMillis = 5000)
+    private record PatientTestCommand(int sequence) {
+    }
+
+    private record HandledTestCommand(String payload) {
+    }
+
+    private record ResultTestCommand(int input) implements ResultCommand<Integer> {
+    }
+
+    private record SlowResultTestCommand(CountDownLatch release) implements ResultCommand<String> {
+    }
+
+    private static class WrongResultTypeHandler {
+        @CommandHandler
+        public String handle(ResultTestCommand command) {
+            return String.valueOf(command.input());
+        }
+    }
+
+    private record ValidatedTestCommand(String name) {
+    }
+
+    private static class ValidatedTestCommandValidator implements CommandValidator<ValidatedTestCommand> {
+        @Override
+        public List<String> validate(ValidatedTestCommand command) {
+            return command.name().isBlank() ? List.of("name must not be blank") : List.of();
+        }
+    }
+
+    @Coalesce(windowMillis = 200)
+    private record CoalescedTestCommand(@TargetAggregateId String aggregateId, int value) {
+    }
+
+    private record AggregateTestCommand(@TargetAggregateId String aggregateId, int sequence) {
+    }
+
+    private static class TestCommandHandler {
+
+        private final List<Object> handled = new ArrayList<>();
+
+        private final List<CoalescedTestCommand> coalesced = Collections.synchronizedList(new ArrayList<>());
+
+        private final List<Object> aggregateOrder = Collections.synchronizedList(new ArrayList<>());
+
+        private final Map<String, List<Integer>> sequences = new ConcurrentHashMap<>();
+
+        private final Map<String, Set<Thread>> threads = new ConcurrentHashMap<>();
+
+        private RecordingCommandBatchSupport commandBatchSupport;
+
+        private DefaultCommandGateway commandGateway;
+
+        @CommandHandler
+        public void handle(AggregateTestCommand command) {
+            if (command.sequence() < 0) {
+                throw new IllegalArgumentException("Negative sequence");
+            }
+            if (command.sequence() == 100 && commandGateway != null) {
+                commandGateway.send(new AggregateTestCommand("aggregate-2", 0));
+                return;
+            }
+            if (command.sequence() == 101 && commandGateway != null) {
+                commandGateway.send(new AggregateTestCommand("aggregate-2", -1));
+                return;
+            }
+            if (command.sequence() == 102 && commandGateway != null) {
+                commandGateway.sendAll(List.of(new AggregateTestCommand("aggregate-2", 0)));
+                return;
+            }
+            if (command.sequence() == 103 && commandGateway != null) {
+                String other = command.aggregateId().equals("aggregate-1") ? "aggregate-2" : "aggregate-1";
+                commandGateway.send(new AggregateTestCommand(other, 0));
+                return;
+            }
+            aggregateOrder.add(command);
+            // Deliberately unsynchronized: the lane guarantees exclusive access per aggregate
+            sequences.computeIfAbsent(command.aggregateId(), id -> new ArrayList<>()).add(command.sequence());
+            threads.computeIfAbsent(command.aggregateId(), id -> ConcurrentHashMap.newKeySet()).add(Thread.currentThread());
+        }
+
+        @CommandHandler
+        public void handle(CoalescedTestCommand command) {
+            if (command.value() < 0) {
+                throw new IllegalArgumentException("Negative value");
+            }
+            coalesced.add(command);
+            aggregateOrder.add(command);
+        }
+
+        @CommandHandler
+        public void handle(HandledTestCommand command) {
+            handled.add(command);
+        }
+
+        @CommandHandler
+        public void handle(ValidatedTestCommand command) {
+            handled.add(command);
+        }
+
+        @CommandHandler
+        public int handle(ResultTestCommand command) {
+            if (command.input() < 0) {
+                throw new IllegalArgumentException("Negative input");
+            }
+            return command.input() + 22;
+        }
+
+        @CommandHandler
+        public String handle(SlowResultTestCommand command) throws InterruptedException {
+            command.release().await();
+            return "done";
+        }
+
+        @CommandHandler
+        public int handle(IdempotentResultTestCommand command) {
+            return command.input() + 22;
+        }
+    }
+
+    private record IdempotentResultTestCommand(String idempotencyKey, int input)
+            implements IdempotentCommand, ResultCommand<Integer> {
+    }
+
+    private record IdempotentTestCommand(String idempotencyKey) implements IdempotentCommand {
+        @Override
+        public boolean equals(Object other) {
+            return this == other;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(this);
+        }
+    }
+
+    private static class RecordingCommandBatchSupport implements CommandBatchSupport {
+
+        private final AtomicInteger executedTasks = new AtomicInteger();
+
+        private final AtomicInteger closedBatches = new AtomicInteger();
+
+        private Set<String> aggregateIds;
+
+        private Runnable beforeFlush = () -> { };
+
+        @Override
+        public CommandBatch open(Set<String> aggregateIds) {
+            this.aggregateIds = Set.copyOf(aggregateIds);
+
+            return new CommandBatch() {
+                @Override
+                public <T> T execute(Supplier<T> task) {
+                    executedTasks.incrementAndGet();
+                    return task.get();
+                }
+
+                @Override
+                public void close() {
+                    closedBatches.incrementAndGet();
+                    beforeFlush.run();
+                }
+            };
+        }
+    }
 }
@@ -0,0 +1,221 @@
+package de.tudl.playground.datorum.gateway;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import de.tudl.playground.datorum.gateway.command.CommandGateway;
+import de.tudl.playground.datorum.gateway.command.CommandOutcome;
+import de.tudl.playground.datorum.gateway.command.lane.PriorityClass;
+import de.tudl.playground.datorum.gateway.command.schedule.DefaultCommandScheduler;
+import de.tudl.playground.datorum.gateway.command.schedule.ScheduledCommand;
+import de.tudl.playground.datorum.gateway.command.schedule.ScheduledCommandRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+class DefaultCommandSchedulerTests {
+
+    @Mock
+    private ScheduledCommandRepository scheduledCommandRepository;
+
+    @Mock
+    private CommandGateway commandGateway;
+
+    private final Map<Long, ScheduledCommand> table = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final List<Object> sent = new CopyOnWriteArrayList<>();
+
+    private Function<Object, CommandOutcome> outcomes = command -> CommandOutcome.completed(null);
+
+    private final AtomicInteger failingSends = new AtomicInteger();
+
+    private DefaultCommandScheduler scheduler;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+
+        when(scheduledCommandRepository.save(any(ScheduledCommand.class))).thenAnswer(invocation -> store(invocation.getArgument(0)));
+        when(scheduledCommandRepository.saveAll(anyIterable())).thenAnswer(invocation -> {
+            ((Iterable<ScheduledCommand>) invocation.getArgument(0)).forEach(this::store);
+            return List.of();
+        });
+        when(scheduledCommandRepository.findById(anyLong())).thenAnswer(invocation -> Optional.ofNullable(table.get(invocation.<Long>getArgument(0))));
+        when(scheduledCommandRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<ScheduledCommand> found = new ArrayList<>();
+            ((Iterable<Long>) invocation.getArgument(0)).forEach(id -> Optional.ofNullable(table.get(id)).ifPresent(found::add));
+            return found;
+        });
+        when(scheduledCommandRepository.findByStatusAndIdGreaterThanOrderByIdAsc(any(), anyLong(), any())).thenAnswer(invocation ->
+                table.values().stream()
+                        .filter(entry -> entry.getStatus() == invocation.getArgument(0))
+                        .filter(entry -> entry.getId() > invocation.<Long>getArgument(1))
+                        .toList()
+        );
+        doAnswer(invocation -> table.remove(invocation.<ScheduledCommand>getArgument(0).getId()))
+                .when(scheduledCommandRepository).delete(any(ScheduledCommand.class));
+        doAnswer(invocation -> {
+            ((Iterable<ScheduledCommand>) invocation.getArgument(0)).forEach(entry -> table.remove(entry.getId()));
+            return null;
+        }).when(scheduledCommandRepository).deleteAll(anyIterable());
+        when(commandGateway.sendAll(anyCollection(), eq(PriorityClass.BULK))).thenAnswer(invocation -> {
+            if (failingSends.getAndUpdate(remaining -> Math.max(0, remaining - 1)) > 0) {
+                throw new IllegalStateException("Gateway unavailable");
+            }
+            Collection<?> commands = invocation.getArgument(0);
+            sent.addAll(commands);
+            return commands.stream().map(outcomes).toList();
+        });
+
+        scheduler = new DefaultCommandScheduler(
+                scheduledCommandRepository, commandGateway, 10, 2, 2, 10, new SimpleMeterRegistry()
+        );
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        scheduler.stop();
+        closeable.close();
+    }
+
+    private ScheduledCommand store(ScheduledCommand entry) {
+        if (entry.getId() == null) {
+            entry.setId(sequence.incrementAndGet());
+        }
+        table.put(entry.getId(), entry);
+        return entry;
+    }
+
+    @Test
+    void testScheduledCommandIsSentWhenDue() {
+        scheduler.start();
+        scheduler.schedule(new ReminderCommand("later"), Instant.now().plusMillis(200));
+
+        assertEquals(1, table.size());
+        assertTrue(sent.isEmpty());
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> sent.size() == 1);
+        assertEquals(new ReminderCommand("later"), sent.get(0));
+        await().atMost(Duration.ofSeconds(5)).until(table::isEmpty);
+    }
+
+    @Test
+    void testDueCommandsAreSentInBatches() {
+        scheduler.start();
+        for (int i = 0; i < 5; i++) {
+            scheduler.schedule(new ReminderCommand("now-" + i), Instant.now().minusSeconds(1));
+        }
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> sent.size() == 5);
+        verify(commandGateway, times(3)).sendAll(anyCollection(), eq(PriorityClass.BULK));
+    }
+
+    @Test
+    void testCancelledCommandIsNotSent() throws InterruptedException {
+        scheduler.start();
+        long id = scheduler.schedule(new ReminderCommand("cancelled"), Instant.now().plusMillis(100));
+
+        assertTrue(scheduler.cancel(id));
+        assertFalse(scheduler.cancel(id));
+
+        Thread.sleep(300);
+        assertTrue(sent.isEmpty());
+    }
+
+    @Test
+    void testPendingCommandsAreLoadedOnStart() {
+        ScheduledCommand entry = new ScheduledCommand();
+        entry.setCommandType(ReminderCommand.class.getName());
+        entry.setCommandData("{\"name\":\"persisted\"}");
+        entry.setDueAt(LocalDateTime.now().minusMinutes(1));
+        entry.setStatus(ScheduledCommand.Status.PENDING);
+        store(entry);
+
+        scheduler.start();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> sent.contains(new ReminderCommand("persisted")));
+    }
+
+    @Test
+    void testFailedCommandIsRetriedAndGivenUp() {
+        outcomes = command -> CommandOutcome.failed(new IllegalStateException("boom"));
+        scheduler.start();
+        long id = scheduler.schedule(new ReminderCommand("failing"), Instant.now());
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> table.get(id).getStatus() == ScheduledCommand.Status.FAILED);
+        assertEquals(2, sent.size());
+        assertEquals(2, table.get(id).getAttempts());
+        assertEquals("boom", table.get(id).getLastError());
+    }
+
+    @Test
+    void testBatchIsSentAgainAfterSendingFailed() {
+        failingSends.set(2);
+        scheduler.start();
+        long id = scheduler.schedule(new ReminderCommand("unlucky"), Instant.now());
+
+        await().atMost(Duration.ofSeconds(5)).until(table::isEmpty);
+        assertEquals(List.of(new ReminderCommand("unlucky")), sent);
+        verify(commandGateway, times(3)).sendAll(anyCollection(), eq(PriorityClass.BULK));
+        assertFalse(table.containsKey(id));
+    }
+
+    @Test
+    void testBatchIsSentAgainAfterLoadingFailed() {
+        when(scheduledCommandRepository.findAllById(anyIterable()))
+                .thenThrow(new IllegalStateException("Database unavailable"))
+                .thenAnswer(invocation -> List.copyOf(table.values()));
+        scheduler.start();
+        scheduler.schedule(new ReminderCommand("unlucky"), Instant.now());
+
+        await().atMost(Duration.ofSeconds(5)).until(table::isEmpty);
+        assertEquals(List.of(new ReminderCommand("unlucky")), sent);
+    }
+
+    @Test
+    void testDuplicateCommandIsSentAgainWithoutCountingAsFailure() {
+        AtomicInteger duplicates = new AtomicInteger(3);
+        outcomes = command -> duplicates.getAndDecrement() > 0
+                ? CommandOutcome.duplicate()
+                : CommandOutcome.completed(null);
+        scheduler.start();
+        long id = scheduler.schedule(new ReminderCommand("running"), Instant.now());
+        ScheduledCommand entry = table.get(id);
+
+        await().atMost(Duration.ofSeconds(5)).until(table::isEmpty);
+        assertEquals(4, sent.size());
+        assertEquals(0, entry.getAttempts());
+        assertEquals(ScheduledCommand.Status.PENDING, entry.getStatus());
+    }
+
+    @Test
+    void testScheduleWithNullCommand() {
+        assertThrows(IllegalArgumentException.class, () -> scheduler.schedule(null, Instant.now()));
+    }
+
+    record ReminderCommand(String name) {
+    }
+}
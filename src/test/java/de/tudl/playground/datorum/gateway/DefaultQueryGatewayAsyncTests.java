@@ -0,0 +1,178 @@
+package de.tudl.playground.datorum.gateway;
+
+import de.tudl.playground.datorum.gateway.helpers.TestHandlers;
+import de.tudl.playground.datorum.gateway.helpers.TestQueries;
+import de.tudl.playground.datorum.gateway.helpers.TestUtils;
+import de.tudl.playground.datorum.gateway.query.DefaultQueryGateway;
+import de.tudl.playground.datorum.gateway.query.QueryHandler;
+import de.tudl.playground.datorum.gateway.query.annotation.HandlerPriority;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationContext;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DefaultQueryGatewayAsyncTests {
+
+    private static final CountDownLatch NEVER = new CountDownLatch(1);
+
+    private ApplicationContext applicationContext;
+    private ExecutorService queryExecutor;
+    private DefaultQueryGateway queryGateway;
+
+    @BeforeEach
+    public void setup() {
+        applicationContext = mock(ApplicationContext.class);
+        queryExecutor = Executors.newFixedThreadPool(4);
+        queryGateway = TestUtils.createQueryGateway(applicationContext, queryExecutor);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        queryExecutor.shutdownNow();
+    }
+
+    @Test
+    void testQueryAsyncWithSingleHandler() {
+        when(applicationContext.getBeansOfType(QueryHandler.class))
+                .thenReturn(Map.of("sampleQueryHandler", new TestHandlers.SampleQueryHandler()));
+
+        Optional<String> result = queryGateway.<TestQueries.SampleQuery, String>queryAsync(new TestQueries.SampleQuery()).join();
+
+        assertEquals(Optional.of("Handled by SampleQueryHandler"), result);
+    }
+
+    @Test
+    void testFanOutHandlersRunInParallel() {
+        // Each handler waits for the other one, so the query only completes if both run at the same time
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        when(applicationContext.getBeansOfType(QueryHandler.class)).thenReturn(Map.of(
+                "fastHandler", new FastFanOutHandler(bothRunning),
+                "slowHandler", new SlowFanOutHandler(bothRunning, new CountDownLatch(0))
+        ));
+
+        Optional<Object> result = queryGateway.queryAsync(new FanOutQuery(), Duration.ofSeconds(2)).join();
+
+        assertEquals(Optional.of(List.of("slow", "fast")), result);
+    }
+
+    @Test
+    void testFanOutReturnsResultsArrivedBeforeDeadline() {
+        when(applicationContext.getBeansOfType(QueryHandler.class)).thenReturn(Map.of(
+                "fastHandler", new FastFanOutHandler(new CountDownLatch(0)),
+                "slowHandler", new SlowFanOutHandler(new CountDownLatch(0), NEVER)
+        ));
+
+        long start = System.nanoTime();
+        Optional<Object> result = queryGateway.queryAsync(new FanOutQuery(), Duration.ofMillis(200)).join();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(Optional.of(List.of("fast")), result);
+        assertTrue(elapsedMillis < 1000, "Query waited for the slow handler");
+    }
+
+    @Test
+    void testFanOutFailsIfNoResultArrivedBeforeDeadline() {
+        when(applicationContext.getBeansOfType(QueryHandler.class)).thenReturn(Map.of(
+                "slowHandler", new SlowFanOutHandler(new CountDownLatch(0), NEVER),
+                "otherSlowHandler", new OtherSlowFanOutHandler()
+        ));
+
+        CompletionException exception = assertThrows(
+                CompletionException.class,
+                () -> queryGateway.queryAsync(new FanOutQuery(), Duration.ofMillis(100)).join()
+        );
+        assertInstanceOf(TimeoutException.class, exception.getCause());
+    }
+
+    @Test
+    void testQueryAsyncWithSingleHandlerTimesOut() {
+        when(applicationContext.getBeansOfType(QueryHandler.class))
+                .thenReturn(Map.of("slowHandler", new SlowFanOutHandler(new CountDownLatch(0), NEVER)));
+
+        CompletionException exception = assertThrows(
+                CompletionException.class,
+                () -> queryGateway.queryAsync(new FanOutQuery(), Duration.ofMillis(100)).join()
+        );
+        assertInstanceOf(TimeoutException.class, exception.getCause());
+    }
+
+    @Test
+    void testQueryAsyncWithoutHandler() {
+        when(applicationContext.getBeansOfType(QueryHandler.class)).thenReturn(Map.of());
+
+        CompletionException exception = assertThrows(
+                CompletionException.class,
+                () -> queryGateway.queryAsync(new TestQueries.SampleQuery()).join()
+        );
+        assertInstanceOf(IllegalArgumentException.class, exception.getCause());
+    }
+
+    @Test
+    void testQueryAsyncWithNullDeadline() {
+        assertThrows(IllegalArgumentException.class, () -> queryGateway.queryAsync(new TestQueries.SampleQuery(), null));
+    }
+
+    private record FanOutQuery() { }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static class FastFanOutHandler implements QueryHandler<FanOutQuery, String> {
+        private final CountDownLatch running;
+
+        FastFanOutHandler(CountDownLatch running) {
+            this.running = running;
+        }
+
+        @Override
+        public Optional<String> handle(FanOutQuery query) {
+            running.countDown();
+            return await(running) ? Optional.of("fast") : Optional.empty();
+        }
+    }
+
+    @HandlerPriority(1)
+    private static class SlowFanOutHandler implements QueryHandler<FanOutQuery, String> {
+        private final CountDownLatch running;
+        private final CountDownLatch release;
+
+        SlowFanOutHandler(CountDownLatch running, CountDownLatch release) {
+            this.running = running;
+            this.release = release;
+        }
+
+        @Override
+        public Optional<String> handle(FanOutQuery query) {
+            running.countDown();
+            return await(running) && await(release) ? Optional.of("slow") : Optional.empty();
+        }
+    }
+
+    private static class OtherSlowFanOutHandler implements QueryHandler<FanOutQuery, String> {
+        @Override
+        public Optional<String> handle(FanOutQuery query) {
+            return await(NEVER) ? Optional.of("other") : Optional.empty();
+        }
+    }
+}
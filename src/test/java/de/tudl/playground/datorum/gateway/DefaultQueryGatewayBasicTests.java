@@ -2,7 +2,7 @@ package de.tudl.playground.datorum.gateway;
 
 import de.tudl.playground.datorum.gateway.helpers.TestHandlers;
 import de.tudl.playground.datorum.gateway.helpers.TestQueries;
-import de.tudl.playground.datorum.gateway.query.resolver.DefaultHandlerResolver;
+import de.tudl.playground.datorum.gateway.helpers.TestUtils;
 import de.tudl.playground.datorum.gateway.query.DefaultQueryGateway;
 import de.tudl.playground.datorum.gateway.query.QueryHandler;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,6 +14,8 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class DefaultQueryGatewayBasicTests {
@@ -24,8 +26,7 @@ class DefaultQueryGatewayBasicTests {
     @BeforeEach
     public void setup() {
         applicationContext = mock(ApplicationContext.class);
-        DefaultHandlerResolver defaultHandlerResolver = new DefaultHandlerResolver();
-        queryGateway = new DefaultQueryGateway(applicationContext, defaultHandlerResolver);
+        queryGateway = TestUtils.createQueryGateway(applicationContext);
     }
 
     @Test
@@ -62,5 +63,22 @@ class DefaultQueryGatewayBasicTests {
         Exception exception = assertThrows(IllegalArgumentException.class, () -> queryGateway.query(new TestQueries.GenericQuery()));
         assertEquals("No handler found for query type: de.tudl.playground.datorum.gateway.helpers.TestQueries$GenericQuery", exception.getMessage());
     }
-}
 
+    @Test
+    void testHandlersAreResolvedOnce() {
+        // Arrange
+        when(applicationContext.getBeansOfType(QueryHandler.class)).thenReturn(Map.of(
+                "sampleQueryHandler", new TestHandlers.SampleQueryHandler(),
+                "parentQueryHandler", new TestHandlers.ParentQueryHandler()
+        ));
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Optional.of("Handled by SampleQueryHandler"), queryGateway.query(new TestQueries.SampleQuery()));
+            assertEquals(Optional.of("Handled by ParentQueryHandler"), queryGateway.query(new TestQueries.ChildQuery()));
+        }
+
+        // Assert: once for the startup log, once for the dispatch table
+        verify(applicationContext, times(2)).getBeansOfType(QueryHandler.class);
+    }
+}
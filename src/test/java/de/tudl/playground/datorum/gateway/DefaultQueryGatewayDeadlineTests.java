@@ -0,0 +1,205 @@
+package de.tudl.playground.datorum.gateway;
+
+import de.tudl.playground.datorum.gateway.helpers.TestUtils;
+import de.tudl.playground.datorum.gateway.query.BatchQueryHandler;
+import de.tudl.playground.datorum.gateway.query.DefaultQueryGateway;
+import de.tudl.playground.datorum.gateway.query.QueryHandler;
+import de.tudl.playground.datorum.gateway.query.annotation.HedgedQuery;
+import de.tudl.playground.datorum.gateway.query.annotation.QueryTimeout;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationContext;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DefaultQueryGatewayDeadlineTests {
+
+    private static final CountDownLatch NEVER = new CountDownLatch(1);
+
+    private ApplicationContext applicationContext;
+    private ExecutorService queryExecutor;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setup() {
+        applicationContext = mock(ApplicationContext.class);
+        queryExecutor = Executors.newCachedThreadPool();
+        meterRegistry = new SimpleMeterRegistry();
+        when(applicationContext.getBeansOfType(QueryHandler.class)).thenReturn(Map.of(
+                "boundedHandler", new BoundedHandler(),
+                "unboundedHandler", new UnboundedHandler(),
+                "hedgedHandler", new HedgedHandler(),
+                "batchHedgedHandler", new BatchHedgedHandler()
+        ));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        queryExecutor.shutdownNow();
+    }
+
+    @Test
+    void testQueryTimesOutAfterTimeoutOfItsType() {
+        DefaultQueryGateway queryGateway = createGateway(0);
+
+        long start = System.nanoTime();
+        assertThrows(TimeoutException.class, () -> queryGateway.query(new BoundedQuery()));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertTrue(elapsedMillis < 1000, "Query waited for the stalled handler");
+        // The timeout is counted right after the caller has been released
+        await().atMost(Duration.ofSeconds(1)).untilAsserted(() -> assertEquals(
+                1, meterRegistry.get("datorum.query.timeouts").tag("query", "BoundedQuery").counter().count()
+        ));
+    }
+
+    @Test
+    void testQueryAsyncUsesTimeoutOfItsType() {
+        DefaultQueryGateway queryGateway = createGateway(0);
+
+        Exception exception = assertThrows(Exception.class, () -> queryGateway.queryAsync(new BoundedQuery()).join());
+
+        assertInstanceOf(TimeoutException.class, exception.getCause());
+    }
+
+    @Test
+    void testQueryWithoutTimeoutRunsOnCallingThread() {
+        DefaultQueryGateway queryGateway = createGateway(0);
+
+        assertEquals(Optional.of(Thread.currentThread().getName()), queryGateway.query(new UnboundedQuery(false)));
+    }
+
+    @Test
+    void testDefaultTimeoutBoundsQueriesWithoutTimeout() {
+        DefaultQueryGateway queryGateway = createGateway(100);
+
+        assertThrows(TimeoutException.class, () -> queryGateway.query(new UnboundedQuery(true)));
+    }
+
+    @Test
+    void testSlowQueryIsHedged() {
+        DefaultQueryGateway queryGateway = createGateway(0);
+        HedgedHandler.stallNext.set(false);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Optional.of("fast"), queryGateway.query(new HedgedLookup()));
+        }
+
+        HedgedHandler.stallNext.set(true);
+        long start = System.nanoTime();
+        Optional<String> result = queryGateway.query(new HedgedLookup());
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(Optional.of("fast"), result);
+        assertTrue(elapsedMillis < 1000, "Query waited for the stalled attempt");
+        // The hedge is counted right after it has answered the query
+        await().atMost(Duration.ofSeconds(1)).untilAsserted(() -> assertEquals(
+                1, meterRegistry.get("datorum.query.hedges").tag("result", "won").counter().count()
+        ));
+    }
+
+    @Test
+    void testHedgeOvertakesStalledBatch() {
+        DefaultQueryGateway queryGateway = createGateway(0);
+        BatchHedgedHandler.stallNext.set(false);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Optional.of("fast"), queryGateway.query(new BatchHedgedLookup(i)));
+        }
+
+        BatchHedgedHandler.stallNext.set(true);
+        long start = System.nanoTime();
+        Optional<String> result = queryGateway.query(new BatchHedgedLookup(5));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(Optional.of("fast"), result);
+        assertTrue(elapsedMillis < 1000, "Hedge waited for the stalled batch");
+    }
+
+    private DefaultQueryGateway createGateway(long defaultTimeoutMillis) {
+        return TestUtils.queryGateway(applicationContext)
+                .queryExecutor(queryExecutor)
+                .meterRegistry(meterRegistry)
+                .defaultTimeoutMillis(defaultTimeoutMillis)
+                .hedgingMinSamples(5)
+                .build();
+    }
+
+    private static void awaitRelease(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @QueryTimeout(millis = 100)
+    private record BoundedQuery() { }
+
+    private record UnboundedQuery(boolean stall) { }
+
+    @HedgedQuery
+    private record HedgedLookup() { }
+
+    @HedgedQuery
+    private record BatchHedgedLookup(int id) { }
+
+    private static class BoundedHandler implements QueryHandler<BoundedQuery, String> {
+        @Override
+        public Optional<String> handle(BoundedQuery query) {
+            awaitRelease(NEVER);
+            return Optional.of("bounded");
+        }
+    }
+
+    private static class UnboundedHandler implements QueryHandler<UnboundedQuery, String> {
+        @Override
+        public Optional<String> handle(UnboundedQuery query) {
+            if (query.stall()) {
+                awaitRelease(NEVER);
+            }
+            return Optional.of(Thread.currentThread().getName());
+        }
+    }
+
+    private static class HedgedHandler implements QueryHandler<HedgedLookup, String> {
+        private static final AtomicBoolean stallNext = new AtomicBoolean();
+
+        @Override
+        public Optional<String> handle(HedgedLookup query) {
+            if (stallNext.compareAndSet(true, false)) {
+                awaitRelease(NEVER);
+                return Optional.of("stalled");
+            }
+            return Optional.of("fast");
+        }
+    }
+
+    private static class BatchHedgedHandler implements BatchQueryHandler<BatchHedgedLookup, String> {
+        private static final AtomicBoolean stallNext = new AtomicBoolean();
+
+        @Override
+        public Map<BatchHedgedLookup, String> handleAll(Collection<BatchHedgedLookup> queries) {
+            if (stallNext.compareAndSet(true, false)) {
+                awaitRelease(NEVER);
+            }
+            return queries.stream().collect(Collectors.toMap(Function.identity(), query -> "fast"));
+        }
+    }
+}
@@ -2,7 +2,7 @@ package de.tudl.playground.datorum.gateway;
 
 import de.tudl.playground.datorum.gateway.helpers.TestHandlers;
 import de.tudl.playground.datorum.gateway.helpers.TestQueries;
-import de.tudl.playground.datorum.gateway.query.resolver.DefaultHandlerResolver;
+import de.tudl.playground.datorum.gateway.helpers.TestUtils;
 import de.tudl.playground.datorum.gateway.query.DefaultQueryGateway;
 import de.tudl.playground.datorum.gateway.query.QueryHandler;
 import org.junit.jupiter.api.BeforeEach;
@@ -24,8 +24,7 @@ class DefaultQueryGatewayEdgeCaseTests {
     @BeforeEach
     public void setup() {
         applicationContext = mock(ApplicationContext.class);
-        DefaultHandlerResolver defaultHandlerResolver = new DefaultHandlerResolver();
-        queryGateway = new DefaultQueryGateway(applicationContext, defaultHandlerResolver);
+        queryGateway = TestUtils.createQueryGateway(applicationContext);
     }
 
     @Test
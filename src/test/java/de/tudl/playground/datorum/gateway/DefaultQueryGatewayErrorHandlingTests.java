@@ -4,7 +4,7 @@ import de.tudl.playground.datorum.gateway.helpers.TestHandlers;
 import de.tudl.playground.datorum.gateway.helpers.TestQueries;
 import de.tudl.playground.datorum.gateway.query.QueryHandler;
 import de.tudl.playground.datorum.gateway.query.exception.ErrorHandlingQueryException;
-import de.tudl.playground.datorum.gateway.query.resolver.DefaultHandlerResolver;
+import de.tudl.playground.datorum.gateway.helpers.TestUtils;
 import de.tudl.playground.datorum.gateway.query.DefaultQueryGateway;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -25,8 +25,7 @@ class DefaultQueryGatewayErrorHandlingTests
     @BeforeEach
     public void setup() {
         applicationContext = mock(ApplicationContext.class);
-        DefaultHandlerResolver defaultHandlerResolver = new DefaultHandlerResolver();
-        queryGateway = new DefaultQueryGateway(applicationContext, defaultHandlerResolver);
+        queryGateway = TestUtils.createQueryGateway(applicationContext);
     }
 
     @Test
@@ -0,0 +1,211 @@
+package de.tudl.playground.datorum.gateway;
+
+import de.tudl.playground.datorum.gateway.helpers.TestUtils;
+import de.tudl.playground.datorum.gateway.query.DefaultQueryGateway;
+import de.tudl.playground.datorum.gateway.query.QueryHandler;
+import de.tudl.playground.datorum.gateway.query.annotation.HandlerPriority;
+import de.tudl.playground.datorum.gateway.query.annotation.MergeResults;
+import de.tudl.playground.datorum.gateway.query.merge.MergeStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationContext;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DefaultQueryGatewayMergeTests {
+
+    private ApplicationContext applicationContext;
+    private ExecutorService queryExecutor;
+    private DefaultQueryGateway queryGateway;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final AtomicInteger lowPriorityCalls = new AtomicInteger();
+
+    @BeforeEach
+    public void setup() {
+        applicationContext = mock(ApplicationContext.class);
+        queryExecutor = Executors.newFixedThreadPool(4);
+        queryGateway = createGateway(queryExecutor);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        queryExecutor.shutdownNow();
+    }
+
+    @Test
+    void testFirstNonEmptySkipsRemainingHandlers() {
+        registerHandlers(Optional.empty(), Optional.of("medium"), Optional.of("low"), false);
+
+        assertEquals(Optional.of("medium"), queryGateway.query(new FirstNonEmptyQuery()));
+        assertEquals(0, lowPriorityCalls.get());
+    }
+
+    @Test
+    void testFirstNonEmptyAsyncTakesFastestResult() {
+        registerHandlers(Optional.of("high"), Optional.empty(), Optional.of("low"), true);
+
+        Optional<Object> result = queryGateway.queryAsync(new FirstNonEmptyQuery(), Duration.ofSeconds(2)).join();
+
+        assertEquals(Optional.of("low"), result);
+    }
+
+    @Test
+    void testFirstNonEmptyAsyncSkipsHandlersNotStarted() {
+        queryGateway = createGateway(queryExecutor = Executors.newSingleThreadExecutor());
+        registerHandlers(Optional.of("high"), Optional.of("medium"), Optional.of("low"), false);
+        // Hold the only thread until all handlers have been submitted, so they run strictly one after another
+        CountDownLatch submitted = new CountDownLatch(1);
+        queryExecutor.execute(() -> await(submitted));
+
+        CompletableFuture<Optional<Object>> result = queryGateway.queryAsync(new FirstNonEmptyQuery(), Duration.ofSeconds(2));
+        submitted.countDown();
+
+        assertEquals(Optional.of("high"), result.join());
+        assertEquals(0, lowPriorityCalls.get());
+    }
+
+    @Test
+    void testPriorityWinsAsyncWaitsForHigherPriorityHandler() {
+        registerHandlers(Optional.of("high"), Optional.empty(), Optional.of("low"), true);
+        new Thread(() -> {
+            sleep(100);
+            release.countDown();
+        }).start();
+
+        Optional<Object> result = queryGateway.queryAsync(new PriorityWinsQuery(), Duration.ofSeconds(2)).join();
+
+        assertEquals(Optional.of("high"), result);
+    }
+
+    @Test
+    void testPriorityWinsFallsBackToLowerPriorityHandler() {
+        registerHandlers(Optional.empty(), Optional.empty(), Optional.of("low"), false);
+
+        assertEquals(Optional.of("low"), queryGateway.query(new PriorityWinsQuery()));
+    }
+
+    @Test
+    void testQuorumAnswersWithAgreedResult() {
+        registerHandlers(Optional.of("a"), Optional.of("b"), Optional.of("a"), false);
+
+        assertEquals(Optional.of("a"), queryGateway.query(new QuorumQuery()));
+    }
+
+    @Test
+    void testQuorumStopsOnceReached() {
+        registerHandlers(Optional.of("a"), Optional.of("a"), Optional.of("b"), false);
+
+        assertEquals(Optional.of("a"), queryGateway.query(new QuorumQuery()));
+        assertEquals(0, lowPriorityCalls.get());
+    }
+
+    @Test
+    void testQuorumWithoutAgreementIsEmpty() {
+        registerHandlers(Optional.of("a"), Optional.of("b"), Optional.of("c"), false);
+
+        assertEquals(Optional.empty(), queryGateway.query(new QuorumQuery()));
+    }
+
+    private DefaultQueryGateway createGateway(ExecutorService executor) {
+        return TestUtils.createQueryGateway(applicationContext, executor);
+    }
+
+    /**
+     * Registers a handler of every priority for all query types, answering with the given results.
+     */
+    private void registerHandlers(
+            Optional<String> high,
+            Optional<String> medium,
+            Optional<String> low,
+            boolean highWaitsForRelease
+    ) {
+        when(applicationContext.getBeansOfType(QueryHandler.class)).thenReturn(Map.of(
+                "highPriorityHandler", new HighPriorityHandler(() -> {
+                    if (highWaitsForRelease) {
+                        await(release);
+                    }
+                    return high;
+                }),
+                "mediumPriorityHandler", new MediumPriorityHandler(() -> medium),
+                "lowPriorityHandler", new LowPriorityHandler(() -> {
+                    lowPriorityCalls.incrementAndGet();
+                    return low;
+                })
+        ));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private interface MergeQuery { }
+
+    @MergeResults(MergeStrategy.FIRST_NON_EMPTY)
+    private record FirstNonEmptyQuery() implements MergeQuery { }
+
+    @MergeResults(MergeStrategy.PRIORITY_WINS)
+    private record PriorityWinsQuery() implements MergeQuery { }
+
+    @MergeResults(value = MergeStrategy.QUORUM, quorum = 2)
+    private record QuorumQuery() implements MergeQuery { }
+
+    private abstract static class AnsweringHandler {
+        private final Supplier<Optional<String>> answer;
+
+        AnsweringHandler(Supplier<Optional<String>> answer) {
+            this.answer = answer;
+        }
+
+        public Optional<String> handle(MergeQuery query) {
+            return answer.get();
+        }
+    }
+
+    @HandlerPriority(2)
+    private static class HighPriorityHandler extends AnsweringHandler implements QueryHandler<MergeQuery, String> {
+        HighPriorityHandler(Supplier<Optional<String>> answer) {
+            super(answer);
+        }
+    }
+
+    @HandlerPriority(1)
+    private static class MediumPriorityHandler extends AnsweringHandler implements QueryHandler<MergeQuery, String> {
+        MediumPriorityHandler(Supplier<Optional<String>> answer) {
+            super(answer);
+        }
+    }
+
+    private static class LowPriorityHandler extends AnsweringHandler implements QueryHandler<MergeQuery, String> {
+        LowPriorityHandler(Supplier<Optional<String>> answer) {
+            super(answer);
+        }
+    }
+}
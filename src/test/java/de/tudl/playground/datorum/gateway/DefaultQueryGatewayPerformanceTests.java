@@ -2,9 +2,9 @@ package de.tudl.playground.datorum.gateway;
 
 import de.tudl.playground.datorum.gateway.helpers.TestHandlers;
 import de.tudl.playground.datorum.gateway.helpers.TestQueries;
+import de.tudl.playground.datorum.gateway.helpers.TestUtils;
 import de.tudl.playground.datorum.gateway.query.DefaultQueryGateway;
 import de.tudl.playground.datorum.gateway.query.QueryHandler;
-import de.tudl.playground.datorum.gateway.query.resolver.DefaultHandlerResolver;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -34,8 +34,7 @@ class DefaultQueryGatewayPerformanceTests
     @BeforeEach
     public void setup() {
         applicationContext = mock(ApplicationContext.class);
-        DefaultHandlerResolver defaultHandlerResolver = new DefaultHandlerResolver();
-        queryGateway = new DefaultQueryGateway(applicationContext, defaultHandlerResolver);
+        queryGateway = TestUtils.createQueryGateway(applicationContext);
     }
 
     @Test
@@ -0,0 +1,131 @@
+package de.tudl.playground.datorum.gateway;
+
+import de.tudl.playground.datorum.gateway.helpers.TestUtils;
+import de.tudl.playground.datorum.gateway.query.DefaultQueryGateway;
+import de.tudl.playground.datorum.gateway.query.QueryHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DefaultQueryGatewaySingleFlightTests {
+
+    private ApplicationContext applicationContext;
+    private ExecutorService callers;
+    private DefaultQueryGateway queryGateway;
+    private SlowUsernameHandler handler;
+
+    @BeforeEach
+    public void setup() {
+        applicationContext = mock(ApplicationContext.class);
+        callers = Executors.newFixedThreadPool(100);
+        queryGateway = TestUtils.createQueryGateway(applicationContext);
+        handler = new SlowUsernameHandler();
+        when(applicationContext.getBeansOfType(QueryHandler.class)).thenReturn(Map.of("usernameHandler", handler));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void testConcurrentIdenticalQueriesShareOneExecution() {
+        List<CompletableFuture<Optional<String>>> results = queryConcurrently(100, i -> new UsernameQuery("alice"));
+        handler.release.countDown();
+
+        results.forEach(result -> assertEquals(Optional.of("alice"), result.join()));
+        assertEquals(1, handler.calls.get());
+    }
+
+    @Test
+    void testDifferentQueriesAreNotShared() {
+        List<CompletableFuture<Optional<String>>> results = queryConcurrently(
+                4, i -> new UsernameQuery(i % 2 == 0 ? "alice" : "bob")
+        );
+        handler.release.countDown();
+
+        results.forEach(CompletableFuture::join);
+        assertEquals(2, handler.calls.get());
+    }
+
+    @Test
+    void testErrorIsSharedWithWaitingQueries() {
+        handler.failure = new IllegalStateException("Database unavailable");
+        List<CompletableFuture<Optional<String>>> results = queryConcurrently(10, i -> new UsernameQuery("alice"));
+        handler.release.countDown();
+
+        for (CompletableFuture<Optional<String>> result : results) {
+            CompletionException exception = assertThrows(CompletionException.class, result::join);
+            assertSame(handler.failure, exception.getCause());
+        }
+        assertEquals(1, handler.calls.get());
+    }
+
+    @Test
+    void testCompletedQueryIsExecutedAgain() {
+        handler.release.countDown();
+
+        queryGateway.query(new UsernameQuery("alice"));
+        queryGateway.query(new UsernameQuery("alice"));
+
+        assertEquals(2, handler.calls.get());
+    }
+
+    /**
+     * Starts the queries on separate threads and gives them time to reach the gateway.
+     */
+    private List<CompletableFuture<Optional<String>>> queryConcurrently(
+            int count,
+            IntFunction<UsernameQuery> query
+    ) {
+        List<CompletableFuture<Optional<String>>> results = IntStream.range(0, count)
+                .mapToObj(i -> CompletableFuture.supplyAsync(() -> queryGateway.<UsernameQuery, String>query(query.apply(i)), callers))
+                .toList();
+        try {
+            TimeUnit.MILLISECONDS.sleep(300);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return results;
+    }
+
+    private record UsernameQuery(String username) { }
+
+    private static class SlowUsernameHandler implements QueryHandler<UsernameQuery, String> {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile RuntimeException failure;
+
+        @Override
+        public Optional<String> handle(UsernameQuery query) {
+            calls.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return Optional.of(query.username());
+        }
+    }
+}
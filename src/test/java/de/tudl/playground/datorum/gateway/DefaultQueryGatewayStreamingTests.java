@@ -0,0 +1,95 @@
+package de.tudl.playground.datorum.gateway;
+
+import de.tudl.playground.datorum.gateway.helpers.TestHandlers;
+import de.tudl.playground.datorum.gateway.helpers.TestQueries;
+import de.tudl.playground.datorum.gateway.helpers.TestUtils;
+import de.tudl.playground.datorum.gateway.query.DefaultQueryGateway;
+import de.tudl.playground.datorum.gateway.query.QueryHandler;
+import de.tudl.playground.datorum.gateway.query.StreamingQueryHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationContext;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DefaultQueryGatewayStreamingTests {
+
+    private ApplicationContext applicationContext;
+    private DefaultQueryGateway queryGateway;
+    private NumbersHandler numbersHandler;
+
+    @BeforeEach
+    public void setup() {
+        applicationContext = mock(ApplicationContext.class);
+        queryGateway = TestUtils.createQueryGateway(applicationContext);
+        numbersHandler = new NumbersHandler();
+    }
+
+    @Test
+    void testStreamDeliversResultsIncrementally() {
+        when(applicationContext.getBeansOfType(QueryHandler.class))
+                .thenReturn(Map.of("numbersHandler", numbersHandler));
+
+        try (Stream<Integer> numbers = queryGateway.stream(new NumbersQuery(1_000_000))) {
+            assertEquals(List.of(0, 1, 2), numbers.limit(3).toList());
+            assertEquals(3, numbersHandler.produced.get());
+        }
+
+        assertEquals(1, numbersHandler.closed.get());
+    }
+
+    @Test
+    void testQueryCollectsStreamAndClosesIt() {
+        when(applicationContext.getBeansOfType(QueryHandler.class))
+                .thenReturn(Map.of("numbersHandler", numbersHandler));
+
+        Optional<List<Integer>> result = queryGateway.query(new NumbersQuery(3));
+
+        assertEquals(Optional.of(List.of(0, 1, 2)), result);
+        assertEquals(1, numbersHandler.closed.get());
+    }
+
+    @Test
+    void testStreamWithoutStreamingHandler() {
+        when(applicationContext.getBeansOfType(QueryHandler.class))
+                .thenReturn(Map.of("sampleQueryHandler", new TestHandlers.SampleQueryHandler()));
+
+        assertThrows(IllegalArgumentException.class, () -> queryGateway.stream(new TestQueries.SampleQuery()));
+    }
+
+    @Test
+    void testStreamWithoutHandler() {
+        when(applicationContext.getBeansOfType(QueryHandler.class)).thenReturn(Map.of());
+
+        assertThrows(IllegalArgumentException.class, () -> queryGateway.stream(new NumbersQuery(3)));
+    }
+
+    @Test
+    void testStreamWithNullQuery() {
+        assertThrows(IllegalArgumentException.class, () -> queryGateway.stream(null));
+    }
+
+    private record NumbersQuery(int count) { }
+
+    private static class NumbersHandler implements StreamingQueryHandler<NumbersQuery, Integer> {
+        private final AtomicInteger produced = new AtomicInteger();
+        private final AtomicInteger closed = new AtomicInteger();
+
+        @Override
+        public Stream<Integer> stream(NumbersQuery query) {
+            return IntStream.range(0, query.count())
+                    .peek(i -> produced.incrementAndGet())
+                    .boxed()
+                    .onClose(closed::incrementAndGet);
+        }
+    }
+}
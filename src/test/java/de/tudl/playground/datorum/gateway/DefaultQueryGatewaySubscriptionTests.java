@@ -0,0 +1,201 @@
+package de.tudl.playground.datorum.gateway;
+
+import de.tudl.playground.datorum.gateway.helpers.TestUtils;
+import de.tudl.playground.datorum.gateway.query.DefaultQueryGateway;
+import de.tudl.playground.datorum.gateway.query.QueryHandler;
+import de.tudl.playground.datorum.gateway.query.subscription.QueryUpdateEmitter;
+import de.tudl.playground.datorum.gateway.query.subscription.SubscriptionQueryResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationContext;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DefaultQueryGatewaySubscriptionTests {
+
+    private ExecutorService queryExecutor;
+    private SimpleMeterRegistry meterRegistry;
+    private QueryUpdateEmitter queryUpdateEmitter;
+    private DefaultQueryGateway queryGateway;
+
+    @BeforeEach
+    public void setup() {
+        ApplicationContext applicationContext = mock(ApplicationContext.class);
+        when(applicationContext.getBeansOfType(QueryHandler.class))
+                .thenReturn(Map.of("inventoryHandler", new InventoryHandler()));
+
+        queryExecutor = Executors.newCachedThreadPool();
+        meterRegistry = new SimpleMeterRegistry();
+        queryUpdateEmitter = new QueryUpdateEmitter(queryExecutor, 2, meterRegistry);
+        queryGateway = TestUtils.queryGateway(applicationContext)
+                .queryExecutor(queryExecutor)
+                .meterRegistry(meterRegistry)
+                .queryUpdateEmitter(queryUpdateEmitter)
+                .build();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        queryExecutor.shutdownNow();
+    }
+
+    @Test
+    void testSubscribeDeliversInitialResultAndUpdates() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+
+        try (SubscriptionQueryResult<List<String>, String> result = queryGateway.subscribe(new InventoryQuery("a"))) {
+            assertEquals(Optional.of(List.of("initial")), result.initialResult());
+
+            result.updates().subscribe(subscriber);
+            subscriber.request(Long.MAX_VALUE);
+            emit("a", "apple", "apple");
+            emit("b", "banana", "banana");
+            emit("a", "avocado", "avocado");
+
+            await().atMost(Duration.ofSeconds(1)).until(() -> subscriber.updates.size() == 2);
+            assertEquals(List.of("apple", "avocado"), subscriber.updates);
+        }
+    }
+
+    @Test
+    void testUpdatesAreDeliveredOnlyOnDemand() throws InterruptedException {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+
+        try (SubscriptionQueryResult<List<String>, String> result = queryGateway.subscribe(new InventoryQuery("a"))) {
+            result.updates().subscribe(subscriber);
+            emit("a", "apple", "apple");
+            emit("a", "apricot", "apricot");
+
+            TimeUnit.MILLISECONDS.sleep(100);
+            assertTrue(subscriber.updates.isEmpty());
+
+            subscriber.request(1);
+            await().atMost(Duration.ofSeconds(1)).until(() -> subscriber.updates.size() == 1);
+            assertEquals(List.of("apple"), subscriber.updates);
+        }
+    }
+
+    @Test
+    void testPendingUpdatesWithSameKeyAreCoalesced() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+
+        try (SubscriptionQueryResult<List<String>, String> result = queryGateway.subscribe(new InventoryQuery("a"))) {
+            result.updates().subscribe(subscriber);
+            emit("a", "apple", "1 apple");
+            emit("a", "apple", "2 apples");
+            emit("a", "pear", "1 pear");
+            emit("a", "apple", "3 apples");
+
+            subscriber.request(Long.MAX_VALUE);
+            await().atMost(Duration.ofSeconds(1)).until(() -> subscriber.updates.size() == 2);
+            assertEquals(List.of("3 apples", "1 pear"), subscriber.updates);
+            assertEquals(2, meterRegistry.get("datorum.query.subscription.updates")
+                    .tag("result", "coalesced").counter().count());
+        }
+    }
+
+    @Test
+    void testSubscriptionFailsWhenBufferOverflows() {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+
+        try (SubscriptionQueryResult<List<String>, String> result = queryGateway.subscribe(new InventoryQuery("a"))) {
+            result.updates().subscribe(subscriber);
+            emit("a", "apple", "apple");
+            emit("a", "pear", "pear");
+            emit("a", "plum", "plum");
+
+            await().atMost(Duration.ofSeconds(1)).until(() -> subscriber.error != null);
+            assertInstanceOf(IllegalStateException.class, subscriber.error);
+            assertTrue(subscriber.updates.isEmpty());
+        }
+    }
+
+    @Test
+    void testClosedSubscriptionReceivesNoUpdates() throws InterruptedException {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+
+        SubscriptionQueryResult<List<String>, String> result = queryGateway.subscribe(new InventoryQuery("a"));
+        result.updates().subscribe(subscriber);
+        subscriber.request(Long.MAX_VALUE);
+        result.close();
+        emit("a", "apple", "apple");
+
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertTrue(subscriber.updates.isEmpty());
+        assertTrue(meterRegistry.find("datorum.query.subscription.updates").counters().isEmpty());
+    }
+
+    @Test
+    void testUpdatesCanBeSubscribedOnce() {
+        RecordingSubscriber second = new RecordingSubscriber();
+
+        try (SubscriptionQueryResult<List<String>, String> result = queryGateway.subscribe(new InventoryQuery("a"))) {
+            result.updates().subscribe(new RecordingSubscriber());
+            result.updates().subscribe(second);
+
+            assertInstanceOf(IllegalStateException.class, second.error);
+        }
+    }
+
+    @Test
+    void testSubscribeWithNullQuery() {
+        assertThrows(IllegalArgumentException.class, () -> queryGateway.subscribe(null));
+    }
+
+    private void emit(String shelf, Object key, String update) {
+        queryUpdateEmitter.emit(InventoryQuery.class, query -> query.shelf().equals(shelf), key, update);
+    }
+
+    private record InventoryQuery(String shelf) { }
+
+    private static class InventoryHandler implements QueryHandler<InventoryQuery, List<String>> {
+        @Override
+        public Optional<List<String>> handle(InventoryQuery query) {
+            return Optional.of(List.of("initial"));
+        }
+    }
+
+    private static class RecordingSubscriber implements Flow.Subscriber<String> {
+        private final List<String> updates = new CopyOnWriteArrayList<>();
+        private volatile Flow.Subscription subscription;
+        private volatile Throwable error;
+
+        void request(long n) {
+            subscription.request(n);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(String update) {
+            updates.add(update);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package de.tudl.playground.datorum.gateway;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import de.tudl.playground.datorum.modulith.auth.command.events.LoginFailedEvent;
+import de.tudl.playground.datorum.modulith.budget.command.events.BudgetCreatedEvent;
+import de.tudl.playground.datorum.modulith.eventstore.EventStore;
+import de.tudl.playground.datorum.modulith.eventstore.EventStoreRepository;
+import de.tudl.playground.datorum.modulith.eventstore.outbox.DeliveryStatus;
+import de.tudl.playground.datorum.modulith.eventstore.service.EventStoreService;
+import de.tudl.playground.datorum.modulith.eventstore.stream.AuthEventStore;
+import de.tudl.playground.datorum.modulith.eventstore.stream.AuthEventStoreRepository;
+import de.tudl.playground.datorum.modulith.eventstore.stream.BudgetEventStore;
+import de.tudl.playground.datorum.modulith.eventstore.stream.BudgetEventStoreRepository;
+import de.tudl.playground.datorum.modulith.eventstore.stream.EventCategory;
+import de.tudl.playground.datorum.modulith.eventstore.stream.EventCategoryResolver;
+import de.tudl.playground.datorum.modulith.eventstore.stream.UserEventStore;
+import de.tudl.playground.datorum.modulith.eventstore.stream.UserEventStoreRepository;
+import de.tudl.playground.datorum.modulith.shared.event.Event;
+import de.tudl.playground.datorum.modulith.user.command.events.UserCreatedEvent;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+
+class EventCategoryResolverTests {
+
+    @Mock
+    private EventStoreRepository eventStoreRepository;
+
+    @Mock
+    private UserEventStoreRepository userEventStoreRepository;
+
+    @Mock
+    private BudgetEventStoreRepository budgetEventStoreRepository;
+
+    @Mock
+    private AuthEventStoreRepository authEventStoreRepository;
+
+    private final EventCategoryResolver eventCategoryResolver = new EventCategoryResolver();
+
+    private EventStoreService eventStoreService;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+        when(eventStoreRepository.save(any(EventStore.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        eventStoreService = new EventStoreService(
+                eventStoreRepository,
+                eventCategoryResolver,
+                userEventStoreRepository,
+                budgetEventStoreRepository,
+                authEventStoreRepository
+        );
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        closeable.close();
+    }
+
+    @Test
+    void testCategoryIsDerivedFromModulePackage() {
+        assertEquals(EventCategory.USER, eventCategoryResolver.resolve(UserCreatedEvent.class));
+        assertEquals(EventCategory.BUDGET, eventCategoryResolver.resolve(BudgetCreatedEvent.class));
+        assertEquals(EventCategory.AUTH, eventCategoryResolver.resolve(LoginFailedEvent.class));
+    }
+
+    @Test
+    void testCategoryOfAnnotationTakesPrecedence() {
+        assertEquals(EventCategory.AUTH, eventCategoryResolver.resolve(AuditedEvent.class));
+    }
+
+    @Test
+    void testCategoryOfAnnotationIsCaseInsensitive() {
+        assertEquals(EventCategory.BUDGET, eventCategoryResolver.resolve(ShoutingEvent.class));
+    }
+
+    @Test
+    void testEventOutsideOfModuleWithoutCategory() {
+        assertThrows(IllegalArgumentException.class, () -> eventCategoryResolver.resolve(UncategorizedEvent.class));
+    }
+
+    @Test
+    void testEventWithUnknownCategory() {
+        assertThrows(IllegalArgumentException.class, () -> eventCategoryResolver.resolve(MisplacedEvent.class));
+    }
+
+    @Test
+    void testEventIsStoredInTableOfItsCategory() {
+        eventStoreService.saveEvent("user-1", new UserCreatedEvent("user-1", "alice", "hash", "salt", "USER"));
+        eventStoreService.saveEvent("user-1", new AuditedEvent("user-1"));
+
+        ArgumentCaptor<EventStore> captor = ArgumentCaptor.forClass(EventStore.class);
+        verify(eventStoreRepository, times(2)).save(captor.capture());
+
+        EventStore userEntry = captor.getAllValues().get(0);
+        assertInstanceOf(UserEventStore.class, userEntry);
+        assertEquals("UserCreatedEvent", userEntry.getEventType());
+        assertEquals(DeliveryStatus.PENDING, userEntry.getDeliveryStatus());
+
+        EventStore auditEntry = captor.getAllValues().get(1);
+        assertInstanceOf(AuthEventStore.class, auditEntry);
+        assertEquals(EventCategory.AUTH, auditEntry.getCategory());
+    }
+
+    @Test
+    void testEventsAreLoadedFromTableOfTheirCategoryOnly() {
+        BudgetEventStore budgetEntry = new BudgetEventStore();
+        budgetEntry.setAggregateId("budget-1");
+        when(budgetEventStoreRepository.findByAggregateIdOrderByIdAsc("budget-1")).thenReturn(List.of(budgetEntry));
+
+        assertEquals(List.of(budgetEntry), eventStoreService.loadEvents(EventCategory.BUDGET, "budget-1"));
+
+        verifyNoInteractions(userEventStoreRepository, authEventStoreRepository);
+    }
+
+    @Test
+    void testPendingEventsOfAllCategoriesAreMergedInGlobalOrder() {
+        UserEventStore first = entry(new UserEventStore(), 1L);
+        AuthEventStore second = entry(new AuthEventStore(), 2L);
+        UserEventStore third = entry(new UserEventStore(), 3L);
+        when(userEventStoreRepository.findByDeliveryStatusOrderByIdAsc(eq(DeliveryStatus.PENDING), any(Limit.class)))
+                .thenReturn(List.of(first, third));
+        when(authEventStoreRepository.findByDeliveryStatusOrderByIdAsc(eq(DeliveryStatus.PENDING), any(Limit.class)))
+                .thenReturn(List.of(second));
+
+        assertEquals(List.of(first, second), eventStoreService.findPendingEvents(2));
+    }
+
+    private static <T extends EventStore> T entry(T eventStore, long id) {
+        eventStore.setId(id);
+        eventStore.setDeliveryStatus(DeliveryStatus.PENDING);
+        return eventStore;
+    }
+
+    @Event(category = "auth")
+    public record AuditedEvent(String userId) { }
+
+    @Event(category = "BUDGET")
+    public record ShoutingEvent(String budgetId) { }
+
+    @Event
+    public record UncategorizedEvent(String id) { }
+
+    @Event(category = "invoice")
+    public record MisplacedEvent(String id) { }
+}
@@ -0,0 +1,197 @@
+package de.tudl.playground.datorum.gateway;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import de.tudl.playground.datorum.modulith.eventstore.EventStore;
+import de.tudl.playground.datorum.modulith.eventstore.outbox.DeliveryStatus;
+import de.tudl.playground.datorum.modulith.eventstore.outbox.EventOutboxDispatcher;
+import de.tudl.playground.datorum.modulith.eventstore.service.EventProcessorService;
+import de.tudl.playground.datorum.modulith.eventstore.service.EventPublishingService;
+import de.tudl.playground.datorum.modulith.eventstore.service.EventStoreService;
+import de.tudl.playground.datorum.modulith.eventstore.stream.UserEventStore;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+class EventOutboxDispatcherTests {
+
+    private static final int MAX_ATTEMPTS = 3;
+
+    @Mock
+    private EventStoreService eventStoreService;
+
+    @Mock
+    private EventProcessorService eventProcessorService;
+
+    @Mock
+    private EventPublishingService eventPublishingService;
+
+    private final List<EventStore> table = new CopyOnWriteArrayList<>();
+
+    private final List<Object> published = new CopyOnWriteArrayList<>();
+
+    private final Set<String> failingEvents = ConcurrentHashMap.newKeySet();
+
+    private EventOutboxDispatcher eventOutboxDispatcher;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+
+        when(eventStoreService.findPendingEvents(anyInt())).thenAnswer(invocation -> table.stream()
+                .filter(eventStore -> eventStore.getDeliveryStatus() == DeliveryStatus.PENDING)
+                .limit(invocation.<Integer>getArgument(0))
+                .toList());
+        doAnswer(invocation -> {
+            EventStore eventStore = invocation.getArgument(0);
+            if (failingEvents.contains(eventStore.getEventData())) {
+                throw new IllegalStateException("Listener of " + eventStore.getEventData() + " failed");
+            }
+            invocation.<Consumer<Object>>getArgument(1).accept(eventStore.getEventData());
+            return null;
+        }).when(eventProcessorService).processEvent(any(EventStore.class), any(Consumer.class));
+        doAnswer(invocation -> published.add(invocation.getArgument(0)))
+                .when(eventPublishingService).publishEvent(any());
+
+        // Poll rarely, so the tests drive the dispatcher through signals
+        eventOutboxDispatcher = new EventOutboxDispatcher(
+                eventStoreService, eventProcessorService, eventPublishingService, 2, MAX_ATTEMPTS, 60_000
+        );
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        eventOutboxDispatcher.stop();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        closeable.close();
+    }
+
+    @Test
+    void testPendingEventsAreRelayedOnStart() {
+        EventStore first = store("first");
+        EventStore second = store("second");
+        EventStore third = store("third");
+
+        eventOutboxDispatcher.start();
+
+        await().atMost(Duration.ofSeconds(1)).until(() -> published.size() == 3);
+        assertEquals(List.of("first", "second", "third"), published);
+        for (EventStore eventStore : List.of(first, second, third)) {
+            assertEquals(DeliveryStatus.DELIVERED, eventStore.getDeliveryStatus());
+            assertNotNull(eventStore.getDeliveredAt());
+        }
+        verify(eventStoreService, atLeast(2)).updateDeliveryState(anyCollection());
+    }
+
+    @Test
+    void testEventIsRelayedOnlyAfterCommit() throws InterruptedException {
+        startIdle();
+        TransactionSynchronizationManager.initSynchronization();
+
+        store("created");
+        eventOutboxDispatcher.signal();
+
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertTrue(published.isEmpty());
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        await().atMost(Duration.ofSeconds(1)).until(() -> published.equals(List.of("created")));
+    }
+
+    @Test
+    void testFailedEventBlocksLaterEventsUntilRetried() {
+        startIdle();
+        failingEvents.add("first");
+        EventStore first = store("first");
+        EventStore second = store("second");
+
+        eventOutboxDispatcher.signal();
+
+        await().atMost(Duration.ofSeconds(1)).until(() -> first.getDeliveryAttempts() == 1);
+        assertEquals(DeliveryStatus.PENDING, first.getDeliveryStatus());
+        assertEquals("Listener of first failed", first.getLastDeliveryError());
+        assertEquals(DeliveryStatus.PENDING, second.getDeliveryStatus());
+        assertTrue(published.isEmpty());
+
+        failingEvents.clear();
+        eventOutboxDispatcher.signal();
+
+        await().atMost(Duration.ofSeconds(1)).until(() -> published.size() == 2);
+        assertEquals(List.of("first", "second"), published);
+        assertEquals(DeliveryStatus.DELIVERED, first.getDeliveryStatus());
+        assertEquals(1, first.getDeliveryAttempts());
+    }
+
+    @Test
+    void testEventIsMarkedFailedAfterMaxAttempts() {
+        startIdle();
+        failingEvents.add("poison");
+        EventStore poison = store("poison");
+        EventStore next = store("next");
+
+        for (int attempt = 1; attempt < MAX_ATTEMPTS; attempt++) {
+            int expectedAttempts = attempt;
+            eventOutboxDispatcher.signal();
+            await().atMost(Duration.ofSeconds(1)).until(() -> poison.getDeliveryAttempts() == expectedAttempts);
+            assertEquals(DeliveryStatus.PENDING, poison.getDeliveryStatus());
+            assertTrue(published.isEmpty());
+        }
+
+        eventOutboxDispatcher.signal();
+
+        await().atMost(Duration.ofSeconds(1)).until(() -> published.equals(List.of("next")));
+        assertEquals(DeliveryStatus.FAILED, poison.getDeliveryStatus());
+        assertEquals(MAX_ATTEMPTS, poison.getDeliveryAttempts());
+        assertEquals(DeliveryStatus.DELIVERED, next.getDeliveryStatus());
+    }
+
+    @Test
+    void testSignalBeforeStartIsIgnored() throws InterruptedException {
+        store("early");
+
+        eventOutboxDispatcher.signal();
+
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertTrue(published.isEmpty());
+        verifyNoInteractions(eventStoreService);
+    }
+
+    /**
+     * Starts the dispatcher and waits for its initial drain of the empty event store.
+     */
+    private void startIdle() {
+        eventOutboxDispatcher.start();
+        verify(eventStoreService, timeout(1000)).findPendingEvents(anyInt());
+    }
+
+    private EventStore store(String eventData) {
+        EventStore eventStore = new UserEventStore();
+        eventStore.setId((long) table.size() + 1);
+        eventStore.setEventType("TestEvent");
+        eventStore.setEventData(eventData);
+        eventStore.setDeliveryStatus(DeliveryStatus.PENDING);
+        table.add(eventStore);
+        return eventStore;
+    }
+}
@@ -0,0 +1,233 @@
+package de.tudl.playground.datorum.gateway;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.tudl.playground.datorum.gateway.command.CommandHandlerRegistry;
+import de.tudl.playground.datorum.gateway.command.CommandOutcome;
+import de.tudl.playground.datorum.gateway.command.DefaultCommandGateway;
+import de.tudl.playground.datorum.gateway.command.admission.CommandAdmissionController;
+import de.tudl.playground.datorum.gateway.command.admission.OverloadPolicy;
+import de.tudl.playground.datorum.gateway.command.annotation.CommandHandler;
+import de.tudl.playground.datorum.gateway.command.annotation.TargetAggregateId;
+import de.tudl.playground.datorum.gateway.command.coalesce.CommandCoalescer;
+import de.tudl.playground.datorum.gateway.command.idempotency.CommandDeduplicationService;
+import de.tudl.playground.datorum.gateway.command.idempotency.ProcessedCommandRepository;
+import de.tudl.playground.datorum.gateway.command.interceptor.CommandInterceptorChain;
+import de.tudl.playground.datorum.gateway.command.lane.CommandLaneExecutor;
+import de.tudl.playground.datorum.modulith.eventstore.EventStore;
+import de.tudl.playground.datorum.modulith.eventstore.EventStoreBatchSupport;
+import de.tudl.playground.datorum.modulith.eventstore.EventStoreRepository;
+import de.tudl.playground.datorum.modulith.eventstore.outbox.EventOutboxDispatcher;
+import de.tudl.playground.datorum.modulith.eventstore.service.EventStoreService;
+import de.tudl.playground.datorum.modulith.eventstore.stream.AuthEventStoreRepository;
+import de.tudl.playground.datorum.modulith.eventstore.stream.BudgetEventStoreRepository;
+import de.tudl.playground.datorum.modulith.eventstore.stream.EventCategory;
+import de.tudl.playground.datorum.modulith.eventstore.stream.EventCategoryResolver;
+import de.tudl.playground.datorum.modulith.eventstore.stream.UserEventStoreRepository;
+import de.tudl.playground.datorum.modulith.shared.event.Event;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.ApplicationEventPublisher;
+
+class EventStoreBatchTests {
+
+    @Mock
+    private EventStoreRepository eventStoreRepository;
+
+    @Mock
+    private UserEventStoreRepository userEventStoreRepository;
+
+    @Mock
+    private BudgetEventStoreRepository budgetEventStoreRepository;
+
+    @Mock
+    private AuthEventStoreRepository authEventStoreRepository;
+
+    @Mock
+    private EventOutboxDispatcher eventOutboxDispatcher;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ProcessedCommandRepository processedCommandRepository;
+
+    private final List<EventStore> table = new CopyOnWriteArrayList<>();
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private ExecutorService commandExecutor;
+
+    private CommandLaneExecutor commandLaneExecutor;
+
+    private CommandCoalescer commandCoalescer;
+
+    private DefaultCommandGateway commandGateway;
+
+    private AutoCloseable closeable;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        closeable = MockitoAnnotations.openMocks(this);
+
+        when(eventStoreRepository.save(any(EventStore.class))).thenAnswer(invocation -> {
+            table.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        when(eventStoreRepository.saveAll(anyCollection())).thenAnswer(invocation -> {
+            table.addAll(invocation.<Collection<EventStore>>getArgument(0));
+            return List.copyOf(invocation.<Collection<EventStore>>getArgument(0));
+        });
+        when(userEventStoreRepository.findByAggregateIdOrderByIdAsc(anyString())).thenAnswer(invocation ->
+                storedEvents(List.of(invocation.<String>getArgument(0))));
+        when(userEventStoreRepository.findByAggregateIdInOrderByIdAsc(anyCollection())).thenAnswer(invocation ->
+                storedEvents(invocation.getArgument(0)));
+
+        EventStoreService eventStoreService = new EventStoreService(
+                eventStoreRepository,
+                new EventCategoryResolver(),
+                userEventStoreRepository,
+                budgetEventStoreRepository,
+                authEventStoreRepository
+        );
+
+        CommandHandlerRegistry commandHandlerRegistry = new CommandHandlerRegistry();
+        commandHandlerRegistry.postProcessAfterInitialization(new CountingCommandHandler(eventStoreService), "handler");
+
+        meterRegistry = new SimpleMeterRegistry();
+        commandExecutor = Executors.newFixedThreadPool(4);
+        // A single lane, so the queue depth gauge tells when a command waits behind the bulk
+        commandLaneExecutor = new CommandLaneExecutor(1, 16, 4, 1, meterRegistry);
+        commandCoalescer = new CommandCoalescer(25, commandExecutor, meterRegistry);
+        commandGateway = new DefaultCommandGateway(
+                eventPublisher,
+                commandHandlerRegistry,
+                new CommandDeduplicationService(processedCommandRepository, 100, 60, 60),
+                commandExecutor,
+                commandLaneExecutor,
+                new EventStoreBatchSupport(eventStoreService, eventOutboxDispatcher),
+                new CommandAdmissionController(256, OverloadPolicy.BLOCK, 100, 0, 1024, meterRegistry),
+                new CommandInterceptorChain(List.of()),
+                commandCoalescer
+        );
+    }
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        commandExecutor.shutdownNow();
+        commandLaneExecutor.stop();
+        commandCoalescer.stop();
+        closeable.close();
+    }
+
+    @Test
+    void testCommandSentDuringBulkJoinsItsBatch() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<List<CommandOutcome>> bulk = CompletableFuture.supplyAsync(() -> commandGateway.sendAll(List.of(
+                new CountCommand("user-1", null, null),
+                new CountCommand("user-1", entered, release)
+        )));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Void> single = CompletableFuture.runAsync(() ->
+                commandGateway.send(new CountCommand("user-1", null, null)));
+        await().atMost(5, TimeUnit.SECONDS).until(() -> queueDepth() > 0);
+        release.countDown();
+
+        bulk.get(5, TimeUnit.SECONDS).forEach(outcome -> assertTrue(outcome.isCompleted()));
+        single.get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of(0, 1, 2), seenCounts());
+        verify(eventStoreRepository, never()).save(any(EventStore.class));
+        verify(eventStoreRepository, times(1)).saveAll(anyCollection());
+    }
+
+    @Test
+    void testBulkIsOpenedOnceRunningCommandsOfItsAggregatesHaveCompleted() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<CommandOutcome> single = commandGateway.sendAsync(new CountCommand("user-1", entered, release));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<List<CommandOutcome>> bulk = CompletableFuture.supplyAsync(() ->
+                commandGateway.sendAll(List.of(new CountCommand("user-1", null, null))));
+        Thread.sleep(200);
+        verify(userEventStoreRepository, never()).findByAggregateIdInOrderByIdAsc(anyCollection());
+        release.countDown();
+
+        assertTrue(single.get(5, TimeUnit.SECONDS).isCompleted());
+        bulk.get(5, TimeUnit.SECONDS).forEach(outcome -> assertTrue(outcome.isCompleted()));
+
+        assertEquals(List.of(0, 1), seenCounts());
+        verify(eventStoreRepository, times(1)).save(any(EventStore.class));
+    }
+
+    private List<EventStore> storedEvents(Collection<String> aggregateIds) {
+        return table.stream()
+                .filter(eventStore -> aggregateIds.contains(eventStore.getAggregateId()))
+                .toList();
+    }
+
+    private double queueDepth() {
+        return meterRegistry.find("datorum.command.lane.queue.depth").gauges().stream()
+                .mapToDouble(Gauge::value)
+                .sum();
+    }
+
+    @SneakyThrows
+    private List<Integer> seenCounts() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        List<Integer> seen = new ArrayList<>();
+        for (EventStore eventStore : table) {
+            seen.add(objectMapper.readValue(eventStore.getEventData(), CountedEvent.class).seen());
+        }
+        return seen;
+    }
+
+    private record CountCommand(@TargetAggregateId String userId, CountDownLatch entered, CountDownLatch release) {
+    }
+
+    @Event(category = "user")
+    public record CountedEvent(String userId, int seen) { }
+
+    private static class CountingCommandHandler {
+
+        private final EventStoreService eventStoreService;
+
+        CountingCommandHandler(EventStoreService eventStoreService) {
+            this.eventStoreService = eventStoreService;
+        }
+
+        @CommandHandler
+        public void handle(CountCommand command) throws InterruptedException {
+            int seen = eventStoreService.loadEvents(EventCategory.USER, command.userId()).size();
+            if (command.entered() != null) {
+                command.entered().countDown();
+                command.release().await();
+            }
+            eventStoreService.saveEvent(command.userId(), new CountedEvent(command.userId(), seen));
+        }
+    }
+}
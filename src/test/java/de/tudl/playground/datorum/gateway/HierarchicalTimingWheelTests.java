@@ -0,0 +1,98 @@
+package de.tudl.playground.datorum.gateway;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.tudl.playground.datorum.gateway.command.schedule.HierarchicalTimingWheel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+class HierarchicalTimingWheelTests {
+
+    private static final long TICK = 10;
+
+    @Test
+    void testTimerExpiresAtItsTick() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 4, 3, 0);
+        List<String> expired = new ArrayList<>();
+
+        assertTrue(wheel.add("a", 50));
+        wheel.advance(40, expired::add);
+        assertTrue(expired.isEmpty());
+
+        wheel.advance(50, expired::add);
+        assertEquals(List.of("a"), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testDueTimerIsNotAdded() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(TICK, 4, 3, 1000);
+
+        assertFalse(wheel.add("past", 500));
+        assertFalse(wheel.add("now", 1000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void testTimersExpireInOrderAcrossLevels() {
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(TICK, 2, 3, 0);
+        List<Long> expired = new ArrayList<>();
+
+        for (long due : new long[]{630, 20, 170, 40, 1000}) {
+            wheel.add(due, due);
+        }
+        wheel.advance(10_000, expired::add);
+
+        assertEquals(List.of(20L, 40L, 170L, 630L, 1000L), expired);
+    }
+
+    @Test
+    void testTimersBeyondRangeExpireOnTime() {
+        // 2 levels of 4 slots cover 16 ticks; timers further away are parked and cascaded again
+        HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<>(TICK, 2, 2, 0);
+        Map<Long, Long> expiredAt = new HashMap<>();
+
+        wheel.add(500L, 500);
+        wheel.add(170L, 170);
+        for (long now = 0; now <= 600; now += TICK) {
+            long tick = now;
+            wheel.advance(now, due -> expiredAt.put(due, tick));
+        }
+
+        assertEquals(Map.of(170L, 170L, 500L, 500L), expiredAt);
+    }
+
+    @Test
+    void testRandomTimersExpireExactlyOnTheirTick() {
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(TICK, 3, 3, 0);
+        Random random = new Random(42);
+        Map<Integer, Long> expiredAt = new HashMap<>();
+        List<Long> dueTimes = new ArrayList<>();
+
+        long now = 0;
+        for (int step = 0; step < 2_000; step++) {
+            for (int i = 0; i < 3; i++) {
+                long due = (now / TICK + 1 + random.nextInt(2_000)) * TICK;
+                assertTrue(wheel.add(dueTimes.size(), due));
+                dueTimes.add(due);
+            }
+            now += TICK * (1 + random.nextInt(3));
+            long current = now;
+            wheel.advance(now, id -> assertNull(expiredAt.put(id, current), "timer expired twice"));
+        }
+        long end = now + 100_000;
+        wheel.advance(end, id -> expiredAt.put(id, Math.max(dueTimes.get(id), end - 100_000)));
+
+        for (int id = 0; id < dueTimes.size(); id++) {
+            Long firedAt = expiredAt.get(id);
+            assertNotNull(firedAt);
+            assertTrue(firedAt >= dueTimes.get(id), "timer expired early");
+            assertTrue(firedAt - dueTimes.get(id) < TICK * 3, "timer expired late");
+        }
+        assertEquals(0, wheel.size());
+    }
+}
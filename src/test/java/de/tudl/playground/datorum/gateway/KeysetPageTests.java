@@ -0,0 +1,61 @@
+package de.tudl.playground.datorum.gateway;
+
+import de.tudl.playground.datorum.gateway.query.page.KeysetPage;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetPageTests {
+
+    @Test
+    void testAdditionalRowYieldsContinuationTokenOfLastItem() {
+        KeysetPage<String> page = KeysetPage.of(List.of("a", "b", "c"), 2, Function.identity());
+
+        assertEquals(List.of("a", "b"), page.items());
+        assertTrue(page.hasNext());
+        assertEquals(Optional.of("b"), KeysetPage.decode(page.continuationToken()));
+    }
+
+    @Test
+    void testLastPageHasNoContinuationToken() {
+        KeysetPage<String> page = KeysetPage.of(List.of("a", "b"), 2, Function.identity());
+
+        assertEquals(List.of("a", "b"), page.items());
+        assertFalse(page.hasNext());
+        assertNull(page.continuationToken());
+    }
+
+    @Test
+    void testFirstPageHasNoSortKey() {
+        assertEquals(Optional.empty(), KeysetPage.decode(null));
+    }
+
+    @Test
+    void testMalformedContinuationToken() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetPage.decode("not base64!"));
+    }
+
+    @Test
+    void testContinuationTokenIsParsed() {
+        UUID id = UUID.randomUUID();
+        KeysetPage<UUID> page = KeysetPage.of(List.of(id, UUID.randomUUID()), 1, Function.identity());
+
+        assertEquals(Optional.of(id), KeysetPage.decode(page.continuationToken(), UUID::fromString));
+    }
+
+    @Test
+    void testTamperedContinuationToken() {
+        String tampered = KeysetPage.of(List.of("not-a-uuid", "next"), 1, Function.identity()).continuationToken();
+
+        Exception exception = assertThrows(
+                IllegalArgumentException.class,
+                () -> KeysetPage.decode(tampered, UUID::fromString)
+        );
+        assertTrue(exception.getMessage().startsWith("Malformed continuation token"));
+    }
+}
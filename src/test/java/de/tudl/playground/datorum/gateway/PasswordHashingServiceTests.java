@@ -0,0 +1,87 @@
+package de.tudl.playground.datorum.gateway;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.tudl.playground.datorum.modulith.shared.exception.PasswordHashingRejectedException;
+import de.tudl.playground.datorum.modulith.shared.password.PasswordHashingService;
+import de.tudl.playground.datorum.modulith.shared.util.HashingUtil;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class PasswordHashingServiceTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private PasswordHashingService passwordHashingService = new PasswordHashingService(1, 4, 1000, meterRegistry);
+
+    @AfterEach
+    public void tearDown() {
+        passwordHashingService.stop();
+    }
+
+    @Test
+    void testHashIsVersionedWithItsIterations() {
+        String hash = passwordHashingService.hash("secret", "salt").join();
+
+        assertTrue(hash.startsWith(PasswordHashingService.PBKDF2_PREFIX + "1000$"));
+        assertEquals(PasswordHashingService.pbkdf2("secret", "salt", 1000), hash);
+    }
+
+    @Test
+    void testVerifyHashOfNewFormat() {
+        String hash = passwordHashingService.hash("secret", "salt").join();
+
+        assertTrue(passwordHashingService.verify("secret", hash, "salt").join());
+        assertFalse(passwordHashingService.verify("wrong", hash, "salt").join());
+        assertFalse(passwordHashingService.verify("secret", hash, "pepper").join());
+    }
+
+    @Test
+    void testVerifyHashOfOtherIterations() {
+        String hash = PasswordHashingService.pbkdf2("secret", "salt", 10);
+
+        assertTrue(passwordHashingService.verify("secret", hash, "salt").join());
+    }
+
+    @Test
+    void testVerifyLegacyHash() {
+        String hash = HashingUtil.hashPassword("secret", "salt");
+
+        assertTrue(passwordHashingService.verify("secret", hash, "salt").join());
+        assertFalse(passwordHashingService.verify("wrong", hash, "salt").join());
+    }
+
+    @Test
+    void testMalformedHashIsRejected() {
+        String prefix = PasswordHashingService.PBKDF2_PREFIX;
+
+        assertFalse(passwordHashingService.verify("secret", prefix + "1000", "salt").join());
+        assertFalse(passwordHashingService.verify("secret", prefix + "many$abc", "salt").join());
+        assertFalse(passwordHashingService.verify("secret", prefix + "0$abc", "salt").join());
+        assertFalse(passwordHashingService.verify("secret", prefix + "-1$abc", "salt").join());
+        assertFalse(passwordHashingService.verify("secret", "", "salt").join());
+    }
+
+    @Test
+    void testTasksBeyondQueueCapacityAreRejected() {
+        passwordHashingService.stop();
+        passwordHashingService = new PasswordHashingService(1, 1, 2_000_000, meterRegistry);
+
+        // The first task occupies the only thread for a while, the second waits in the queue
+        passwordHashingService.hash("first", "salt");
+        passwordHashingService.hash("second", "salt");
+        CompletableFuture<String> rejected = passwordHashingService.hash("third", "salt");
+
+        CompletionException exception = assertThrows(CompletionException.class, rejected::join);
+        assertInstanceOf(PasswordHashingRejectedException.class, exception.getCause());
+        assertEquals(1, meterRegistry.get("datorum.password.hashing.rejected").counter().count());
+    }
+
+    @Test
+    void testInvalidIterationsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new PasswordHashingService(1, 1, 0, meterRegistry));
+    }
+}
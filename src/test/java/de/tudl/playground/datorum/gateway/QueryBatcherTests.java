@@ -0,0 +1,196 @@
+package de.tudl.playground.datorum.gateway;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import de.tudl.playground.datorum.gateway.query.BatchQueryHandler;
+import de.tudl.playground.datorum.gateway.query.batch.QueryBatcher;
+import de.tudl.playground.datorum.modulith.user.command.data.User;
+import de.tudl.playground.datorum.modulith.user.command.data.UserRepository;
+import de.tudl.playground.datorum.modulith.user.query.queries.GetUserByIdQuery;
+import de.tudl.playground.datorum.modulith.user.query.queryhandler.GetUserByIdQueryHandler;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class QueryBatcherTests {
+
+    private static final Map<String, String> NAMES = Map.of("1", "alice", "2", "bob", "3", "carol");
+
+    private ExecutorService callers;
+
+    private QueryBatcher queryBatcher;
+
+    @BeforeEach
+    public void setUp() {
+        callers = Executors.newFixedThreadPool(8);
+        queryBatcher = new QueryBatcher(100, 100, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        queryBatcher.stop();
+        callers.shutdownNow();
+    }
+
+    @Test
+    void testConcurrentQueriesAreHandledAsOneBatch() {
+        NameByIdHandler handler = new NameByIdHandler();
+
+        List<CompletableFuture<Optional<String>>> results = List.of("1", "2", "3", "4", "1").stream()
+                .map(id -> CompletableFuture.supplyAsync(() -> queryBatcher.handle(handler, new NameById(id)), callers))
+                .toList();
+
+        assertEquals(
+                List.of(Optional.of("alice"), Optional.of("bob"), Optional.of("carol"), Optional.empty(), Optional.of("alice")),
+                results.stream().map(CompletableFuture::join).toList()
+        );
+        assertEquals(1, handler.batches.size());
+        assertEquals(4, handler.batches.get(0).size());
+    }
+
+    @Test
+    void testFullBatchIsHandledWithoutWaitingForWindow() {
+        queryBatcher = new QueryBatcher(60_000, 3, new SimpleMeterRegistry());
+        NameByIdHandler handler = new NameByIdHandler();
+
+        List<CompletableFuture<Optional<String>>> results = IntStream.rangeClosed(1, 3)
+                .mapToObj(String::valueOf)
+                .map(id -> CompletableFuture.supplyAsync(() -> queryBatcher.handle(handler, new NameById(id)), callers))
+                .toList();
+
+        assertEquals(
+                List.of(Optional.of("alice"), Optional.of("bob"), Optional.of("carol")),
+                results.stream().map(CompletableFuture::join).toList()
+        );
+        assertEquals(1, handler.batches.size());
+    }
+
+    @Test
+    void testMalformedUserIdDoesNotFailItsBatch() {
+        queryBatcher = new QueryBatcher(60_000, 3, new SimpleMeterRegistry());
+        User alice = new User();
+        alice.setId(UUID.randomUUID());
+        User bob = new User();
+        bob.setId(UUID.randomUUID());
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findAllById(anyIterable())).thenReturn(List.of(alice, bob));
+        GetUserByIdQueryHandler handler = new GetUserByIdQueryHandler(userRepository);
+
+        List<CompletableFuture<Optional<User>>> results = List.of(alice.getId().toString(), "not-a-uuid", bob.getId().toString())
+                .stream()
+                .map(id -> CompletableFuture.supplyAsync(() -> queryBatcher.handle(handler, new GetUserByIdQuery(id)), callers))
+                .toList();
+
+        assertEquals(
+                List.of(Optional.of(alice), Optional.empty(), Optional.of(bob)),
+                results.stream().map(CompletableFuture::join).toList()
+        );
+    }
+
+    @Test
+    void testFailedBatchFailsEveryQuery() {
+        NameByIdHandler handler = new NameByIdHandler() {
+            @Override
+            public Map<NameById, String> handleAll(Collection<NameById> queries) {
+                throw new IllegalStateException("Database unavailable");
+            }
+        };
+
+        List<CompletableFuture<Optional<String>>> results = List.of("1", "2").stream()
+                .map(id -> CompletableFuture.supplyAsync(() -> queryBatcher.handle(handler, new NameById(id)), callers))
+                .toList();
+
+        for (CompletableFuture<Optional<String>> result : results) {
+            Exception exception = assertThrows(Exception.class, result::join);
+            assertInstanceOf(IllegalStateException.class, exception.getCause());
+        }
+    }
+
+    @Test
+    void testErrorOfBatchFailsEveryQuery() {
+        NameByIdHandler handler = new NameByIdHandler() {
+            @Override
+            public Map<NameById, String> handleAll(Collection<NameById> queries) {
+                throw new AssertionError("Handler broke");
+            }
+        };
+
+        CompletableFuture<Optional<String>> result =
+                CompletableFuture.supplyAsync(() -> queryBatcher.handle(handler, new NameById("1")), callers);
+
+        Exception exception = assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(AssertionError.class, exception.getCause());
+    }
+
+    @Test
+    void testStalledBatchDoesNotDelayBatchesOfOtherHandlers() {
+        CountDownLatch release = new CountDownLatch(1);
+        NameByIdHandler stalled = new NameByIdHandler() {
+            @Override
+            public Map<NameById, String> handleAll(Collection<NameById> queries) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.handleAll(queries);
+            }
+        };
+        queryBatcher = new QueryBatcher(10, 100, new SimpleMeterRegistry());
+
+        try {
+            CompletableFuture<Optional<String>> slow =
+                    CompletableFuture.supplyAsync(() -> queryBatcher.handle(stalled, new NameById("1")), callers);
+            CompletableFuture<Optional<String>> fast =
+                    CompletableFuture.supplyAsync(() -> queryBatcher.handle(new NameByIdHandler(), new NameById("2")), callers);
+
+            assertEquals(Optional.of("bob"), assertTimeoutPreemptively(Duration.ofSeconds(1), () -> fast.join()));
+            assertFalse(slow.isDone());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void testSingleQueryIsBatchOfOne() {
+        NameByIdHandler handler = new NameByIdHandler();
+
+        assertEquals(Optional.of("bob"), queryBatcher.handle(handler, new NameById("2")));
+        assertEquals(List.of(List.of(new NameById("2"))), handler.batches);
+    }
+
+    private record NameById(String id) {
+    }
+
+    private static class NameByIdHandler implements BatchQueryHandler<NameById, String> {
+
+        private final List<List<NameById>> batches = new ArrayList<>();
+
+        @Override
+        public synchronized Map<NameById, String> handleAll(Collection<NameById> queries) {
+            batches.add(List.copyOf(queries));
+            return queries.stream()
+                    .filter(query -> NAMES.containsKey(query.id()))
+                    .collect(Collectors.toMap(Function.identity(), query -> NAMES.get(query.id())));
+        }
+    }
+}
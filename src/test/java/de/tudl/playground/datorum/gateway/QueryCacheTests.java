@@ -0,0 +1,168 @@
+package de.tudl.playground.datorum.gateway;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import de.tudl.playground.datorum.gateway.query.QueryHandler;
+import de.tudl.playground.datorum.gateway.query.annotation.CachedQuery;
+import de.tudl.playground.datorum.gateway.query.cache.QueryCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class QueryCacheTests {
+
+    private static final Map<String, String> NAMES = Map.of("1", "alice", "2", "bob", "3", "carol");
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private QueryCache queryCache;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        queryCache = new QueryCache(1000, 300, meterRegistry);
+    }
+
+    @Test
+    void testRepeatedQueriesAreAnsweredFromCache() {
+        NameByIdHandler handler = new NameByIdHandler();
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(Optional.of("alice"), queryCache.handle(handler, new NameById("1")));
+        }
+
+        assertEquals(1, handler.calls.get());
+        assertEquals(4, meterRegistry.get("datorum.query.cache.requests").tag("result", "hit").counter().count());
+        assertEquals(1, meterRegistry.get("datorum.query.cache.requests").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void testEvictingTagEvictsResultsOfAllHandlers() {
+        NameByIdHandler byId = new NameByIdHandler();
+        IdByNameHandler byName = new IdByNameHandler();
+        queryCache.handle(byId, new NameById("1"));
+        queryCache.handle(byId, new NameById("2"));
+        queryCache.handle(byName, new IdByName("alice"));
+
+        queryCache.evict("1");
+        queryCache.handle(byId, new NameById("1"));
+        queryCache.handle(byId, new NameById("2"));
+        queryCache.handle(byName, new IdByName("alice"));
+
+        assertEquals(3, byId.calls.get());
+        assertEquals(2, byName.calls.get());
+    }
+
+    @Test
+    void testLeastRecentlyUsedResultIsDisplaced() {
+        NameByIdHandler handler = new SmallNameByIdHandler();
+        queryCache.handle(handler, new NameById("1"));
+        queryCache.handle(handler, new NameById("2"));
+        queryCache.handle(handler, new NameById("1"));
+
+        queryCache.handle(handler, new NameById("3"));
+        queryCache.handle(handler, new NameById("1"));
+        queryCache.handle(handler, new NameById("2"));
+
+        assertEquals(4, handler.calls.get());
+    }
+
+    @Test
+    void testResultIsNotCachedIfEvictedWhileHandled() {
+        NameByIdHandler handler = new NameByIdHandler();
+        handler.onHandle = () -> queryCache.evict("1");
+
+        queryCache.handle(handler, new NameById("1"));
+        handler.onHandle = () -> { };
+        queryCache.handle(handler, new NameById("1"));
+        queryCache.handle(handler, new NameById("1"));
+
+        assertEquals(2, handler.calls.get());
+    }
+
+    @Test
+    void testEmptyResultIsNotCached() {
+        NameByIdHandler handler = new NameByIdHandler();
+
+        assertEquals(Optional.empty(), queryCache.handle(handler, new NameById("4")));
+        assertEquals(Optional.empty(), queryCache.handle(handler, new NameById("4")));
+
+        assertEquals(2, handler.calls.get());
+    }
+
+    @Test
+    void testHandlerWithoutAnnotationIsNotCached() {
+        UncachedHandler handler = new UncachedHandler();
+
+        queryCache.handle(handler, new NameById("1"));
+        queryCache.handle(handler, new NameById("1"));
+
+        assertEquals(2, handler.calls.get());
+    }
+
+    private record NameById(String id) {
+    }
+
+    private record IdByName(String name) {
+    }
+
+    @CachedQuery
+    private static class NameByIdHandler implements QueryHandler<NameById, String> {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private Runnable onHandle = () -> { };
+
+        @Override
+        public Optional<String> handle(NameById query) {
+            calls.incrementAndGet();
+            onHandle.run();
+            return Optional.ofNullable(NAMES.get(query.id()));
+        }
+
+        @Override
+        public Collection<String> cacheTags(NameById query, String result) {
+            return List.of(query.id());
+        }
+    }
+
+    @CachedQuery(maxSize = 2)
+    private static class SmallNameByIdHandler extends NameByIdHandler {
+    }
+
+    @CachedQuery
+    private static class IdByNameHandler implements QueryHandler<IdByName, String> {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public Optional<String> handle(IdByName query) {
+            calls.incrementAndGet();
+            return NAMES.entrySet().stream()
+                    .filter(entry -> entry.getValue().equals(query.name()))
+                    .map(Map.Entry::getKey)
+                    .findFirst();
+        }
+
+        @Override
+        public Collection<String> cacheTags(IdByName query, String result) {
+            return List.of(result);
+        }
+    }
+
+    private static class UncachedHandler implements QueryHandler<NameById, String> {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        @Override
+        public Optional<String> handle(NameById query) {
+            calls.incrementAndGet();
+            return Optional.ofNullable(NAMES.get(query.id()));
+        }
+    }
+}
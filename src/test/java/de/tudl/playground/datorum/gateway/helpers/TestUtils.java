@@ -1,9 +1,19 @@
 package de.tudl.playground.datorum.gateway.helpers;
 
+import de.tudl.playground.datorum.gateway.query.DefaultQueryGateway;
 import de.tudl.playground.datorum.gateway.query.QueryHandler;
+import de.tudl.playground.datorum.gateway.query.batch.QueryBatcher;
+import de.tudl.playground.datorum.gateway.query.cache.QueryCache;
+import de.tudl.playground.datorum.gateway.query.deadline.QueryDeadlines;
+import de.tudl.playground.datorum.gateway.query.resolver.DefaultHandlerResolver;
+import de.tudl.playground.datorum.gateway.query.subscription.QueryUpdateEmitter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.springframework.context.ApplicationContext;
 
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -15,5 +25,83 @@ public class TestUtils {
         return context;
     }
 
+    /**
+     * Creates a gateway with the default configuration, handling asynchronous queries on the common pool.
+     */
+    public static DefaultQueryGateway createQueryGateway(ApplicationContext applicationContext) {
+        return queryGateway(applicationContext).build();
+    }
+
+    /**
+     * Creates a gateway with the default configuration, handling asynchronous queries on the given executor.
+     */
+    public static DefaultQueryGateway createQueryGateway(ApplicationContext applicationContext, Executor queryExecutor) {
+        return queryGateway(applicationContext).queryExecutor(queryExecutor).build();
+    }
+
+    /**
+     * Returns a builder of a gateway whose configuration differs from the default.
+     */
+    public static QueryGatewayBuilder queryGateway(ApplicationContext applicationContext) {
+        return new QueryGatewayBuilder(applicationContext);
+    }
+
+    public static final class QueryGatewayBuilder {
+        private final ApplicationContext applicationContext;
+        private Executor queryExecutor = ForkJoinPool.commonPool();
+        private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        private long defaultTimeoutMillis = 0;
+        private int hedgingMinSamples = 20;
+        private QueryBatcher queryBatcher;
+        private QueryUpdateEmitter queryUpdateEmitter;
+
+        private QueryGatewayBuilder(ApplicationContext applicationContext) {
+            this.applicationContext = applicationContext;
+        }
 
+        public QueryGatewayBuilder queryExecutor(Executor queryExecutor) {
+            this.queryExecutor = queryExecutor;
+            return this;
+        }
+
+        public QueryGatewayBuilder meterRegistry(MeterRegistry meterRegistry) {
+            this.meterRegistry = meterRegistry;
+            return this;
+        }
+
+        public QueryGatewayBuilder defaultTimeoutMillis(long defaultTimeoutMillis) {
+            this.defaultTimeoutMillis = defaultTimeoutMillis;
+            return this;
+        }
+
+        public QueryGatewayBuilder hedgingMinSamples(int hedgingMinSamples) {
+            this.hedgingMinSamples = hedgingMinSamples;
+            return this;
+        }
+
+        public QueryGatewayBuilder queryBatcher(QueryBatcher queryBatcher) {
+            this.queryBatcher = queryBatcher;
+            return this;
+        }
+
+        public QueryGatewayBuilder queryUpdateEmitter(QueryUpdateEmitter queryUpdateEmitter) {
+            this.queryUpdateEmitter = queryUpdateEmitter;
+            return this;
+        }
+
+        public DefaultQueryGateway build() {
+            return new DefaultQueryGateway(
+                    applicationContext,
+                    new DefaultHandlerResolver(),
+                    new QueryCache(1000, 300, meterRegistry),
+                    queryBatcher != null ? queryBatcher : new QueryBatcher(2, 100, meterRegistry),
+                    new QueryDeadlines(queryExecutor, defaultTimeoutMillis, hedgingMinSamples, meterRegistry),
+                    queryUpdateEmitter != null
+                            ? queryUpdateEmitter
+                            : new QueryUpdateEmitter(queryExecutor, 256, meterRegistry),
+                    queryExecutor,
+                    2000
+            );
+        }
+    }
 }